@@ -0,0 +1,38 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Product catalog cache settings
+ * Maps to nhs.cache.catalog.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.cache.catalog")
+public class CatalogCacheProperties {
+
+    /**
+     * Turns the whole catalog cache off, every read goes to the database
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of pages kept in memory per cache
+     */
+    private long maximumSize = 1000;
+
+    /**
+     * Time a page stays in the in-process cache. Keeps other instances
+     * from serving stale pages for too long after an admin write
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Time a page stays in the shared (Redis) cache when it is enabled
+     */
+    private Duration remoteTtl = Duration.ofMinutes(30);
+}
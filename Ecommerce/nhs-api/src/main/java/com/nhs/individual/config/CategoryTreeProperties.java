@@ -0,0 +1,23 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Category tree snapshot settings
+ * Maps to nhs.category.tree.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.category.tree")
+public class CategoryTreeProperties {
+
+    /**
+     * How often the snapshot is re-read from the category table, so an instance picks up categories
+     * written through another one. Writes through this instance rebuild it right away
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,31 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * daily_sales rollup settings
+ * Maps to nhs.statistics.daily-sales.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.statistics.daily-sales")
+public class DailySalesProperties {
+
+    /**
+     * Builds the rollup from the whole order history on startup when it is empty
+     */
+    private boolean backfillOnStartup = true;
+
+    /**
+     * When the compaction job recomputes the latest days from shop_order
+     */
+    private String compactionCron = "0 30 2 * * *";
+
+    /**
+     * Days recomputed by each compaction run, today included. Covers changes whose
+     * event was lost, such as a crash between the order commit and the rollup update
+     */
+    private int compactionDays = 7;
+}
@@ -0,0 +1,60 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * XLSX / CSV export settings
+ * Maps to nhs.export.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.export")
+public class ExportProperties {
+
+    /**
+     * Rows read from the database per round; the persistence context is cleared between rounds
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Spreadsheet rows kept in memory before SXSSF flushes them to its temp file
+     */
+    private int rowWindow = 100;
+
+    /**
+     * Background export jobs (see ExportJobService)
+     */
+    private Jobs jobs = new Jobs();
+
+    @Data
+    public static class Jobs {
+        /**
+         * Exports generated at the same time
+         */
+        private int threads = 2;
+
+        /**
+         * Jobs waiting for a thread; further submissions are refused until one starts
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * Folder of the generated files, under file.upload-dir. Not served as a static resource
+         */
+        private String directory = "exports";
+
+        /**
+         * How long a finished job and its file can be downloaded
+         */
+        private Duration ttl = Duration.ofHours(1);
+
+        /**
+         * Pause between two sweeps for expired jobs
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,60 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Uploaded image store settings (see ImageStoreService)
+ * Maps to nhs.images.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.images")
+public class ImageStoreProperties {
+
+    /**
+     * Folder of the store, under file.upload-dir; also the path segment after /uploads/ in image URLs
+     */
+    private String directory = "images";
+
+    /**
+     * Width of the thumbnail variant, used by product cards and lists
+     */
+    private int thumbnailWidth = 200;
+
+    /**
+     * Width of the medium variant, used by the product page
+     */
+    private int mediumWidth = 800;
+
+    /**
+     * JPEG quality of the variants, 0 to 1
+     */
+    private float jpegQuality = 0.85f;
+
+    /**
+     * Cache-Control max-age of image responses; a URL names its content, so it never changes
+     */
+    private Duration maxAge = Duration.ofDays(365);
+
+    /**
+     * Variant generation after upload
+     */
+    private Variants variants = new Variants();
+
+    @Data
+    public static class Variants {
+        /**
+         * Images resized at the same time
+         */
+        private int threads = 2;
+
+        /**
+         * Uploads waiting for a thread; beyond that their variants are made on first request
+         */
+        private int queueCapacity = 100;
+    }
+}
@@ -0,0 +1,28 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZoneId;
+
+/**
+ * Order time series settings
+ * Maps to nhs.statistics.analytics.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.statistics.analytics")
+public class OrderAnalyticsProperties {
+
+    /**
+     * Zone whose calendar days the series are cut into when the request names none.
+     * GMT+7, as ZaloPay transaction dates
+     */
+    private ZoneId zone = ZoneId.of("GMT+7");
+
+    /**
+     * Longest series one request may ask for, in buckets
+     */
+    private int maxBuckets = 2000;
+}
@@ -0,0 +1,28 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache of account status / token version used when authenticating access tokens
+ * Maps to nhs.token.principal-cache.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.token.principal-cache")
+public class PrincipalCacheProperties {
+
+    /**
+     * How long a looked-up account state is trusted. Bounds how late another
+     * instance notices a logout or a locked account
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of accounts kept in memory
+     */
+    private long maximumSize = 10_000;
+}
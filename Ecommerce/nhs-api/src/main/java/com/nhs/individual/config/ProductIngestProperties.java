@@ -0,0 +1,25 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bulk product ingestion settings
+ * Maps to nhs.product.ingest.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.product.ingest")
+public class ProductIngestProperties {
+
+    /**
+     * Lines written per chunk: one multi-row statement per table, committed on its own
+     */
+    private int batchSize = 500;
+
+    /**
+     * Line errors listed in the report; further errors are only counted
+     */
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,23 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Dashboard statistics snapshot settings
+ * Maps to nhs.statistics.snapshot.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.statistics.snapshot")
+public class StatisticsSnapshotProperties {
+
+    /**
+     * Pause between the end of one background computation and the start of the next.
+     * The dashboard may show figures up to this old; admins can refresh on demand
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+}
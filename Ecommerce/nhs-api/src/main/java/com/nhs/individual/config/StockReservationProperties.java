@@ -0,0 +1,51 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Stock reservation settings
+ * Maps to nhs.stock.reservation.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.stock.reservation")
+public class StockReservationProperties {
+
+    /**
+     * How long stock stays held for an order paid online before the order is cancelled
+     * and the stock goes back on sale
+     */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /**
+     * How much longer an expired hold is kept while ZaloPayReconciler still checks the order's
+     * payment; ZaloPay accepts payment for up to 15 minutes after the QR code was created
+     */
+    private Duration pendingPaymentExtension = Duration.ofMinutes(5);
+
+    /**
+     * Payment type ids (payment.id) that are paid online, so their stock is only held
+     * until payment. Stock for any other type (COD) is committed when the order is placed
+     */
+    private Set<Integer> prepaidPaymentTypes = Set.of(2);
+
+    /**
+     * Rounds of re-reading stock levels when a concurrent checkout took the rows first
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Pause between two sweeps for expired holds
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    /**
+     * Orders expired per sweep
+     */
+    private int sweepBatchSize = 100;
+}
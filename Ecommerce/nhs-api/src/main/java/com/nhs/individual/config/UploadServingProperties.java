@@ -0,0 +1,42 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Serving of the files under file.upload-dir (see UploadFileSender)
+ * Maps to nhs.uploads.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.uploads")
+public class UploadServingProperties {
+
+    /**
+     * Cache-Control max-age of uploads whose name is not a content hash; such a file can be
+     * replaced under the same name, so it is revalidated after this long
+     */
+    private Duration maxAge = Duration.ofHours(1);
+
+    /**
+     * Small files kept in memory
+     */
+    private HotCache hotCache = new HotCache();
+
+    @Data
+    public static class HotCache {
+        /**
+         * Largest file kept; thumbnails fit, full size photos do not
+         */
+        private DataSize maxFileSize = DataSize.ofKilobytes(64);
+
+        /**
+         * Memory for the kept files; the least requested are dropped first
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(32);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Warehouse XLSX import settings
+ * Maps to nhs.warehouse.import.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.warehouse.import")
+public class WarehouseImportProperties {
+
+    /**
+     * Rows validated and upserted per JDBC batch; each batch commits on its own
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Row errors listed in the import report; further errors are only counted
+     */
+    private int maxReportedErrors = 1000;
+}
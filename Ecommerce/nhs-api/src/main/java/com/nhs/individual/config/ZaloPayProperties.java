@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * ZaloPay Sandbox Configuration Properties
  * Maps to payment.zalo.* in application.yml
@@ -45,6 +47,16 @@ public class ZaloPayProperties {
     private Long paymentTimeoutMinutes = 15L;
     private Long pollingIntervalSeconds = 120L; // 2 minutes
     private Integer maxPollingAttempts = 8; // 16 minutes total
+
+    /**
+     * Connection pool and timeouts of the shared ZaloPay HTTP client
+     */
+    private Http http = new Http();
+
+    /**
+     * Status reconciliation of pending payments (see ZaloPayReconciler)
+     */
+    private Reconciler reconciler = new Reconciler();
     
     @Data
     public static class Endpoints {
@@ -68,5 +80,62 @@ public class ZaloPayProperties {
          */
         private String refundStatus;
     }
-}
 
+    @Data
+    public static class Http {
+        /**
+         * Open connections kept per ZaloPay host
+         */
+        private Integer maxConnections = 50;
+
+        /**
+         * Time to wait for a free pooled connection before failing the call
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Idle keep-alive connections are closed after this long
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration connectTimeout = Duration.ofSeconds(3);
+
+        /**
+         * Whole-response timeout of one ZaloPay call
+         */
+        private Duration responseTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Threads that run the work after a ZaloPay response (database updates, polling)
+         */
+        private Integer callbackThreads = 4;
+    }
+
+    @Data
+    public static class Reconciler {
+        /**
+         * Pause between two reconciliation runs
+         */
+        private Duration interval = Duration.ofSeconds(10);
+
+        /**
+         * Delay between creating a ZaloPay order and the first status check
+         */
+        private Duration firstCheckDelay = Duration.ofSeconds(10);
+
+        /**
+         * Pending payments picked up per run
+         */
+        private Integer batchSize = 100;
+
+        /**
+         * Status queries in flight at the same time
+         */
+        private Integer parallelism = 8;
+
+        /**
+         * Upper bound of the exponential backoff, which starts at polling-interval-seconds
+         */
+        private Duration maxBackoff = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,30 @@
+package com.nhs.individual.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nhs.individual.config.CatalogCacheProperties;
+import com.nhs.individual.service.ProductCatalogCache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class CatalogCacheConfiguration {
+    /**
+     * Caches are declared up front so the actuator binds their
+     * cache.gets / cache.evictions meters at startup.
+     */
+    @Bean
+    public CacheManager cacheManager(CatalogCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(List.of(ProductCatalogCache.PRODUCTS, ProductCatalogCache.OVERVIEWS));
+        return cacheManager;
+    }
+}
@@ -0,0 +1,27 @@
+package com.nhs.individual.configuration;
+
+import com.nhs.individual.config.ExportProperties;
+import com.nhs.individual.utils.MdcTaskDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExportJobConfiguration {
+    /**
+     * Runs export jobs off the servlet threads. Bounded on both threads and queue, so a burst of
+     * export requests is refused instead of piling up SXSSF temp files and database cursors
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(ExportProperties properties) {
+        ExportProperties.Jobs jobs = properties.getJobs();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jobs.getThreads());
+        executor.setMaxPoolSize(jobs.getThreads());
+        executor.setQueueCapacity(jobs.getQueueCapacity());
+        executor.setThreadNamePrefix("export-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
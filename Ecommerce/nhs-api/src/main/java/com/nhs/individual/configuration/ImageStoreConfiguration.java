@@ -0,0 +1,28 @@
+package com.nhs.individual.configuration;
+
+import com.nhs.individual.config.ImageStoreProperties;
+import com.nhs.individual.utils.MdcTaskDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImageStoreConfiguration {
+    /**
+     * Resizes uploaded images off the request thread. Bounded on both threads and queue, so a bulk
+     * upload cannot hold every decoded image in memory at once; what does not fit is resized when
+     * first requested
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageExecutor(ImageStoreProperties properties) {
+        ImageStoreProperties.Variants variants = properties.getVariants();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(variants.getThreads());
+        executor.setMaxPoolSize(variants.getThreads());
+        executor.setQueueCapacity(variants.getQueueCapacity());
+        executor.setThreadNamePrefix("image-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -1,7 +1,9 @@
 package com.nhs.individual.configuration;
 
+import com.nhs.individual.utils.MdcTaskDecorator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
@@ -19,6 +21,14 @@ public class SchedulerConfiguration {
 //        return executor;
 //    }
 //
+    /**
+     * Picked up by the auto-configured @Async executor
+     */
+    @Bean
+    public TaskDecorator mdcTaskDecorator(){
+        return new MdcTaskDecorator();
+    }
+
     @Bean
     public ThreadPoolTaskScheduler threadPoolTaskScheduler(){
         ThreadPoolTaskScheduler threadPoolTaskScheduler
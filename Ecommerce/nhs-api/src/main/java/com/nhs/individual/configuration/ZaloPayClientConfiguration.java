@@ -0,0 +1,56 @@
+package com.nhs.individual.configuration;
+
+import com.nhs.individual.config.ZaloPayProperties;
+import com.nhs.individual.utils.MdcTaskDecorator;
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class ZaloPayClientConfiguration {
+    /**
+     * One keep-alive connection pool for every ZaloPay call, so TCP and TLS are set up once per
+     * connection instead of once per request. Disposed with the context.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider zaloPayConnectionProvider(ZaloPayProperties properties) {
+        ZaloPayProperties.Http http = properties.getHttp();
+        return ConnectionProvider.builder("zalopay")
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                .build();
+    }
+
+    @Bean
+    public WebClient zaloPayWebClient(ConnectionProvider zaloPayConnectionProvider, ZaloPayProperties properties) {
+        ZaloPayProperties.Http http = properties.getHttp();
+        HttpClient client = HttpClient.create(zaloPayConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getResponseTimeout())
+                .keepAlive(true);
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(client))
+                .build();
+    }
+
+    /**
+     * Runs ZaloPay purchases off the servlet threads, and what follows a ZaloPay response off the Netty
+     * event loop, which must never block on JDBC
+     */
+    @Bean
+    public ThreadPoolTaskExecutor zaloPayExecutor(ZaloPayProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getHttp().getCallbackThreads());
+        executor.setMaxPoolSize(properties.getHttp().getCallbackThreads());
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("zalopay-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        return executor;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nhs.individual.constant;
+
+/**
+ * File format of an export job
+ */
+public enum ExportFormat {
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV("csv", "text/csv");
+
+    public final String extension;
+    public final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+}
@@ -0,0 +1,15 @@
+package com.nhs.individual.constant;
+
+/**
+ * Lifecycle of an {@link com.nhs.individual.dto.ExportJob}
+ */
+public enum ExportJobStatus {
+    /** Waiting for an export thread */
+    QUEUED,
+    /** File being written */
+    RUNNING,
+    /** File ready for download until the job expires */
+    COMPLETED,
+    /** Generation failed, see the job error */
+    FAILED
+}
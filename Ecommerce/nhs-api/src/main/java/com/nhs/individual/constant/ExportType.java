@@ -0,0 +1,19 @@
+package com.nhs.individual.constant;
+
+/**
+ * What an export job writes
+ */
+public enum ExportType {
+    /** Orders with their order lines */
+    ORDER("orders"),
+    /** Products with their product items */
+    PRODUCT("products"),
+    /** Quantity of every product item in every warehouse */
+    WAREHOUSE_STOCK("warehouse_stock");
+
+    public final String fileName;
+
+    ExportType(String fileName) {
+        this.fileName = fileName;
+    }
+}
@@ -0,0 +1,57 @@
+package com.nhs.individual.constant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resized copies kept next to each image of the store. A variant is named
+ * {@code <sha256>_<suffix>.<ext>}, in the same folder as the original {@code <sha256>.<ext>}.
+ */
+public enum ImageVariant {
+    THUMBNAIL("thumbnail"),
+    MEDIUM("medium");
+
+    private static final Pattern ORIGINAL_URL = Pattern.compile("^(.*/)([0-9a-f]{64})\\.(jpg|png|gif|webp)$");
+
+    public final String suffix;
+
+    ImageVariant(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public static ImageVariant fromSuffix(String suffix) {
+        for (ImageVariant variant : values()) {
+            if (variant.suffix.equals(suffix)) return variant;
+        }
+        return null;
+    }
+
+    /**
+     * JPEG originals give JPEG variants; PNG and GIF give PNG to keep transparency. WebP cannot be
+     * decoded, so its variants are the original itself.
+     */
+    public static String extensionOf(String originalExtension) {
+        return switch (originalExtension) {
+            case "jpg" -> "jpg";
+            case "png", "gif" -> "png";
+            default -> originalExtension;
+        };
+    }
+
+    /**
+     * @param picture a picture column value
+     * @return variant suffix to URL, or null when the picture is not an original of the image store
+     */
+    public static Map<String, String> urls(String picture) {
+        if (picture == null) return null;
+        Matcher url = ORIGINAL_URL.matcher(picture);
+        if (!url.matches()) return null;
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : values()) {
+            urls.put(variant.suffix, url.group(1) + url.group(2) + "_" + variant.suffix + "." + extensionOf(url.group(3)));
+        }
+        return urls;
+    }
+}
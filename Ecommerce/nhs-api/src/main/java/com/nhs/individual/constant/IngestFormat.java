@@ -0,0 +1,28 @@
+package com.nhs.individual.constant;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Body format of a bulk product ingestion, told by its Content-Type
+ */
+public enum IngestFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    public final String contentType;
+
+    IngestFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return null when the type is neither, parameters such as charset are ignored
+     */
+    public static IngestFormat of(MediaType mediaType) {
+        if (mediaType == null) return null;
+        for (IngestFormat format : values()) {
+            if (MediaType.parseMediaType(format.contentType).equalsTypeAndSubtype(mediaType)) return format;
+        }
+        return null;
+    }
+}
@@ -3,7 +3,9 @@ package com.nhs.individual.constant;
 public enum PaymentStatus {
     PAID(1),
     CANCEL(2),
-    PENDING(3);
+    PENDING(3),
+    // ZaloPay took the money for an order that was already cancelled, an admin has to refund it
+    REFUND_REQUIRED(4);
     public final int value;
     private PaymentStatus(int value) {
         this.value = value;
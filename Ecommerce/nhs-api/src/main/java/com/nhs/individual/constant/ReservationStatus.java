@@ -0,0 +1,13 @@
+package com.nhs.individual.constant;
+
+/**
+ * Lifecycle of a {@link com.nhs.individual.domain.StockReservation}
+ */
+public enum ReservationStatus {
+    /** Stock taken from the warehouse, waiting for online payment; expires */
+    HELD,
+    /** Order paid or confirmed, the stock is sold */
+    COMMITTED,
+    /** Order cancelled or hold expired, the stock went back to the warehouse */
+    RELEASED
+}
@@ -0,0 +1,37 @@
+package com.nhs.individual.constant;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Width of one point of an order time series
+ */
+public enum TimeBucket {
+    DAY,
+    /** ISO weeks, starting on Monday */
+    WEEK,
+    MONTH;
+
+    /**
+     * @return first day of the bucket holding {@code date}
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * @return first day of the bucket after the one starting on {@code start}
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+}
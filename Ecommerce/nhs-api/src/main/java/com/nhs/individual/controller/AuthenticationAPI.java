@@ -10,6 +10,7 @@ import com.nhs.individual.secure.JwtProvider;
 import com.nhs.individual.service.AccountService;
 import com.nhs.individual.service.AuthService;
 import com.nhs.individual.service.RefreshTokenService;
+import com.nhs.individual.service.TokenVersionService;
 import com.nhs.individual.service.UserService;
 import com.nhs.individual.utils.RequestUtils;
 import io.jsonwebtoken.Claims;
@@ -50,6 +51,7 @@ public class AuthenticationAPI {
     JwtProvider jwtProvider;
     AccountService accountService;
     RequestUtils requestUtils;
+    TokenVersionService tokenVersionService;
 
     @RequestMapping(value = "/register", method = RequestMethod.POST)
     public Account register(@RequestBody Account account){
@@ -121,6 +123,7 @@ public class AuthenticationAPI {
      * This endpoint:
      * - Extracts JWT from Authorization header
      * - Invalidates refresh token in DB (if exists)
+     * - Bumps the account token version so outstanding access tokens stop working
      * - Clears cookies
      * - Returns 200 OK with JSON (no redirect)
      */
@@ -150,16 +153,18 @@ public class AuthenticationAPI {
                 try {
                     Claims claims = jwtProvider.validate(token);
                     if (claims != null) {
+                        Integer accountId = claims.get(JwtProvider.ACCOUNT_ID, Integer.class);
                         String username = claims.getSubject();
-                        if (username != null && !username.isEmpty()) {
+                        if (accountId == null && username != null && !username.isEmpty()) {
+                            // Token issued before account claims were added
                             log.debug("[AuthenticationAPI] Extracted username from JWT: {}", username);
-                            
-                            // Find account by username and invalidate all refresh tokens
-                            accountService.findByUsername(username).ifPresent(account -> {
-                                Integer accountId = account.getId();
-                                log.debug("[AuthenticationAPI] Found account ID {}, invalidating all refresh tokens", accountId);
-                                refreshTokenService.deleteByAccountId(accountId);
-                            });
+                            accountId = accountService.findByUsername(username).map(Account::getId).orElse(null);
+                        }
+                        if (accountId != null) {
+                            // Invalidate all refresh tokens and every access token issued so far
+                            log.debug("[AuthenticationAPI] Found account ID {}, invalidating all tokens", accountId);
+                            refreshTokenService.deleteByAccountId(accountId);
+                            tokenVersionService.revoke(accountId);
                         }
                     }
                 } catch (Exception e) {
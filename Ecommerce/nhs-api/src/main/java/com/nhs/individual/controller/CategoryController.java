@@ -2,11 +2,14 @@ package com.nhs.individual.controller;
 
 import com.nhs.individual.domain.Category;
 import com.nhs.individual.domain.Product;
+import com.nhs.individual.dto.CategoryTree;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.service.CategoryService;
 import com.nhs.individual.service.ProductService;
 import com.nhs.individual.service.VariationOptionService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +27,18 @@ public class CategoryController {
     public Collection<Category> findAll(){
         return categoryService.findAll();
     }
+    /**
+     * Every category as a tree of root nodes, from the in-memory snapshot. The ETag changes with the
+     * categories; a request sending the current one gets 304 without a body.
+     */
+    @RequestMapping(value = "/tree", method = RequestMethod.GET)
+    public ResponseEntity<List<CategoryTree.Node>> findTree(){
+        CategoryTree tree = categoryService.findTree();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(tree.etag())
+                .body(tree.roots());
+    }
 //    @RequestMapping(value ="/{parent_id}",method = RequestMethod.GET)
 //    public Collection<Category> findAllByParentId(@PathVariable(name = "parent_id") Integer id){
 //        return categoryService.findAllByParentId(id);
@@ -1,6 +1,7 @@
 package com.nhs.individual.controller;
 
 import com.nhs.individual.domain.Comment;
+import com.nhs.individual.dto.CursorPage;
 import com.nhs.individual.service.CommentService;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -21,6 +22,14 @@ public class CommentController {
         return  commentService.findAllByProductId(productId, PageRequest.of(page,size));
     }
 
+    @RequestMapping(value = "/cursor", method = RequestMethod.GET)
+    public CursorPage<Comment> getCommentsByCursor(@RequestParam(name = "product") Integer productId,
+                                                   @RequestParam(name = "cursor", required = false) String cursor,
+                                                   @RequestParam(name = "size", required = false, defaultValue = "20") int size,
+                                                   @RequestParam(name = "includeTotal", required = false, defaultValue = "false") boolean includeTotal) {
+        return commentService.findAllByProductIdAfter(productId, cursor, size, includeTotal);
+    }
+
     @RequestMapping(method = RequestMethod.POST)
     @PreAuthorize("#comment.user.id==authentication.principal.userId")
     public Comment addComment(@RequestBody Comment comment) {
@@ -0,0 +1,90 @@
+package com.nhs.individual.controller;
+
+import com.nhs.individual.constant.ExportFormat;
+import com.nhs.individual.dto.ExportJob;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import com.nhs.individual.secure.CurrentUser;
+import com.nhs.individual.secure.IUserDetail;
+import com.nhs.individual.service.ExportJobService;
+import com.nhs.individual.specification.ISpecification.IProductSpecification;
+import com.nhs.individual.specification.ISpecification.IShopOrderSpecification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background exports
+ *
+ * Endpoints:
+ * - POST /api/v1/export/order - Queue an order export (same filters as GET /api/v1/order/xlsx)
+ * - POST /api/v1/export/product - Queue a product export (same filters as GET /api/v1/product/xlsx)
+ * - POST /api/v1/export/warehouse - Queue a warehouse stock export
+ * - GET /api/v1/export/{jobId} - Job status and progress
+ * - GET /api/v1/export/{jobId}/file - Download the finished file; Range requests are answered with 206
+ */
+@PreAuthorize("hasAuthority('ADMIN')")
+@RestController
+@RequestMapping("/api/v1/export")
+public class ExportJobController {
+    @Autowired
+    ExportJobService exportJobService;
+
+    @PostMapping("/order")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJob exportOrders(@RequestParam(name = "format", defaultValue = "XLSX") ExportFormat format,
+                                  @RequestParam Map<String,String> params,
+                                  @CurrentUser IUserDetail user) {
+        return exportJobService.submitOrders(format, IShopOrderSpecification.exportFilter(params), user.getUserId());
+    }
+
+    @PostMapping("/product")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJob exportProducts(@RequestParam(name = "format", defaultValue = "XLSX") ExportFormat format,
+                                    @RequestParam(name = "category", required = false) List<Integer> category,
+                                    @RequestParam(name = "priceMax", required = false) BigDecimal priceMax,
+                                    @RequestParam(name = "priceMin", required = false) BigDecimal priceMin,
+                                    @RequestParam(name = "options", required = false) List<Integer> optionsId,
+                                    @RequestParam(name = "name", required = false) String name,
+                                    @CurrentUser IUserDetail user) {
+        return exportJobService.submitProducts(format,
+                IProductSpecification.exportFilter(category, priceMin, priceMax, optionsId, name), user.getUserId());
+    }
+
+    @PostMapping("/warehouse")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJob exportWarehouseStock(@RequestParam(name = "format", defaultValue = "XLSX") ExportFormat format,
+                                          @RequestParam(name = "warehouseId", required = false) Integer warehouseId,
+                                          @CurrentUser IUserDetail user) {
+        return exportJobService.submitWarehouseStock(format, warehouseId, user.getUserId());
+    }
+
+    @GetMapping("/{jobId}")
+    public ExportJob findById(@PathVariable String jobId) {
+        return exportJobService.findById(jobId).orElseThrow(() -> new ResourceNotFoundException("Export job not found"));
+    }
+
+    /**
+     * Resource bodies get Accept-Ranges and single/multi-part 206 responses from Spring MVC,
+     * so an interrupted download can be resumed
+     */
+    @GetMapping("/{jobId}/file")
+    public ResponseEntity<Resource> download(@PathVariable String jobId) {
+        FileSystemResource file = new FileSystemResource(exportJobService.getFile(jobId));
+        ExportJob job = findById(jobId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .body(file);
+    }
+}
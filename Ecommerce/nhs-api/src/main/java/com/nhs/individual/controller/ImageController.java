@@ -0,0 +1,45 @@
+package com.nhs.individual.controller;
+
+import com.nhs.individual.config.ImageStoreProperties;
+import com.nhs.individual.dto.StoredImage;
+import com.nhs.individual.service.ImageStoreService;
+import com.nhs.individual.service.UploadFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Images of the content-addressed store (see ImageStoreService)
+ *
+ * Endpoints:
+ * - GET /uploads/images/{ab}/{cd}/{sha256}.{ext} - Original upload
+ * - GET /uploads/images/{ab}/{cd}/{sha256}_{thumbnail|medium}.{ext} - Resized variant, generated if missing
+ *
+ * Responses carry a strong ETag and an immutable Cache-Control; conditional and Range requests are
+ * handled by UploadFileSender. Older uploads under /uploads are served by UploadController.
+ */
+@RestController
+public class ImageController {
+    @Autowired
+    ImageStoreService imageStoreService;
+    @Autowired
+    UploadFileSender uploadFileSender;
+    @Autowired
+    ImageStoreProperties properties;
+
+    @RequestMapping(value = "/uploads/${nhs.images.directory:images}/{first}/{second}/{name}",
+            method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void image(@PathVariable String first, @PathVariable String second, @PathVariable String name,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StoredImage image = imageStoreService.open(first, second, name);
+        uploadFileSender.send(request, response, image.path(), image.mediaType(), image.etag(),
+                CacheControl.maxAge(properties.getMaxAge()).cachePublic().immutable());
+    }
+}
@@ -2,24 +2,28 @@ package com.nhs.individual.controller;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhs.individual.config.ExportProperties;
 import com.nhs.individual.domain.Category;
 import com.nhs.individual.domain.Product;
 import com.nhs.individual.domain.ProductItem;
+import com.nhs.individual.dto.CursorPage;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.service.CategoryService;
-import com.nhs.individual.service.LocalFileStorageService;
+import com.nhs.individual.service.ImageStoreService;
+import com.nhs.individual.service.ProductCatalogCache;
 import com.nhs.individual.service.ProductItemService;
 import com.nhs.individual.service.ProductService;
 import com.nhs.individual.specification.DynamicSearch;
 import com.nhs.individual.specification.ISpecification.IProductSpecification;
 import com.nhs.individual.specification.ProductSpecification;
+import com.nhs.individual.utils.CatalogCacheKey;
 import com.nhs.individual.workbook.ProductXLSX;
 import jakarta.annotation.security.PermitAll;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.multipart.support.StandardMultipartHttpServletRequest;
 import lombok.AllArgsConstructor;
-import org.apache.poi.ss.usermodel.Workbook;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +43,7 @@ import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Map;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/v1/product")
 @AllArgsConstructor
@@ -46,11 +51,13 @@ public class ProductController {
     private ProductService productService;
     private ProductItemService productItemService;
     private CategoryService categoryService;
-    private LocalFileStorageService localFileStorageService;
+    private ImageStoreService imageStoreService;
+    private ProductCatalogCache productCatalogCache;
+    private ExportProperties exportProperties;
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     public Product getProductById(@PathVariable(name = "id") Integer id) {
-        return productService.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        return productService.findDetailById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found"));
     }
 
     @RequestMapping( method = RequestMethod.GET)
@@ -66,12 +73,7 @@ public class ProductController {
             @RequestParam(name="orderBy",required=false) List<String> orderBy,
             @RequestParam(name="order",required=false,defaultValue = "ASC") Sort.Direction order,
             @RequestParam Map<String,String> request) {
-            List<Specification<Product>> specifications = new ArrayList<>();
-        if (category != null) specifications.add(IProductSpecification.inCategory(category));
-        if (priceMin != null && priceMax != null)
-            specifications.add(IProductSpecification.priceLimit(priceMin, priceMax));
-        if (optionsId != null) specifications.add(IProductSpecification.hasOption(optionsId));
-        if(name!=null) specifications.add(IProductSpecification.hasName(name));
+        List<Specification<Product>> specifications = productSpecifications(category, priceMin, priceMax, optionsId, name);
         PageRequest pageRequest=PageRequest.of(page,size);
         Sort sort;
         if(orderBy!=null&&!orderBy.isEmpty()) {
@@ -81,35 +83,63 @@ public class ProductController {
             else if(order==Sort.Direction.DESC) sort=sort.descending();
             pageRequest=pageRequest.withSort(sort);
         }
-        return productService.findAll(specifications,pageRequest);
+        CatalogCacheKey key = CatalogCacheKey.of("v1")
+                .filter("category", category)
+                .filter("price-min", priceMax != null ? priceMin : null)
+                .filter("price-max", priceMin != null ? priceMax : null)
+                .filter("options", optionsId)
+                .filter("name", name)
+                .page(pageRequest);
+        PageRequest pageable = pageRequest;
+        return productCatalogCache.products(key, () -> productService.findAll(specifications, pageable));
     }
 
-    @RequestMapping(value = "/xlsx",method = RequestMethod.GET)
-    public void exportXlSX(
-            @RequestParam(name = "category", required = false) List<Integer> category,
-            @RequestParam(name = "priceMax", required = false) BigDecimal priceMax,
-            @RequestParam(name = "priceMin", required = false) BigDecimal priceMin,
-            @RequestParam(name = "page", defaultValue = "0", required = false) Integer page,
+    @RequestMapping(value = "/cursor", method = RequestMethod.GET)
+    @PermitAll
+    public CursorPage<Product> getProductsByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
             @RequestParam(name = "size", defaultValue = "20", required = false) Integer size,
+            @RequestParam(name = "category", required = false) List<Integer> category,
+            @RequestParam(name = "price-max", required = false) BigDecimal priceMax,
+            @RequestParam(name = "price-min", required = false) BigDecimal priceMin,
             @RequestParam(name = "options", required = false) List<Integer> optionsId,
             @RequestParam(name = "name", required = false) String name,
-            HttpServletRequest request,
-            HttpServletResponse response) throws IOException {
+            @RequestParam(name = "orderBy", required = false, defaultValue = "id") String orderBy,
+            @RequestParam(name = "order", required = false, defaultValue = "ASC") Sort.Direction order,
+            @RequestParam(name = "includeTotal", required = false, defaultValue = "false") boolean includeTotal) {
+        return productService.findAllAfter(productSpecifications(category, priceMin, priceMax, optionsId, name),
+                orderBy, order, cursor, size, includeTotal);
+    }
+
+    private static List<Specification<Product>> productSpecifications(List<Integer> category, BigDecimal priceMin,
+                                                                      BigDecimal priceMax, List<Integer> optionsId,
+                                                                      String name) {
         List<Specification<Product>> specifications = new ArrayList<>();
-        Map<String,String[]> params = request.getParameterMap();
         if (category != null) specifications.add(IProductSpecification.inCategory(category));
         if (priceMin != null && priceMax != null)
             specifications.add(IProductSpecification.priceLimit(priceMin, priceMax));
         if (optionsId != null) specifications.add(IProductSpecification.hasOption(optionsId));
         if(name!=null) specifications.add(IProductSpecification.hasName(name));
-        List<Product> product=productService.findAll(specifications,PageRequest.of(page,size)).getContent();
+        return specifications;
+    }
+
+    @RequestMapping(value = "/xlsx",method = RequestMethod.GET)
+    public void exportXlSX(
+            @RequestParam(name = "category", required = false) List<Integer> category,
+            @RequestParam(name = "priceMax", required = false) BigDecimal priceMax,
+            @RequestParam(name = "priceMin", required = false) BigDecimal priceMin,
+            @RequestParam(name = "options", required = false) List<Integer> optionsId,
+            @RequestParam(name = "name", required = false) String name,
+            HttpServletResponse response) throws IOException {
+        List<Specification<Product>> specifications = IProductSpecification.exportFilter(category, priceMin, priceMax, optionsId, name);
         response.setContentType("application/octet-stream");
         DateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd_HH:mm:ss");
         String currentDateTime = dateFormatter.format(new Date());
         String headerKey = "Content-Disposition";
         String headerValue = "attachment; filename=products" + currentDateTime + ".xlsx";
         response.setHeader(headerKey, headerValue);
-        try(Workbook workbook = ProductXLSX.from(product)){
+        try(ProductXLSX workbook = new ProductXLSX(exportProperties.getRowWindow())){
+            productService.forEachForExport(specifications, exportProperties.getChunkSize(), workbook::append);
             workbook.write(response.getOutputStream());
         }
 
@@ -137,134 +167,69 @@ public class ProductController {
             @RequestPart("product") String productJson,
             @RequestPart(value = "image", required = false) MultipartFile image,
             HttpServletRequest request) {
-        System.out.println("=== CREATE PRODUCT DEBUG START ===");
-        
         try {
-            // Log multipart request keys
-            if (request instanceof StandardMultipartHttpServletRequest multipartRequest) {
-                System.out.println("Multipart keys: " + multipartRequest.getMultiFileMap().keySet());
-                System.out.println("All multipart parameter names: " + multipartRequest.getParameterMap().keySet());
-            } else {
-                System.out.println("Request is not StandardMultipartHttpServletRequest, type: " + request.getClass().getName());
-            }
-            
-            // Log productJson raw
-            System.out.println("Raw productJson received: " + productJson);
-            System.out.println("productJson length: " + (productJson != null ? productJson.length() : 0));
-            
-            // Log image file information
-            if (image == null) {
-                System.out.println("No image received from FE!");
-            } else {
-                System.out.println("Image file received:");
-                System.out.println("  - Is empty: " + image.isEmpty());
-                System.out.println("  - File size: " + image.getSize() + " bytes");
-                System.out.println("  - Content type: " + image.getContentType());
-                System.out.println("  - Original filename: " + image.getOriginalFilename());
-                System.out.println("  - Name: " + image.getName());
-            }
-            
-            // Check if multipart contains "image" key
-            if (request instanceof StandardMultipartHttpServletRequest multipartRequest) {
-                if (!multipartRequest.getMultiFileMap().containsKey("image")) {
-                    System.out.println("Multipart request does NOT contain key 'image'");
-                } else {
-                    System.out.println("Multipart request contains key 'image'");
+            if (log.isDebugEnabled()) {
+                if (request instanceof StandardMultipartHttpServletRequest multipartRequest) {
+                    log.debug("Create product: multipart files {}, parameters {}",
+                            multipartRequest.getMultiFileMap().keySet(), multipartRequest.getParameterMap().keySet());
                 }
+                log.debug("Create product: productJson ({} chars): {}", productJson != null ? productJson.length() : 0, productJson);
+                logUpload("Create product", image);
             }
-            
+
             // Configure ObjectMapper for flexible deserialization
             ObjectMapper mapper = new ObjectMapper();
             mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
             mapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
-            
+
             // Parse JSON string to Product object
-            System.out.println("Parsing productJson to Product object...");
             Product product = mapper.readValue(productJson, Product.class);
-            System.out.println("Product parsed successfully:");
-            System.out.println("  - ID: " + product.getId());
-            System.out.println("  - Name: " + product.getName());
-            System.out.println("  - Category ID: " + (product.getCategory() != null ? product.getCategory().getId() : "null"));
-            System.out.println("  - Picture before upload: " + product.getPicture());
-            
-            // IMPORTANT: Clear picture from JSON (if any) - we'll set it from local file storage
+            log.debug("Create product: parsed name={}, categoryId={}, picture={}", product.getName(),
+                    product.getCategory() != null ? product.getCategory().getId() : null, product.getPicture());
+
+            // IMPORTANT: Clear picture from JSON (if any) - we'll set it from the image store
             product.setPicture(null);
-            System.out.println("Cleared picture from JSON (set to null)");
-            
+
             // Validate and load category from database
             if (product.getCategory() == null || product.getCategory().getId() == null) {
                 throw new IllegalArgumentException("Category id missing from JSON");
             }
-            
-            System.out.println("Loading category from database, categoryId: " + product.getCategory().getId());
+
             Category category = categoryService.findById(product.getCategory().getId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + product.getCategory().getId()));
             product.setCategory(category);
-            System.out.println("Category loaded: " + category.getName());
-            
-            // Upload image to local file storage if present and set picture URL
+
+            // Store the image if present and set picture URL
             if (image != null && !image.isEmpty()) {
-                System.out.println("Starting local file upload...");
-                System.out.println("  - File size: " + image.getSize() + " bytes");
-                System.out.println("  - Content type: " + image.getContentType());
-                System.out.println("  - Original filename: " + image.getOriginalFilename());
-                
-                String imageUrl = localFileStorageService.saveFile(image);
-                
-                System.out.println("Local file upload completed!");
-                System.out.println("Image URL: " + imageUrl);
-                
+                String imageUrl = imageStoreService.store(image);
                 if (imageUrl == null) {
-                    System.err.println("ERROR: Failed to save image to local storage");
-                    throw new RuntimeException("Failed to save image to local storage");
+                    log.error("Create product: failed to store image {}", image.getOriginalFilename());
+                    throw new RuntimeException("Failed to store image");
                 }
-                
+
                 // Set picture URL BEFORE saving
                 product.setPicture(imageUrl);
-                System.out.println("Image uploaded successfully, URL set: " + imageUrl);
-            } else {
-                System.out.println("No image to upload, picture will remain null");
+                log.debug("Create product: image stored at {}", imageUrl);
             }
-            
-            // Log product state before saving
-            System.out.println("Product state BEFORE saving to DB:");
-            System.out.println("  - Name: " + product.getName());
-            System.out.println("  - Description: " + (product.getDescription() != null ? product.getDescription().substring(0, Math.min(50, product.getDescription().length())) + "..." : "null"));
-            System.out.println("  - Manufacturer: " + product.getManufacturer());
-            System.out.println("  - Category ID: " + (product.getCategory() != null ? product.getCategory().getId() : "null"));
-            System.out.println("  - Picture URL: " + product.getPicture());
-            
+
             // Save product - picture is already set on product object
-            System.out.println("Saving product to database...");
             Product savedProduct = productService.create(product);
-            System.out.println("Product saved successfully!");
-            
-            // Log product state after saving
-            System.out.println("Product state AFTER saving to DB:");
-            System.out.println("  - ID: " + savedProduct.getId());
-            System.out.println("  - Name: " + savedProduct.getName());
-            System.out.println("  - Picture URL: " + savedProduct.getPicture());
-            System.out.println("  - Category ID: " + (savedProduct.getCategory() != null ? savedProduct.getCategory().getId() : "null"));
-            
+
             // Verify picture was saved correctly
             if (image != null && !image.isEmpty() && savedProduct.getPicture() == null) {
-                System.err.println("ERROR: Picture was lost after save! Expected: " + product.getPicture());
+                log.error("Create product: picture was lost after save, expected {}", product.getPicture());
                 throw new RuntimeException("Picture URL was not saved to database");
             }
-            
-            System.out.println("=== CREATE PRODUCT DEBUG END ===");
-            
+
+            log.info("Created product #{} '{}' in category #{}", savedProduct.getId(), savedProduct.getName(), category.getId());
+
             // Return with proper CREATED status
             return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
         } catch (IOException e) {
-            System.err.println("ERROR: Failed to parse product JSON: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== CREATE PRODUCT DEBUG END (ERROR) ===");
+            log.error("Create product: failed to parse product JSON: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to parse product JSON: " + e.getMessage(), e);
         } catch (Exception e) {
-            System.err.println("ERROR: Unexpected error: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== CREATE PRODUCT DEBUG END (ERROR) ===");
+            log.error("Create product: unexpected error: {}", e.getMessage(), e);
             throw e;
         }
     }
@@ -276,7 +241,7 @@ public class ProductController {
                                  @RequestBody Product product) {
         return productService.update(id, product);
     }
-    
+
     // Update product with multipart/form-data (for updates with image)
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -285,41 +250,28 @@ public class ProductController {
             @RequestPart("product") String productJson,
             @RequestPart(value = "image", required = false) MultipartFile image,
             HttpServletRequest request) throws IOException {
-        System.out.println("=== UPDATE PRODUCT WITH IMAGE DEBUG START ===");
-        System.out.println("Product ID: " + id);
-        
         try {
             // Configure ObjectMapper for flexible deserialization
             ObjectMapper mapper = new ObjectMapper();
             mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
             mapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
-            
+
             // Parse JSON string to Product object
-            System.out.println("Parsing productJson to Product object...");
             Product product = mapper.readValue(productJson, Product.class);
-            System.out.println("Product parsed successfully:");
-            System.out.println("  - Name: " + product.getName());
-            System.out.println("  - Category ID: " + (product.getCategory() != null ? product.getCategory().getId() : "null"));
-            System.out.println("  - Picture from JSON: " + product.getPicture());
-            
+            log.debug("Update product #{}: parsed name={}, categoryId={}, picture={}", id, product.getName(),
+                    product.getCategory() != null ? product.getCategory().getId() : null, product.getPicture());
+
             // Get existing product to preserve picture if no new one is uploaded
             Product existingProduct = productService.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Product with id " + id + " not found"));
-            
+
             // Handle image upload
             if (image != null && !image.isEmpty()) {
-                System.out.println("Starting local file upload...");
-                System.out.println("  - File size: " + image.getSize() + " bytes");
-                System.out.println("  - Content type: " + image.getContentType());
-                System.out.println("  - Original filename: " + image.getOriginalFilename());
-                
-                String imageUrl = localFileStorageService.saveFile(image);
-                System.out.println("Local file upload completed!");
-                System.out.println("Image URL: " + imageUrl);
-                
+                logUpload("Update product #" + id, image);
+                String imageUrl = imageStoreService.store(image);
                 if (imageUrl != null) {
                     product.setPicture(imageUrl);
-                    System.out.println("Image uploaded successfully, URL set: " + imageUrl);
+                    log.debug("Update product #{}: image stored at {}", id, imageUrl);
                 }
             } else {
                 // No new image uploaded - handle picture from JSON
@@ -327,38 +279,19 @@ public class ProductController {
                 // If picture is null in JSON and existing product has no picture, keep it null
                 // If picture has a value in JSON, use it (existing URL)
                 if (product.getPicture() == null && existingProduct.getPicture() != null) {
-                    // Picture is being removed - keep it null
-                    System.out.println("Picture will be removed (set to null)");
-                } else if (product.getPicture() == null) {
-                    // No picture in request and no existing picture - keep null
-                    System.out.println("No picture to update, keeping null");
-                } else {
-                    // Picture URL provided in JSON (existing URL) - use it
-                    System.out.println("Using existing picture URL from JSON: " + product.getPicture());
+                    log.debug("Update product #{}: picture will be removed", id);
                 }
             }
-            
-            System.out.println("Product state BEFORE updating:");
-            System.out.println("  - Name: " + product.getName());
-            System.out.println("  - Picture URL: " + product.getPicture());
-            
+
             Product updatedProduct = productService.update(id, product);
-            System.out.println("Product updated successfully!");
-            System.out.println("Product state AFTER updating:");
-            System.out.println("  - ID: " + updatedProduct.getId());
-            System.out.println("  - Picture URL: " + updatedProduct.getPicture());
-            System.out.println("=== UPDATE PRODUCT WITH IMAGE DEBUG END ===");
-            
+            log.info("Updated product #{}, picture {}", updatedProduct.getId(), updatedProduct.getPicture());
+
             return updatedProduct;
         } catch (IOException e) {
-            System.err.println("ERROR: Failed to parse product JSON: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== UPDATE PRODUCT WITH IMAGE DEBUG END (ERROR) ===");
+            log.error("Update product #{}: failed to parse product JSON: {}", id, e.getMessage(), e);
             throw new RuntimeException("Failed to parse product JSON: " + e.getMessage(), e);
         } catch (Exception e) {
-            System.err.println("ERROR: Unexpected error: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== UPDATE PRODUCT WITH IMAGE DEBUG END (ERROR) ===");
+            log.error("Update product #{}: unexpected error: {}", id, e.getMessage(), e);
             throw e;
         }
     }
@@ -394,81 +327,52 @@ public class ProductController {
                                            @RequestPart(name = "picture", required = false) MultipartFile picture,
                                            @RequestPart(name = "productItem") String productItemJson,
                                            HttpServletRequest request) throws IOException {
-        System.out.println("=== ADD PRODUCT VARIATION DEBUG START ===");
-        System.out.println("Product ID: " + productId);
-        System.out.println("Raw productItemJson received: " + productItemJson);
-        System.out.println("productItemJson type: " + (productItemJson != null ? productItemJson.getClass().getName() : "null"));
-        System.out.println("productItemJson length: " + (productItemJson != null ? productItemJson.length() : 0));
-        
-        // Log multipart request info
-        if (request instanceof StandardMultipartHttpServletRequest multipartRequest) {
-            System.out.println("Multipart keys: " + multipartRequest.getMultiFileMap().keySet());
-            System.out.println("All multipart parameter names: " + multipartRequest.getParameterMap().keySet());
+        if (log.isDebugEnabled()) {
+            log.debug("Add variation to product #{}: productItemJson ({} chars): {}", productId,
+                    productItemJson != null ? productItemJson.length() : 0, productItemJson);
+            if (request instanceof StandardMultipartHttpServletRequest multipartRequest) {
+                log.debug("Add variation to product #{}: multipart files {}, parameters {}", productId,
+                        multipartRequest.getMultiFileMap().keySet(), multipartRequest.getParameterMap().keySet());
+            }
         }
-        
+
         try {
             // Configure ObjectMapper for flexible deserialization
             ObjectMapper mapper = new ObjectMapper();
             mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
             mapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
-            
+
             // Parse JSON string to ProductItem object
-            System.out.println("Parsing productItemJson to ProductItem object...");
             ProductItem item;
             if (productItemJson == null || productItemJson.trim().isEmpty()) {
                 throw new IllegalArgumentException("productItem JSON string is null or empty");
             }
             item = mapper.readValue(productItemJson, ProductItem.class);
-            System.out.println("ProductItem parsed successfully:");
-            System.out.println("  - Price: " + item.getPrice());
-            System.out.println("  - Original Price: " + item.getOriginalPrice());
-            System.out.println("  - Options count: " + (item.getOptions() != null ? item.getOptions().size() : 0));
-            System.out.println("  - Picture before upload: " + item.getPicture());
-            
+            log.debug("Add variation to product #{}: parsed price={}, originalPrice={}, options={}", productId,
+                    item.getPrice(), item.getOriginalPrice(), item.getOptions() != null ? item.getOptions().size() : 0);
+
             // Clear picture from JSON (if any) - we'll set it from file upload
             item.setPicture(null);
-            
+
             // Handle picture upload
             if (picture != null && !picture.isEmpty()) {
-                System.out.println("Starting local file upload...");
-                System.out.println("  - File size: " + picture.getSize() + " bytes");
-                System.out.println("  - Content type: " + picture.getContentType());
-                System.out.println("  - Original filename: " + picture.getOriginalFilename());
-                String imageUrl = localFileStorageService.saveFile(picture);
-                System.out.println("Local file upload completed!");
-                System.out.println("Image URL: " + imageUrl);
+                logUpload("Add variation to product #" + productId, picture);
+                String imageUrl = imageStoreService.store(picture);
                 if (imageUrl != null) {
                     item.setPicture(imageUrl);
-                    System.out.println("Image uploaded successfully, URL set: " + imageUrl);
+                    log.debug("Add variation to product #{}: image stored at {}", productId, imageUrl);
                 }
-            } else {
-                System.out.println("No picture to upload, picture will remain null");
             }
-            
-            System.out.println("ProductItem state BEFORE saving:");
-            System.out.println("  - Price: " + item.getPrice());
-            System.out.println("  - Original Price: " + item.getOriginalPrice());
-            System.out.println("  - Picture URL: " + item.getPicture());
-            System.out.println("  - Options: " + (item.getOptions() != null ? item.getOptions().size() : 0));
-            
+
             ProductItem savedItem = productItemService.create(productId, item);
-            System.out.println("ProductItem saved successfully!");
-            System.out.println("ProductItem state AFTER saving:");
-            System.out.println("  - ID: " + savedItem.getId());
-            System.out.println("  - Price: " + savedItem.getPrice());
-            System.out.println("  - Picture URL: " + savedItem.getPicture());
-            System.out.println("=== ADD PRODUCT VARIATION DEBUG END ===");
-            
+            log.info("Added variation #{} to product #{}", savedItem.getId(), productId);
+
             return savedItem;
         } catch (IOException e) {
-            System.err.println("ERROR: Failed to parse productItem JSON: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== ADD PRODUCT VARIATION DEBUG END (ERROR) ===");
+            log.error("Add variation to product #{}: failed to parse productItem JSON: {}", productId, e.getMessage(), e);
             throw new RuntimeException("Failed to parse productItem JSON: " + e.getMessage(), e);
         } catch (Exception e) {
-            System.err.println("ERROR: Unexpected error: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== ADD PRODUCT VARIATION DEBUG END (ERROR) ===");
+            log.error("Add variation to product #{}: unexpected error: {}", productId, e.getMessage(), e);
             throw e;
         }
     }
@@ -482,15 +386,15 @@ public class ProductController {
         // Preserve existing picture if not provided in update
         ProductItem existingItem = productItemService.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product item with id " + itemId + " not found"));
-        
+
         // If picture is not provided in the update, preserve the existing one
         if (productItem.getPicture() == null) {
             productItem.setPicture(existingItem.getPicture());
         }
-        
+
         return productItemService.update(itemId, productItem);
     }
-    
+
     // Update product item with multipart/form-data (for picture upload)
     @RequestMapping(value = "/item/{item_id}/picture", method = RequestMethod.PUT, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -499,69 +403,47 @@ public class ProductController {
                                                      @RequestPart(name = "picture", required = false) MultipartFile picture,
                                                      @RequestPart(name = "productItem", required = false) String productItemJson,
                                                      HttpServletRequest request) throws IOException {
-        System.out.println("=== UPDATE PRODUCT ITEM WITH PICTURE DEBUG START ===");
-        System.out.println("Product Item ID: " + itemId);
-        
         // Get existing product item
         ProductItem existingItem = productItemService.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product item with id " + itemId + " not found"));
-        
+
         // Create a new ProductItem object for updates (don't modify the entity directly)
         ProductItem itemToUpdate = new ProductItem();
         itemToUpdate.setPrice(existingItem.getPrice());
         itemToUpdate.setOriginalPrice(existingItem.getOriginalPrice());
         itemToUpdate.setOptions(existingItem.getOptions());
         itemToUpdate.setPicture(existingItem.getPicture());
-        
+
         // If productItem JSON is provided, merge it with existing item
         if (productItemJson != null && !productItemJson.trim().isEmpty()) {
             try {
                 ObjectMapper mapper = new ObjectMapper();
                 mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
                 mapper.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
-                
+
                 ProductItem jsonItem = mapper.readValue(productItemJson, ProductItem.class);
                 // Merge JSON data into update item
                 if (jsonItem.getPrice() != null) itemToUpdate.setPrice(jsonItem.getPrice());
                 if (jsonItem.getOriginalPrice() != null) itemToUpdate.setOriginalPrice(jsonItem.getOriginalPrice());
                 if (jsonItem.getOptions() != null) itemToUpdate.setOptions(jsonItem.getOptions());
-                
-                System.out.println("ProductItem JSON parsed and merged successfully");
             } catch (IOException e) {
-                System.err.println("WARNING: Failed to parse productItem JSON, using existing item: " + e.getMessage());
+                log.warn("Update item #{}: failed to parse productItem JSON, using existing item: {}", itemId, e.getMessage());
             }
         }
-        
+
         // Handle picture upload
         if (picture != null && !picture.isEmpty()) {
-            System.out.println("Starting local file upload...");
-            System.out.println("  - File size: " + picture.getSize() + " bytes");
-            System.out.println("  - Content type: " + picture.getContentType());
-            System.out.println("  - Original filename: " + picture.getOriginalFilename());
-            String imageUrl = localFileStorageService.saveFile(picture);
-            System.out.println("Local file upload completed!");
-            System.out.println("Image URL: " + imageUrl);
+            logUpload("Update item #" + itemId, picture);
+            String imageUrl = imageStoreService.store(picture);
             if (imageUrl != null) {
                 itemToUpdate.setPicture(imageUrl);
-                System.out.println("Image uploaded successfully, URL set: " + imageUrl);
+                log.debug("Update item #{}: image stored at {}", itemId, imageUrl);
             }
-        } else {
-            System.out.println("No new picture uploaded, preserving existing picture: " + existingItem.getPicture());
         }
-        
-        System.out.println("ProductItem state BEFORE updating:");
-        System.out.println("  - Price: " + itemToUpdate.getPrice());
-        System.out.println("  - Original Price: " + itemToUpdate.getOriginalPrice());
-        System.out.println("  - Picture URL: " + itemToUpdate.getPicture());
-        
+
         ProductItem updatedItem = productItemService.update(itemId, itemToUpdate);
-        System.out.println("ProductItem updated successfully!");
-        System.out.println("ProductItem state AFTER updating:");
-        System.out.println("  - ID: " + updatedItem.getId());
-        System.out.println("  - Price: " + updatedItem.getPrice());
-        System.out.println("  - Picture URL: " + updatedItem.getPicture());
-        System.out.println("=== UPDATE PRODUCT ITEM WITH PICTURE DEBUG END ===");
-        
+        log.info("Updated item #{}, price {}, picture {}", updatedItem.getId(), updatedItem.getPrice(), updatedItem.getPicture());
+
         return updatedItem;
     }
 
@@ -576,4 +458,13 @@ public class ProductController {
     public Collection<Product> getAllByWarehouse(@PathVariable(name = "warehouseId") Integer warehouseId) {
         return productService.findAllByWarehouseId(warehouseId);
     }
+
+    private static void logUpload(String operation, MultipartFile file) {
+        if (file == null) {
+            log.debug("{}: no file received", operation);
+        } else {
+            log.debug("{}: file '{}' ({}), {} bytes, empty={}", operation,
+                    file.getOriginalFilename(), file.getContentType(), file.getSize(), file.isEmpty());
+        }
+    }
 }
@@ -1,7 +1,12 @@
 package com.nhs.individual.controller;
 
+import com.nhs.individual.responsemessage.ResponseMessage;
+import com.nhs.individual.service.CategoryTreeService;
+import com.nhs.individual.service.ProductCatalogCache;
+import com.nhs.individual.service.ProductSearchService;
 import com.nhs.individual.service.sub_service.ProductOverviewService;
 import com.nhs.individual.specification.ISpecification.IProductSpecificationV2;
+import com.nhs.individual.utils.CatalogCacheKey;
 import com.nhs.individual.views.ProductOverView;
 import jakarta.annotation.security.PermitAll;
 import lombok.AllArgsConstructor;
@@ -9,6 +14,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -23,6 +29,9 @@ import java.util.List;
 @AllArgsConstructor
 public class ProductControllerV2 {
     private ProductOverviewService productOverviewService;
+    private ProductCatalogCache productCatalogCache;
+    private ProductSearchService productSearchService;
+    private CategoryTreeService categoryTreeService;
     @RequestMapping( method = RequestMethod.GET)
     @PermitAll
     public Page<ProductOverView> getProducts(
@@ -48,7 +57,32 @@ public class ProductControllerV2 {
             else if(order==Sort.Direction.DESC) sort=sort.descending();
             pageRequest=pageRequest.withSort(sort);
         }
-        return productOverviewService.findAll(specifications,pageRequest);
+        CatalogCacheKey key = CatalogCacheKey.of("v2")
+                .filter("category", category)
+                .filter("price-min", priceMax != null ? priceMin : null)
+                .filter("price-max", priceMin != null ? priceMax : null)
+                .filter("name", name)
+                .page(pageRequest);
+        PageRequest pageable = pageRequest;
+        return productCatalogCache.overviews(key, () -> productOverviewService.findAll(specifications, pageable));
     }
 
+    @RequestMapping(value = "/search", method = RequestMethod.GET)
+    @PermitAll
+    public Page<ProductOverView> search(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "category", required = false) List<Integer> category,
+            @RequestParam(name = "page", defaultValue = "0", required = false) Integer page,
+            @RequestParam(name = "size", defaultValue = "20", required = false) Integer size) {
+        // the index holds the product's own category; subcategories come from the tree snapshot
+        List<Integer> categories = category == null ? null : List.copyOf(categoryTreeService.tree().subtree(category));
+        return productSearchService.search(query, categories, PageRequest.of(page, size));
+    }
+
+    @RequestMapping(value = "/overview/rebuild", method = RequestMethod.POST)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseMessage rebuildOverview() {
+        productOverviewService.rebuild();
+        return ResponseMessage.builder().message("Product overview rebuilt").ok();
+    }
 }
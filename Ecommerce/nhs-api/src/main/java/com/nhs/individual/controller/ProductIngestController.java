@@ -0,0 +1,73 @@
+package com.nhs.individual.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhs.individual.constant.IngestFormat;
+import com.nhs.individual.dto.ProductIngestReport;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.service.ProductIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Bulk product ingestion (see ProductIngestService)
+ *
+ * Endpoints:
+ * - POST /api/v1/product/ingest - Upsert products and items by external SKU from an NDJSON
+ *   (application/x-ndjson) or CSV (text/csv) body, read as it is uploaded
+ *
+ * The response is the ingestion report. With Accept: application/x-ndjson, a progress line is sent
+ * after every chunk while the body is still being read, and the report is the last line.
+ */
+@PreAuthorize("hasAuthority('ADMIN')")
+@RestController
+@RequestMapping("/api/v1/product/ingest")
+public class ProductIngestController {
+    @Autowired
+    ProductIngestService productIngestService;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void ingest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        IngestFormat format = IngestFormat.of(MediaType.parseMediaType(request.getContentType()));
+        if (format == null) throw new IllegalInputException("Send the catalog as application/x-ndjson or text/csv");
+        List<MediaType> accept = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+        boolean streamProgress = accept.stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+
+        if (!streamProgress) {
+            ProductIngestReport report = productIngestService.ingest(request.getInputStream(), format, progress -> {
+            });
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), report);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        ProductIngestReport report = productIngestService.ingest(request.getInputStream(), format, progress -> {
+            try {
+                writeLine(out, progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writeLine(out, report);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+}
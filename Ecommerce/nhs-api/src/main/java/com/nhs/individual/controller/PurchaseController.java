@@ -19,10 +19,9 @@ import lombok.AllArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(value = "/api/v1/purchase")
@@ -37,9 +36,10 @@ public class PurchaseController {
     /**
      * Create ZaloPay order and get payment URL
      * Always returns HTTP 200 with JSON response (success or error)
+     * The request thread is released while ZaloPay answers
      */
     @RequestMapping(value="/{orderId}/zalopay",method= RequestMethod.GET)
-    public ZaloPayResponse purchase(@PathVariable(name = "orderId") Integer orderId){
+    public CompletableFuture<ZaloPayResponse> purchase(@PathVariable(name = "orderId") Integer orderId){
         return zalopayService.purchaseZalo(orderId);
     }
     
@@ -55,7 +55,7 @@ public class PurchaseController {
      * Query ZaloPay payment status
      */
     @RequestMapping(value = "/zalopay/status",method = RequestMethod.GET)
-    public String getzaloOrderStatus(@RequestParam String app_trans_id) throws URISyntaxException {
+    public CompletableFuture<String> getzaloOrderStatus(@RequestParam String app_trans_id) {
         return zalopayService.getOrderStatus(app_trans_id);
     }
     
@@ -63,7 +63,7 @@ public class PurchaseController {
      * Request ZaloPay refund
      */
     @RequestMapping(value = "/zalopay/refund",method = RequestMethod.GET)
-    public ResponseMessage zalopayRefund(@RequestParam(name = "orderId") Integer orderId){
+    public CompletableFuture<ResponseMessage> zalopayRefund(@RequestParam(name = "orderId") Integer orderId){
         IUserDetail userDetail= (IUserDetail) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         return zalopayService.refund(orderId,userDetail);
     }
@@ -72,7 +72,7 @@ public class PurchaseController {
      * Get ZaloPay refund status
      */
     @RequestMapping(value = "/zalopay/refund/status",method = RequestMethod.GET)
-    public String getRefundStatus(@RequestParam(name = "mRefundId") String mRefundId) throws IOException {
+    public CompletableFuture<String> getRefundStatus(@RequestParam(name = "mRefundId") String mRefundId) {
         return zalopayService.getRefundStatus(mRefundId);
     }
     
@@ -1,8 +1,10 @@
 package com.nhs.individual.controller;
 
+import com.nhs.individual.config.ExportProperties;
 import com.nhs.individual.constant.OrderStatus;
 import com.nhs.individual.domain.ShopOrder;
 import com.nhs.individual.domain.ShopOrderStatus;
+import com.nhs.individual.dto.CursorPage;
 import com.nhs.individual.exception.OrderNotFoundException;
 import com.nhs.individual.service.ShopOrderService;
 import com.nhs.individual.service.ShopOrderStatusService;
@@ -10,7 +12,6 @@ import com.nhs.individual.specification.ISpecification.IShopOrderSpecification;
 import com.nhs.individual.workbook.ShopOrdersXLSX;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,9 +26,7 @@ import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
 import java.sql.Timestamp;
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -58,6 +57,9 @@ public class ShopOrderController {
     @Autowired
     ShopOrderStatusService shopOrderStatusService;
 
+    @Autowired
+    ExportProperties exportProperties;
+
     /**
      * Create new order
      * User can only create order for themselves
@@ -71,20 +73,21 @@ public class ShopOrderController {
     
     /**
      * Export orders to Excel
-     * Admin only
+     * Admin only; every order matching the filters, streamed in chunks
      */
     @GetMapping("/xlsx")
     @Secured("ADMIN")
     public void exportExcel(@RequestParam Map<String,String> params,
                             HttpServletResponse response) throws IOException {
-        List<ShopOrder> orders = findAllWithParams(params);
+        List<Specification<ShopOrder>> specifications = IShopOrderSpecification.exportFilter(params);
         response.setContentType("application/octet-stream");
         DateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd_HH:mm:ss");
         String currentDateTime = dateFormatter.format(new Date());
         String headerKey = "Content-Disposition";
         String headerValue = "attachment; filename=orders" + currentDateTime + ".xlsx";
         response.setHeader(headerKey, headerValue);
-        try(Workbook workbook=ShopOrdersXLSX.from(orders)){
+        try(ShopOrdersXLSX workbook=new ShopOrdersXLSX(exportProperties.getRowWindow())){
+            shopOrderService.forEachForExport(specifications, exportProperties.getChunkSize(), workbook::append);
             workbook.write(response.getOutputStream());
         }
     }
@@ -107,17 +110,43 @@ public class ShopOrderController {
             @RequestParam(name = "sort",required = false,defaultValue = "DESC") Sort.Direction sort,
             @RequestParam Map<String,String> params) {
         
+        List<Specification<ShopOrder>> shopOrderSpecifications = orderSpecifications(userId, status, address, from, to);
+        
+        String[] arr=new String[sortBy.size()];
+        Sort sorts=Sort.by(sort,sortBy.toArray(sortBy.toArray(arr)));
+        Pageable pageable=PageRequest.of(page,size,sorts);
+        return shopOrderService.findAll(shopOrderSpecifications,pageable);
+    }
+
+    /**
+     * List orders with keyset (cursor) pagination
+     * Pass the returned nextCursor back as cursor; the total is only counted when includeTotal=true
+     */
+    @GetMapping("/cursor")
+    public CursorPage<ShopOrder> findAllByCursor(
+            @RequestParam(name = "cursor",required = false) String cursor,
+            @RequestParam(name = "size",defaultValue = "10") Integer size,
+            @RequestParam(name = "userId",required = false) Integer userId,
+            @RequestParam(name = "status",required = false) OrderStatus status,
+            @RequestParam(name = "address",required = false) String address,
+            @RequestParam(name = "from",required = false) Date from,
+            @RequestParam(name = "to",required = false) Date to,
+            @RequestParam(name = "sortBy",required = false,defaultValue = "id") String sortBy,
+            @RequestParam(name = "sort",required = false,defaultValue = "DESC") Sort.Direction sort,
+            @RequestParam(name = "includeTotal",required = false,defaultValue = "false") boolean includeTotal) {
+        return shopOrderService.findAllAfter(orderSpecifications(userId, status, address, from, to),
+                sortBy, sort, cursor, size, includeTotal);
+    }
+
+    private static List<Specification<ShopOrder>> orderSpecifications(Integer userId, OrderStatus status, String address,
+                                                                      Date from, Date to) {
         List<Specification<ShopOrder>> shopOrderSpecifications = new ArrayList<>();
         if(userId!=null) shopOrderSpecifications.add(IShopOrderSpecification.byUser(userId));
         if(status!=null) shopOrderSpecifications.add(IShopOrderSpecification.byStatus(status));
         if(address!=null) shopOrderSpecifications.add(IShopOrderSpecification.byAddress(address));
         if(from!=null&&to!=null) shopOrderSpecifications.add(IShopOrderSpecification.fromToDate(
             Timestamp.from(from.toInstant()),Timestamp.from(to.toInstant())));
-        
-        String[] arr=new String[sortBy.size()];
-        Sort sorts=Sort.by(sort,sortBy.toArray(sortBy.toArray(arr)));
-        Pageable pageable=PageRequest.of(page,size,sorts);
-        return shopOrderService.findAll(shopOrderSpecifications,pageable);
+        return shopOrderSpecifications;
     }
 
     /**
@@ -127,7 +156,7 @@ public class ShopOrderController {
     @GetMapping("/{id}")
     @PreAuthorize("@orderSecurityService.canView(#id, authentication)")
     public ShopOrder getOrderById(@PathVariable(name = "id") Integer id) {
-        return shopOrderService.findById(id)
+        return shopOrderService.findDetailById(id)
             .orElseThrow(()-> new OrderNotFoundException(id));
     }
 
@@ -283,55 +312,4 @@ public class ShopOrderController {
         log.warn("Using deprecated endpoint POST /{}/status/CANCEL", orderId);
         return shopOrderStatusService.cancelOrder(orderId, shopOrderStatus);
     }
-
-    // ========== Helper Methods ==========
-    
-    private List<ShopOrder> findAllWithParams(Map<String,String> params){
-        int page= 0;
-        int size=10;
-        if(params.get("page")!=null){
-            try{
-                page= Integer.parseInt(params.get("page"));
-                size= Integer.parseInt(params.get("size"));
-            }catch (NumberFormatException e){
-                throw new IllegalArgumentException("Page or size must be number");
-            }
-        }
-        List<Specification<ShopOrder>> specifications=new ArrayList<Specification<ShopOrder>>();
-        if(params.get("userId")!=null){
-            try {
-                specifications.add(IShopOrderSpecification.byUser(Integer.valueOf(params.get("userId"))));
-            }catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid user id");
-            }
-            params.remove("userId");
-        }
-        if(params.get("status")!=null){
-            OrderStatus status=OrderStatus.valueOf(params.get("status").toUpperCase());
-            specifications.add(IShopOrderSpecification.byStatus(status));
-        }
-        if(params.get("address")!=null){
-            specifications.add(IShopOrderSpecification.byAddress(params.get("address")));
-        }
-        Timestamp to=Timestamp.from(Instant.now());
-        SimpleDateFormat dateFormat=new SimpleDateFormat("yyyy-MM-dd HH-mm-ss");
-        try{
-            if(params.get("from")!=null){
-                Timestamp from=Timestamp.from(dateFormat.parse(params.get("from")).toInstant());
-                if(params.get("to")!=null){
-                    to=Timestamp.from(dateFormat.parse(params.get("to")).toInstant());
-                }
-                specifications.add(IShopOrderSpecification.fromToDate(from,to));
-            }
-        } catch (ParseException e) {
-            throw new IllegalArgumentException("Illegal date format");
-        }
-
-        Sort sort=Sort.by("id").descending();
-        if(params.get("newest")!=null&&params.get("newest").equalsIgnoreCase("ASC")){
-            sort.ascending();
-        }
-        Pageable pageable=PageRequest.of(page,size,sort);
-        return shopOrderService.findAll(specifications, pageable).getContent();
-    }
 }
@@ -1,53 +1,98 @@
 package com.nhs.individual.controller;
 
-import com.nhs.individual.service.sub_service.AccountStatisticService;
-import com.nhs.individual.service.sub_service.OrderPerdayService;
-import com.nhs.individual.service.sub_service.OverviewStatisticService;
-import com.nhs.individual.service.sub_service.ProspectiveUserService;
-import com.nhs.individual.specification.ISpecification.OrderPerDaySpecification;
+import com.nhs.individual.constant.TimeBucket;
+import com.nhs.individual.dto.DailySalesStatistic;
+import com.nhs.individual.dto.OrderBucket;
+import com.nhs.individual.dto.StatisticsSnapshot;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.service.sub_service.DailySalesService;
+import com.nhs.individual.service.sub_service.OrderAnalyticsService;
+import com.nhs.individual.service.sub_service.StatisticsSnapshotService;
 import com.nhs.individual.views.Accountstatisticsview;
-import com.nhs.individual.views.OrderPerDay;
 import com.nhs.individual.views.OverviewStatistic;
 import com.nhs.individual.views.Prospectiveuser;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
 @RequestMapping(value = "/api/v1/statistic")
 @AllArgsConstructor
 public class StatisticsController {
-    OrderPerdayService orderPerdayService;
-    AccountStatisticService accountStatisticService;
-    ProspectiveUserService prospectiveUserService;
-    OverviewStatisticService overviewStatisticService;
+    DailySalesService dailySalesService;
+    StatisticsSnapshotService statisticsSnapshotService;
+    OrderAnalyticsService orderAnalyticsService;
+
+    /**
+     * Orders per day from the daily_sales rollup
+     *
+     * @param status order statuses to count, every status when absent
+     */
     @GetMapping("/day/order")
-    public List<OrderPerDay> getOrderStatisticPerDay(
-            @RequestParam Date from,
-            @RequestParam Date to
+    public List<DailySalesStatistic> getOrderStatisticPerDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Integer> status
+            ){
+        if (from.isAfter(to)) throw new IllegalInputException("from must not be after to");
+        return dailySalesService.findBetween(from, to, status);
+    }
+    /**
+     * Zero-filled order count and revenue per bucket, read from shop_order for the range only
+     *
+     * @param zone   zone the days are cut in, e.g. Asia/Ho_Chi_Minh; nhs.statistics.analytics.zone when absent
+     * @param status order statuses to count, every status when absent
+     */
+    @GetMapping("/order/series")
+    public List<OrderBucket> getOrderSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") TimeBucket bucket,
+            @RequestParam(required = false) ZoneId zone,
+            @RequestParam(required = false) List<Integer> status
             ){
-        if(from!=null && to!=null ){
-            return orderPerdayService.findAll(OrderPerDaySpecification.between(from, to));
-        }
-        return orderPerdayService.findAll();
+        return orderAnalyticsService.findSeries(from, to, bucket, zone, status);
     }
+
+    /**
+     * The figures below come from the in-memory snapshot; Last-Modified is when it was computed
+     */
     @GetMapping("/user")
-    public Accountstatisticsview accountstatisticsview(){
-        return accountStatisticService.findAll();
+    public ResponseEntity<Accountstatisticsview> accountstatisticsview(){
+        StatisticsSnapshot snapshot = statisticsSnapshotService.get();
+        return ResponseEntity.ok().lastModified(snapshot.computedAt()).body(snapshot.accounts());
     }
     @GetMapping("/user/prospective")
-    public List<Prospectiveuser> prospectiveuser(){
-        return prospectiveUserService.findAll();
+    public ResponseEntity<List<Prospectiveuser>> prospectiveuser(){
+        StatisticsSnapshot snapshot = statisticsSnapshotService.get();
+        return ResponseEntity.ok().lastModified(snapshot.computedAt()).body(snapshot.prospectiveUsers());
     }
 
     @GetMapping
-    public OverviewStatistic overviewStatistic(){
-        return overviewStatisticService.findAll().get(0);
+    public ResponseEntity<OverviewStatistic> overviewStatistic(){
+        StatisticsSnapshot snapshot = statisticsSnapshotService.get();
+        return ResponseEntity.ok().lastModified(snapshot.computedAt()).body(snapshot.overview());
+    }
+
+    @GetMapping("/snapshot")
+    public StatisticsSnapshot snapshot(){
+        return statisticsSnapshotService.get();
+    }
+
+    @PostMapping("/snapshot/refresh")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public StatisticsSnapshot refreshSnapshot(){
+        return statisticsSnapshotService.refresh();
     }
 
 }
@@ -0,0 +1,71 @@
+package com.nhs.individual.controller;
+
+import com.nhs.individual.config.ExportProperties;
+import com.nhs.individual.config.ImageStoreProperties;
+import com.nhs.individual.config.UploadServingProperties;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import com.nhs.individual.service.UploadFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Files uploaded before the image store, named {@code <timestamp>_<original name>}
+ *
+ * Endpoints:
+ * - GET|HEAD /uploads/** - The file, through UploadFileSender
+ *
+ * Export files and the image store folder are not served here: exports go through
+ * /api/v1/export/{jobId}/file, store images through ImageController.
+ */
+@RestController
+public class UploadController {
+    private static final String PREFIX = "/uploads/";
+
+    private final UploadFileSender uploadFileSender;
+    private final UploadServingProperties properties;
+    private final Path uploadPath;
+    private final Path exportDirectory;
+    private final Path imageDirectory;
+
+    public UploadController(UploadFileSender uploadFileSender,
+                            UploadServingProperties properties,
+                            ExportProperties exportProperties,
+                            ImageStoreProperties imageStoreProperties,
+                            @Value("${file.upload-dir:uploads}") String uploadDir) {
+        this.uploadFileSender = uploadFileSender;
+        this.properties = properties;
+        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.exportDirectory = uploadPath.resolve(exportProperties.getJobs().getDirectory()).normalize();
+        this.imageDirectory = uploadPath.resolve(imageStoreProperties.getDirectory()).normalize();
+    }
+
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void upload(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        Path file;
+        try {
+            file = uploadPath.resolve(path.substring(PREFIX.length())).normalize();
+        } catch (InvalidPathException | IndexOutOfBoundsException e) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        if (!file.startsWith(uploadPath) || file.startsWith(exportDirectory) || file.startsWith(imageDirectory)) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        uploadFileSender.send(request, response, file, mediaType, null,
+                CacheControl.maxAge(properties.getMaxAge()).cachePublic());
+    }
+}
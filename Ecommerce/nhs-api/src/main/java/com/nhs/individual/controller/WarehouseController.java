@@ -3,11 +3,12 @@ package com.nhs.individual.controller;
 import com.nhs.individual.domain.Product;
 import com.nhs.individual.domain.Warehouse;
 import com.nhs.individual.domain.WarehouseItem;
+import com.nhs.individual.dto.WarehouseImportReport;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.service.ProductService;
 import com.nhs.individual.service.WareHouseItemService;
 import com.nhs.individual.service.WareHouseService;
-import com.nhs.individual.workbook.WarehouseItemXLSX;
+import com.nhs.individual.service.WarehouseImportService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -28,6 +29,8 @@ public class WarehouseController {
     ProductService productService;
     @Autowired
     WareHouseItemService wareHouseItemService;
+    @Autowired
+    WarehouseImportService warehouseImportService;
     @RequestMapping(method = RequestMethod.GET)
     public Collection<Warehouse> findAll(){
         return wareHouseService.findAll();
@@ -56,8 +59,8 @@ public class WarehouseController {
     }
     @PreAuthorize("hasAuthority('ADMIN')")
     @RequestMapping(value = "/{warehouse_id}/importXLSX",method = RequestMethod.POST,consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Collection<WarehouseItem> importGoods(@RequestPart(name = "file") MultipartFile file) throws IOException {
-        return wareHouseItemService.importGoods(WarehouseItemXLSX.read(file.getInputStream()));
+    public WarehouseImportReport importGoods(@RequestPart(name = "file") MultipartFile file) throws IOException {
+        return warehouseImportService.importXLSX(file);
     }
     @RequestMapping(value = "/importXLSX/sample")
     public void downloadSampleImportXlsx(HttpServletResponse response) throws IOException {
@@ -37,6 +37,13 @@ public class Account {
     Integer status;
     @Column(name = "provider")
     AccountProvider provider;
+    /**
+     * Bumped on logout and on every status change; access tokens carrying an older value are rejected.
+     * Only AccountRepository's update queries change it, so saving a stale Account never rolls it back.
+     */
+    @Column(name = "token_version", nullable = false, updatable = false)
+    @JsonIgnore
+    private Integer tokenVersion = 0;
 
 
     @ManyToMany(fetch = FetchType.EAGER,cascade = {CascadeType.REFRESH,CascadeType.DETACH,CascadeType.MERGE})
@@ -5,12 +5,14 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @Table(name = "category")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Category {
@@ -0,0 +1,25 @@
+package com.nhs.individual.domain;
+
+import com.nhs.individual.domain.EmbeddedId.CategoryClosureId;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * One ancestor/descendant pair of the category tree, every category being its own ancestor at depth 0.
+ * Written only by CategoryTreeService; queries join it to filter by a category and everything below it.
+ */
+@Getter
+@Setter
+@Entity
+@Immutable
+@Table(name = "category_closure",
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id"))
+public class CategoryClosure {
+    @EmbeddedId
+    private CategoryClosureId id;
+
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+}
@@ -11,7 +11,7 @@ import java.time.Instant;
 
 import org.hibernate.annotations.CreationTimestamp;
 @Entity
-@Table(name = "comment")
+@Table(name = "comment", indexes = @Index(name = "idx_comment_product_created", columnList = "product_id, create_at, id"))
 @Getter
 @Setter
 public class Comment {
@@ -0,0 +1,44 @@
+package com.nhs.individual.domain.EmbeddedId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Getter
+@Setter
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryClosureId implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 3391775873051927460L;
+    @Column(name = "ancestor_id", nullable = false)
+    private Integer ancestorId;
+
+    @Column(name = "descendant_id", nullable = false)
+    private Integer descendantId;
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        CategoryClosureId entity = (CategoryClosureId) o;
+        return Objects.equals(this.ancestorId, entity.ancestorId) &&
+                Objects.equals(this.descendantId, entity.descendantId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ancestorId, descendantId);
+    }
+
+}
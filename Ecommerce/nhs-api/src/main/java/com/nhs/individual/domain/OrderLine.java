@@ -20,9 +20,10 @@ public class OrderLine {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Integer id;
 
-    @ManyToOne(fetch = FetchType.EAGER,cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY,cascade = CascadeType.MERGE)
     @JoinColumn(name = "product_item_id")
     @NotNull(message = "Product item information is required")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private ProductItem productItem;
 
 
@@ -1,19 +1,34 @@
 package com.nhs.individual.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nhs.individual.constant.ImageVariant;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "product")
+@DynamicUpdate
+@Table(name = "product", indexes = @Index(name = "idx_product_name", columnList = "name, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_external_sku", columnNames = "external_sku"))
+@NamedEntityGraph(name = Product.GRAPH_LIST, attributeNodes = @NamedAttributeNode("category"))
+@NamedEntityGraph(name = Product.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("productItems")})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
+    /** Catalog pages: the category joined in, item collections batch-fetched. */
+    public static final String GRAPH_LIST = "Product.list";
+    /** Single product and XLSX export: category and items joined in, item options batch-fetched. */
+    public static final String GRAPH_DETAIL = "Product.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false)
@@ -39,7 +54,7 @@ public class Product {
     @Column(name = "picture", length = 512)
     private String picture;
 
-    @OneToMany(mappedBy = "product",fetch = FetchType.EAGER,cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "product",fetch = FetchType.LAZY,cascade = CascadeType.ALL)
     @JsonIgnoreProperties("product")
     private List<ProductItem> productItems;
 
@@ -47,4 +62,15 @@ public class Product {
     @Column(name = "manufacturer", length =512)
     private String manufacturer;
 
-}
\ No newline at end of file
+    /** Supplier SKU the product was ingested under; null for products created in the admin */
+    @Column(name = "external_sku", length = 64)
+    private String externalSku;
+
+    /**
+     * Thumbnail and medium URLs of the picture, when it comes from the image store
+     */
+    @JsonProperty(value = "pictureVariants", access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getPictureVariants() {
+        return ImageVariant.urls(picture);
+    }
+}
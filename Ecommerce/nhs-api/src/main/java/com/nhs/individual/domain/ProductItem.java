@@ -1,18 +1,24 @@
 package com.nhs.individual.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nhs.individual.constant.ImageVariant;
 import com.nhs.individual.validation.ProductItemValidation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Entity
-@Table(name = "product_item")
+@DynamicUpdate
+@Table(name = "product_item",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_item_external_sku", columnNames = "external_sku"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class ProductItem {
     @Id
@@ -29,7 +35,7 @@ public class ProductItem {
     @Column(name = "product_id", insertable = false,updatable = false)
     private Integer productId;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinTable(name = "product_item_options",
             joinColumns = @JoinColumn(name = "product_item_id"),
             inverseJoinColumns = @JoinColumn(name = "variation_option_id"))
@@ -48,7 +54,19 @@ public class ProductItem {
 
     private BigDecimal originalPrice;
 
+    /** Supplier SKU the item was ingested under, see ProductIngestService */
+    @Column(name = "external_sku", length = 64)
+    private String externalSku;
+
     @OneToMany(mappedBy = "productItem")
     @JsonIgnoreProperties("productItem")
     private List<WarehouseItem> warehouses;
-}
\ No newline at end of file
+
+    /**
+     * Resized copies of the item picture; null for pictures uploaded before the image store
+     */
+    @JsonProperty(value = "pictureVariants", access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getPictureVariants() {
+        return ImageVariant.urls(picture);
+    }
+}
@@ -15,9 +15,43 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "shop_order")
+@Table(name = "shop_order", indexes = {
+        @Index(name = "idx_shop_order_date", columnList = "order_date, id"),
+        @Index(name = "idx_shop_order_status_date", columnList = "current_status, order_date"),
+        @Index(name = "idx_shop_order_user_date", columnList = "user_id, order_date")})
+@NamedEntityGraph(name = ShopOrder.GRAPH_LIST, attributeNodes = {
+        @NamedAttributeNode(value = "user", subgraph = "user"),
+        @NamedAttributeNode("address"),
+        @NamedAttributeNode("shippingMethod"),
+        @NamedAttributeNode(value = "payment", subgraph = "payment")},
+        subgraphs = {
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("account")),
+                @NamedSubgraph(name = "payment", attributeNodes = @NamedAttributeNode("type"))})
+@NamedEntityGraph(name = ShopOrder.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode(value = "user", subgraph = "user"),
+        @NamedAttributeNode("address"),
+        @NamedAttributeNode("shippingMethod"),
+        @NamedAttributeNode(value = "payment", subgraph = "payment"),
+        @NamedAttributeNode(value = "orderLines", subgraph = "orderLines")},
+        subgraphs = {
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("account")),
+                @NamedSubgraph(name = "payment", attributeNodes = @NamedAttributeNode("type")),
+                @NamedSubgraph(name = "orderLines", attributeNodes = @NamedAttributeNode(value = "productItem", subgraph = "productItem")),
+                @NamedSubgraph(name = "productItem", attributeNodes = @NamedAttributeNode("product"))})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class ShopOrder implements Serializable {
+    /**
+     * Order pages: every to-one joined in, including the user's account, which is an inverse
+     * one-to-one and would otherwise cost a select per order; status and order lines are collections,
+     * so they stay out of the join (no row multiplication under LIMIT) and batch-fetch.
+     */
+    public static final String GRAPH_LIST = "ShopOrder.list";
+    /**
+     * Single order and XLSX export: the list graph plus order lines with their item and product.
+     * Status history is a second bag and cannot share the join, it batch-fetches.
+     */
+    public static final String GRAPH_DETAIL = "ShopOrder.detail";
+
     @Id
     @Column(name = "id", nullable = false)
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,7 +65,7 @@ public class ShopOrder implements Serializable {
     @Column(name = "user_id",insertable = false,updatable = false)
     @Hidden
     private Integer userId;
-    @ManyToOne(fetch = FetchType.EAGER,cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY,cascade = CascadeType.MERGE)
     @JoinColumn(name = "address_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer","handler"})
     private Address address;
@@ -40,6 +74,16 @@ public class ShopOrder implements Serializable {
     @Column(name = "order_date", columnDefinition = "DATETIME")
     private Date orderDate;
 
+    /**
+     * Status of the latest {@link ShopOrderStatus} row, kept in step by ShopOrderStatusService
+     * so status filters and reports need no per-order subquery over the history.
+     */
+    @Column(name = "current_status")
+    private Integer currentStatus;
+
+    @Column(name = "status_updated_at", columnDefinition = "DATETIME")
+    private Date statusUpdatedAt;
+
     @Column(name = "total",scale = 2, precision = 18)
     @Min(value = 1,message = "Total value can not be negative or equal to 0")
     private BigDecimal total;
@@ -53,15 +97,16 @@ public class ShopOrder implements Serializable {
     @Column(name = "note")
     private String note;
 
-    @OneToMany(mappedBy = "order",fetch = FetchType.EAGER,cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "order",fetch = FetchType.LAZY,cascade = CascadeType.ALL)
     @JsonIgnoreProperties({"order","hibernateLazyInitializer","handler"})
     private List<ShopOrderStatus> status;
 
-    @OneToMany(mappedBy = "order",fetch = FetchType.EAGER,cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "order",fetch = FetchType.LAZY,cascade = CascadeType.ALL)
     @JsonIgnoreProperties({"order","hibernateLazyInitializer", "handler"})
     private List<OrderLine> orderLines;
 
-    @OneToOne(fetch = FetchType.EAGER,cascade =CascadeType.ALL)
+    @OneToOne(fetch = FetchType.LAZY,cascade =CascadeType.ALL)
     @JoinColumn(name = "payment_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer","handler"})
     private ShopOrderPayment payment;
 }
\ No newline at end of file
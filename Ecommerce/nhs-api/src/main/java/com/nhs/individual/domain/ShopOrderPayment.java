@@ -14,7 +14,8 @@ import java.time.Instant;
 @Getter
 @Setter
 @Entity
-@Table(name = "shop_order_payment")
+@Table(name = "shop_order_payment", indexes = {
+        @Index(name = "idx_shop_order_payment_check", columnList = "status, next_check_at")})
 public class ShopOrderPayment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,4 +45,23 @@ public class ShopOrderPayment {
     @Column(name = "status")
     private Integer status;
 
+    /**
+     * ZaloPay app_trans_id of the last payment attempt, used to query its status
+     */
+    @Size(max = 45)
+    @Column(name = "app_trans_id", length = 45)
+    @JsonIgnore
+    private String appTransId;
+
+    /**
+     * When the reconciler should next ask the provider about this pending payment, null when not tracked
+     */
+    @Column(name = "next_check_at")
+    @JsonIgnore
+    private Instant nextCheckAt;
+
+    @Column(name = "check_attempts")
+    @JsonIgnore
+    private Integer checkAttempts;
+
 }
\ No newline at end of file
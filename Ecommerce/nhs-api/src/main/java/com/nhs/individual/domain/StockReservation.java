@@ -0,0 +1,46 @@
+package com.nhs.individual.domain;
+
+import com.nhs.individual.constant.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Quantity of one product item taken from one warehouse for an order.
+ * Plain id columns, no associations: rows are written on the checkout path and swept in bulk.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_stock_reservation_order", columnList = "order_id"),
+        @Index(name = "idx_stock_reservation_expiry", columnList = "status, expires_at")})
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "product_item_id", nullable = false)
+    private Integer productItemId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Integer warehouseId;
+
+    @Column(name = "qty", nullable = false)
+    private Integer qty;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
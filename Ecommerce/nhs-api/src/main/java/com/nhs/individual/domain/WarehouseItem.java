@@ -10,11 +10,13 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Getter
 @Setter
 @ToString
 @Entity
+@DynamicUpdate
 @Table(name = "product_item_in_warehouse")
 public class WarehouseItem {
     @EmbeddedId
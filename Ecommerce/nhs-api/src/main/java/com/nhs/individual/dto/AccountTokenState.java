@@ -0,0 +1,7 @@
+package com.nhs.individual.dto;
+
+/**
+ * The account fields an access token is checked against on every request
+ */
+public record AccountTokenState(Integer status, Integer tokenVersion) {
+}
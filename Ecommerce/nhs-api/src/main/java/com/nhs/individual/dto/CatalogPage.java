@@ -0,0 +1,49 @@
+package com.nhs.individual.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached snapshot of a catalog {@link Page}, safe to keep in a cache
+ * and to serialize as JSON for the shared cache tier.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class CatalogPage<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long total;
+    private List<String> sort;
+
+    public static <T> CatalogPage<T> from(Page<T> source) {
+        CatalogPage<T> snapshot = new CatalogPage<>();
+        snapshot.content = source.getContent();
+        snapshot.page = source.getNumber();
+        snapshot.size = source.getSize();
+        snapshot.total = source.getTotalElements();
+        snapshot.sort = new ArrayList<>();
+        source.getSort().forEach(order -> snapshot.sort.add(order.getProperty() + "," + order.getDirection()));
+        return snapshot;
+    }
+
+    public Page<T> toPage() {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort != null) {
+            for (String order : sort) {
+                String[] parts = order.split(",");
+                orders.add(new Sort.Order(Sort.Direction.valueOf(parts[1]), parts[0]));
+            }
+        }
+        return new PageImpl<>(content, PageRequest.of(page, Math.max(size, 1), Sort.by(orders)), total);
+    }
+}
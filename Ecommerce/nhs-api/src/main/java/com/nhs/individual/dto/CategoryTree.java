@@ -0,0 +1,138 @@
+package com.nhs.individual.dto;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the category hierarchy, built once from the flat category rows.
+ * <p>
+ * Lookups by id, subtrees and sibling names are answered from the nodes, without touching the
+ * database or the lazy parent/children associations of Category. {@code etag} is a hash of the rows,
+ * so two instances holding the same categories answer with the same ETag. A category whose parent
+ * chain loops is left out.
+ */
+public final class CategoryTree {
+    private final List<Node> roots;
+    private final Map<Integer, Node> nodes;
+    private final String etag;
+
+    public record Row(int id, String name, String description, Integer parentId) {
+    }
+
+    public record Node(Integer id, String name, String description, Integer parentId, List<Node> children) {
+    }
+
+    /**
+     * One row of category_closure
+     */
+    public record Closure(int ancestorId, int descendantId, int depth) {
+    }
+
+    private CategoryTree(List<Node> roots, Map<Integer, Node> nodes, String etag) {
+        this.roots = roots;
+        this.nodes = nodes;
+        this.etag = etag;
+    }
+
+    /**
+     * Children keep the order of their ids. A row whose parent is not among the rows is a root.
+     */
+    public static CategoryTree of(Collection<Row> rows) {
+        List<Row> sorted = rows.stream().sorted(Comparator.comparingInt(Row::id)).toList();
+        Map<Integer, Row> byId = new HashMap<>();
+        for (Row row : sorted) byId.put(row.id(), row);
+        Map<Integer, List<Row>> children = new HashMap<>();
+        List<Row> rootRows = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (Row row : sorted) {
+            if (row.parentId() == null || !byId.containsKey(row.parentId())) rootRows.add(row);
+            else children.computeIfAbsent(row.parentId(), parent -> new ArrayList<>()).add(row);
+            content.append(row.id()).append('\u0000').append(row.parentId()).append('\u0000')
+                    .append(row.name()).append('\u0000').append(row.description()).append('\n');
+        }
+        Map<Integer, Node> nodes = new HashMap<>();
+        List<Node> roots = new ArrayList<>(rootRows.size());
+        for (Row root : rootRows) roots.add(node(root, children, nodes));
+        String etag = DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        return new CategoryTree(List.copyOf(roots), Map.copyOf(nodes), etag);
+    }
+
+    private static Node node(Row row, Map<Integer, List<Row>> children, Map<Integer, Node> nodes) {
+        List<Node> built = new ArrayList<>();
+        for (Row child : children.getOrDefault(row.id(), List.of())) built.add(node(child, children, nodes));
+        Node node = new Node(row.id(), row.name(), row.description(), row.parentId(), List.copyOf(built));
+        nodes.put(row.id(), node);
+        return node;
+    }
+
+    public List<Node> roots() {
+        return roots;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    public Optional<Node> find(int id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    /**
+     * @return the ids and the ids of every category below them; ids not in the tree are kept as given
+     */
+    public Set<Integer> subtree(Collection<Integer> ids) {
+        Set<Integer> subtree = new LinkedHashSet<>();
+        Deque<Integer> pending = new ArrayDeque<>(ids);
+        while (!pending.isEmpty()) {
+            Integer id = pending.pop();
+            if (id == null || !subtree.add(id)) continue;
+            Node node = nodes.get(id);
+            if (node != null) for (Node child : node.children()) pending.push(child.id());
+        }
+        return subtree;
+    }
+
+    public boolean hasChildNamed(int parentId, String name) {
+        Node parent = nodes.get(parentId);
+        return parent != null && parent.children().stream().anyMatch(child -> child.name() != null && child.name().equals(name));
+    }
+
+    /**
+     * Every ancestor/descendant pair, each category paired with itself at depth 0
+     */
+    public List<Closure> closure() {
+        List<Closure> closure = new ArrayList<>();
+        List<Integer> path = new ArrayList<>();
+        for (Node root : roots) addClosure(root, path, closure);
+        return closure;
+    }
+
+    private static void addClosure(Node node, List<Integer> path, List<Closure> closure) {
+        path.add(node.id());
+        for (int i = 0; i < path.size(); i++) {
+            closure.add(new Closure(path.get(i), node.id(), path.size() - 1 - i));
+        }
+        for (Node child : node.children()) addClosure(child, path, closure);
+        path.remove(path.size() - 1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.nhs.individual.dto;
+
+import com.nhs.individual.exception.IllegalInputException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page. {@code nextCursor} is null on the last page; {@code total} is null
+ * unless the caller asked for it, since counting is what keyset paging avoids.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+    private final Long total;
+
+    /**
+     * Rows to fetch for a page of {@code size}: one extra to detect whether a next page exists.
+     */
+    public static int limitFor(int size) {
+        if (size < 1 || size > 500) throw new IllegalInputException("Page size must be between 1 and 500");
+        return size + 1;
+    }
+
+    /**
+     * @param rows up to {@code size + 1} rows; the extra row only signals that another page exists
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf, Long total) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor, total);
+    }
+}
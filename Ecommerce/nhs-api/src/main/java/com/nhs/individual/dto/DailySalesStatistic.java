@@ -0,0 +1,19 @@
+package com.nhs.individual.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One day of /api/v1/statistic/day/order. Keeps the field names of the former OrderPerDay view
+ * ({@code number_orders_day}, {@code products[].qty}, {@code products[].product}) for the dashboard.
+ */
+public record DailySalesStatistic(LocalDate date,
+                                  @JsonProperty("number_orders_day") long orders,
+                                  BigDecimal revenue,
+                                  List<ProductSales> products) {
+    public record ProductSales(long qty, ProductDto product) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.nhs.individual.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders and revenue of one day, summed over the requested statuses
+ */
+public record DailySalesTotal(LocalDate date, Long orders, BigDecimal revenue) {
+}
@@ -0,0 +1,94 @@
+package com.nhs.individual.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nhs.individual.constant.ExportFormat;
+import com.nhs.individual.constant.ExportJobStatus;
+import com.nhs.individual.constant.ExportType;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one background export, written by the export thread and read by the status endpoint.
+ * {@code totalRows} is counted when the job starts and is an estimate: rows added or removed while
+ * the file is written are not reflected in it.
+ */
+@Getter
+public class ExportJob {
+    private final String id;
+    private final ExportType type;
+    private final ExportFormat format;
+    private final Integer requestedBy;
+    private final Instant createdAt = Instant.now();
+    @JsonIgnore
+    private final AtomicLong rows = new AtomicLong();
+    private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+    private volatile Long totalRows;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Instant expiresAt;
+    private volatile Long size;
+    private volatile String error;
+    @JsonIgnore
+    private volatile Path file;
+
+    public ExportJob(String id, ExportType type, ExportFormat format, Integer requestedBy) {
+        this.id = id;
+        this.type = type;
+        this.format = format;
+        this.requestedBy = requestedBy;
+    }
+
+    public long getRowsWritten() {
+        return rows.get();
+    }
+
+    /**
+     * Percentage of {@code totalRows} written, null until the total is known
+     */
+    public Integer getProgress() {
+        if (status == ExportJobStatus.COMPLETED) return 100;
+        Long total = totalRows;
+        if (total == null) return null;
+        if (total == 0) return 0;
+        return (int) Math.min(99, rows.get() * 100 / total);
+    }
+
+    public String getFileName() {
+        return type.fileName + "_" + id + "." + format.extension;
+    }
+
+    public void countRow() {
+        rows.incrementAndGet();
+    }
+
+    public void started(Long totalRows) {
+        this.totalRows = totalRows;
+        this.startedAt = Instant.now();
+        this.status = ExportJobStatus.RUNNING;
+    }
+
+    public void completed(Path file, long size, Instant expiresAt) {
+        this.file = file;
+        this.size = size;
+        finish(ExportJobStatus.COMPLETED, expiresAt);
+    }
+
+    public void failed(String error, Instant expiresAt) {
+        this.error = error;
+        finish(ExportJobStatus.FAILED, expiresAt);
+    }
+
+    private void finish(ExportJobStatus status, Instant expiresAt) {
+        this.finishedAt = Instant.now();
+        this.expiresAt = expiresAt;
+        this.status = status;
+    }
+
+    @JsonIgnore
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && now.isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,9 @@
+package com.nhs.individual.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Current selling price of one product item, read without loading the ProductItem graph
+ */
+public record ItemPrice(Integer productItemId, BigDecimal price) {
+}
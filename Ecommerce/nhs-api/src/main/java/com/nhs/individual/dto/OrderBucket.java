@@ -0,0 +1,12 @@
+package com.nhs.individual.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One point of an order time series
+ *
+ * @param start first day of the bucket, in the zone of the series
+ */
+public record OrderBucket(LocalDate start, long orders, BigDecimal revenue) {
+}
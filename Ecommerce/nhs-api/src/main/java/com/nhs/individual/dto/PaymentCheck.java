@@ -0,0 +1,7 @@
+package com.nhs.individual.dto;
+
+/**
+ * A pending online payment the reconciler has to ask the provider about
+ */
+public record PaymentCheck(Integer paymentId, Integer orderId, String appTransId, Integer attempts) {
+}
@@ -1,5 +1,7 @@
 package com.nhs.individual.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nhs.individual.constant.ImageVariant;
 import com.nhs.individual.domain.Category;
 import com.nhs.individual.domain.Product;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +10,7 @@ import lombok.Getter;
 import lombok.ToString;
 
 import java.io.Serializable;
+import java.util.Map;
 
 /**
  * DTO for {@link Product}
@@ -32,4 +35,12 @@ public class ProductDto implements Serializable {
         this.category=product.getCategory();
 
     }
-}
\ No newline at end of file
+
+    /**
+     * @see ImageVariant#urls(String)
+     */
+    @JsonProperty(value = "pictureVariants", access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getPictureVariants() {
+        return ImageVariant.urls(picture);
+    }
+}
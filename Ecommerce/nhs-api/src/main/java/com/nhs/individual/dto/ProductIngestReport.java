@@ -0,0 +1,54 @@
+package com.nhs.individual.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product ingestion: lines that were written, the products they belong to and,
+ * for every rejected line, why. Only the first {@code maxErrors} errors are listed;
+ * {@code errorsTruncated} tells when more were dropped.
+ */
+@Getter
+public class ProductIngestReport {
+    private long linesRead;
+    private long imported;
+    private long products;
+    private long rejected;
+    private boolean errorsTruncated;
+    private final List<LineError> errors = new ArrayList<>();
+    private final int maxErrors;
+
+    public record LineError(int line, String message) {
+    }
+
+    /**
+     * Counts so far, sent after every chunk while the body is still being read
+     */
+    public record Progress(long linesRead, long imported, long products, long rejected) {
+    }
+
+    public ProductIngestReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void read() {
+        linesRead++;
+    }
+
+    public void imported(int items, int products) {
+        imported += items;
+        this.products += products;
+    }
+
+    public void reject(int line, String message) {
+        rejected++;
+        if (errors.size() < maxErrors) errors.add(new LineError(line, message));
+        else errorsTruncated = true;
+    }
+
+    public Progress progress() {
+        return new Progress(linesRead, imported, products, rejected);
+    }
+}
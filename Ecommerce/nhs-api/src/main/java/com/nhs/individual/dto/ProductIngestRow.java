@@ -0,0 +1,22 @@
+package com.nhs.individual.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * One product item of a bulk ingestion. {@code line} is the 1-based line of the body the item starts
+ * on; {@code error} is set, and the values may be null, when the line could not be read.
+ * <p>
+ * {@code productSku} groups items into one product and defaults to {@code sku}. The category is given
+ * by {@code categoryId} or by {@code category} name. {@code options} maps variation names to option
+ * values; null keeps the stored options of an existing item.
+ */
+public record ProductIngestRow(int line, String sku, String productSku, String name, String description,
+                               String manufacturer, Integer categoryId, String category, BigDecimal price,
+                               BigDecimal originalPrice, String picture, Map<String, String> options,
+                               String error) {
+
+    public static ProductIngestRow invalid(int line, String error) {
+        return new ProductIngestRow(line, null, null, null, null, null, null, null, null, null, null, null, error);
+    }
+}
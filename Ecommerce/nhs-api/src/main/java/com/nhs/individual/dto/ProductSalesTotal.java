@@ -0,0 +1,9 @@
+package com.nhs.individual.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Units of one product sold on one day, summed over the requested statuses
+ */
+public record ProductSalesTotal(LocalDate date, Integer productId, Long units) {
+}
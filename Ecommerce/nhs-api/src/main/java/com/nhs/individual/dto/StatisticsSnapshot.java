@@ -0,0 +1,19 @@
+package com.nhs.individual.dto;
+
+import com.nhs.individual.views.Accountstatisticsview;
+import com.nhs.individual.views.OverviewStatistic;
+import com.nhs.individual.views.Prospectiveuser;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Dashboard figures computed together in the background, served from memory until the next refresh
+ *
+ * @param accounts null while there is no account yet
+ */
+public record StatisticsSnapshot(OverviewStatistic overview,
+                                 Accountstatisticsview accounts,
+                                 List<Prospectiveuser> prospectiveUsers,
+                                 Instant computedAt) {
+}
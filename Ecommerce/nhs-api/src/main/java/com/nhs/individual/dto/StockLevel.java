@@ -0,0 +1,7 @@
+package com.nhs.individual.dto;
+
+/**
+ * Quantity of one product item in one warehouse, read without loading the WarehouseItem graph
+ */
+public record StockLevel(Integer productItemId, Integer warehouseId, Integer qty) {
+}
@@ -0,0 +1,13 @@
+package com.nhs.individual.dto;
+
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+
+/**
+ * A file of the image store, ready to be served
+ *
+ * @param etag strong entity tag, the file name without extension: it only changes with the content
+ */
+public record StoredImage(Path path, MediaType mediaType, String etag) {
+}
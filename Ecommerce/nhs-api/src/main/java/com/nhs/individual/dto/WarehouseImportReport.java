@@ -0,0 +1,41 @@
+package com.nhs.individual.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a warehouse import: rows that were written and, for every rejected row, why.
+ * Only the first {@code maxErrors} errors are listed; {@code errorsTruncated} tells when more were dropped.
+ */
+@Getter
+public class WarehouseImportReport {
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+    private final int maxErrors;
+
+    public record RowError(int row, String message) {
+    }
+
+    public WarehouseImportReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void read() {
+        rowsRead++;
+    }
+
+    public void imported(int rows) {
+        imported += rows;
+    }
+
+    public void reject(int row, String message) {
+        rejected++;
+        if (errors.size() < maxErrors) errors.add(new RowError(row, message));
+        else errorsTruncated = true;
+    }
+}
@@ -0,0 +1,9 @@
+package com.nhs.individual.dto;
+
+/**
+ * One data row of a warehouse import sheet. {@code row} is the 1-based spreadsheet row number;
+ * {@code error} is set, and the values may be null, when the cells could not be read.
+ */
+public record WarehouseImportRow(int row, Integer warehouseId, Integer productItemId, Integer qty, String sku,
+                                 String error) {
+}
@@ -0,0 +1,9 @@
+package com.nhs.individual.dto;
+
+/**
+ * One row of the warehouse stock export, read without loading the WarehouseItem graph.
+ * The first three columns follow the warehouse import sheet, so an export can be edited and imported back.
+ */
+public record WarehouseStockRow(Integer warehouseId, Integer productItemId, Integer qty, String sku,
+                                String warehouseName, String productName) {
+}
@@ -0,0 +1,17 @@
+package com.nhs.individual.event;
+
+import lombok.Getter;
+
+/**
+ * Published whenever a write may change the category tree: a category created, renamed, moved or
+ * deleted. The tree snapshot and category_closure are rebuilt once the write commits.
+ */
+@Getter
+public class CategoryChangedEvent {
+    /** the written category, or the parent of the written children; null when not known */
+    private final Integer categoryId;
+
+    public CategoryChangedEvent(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+}
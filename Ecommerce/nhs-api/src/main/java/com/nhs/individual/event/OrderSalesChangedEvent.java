@@ -0,0 +1,29 @@
+package com.nhs.individual.event;
+
+import lombok.Getter;
+
+/**
+ * Published when an order is placed or its current status changes, so the daily_sales
+ * rollup can move the order from the bucket of its previous status to the new one.
+ */
+@Getter
+public class OrderSalesChangedEvent {
+    private final Integer orderId;
+    /** null for a new order, or an order whose status was never denormalized */
+    private final Integer previousStatus;
+    private final Integer status;
+
+    private OrderSalesChangedEvent(Integer orderId, Integer previousStatus, Integer status) {
+        this.orderId = orderId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public static OrderSalesChangedEvent placed(Integer orderId, Integer status) {
+        return new OrderSalesChangedEvent(orderId, null, status);
+    }
+
+    public static OrderSalesChangedEvent statusChanged(Integer orderId, Integer previousStatus, Integer status) {
+        return new OrderSalesChangedEvent(orderId, previousStatus, status);
+    }
+}
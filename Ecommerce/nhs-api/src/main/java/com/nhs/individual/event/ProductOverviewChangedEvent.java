@@ -0,0 +1,34 @@
+package com.nhs.individual.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever a write may change a row of the product_overview read model.
+ * Carries either product ids directly or product item ids that still have to be
+ * resolved to their product (warehouse stock changes only know the item).
+ */
+@Getter
+public class ProductOverviewChangedEvent {
+    private final Collection<Integer> productIds;
+    private final Collection<Integer> productItemIds;
+
+    private ProductOverviewChangedEvent(Collection<Integer> productIds, Collection<Integer> productItemIds) {
+        this.productIds = productIds;
+        this.productItemIds = productItemIds;
+    }
+
+    public static ProductOverviewChangedEvent ofProduct(Integer productId) {
+        return new ProductOverviewChangedEvent(productId == null ? List.of() : List.of(productId), List.of());
+    }
+
+    public static ProductOverviewChangedEvent ofProducts(Collection<Integer> productIds) {
+        return new ProductOverviewChangedEvent(productIds, List.of());
+    }
+
+    public static ProductOverviewChangedEvent ofProductItems(Collection<Integer> productItemIds) {
+        return new ProductOverviewChangedEvent(List.of(), productItemIds);
+    }
+}
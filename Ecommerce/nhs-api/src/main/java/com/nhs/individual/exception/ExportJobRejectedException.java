@@ -0,0 +1,14 @@
+package com.nhs.individual.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when every export thread is busy and the export queue is full
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ExportJobRejectedException extends ResponseException {
+    public ExportJobRejectedException(String message, Throwable throwable) {
+        super(message, throwable);
+    }
+}
@@ -0,0 +1,14 @@
+package com.nhs.individual.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the file of an export job is asked for before the job completed
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class ExportNotReadyException extends ResponseException {
+    public ExportNotReadyException(String message) {
+        super(message);
+    }
+}
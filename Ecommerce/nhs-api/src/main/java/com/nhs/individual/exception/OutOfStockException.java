@@ -0,0 +1,26 @@
+package com.nhs.individual.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Map;
+
+/**
+ * Thrown when the warehouses cannot cover the quantity ordered
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class OutOfStockException extends ResponseException {
+    private final Map<Integer, Integer> missing;
+
+    /**
+     * @param missing product item id -> quantity that could not be reserved
+     */
+    public OutOfStockException(Map<Integer, Integer> missing) {
+        super("Not enough stock for product items " + missing.keySet());
+        this.missing = Map.copyOf(missing);
+    }
+
+    public Map<Integer, Integer> getMissing() {
+        return missing;
+    }
+}
@@ -0,0 +1,10 @@
+package com.nhs.individual.exception;
+
+/**
+ * The payment provider could not be reached or answered with an HTTP error; the call may be retried
+ */
+public class PaymentGatewayException extends PaymentException {
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
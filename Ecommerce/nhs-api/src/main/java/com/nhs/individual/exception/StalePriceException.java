@@ -0,0 +1,27 @@
+package com.nhs.individual.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Thrown when an order line was priced by the client with a price that is no longer current
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class StalePriceException extends ResponseException {
+    private final Map<Integer, BigDecimal> currentPrices;
+
+    /**
+     * @param currentPrices product item id -> current unit price, for every stale line
+     */
+    public StalePriceException(Map<Integer, BigDecimal> currentPrices) {
+        super("Prices changed for product items " + currentPrices.keySet());
+        this.currentPrices = Map.copyOf(currentPrices);
+    }
+
+    public Map<Integer, BigDecimal> getCurrentPrices() {
+        return currentPrices;
+    }
+}
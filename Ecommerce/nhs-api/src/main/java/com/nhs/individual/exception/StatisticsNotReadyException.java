@@ -0,0 +1,14 @@
+package com.nhs.individual.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the dashboard is asked for before the first statistics snapshot is computed
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class StatisticsNotReadyException extends ResponseException {
+    public StatisticsNotReadyException(String message) {
+        super(message);
+    }
+}
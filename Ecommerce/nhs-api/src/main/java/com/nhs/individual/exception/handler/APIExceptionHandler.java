@@ -130,6 +130,57 @@ public class APIExceptionHandler {
                 .ok();
     }
 
+    @ExceptionHandler(OutOfStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseMessage handleOutOfStockException(OutOfStockException e) {
+        return ResponseMessage
+                .builder()
+                .message(e.getMessage())
+                .error()
+                .ok();
+    }
+
+    @ExceptionHandler(StalePriceException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseMessage handleStalePriceException(StalePriceException e) {
+        return ResponseMessage
+                .builder()
+                .message(e.getMessage())
+                .details(e.getCurrentPrices().toString())
+                .error()
+                .ok();
+    }
+
+    @ExceptionHandler(ExportJobRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseMessage handleExportJobRejectedException(ExportJobRejectedException e) {
+        return ResponseMessage
+                .builder()
+                .message(e.getMessage())
+                .error()
+                .ok();
+    }
+
+    @ExceptionHandler(StatisticsNotReadyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseMessage handleStatisticsNotReadyException(StatisticsNotReadyException e) {
+        return ResponseMessage
+                .builder()
+                .message(e.getMessage())
+                .error()
+                .ok();
+    }
+
+    @ExceptionHandler(ExportNotReadyException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseMessage handleExportNotReadyException(ExportNotReadyException e) {
+        return ResponseMessage
+                .builder()
+                .message(e.getMessage())
+                .error()
+                .ok();
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseMessage handleSqlException(IllegalArgumentException e) {
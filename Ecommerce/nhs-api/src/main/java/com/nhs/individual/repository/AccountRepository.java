@@ -1,6 +1,7 @@
 package com.nhs.individual.repository;
 
 import com.nhs.individual.domain.Account;
+import com.nhs.individual.dto.AccountTokenState;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,7 +13,12 @@ import java.util.Optional;
 public interface AccountRepository extends JpaRepository<Account, Integer> {
     Optional<Account> findAccountByUsername(String username);
     @Modifying
-    @Query(value = "update account set account.status=?2 where account.id=?1", nativeQuery = true)
+    @Query(value = "update account set account.status=?2, account.token_version=coalesce(account.token_version,0)+1 where account.id=?1", nativeQuery = true)
     Integer updateAccountStatusById(Integer accountId,Integer status);
+    @Query("select new com.nhs.individual.dto.AccountTokenState(a.status, a.tokenVersion) from Account a where a.id = ?1")
+    Optional<AccountTokenState> findTokenStateById(Integer accountId);
+    @Modifying
+    @Query(value = "update account set account.token_version=coalesce(account.token_version,0)+1 where account.id=?1", nativeQuery = true)
+    Integer incrementTokenVersion(Integer accountId);
 
 }
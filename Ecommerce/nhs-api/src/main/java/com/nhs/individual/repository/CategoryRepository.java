@@ -12,6 +12,7 @@ import java.util.Collection;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category,Integer> {
     Collection<Category> findAllByParentId(Integer id);
+    boolean existsByParentIdAndName(Integer parentId, String name);
     @Modifying
     @Transactional
     @Query(value = "delete from category where parent_category_id= ?1",nativeQuery = true)
@@ -4,8 +4,10 @@ import com.nhs.individual.domain.Comment;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
@@ -13,4 +15,24 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
     @Query(value = "select * from ecommerce.comment where product_id=?1",nativeQuery = true)
     List<Comment> findAllByProductId(int productId, Pageable pageable);
 
+    /**
+     * Keyset pages, newest first. {@code limit} is a {@code PageRequest.ofSize(n)}; the List
+     * return type means no count query is issued.
+     */
+    @Query("select c from Comment c where c.product.id = :productId order by c.createAt desc, c.id desc")
+    List<Comment> findFirstByProduct(@Param("productId") int productId, Pageable limit);
+
+    /**
+     * Comments after (createAt, id) in {@link #findFirstByProduct} order. Comments written before create_at was
+     * filled have none and come last, as MySQL orders nulls descending, so a cursor on one only continues among them.
+     */
+    @Query("select c from Comment c where c.product.id = :productId " +
+            "and ((:createAt is null and c.createAt is null and c.id < :id) " +
+            "or (:createAt is not null and (c.createAt < :createAt or (c.createAt = :createAt and c.id < :id) or c.createAt is null))) " +
+            "order by c.createAt desc, c.id desc")
+    List<Comment> findAllByProductAfter(@Param("productId") int productId, @Param("createAt") Instant createAt,
+                                        @Param("id") int id, Pageable limit);
+
+    long countByProduct_Id(int productId);
+
 }
@@ -0,0 +1,78 @@
+package com.nhs.individual.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Walks every row matching a Specification in id order, a fixed number of rows at a time.
+ * <p>
+ * Each chunk is a keyset select of ids ({@code where ... and id > :last order by id limit :chunk}),
+ * then the rows of those ids are loaded by the caller's detail query and handed to the consumer.
+ * Each chunk runs in its own read-only transaction and the persistence context is cleared after
+ * it, so neither the database cursor nor the session grows with the total row count.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetChunkReader {
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * @param loader detail query for a chunk of ids, in any order
+     * @return ids read
+     */
+    public <T> long forEach(Class<T> type, Specification<T> filter, int chunkSize,
+                            Function<Collection<Integer>, List<T>> loader, Function<T, Integer> id,
+                            Consumer<? super T> consumer) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long count = 0;
+        Integer last = null;
+        while (true) {
+            Integer after = last;
+            List<Integer> ids = transaction.execute(status -> {
+                List<Integer> chunk = findIds(type, filter, after, chunkSize);
+                if (!chunk.isEmpty()) {
+                    Map<Integer, T> rows = loader.apply(chunk).stream().collect(Collectors.toMap(id, Function.identity(), (a, b) -> a));
+                    chunk.stream().map(rows::get).filter(Objects::nonNull).forEach(consumer);
+                }
+                entityManager.clear();
+                return chunk;
+            });
+            if (ids == null || ids.isEmpty()) return count;
+            count += ids.size();
+            if (ids.size() < chunkSize) return count;
+            last = ids.get(ids.size() - 1);
+        }
+    }
+
+    private <T> List<Integer> findIds(Class<T> type, Specification<T> filter, Integer after, int chunkSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<T> root = query.from(type);
+        Path<Integer> idPath = root.get("id");
+        Predicate where = filter == null ? null : filter.toPredicate(root, query, cb);
+        if (after != null) where = where == null ? cb.greaterThan(idPath, after) : cb.and(where, cb.greaterThan(idPath, after));
+        if (where != null) query.where(where);
+        // filters that join collections (product items, warehouses) repeat the id
+        query.select(idPath).distinct(true).orderBy(cb.asc(idPath));
+        return entityManager.createQuery(query).setMaxResults(chunkSize).getResultList();
+    }
+}
@@ -1,16 +1,26 @@
 package com.nhs.individual.repository;
 
 import com.nhs.individual.domain.ProductItem;
+import com.nhs.individual.dto.ItemPrice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface ProductItemRepository extends JpaRepository<ProductItem,Integer> {
     @Modifying
     @Query(value = "Update product_item set price=?2 where id",nativeQuery = true)
     void updateProductItem(Integer productItemId, BigDecimal price);
+
+    @Query("select new com.nhs.individual.dto.ItemPrice(p.id, p.price) from ProductItem p where p.id in :ids")
+    List<ItemPrice> findPrices(@Param("ids") Collection<Integer> ids);
+
+    @Query("select p.id from ProductItem p where p.id in :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
 }
@@ -5,13 +5,18 @@ import io.micrometer.common.lang.NonNull;
 import io.micrometer.common.lang.Nullable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product,Integer>, JpaSpecificationExecutor<Product> {
@@ -22,5 +27,31 @@ public interface ProductRepository extends JpaRepository<Product,Integer>, JpaSp
             "    where product_item_in_warehouse.warehouse_id=?1",nativeQuery = true)
     Collection<Product> findAllByWarehouseId(Integer warehouseId);
     @NonNull
+    @EntityGraph(Product.GRAPH_LIST)
     Page<Product> findAll(@Nullable Specification<Product> specification, @NonNull Pageable pageable);
+    @NonNull
+    @EntityGraph(Product.GRAPH_LIST)
+    Page<Product> findAll(@NonNull Pageable pageable);
+
+    @EntityGraph(Product.GRAPH_DETAIL)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findDetailById(@Param("id") Integer id);
+
+    /**
+     * Export rows for a chunk of ids read by {@link KeysetChunkReader}, with items joined in.
+     */
+    @EntityGraph(Product.GRAPH_DETAIL)
+    @Query("select p from Product p where p.id in :ids")
+    List<Product> findDetailByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @EntityGraph(Product.GRAPH_LIST)
+    @Query("select p from Product p where p.id in :ids")
+    List<Product> findListByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Keyset page: {@code limit} rows in {@code sort} order, no OFFSET and no COUNT query.
+     */
+    default List<Product> findAllAfter(Specification<Product> specification, Sort sort, int limit) {
+        return findBy(specification, query -> query.sortBy(sort).limit(limit).project("category").all());
+    }
 }
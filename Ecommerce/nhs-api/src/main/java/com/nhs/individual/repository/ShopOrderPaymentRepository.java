@@ -1,14 +1,41 @@
 package com.nhs.individual.repository;
 
 import com.nhs.individual.domain.ShopOrderPayment;
+import com.nhs.individual.dto.PaymentCheck;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShopOrderPaymentRepository extends JpaRepository<ShopOrderPayment, Integer> {
     @Query(value = "select * from shop_order_payment where id=(Select shop_order.payment_id from shop_order where id=?1)",nativeQuery = true)
     Optional<ShopOrderPayment> findByOrderId(Integer order_id);
+
+    /**
+     * Tracked payments in the given status whose next check is due, oldest first
+     */
+    @Query("select new com.nhs.individual.dto.PaymentCheck(p.id, o.id, p.appTransId, p.checkAttempts) " +
+            "from ShopOrder o join o.payment p where p.status = :status and p.appTransId is not null " +
+            "and p.nextCheckAt <= :now order by p.nextCheckAt")
+    List<PaymentCheck> findDueForCheck(@Param("status") Integer status, @Param("now") Instant now, Pageable pageable);
+
+    @Query("select count(p) from ShopOrderPayment p where p.status = :status and p.nextCheckAt is not null")
+    long countTracked(@Param("status") Integer status);
+
+    @Query("select min(p.nextCheckAt) from ShopOrderPayment p where p.status = :status and p.nextCheckAt is not null")
+    Optional<Instant> findOldestCheck(@Param("status") Integer status);
+
+    /**
+     * Touches only the reconciliation columns, so it never overwrites a status written concurrently
+     */
+    @Modifying
+    @Query("update ShopOrderPayment p set p.checkAttempts = :attempts, p.nextCheckAt = :nextCheckAt where p.id = :id")
+    int updateNextCheck(@Param("id") Integer id, @Param("attempts") Integer attempts, @Param("nextCheckAt") Instant nextCheckAt);
 }
@@ -6,15 +6,67 @@ import io.micrometer.common.lang.Nullable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ShopOrderRepository extends JpaRepository<ShopOrder, Integer> {
+public interface ShopOrderRepository extends JpaRepository<ShopOrder, Integer>, JpaSpecificationExecutor<ShopOrder> {
+    /** {@link ShopOrder#GRAPH_LIST} as property paths, for the fluent findBy API which takes no graph name. */
+    List<String> LIST_PATHS = List.of("user", "user.account", "address", "shippingMethod", "payment", "payment.type");
+
+    @EntityGraph(ShopOrder.GRAPH_LIST)
     List<ShopOrder> findAllByUser_Id(Integer userId, Pageable pageable);
     @NonNull
+    @EntityGraph(ShopOrder.GRAPH_LIST)
     Page<ShopOrder> findAll(@Nullable Specification<ShopOrder> specification, @NonNull Pageable pageable);
+    @NonNull
+    @EntityGraph(ShopOrder.GRAPH_LIST)
+    Page<ShopOrder> findAll(@NonNull Pageable pageable);
+
+    @EntityGraph(ShopOrder.GRAPH_DETAIL)
+    @Query("select o from ShopOrder o where o.id = :id")
+    Optional<ShopOrder> findDetailById(@Param("id") Integer id);
+
+    /**
+     * Export rows for a chunk of ids read by {@link KeysetChunkReader}; order lines are joined here
+     * rather than in the id query so LIMIT applies to orders, not to order x line rows.
+     */
+    @EntityGraph(ShopOrder.GRAPH_DETAIL)
+    @Query("select o from ShopOrder o where o.id in :ids")
+    List<ShopOrder> findDetailByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Fills current_status/status_updated_at from the latest status row for orders written before
+     * the columns existed. Idempotent: only touches rows where current_status is still null.
+     */
+    @Modifying
+    @Query(value = "UPDATE shop_order o\n" +
+            "    JOIN (SELECT shop_order_id, MAX(id) AS id FROM shop_order_status GROUP BY shop_order_id) latest\n" +
+            "        ON latest.shop_order_id = o.id\n" +
+            "    JOIN shop_order_status s ON s.id = latest.id\n" +
+            "SET o.current_status = s.status, o.status_updated_at = s.update_at\n" +
+            "WHERE o.current_status IS NULL", nativeQuery = true)
+    int backfillCurrentStatus();
+
+    @Query("select min(o.orderDate) from ShopOrder o")
+    Optional<Date> findFirstOrderDate();
+
+    /**
+     * Keyset page: {@code limit} rows in {@code sort} order, no OFFSET and no COUNT query.
+     */
+    default List<ShopOrder> findAllAfter(Specification<ShopOrder> specification, Sort sort, int limit) {
+        return findBy(specification, query -> query.sortBy(sort).limit(limit).project(LIST_PATHS).all());
+    }
 
 }
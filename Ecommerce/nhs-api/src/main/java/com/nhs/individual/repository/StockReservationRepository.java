@@ -0,0 +1,34 @@
+package com.nhs.individual.repository;
+
+import com.nhs.individual.constant.ReservationStatus;
+import com.nhs.individual.domain.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Integer> {
+    List<StockReservation> findAllByOrderIdAndStatusIn(Integer orderId, Collection<ReservationStatus> statuses);
+
+    @Query("select distinct r.orderId from StockReservation r " +
+            "where r.status = com.nhs.individual.constant.ReservationStatus.HELD and r.expiresAt < :now")
+    List<Integer> findExpiredOrderIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("update StockReservation r set r.expiresAt = :until where r.orderId = :orderId " +
+            "and r.status = com.nhs.individual.constant.ReservationStatus.HELD and r.expiresAt < :until")
+    int extend(@Param("orderId") Integer orderId, @Param("until") Instant until);
+
+    @Modifying
+    @Query("update StockReservation r set r.status = :to where r.orderId = :orderId and r.status = :from")
+    int transition(@Param("orderId") Integer orderId,
+                   @Param("from") ReservationStatus from,
+                   @Param("to") ReservationStatus to);
+}
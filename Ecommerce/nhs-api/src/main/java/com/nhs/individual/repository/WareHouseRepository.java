@@ -2,8 +2,13 @@ package com.nhs.individual.repository;
 
 import com.nhs.individual.domain.Warehouse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface WareHouseRepository extends JpaRepository<Warehouse,Integer> {
+    @Query("select w.id from Warehouse w")
+    List<Integer> findAllIds();
 }
@@ -2,12 +2,18 @@ package com.nhs.individual.repository;
 
 import com.nhs.individual.domain.EmbeddedId.ProductItemInWarehouseId;
 import com.nhs.individual.domain.WarehouseItem;
+import com.nhs.individual.dto.StockLevel;
+import com.nhs.individual.dto.WarehouseStockRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface WarehouseItemRepository extends JpaRepository<WarehouseItem, ProductItemInWarehouseId> {
     @Modifying
@@ -17,4 +23,26 @@ public interface WarehouseItemRepository extends JpaRepository<WarehouseItem, Pr
     @Modifying
     @Query(value = "delete from product_item_in_warehouse where product_item_id = :productItemId", nativeQuery = true)
     void deleteByProductItemId(@Param("productItemId") Integer productItemId);
+
+    @Query("select new com.nhs.individual.dto.StockLevel(w.id.productItemId, w.id.warehouseId, w.qty) " +
+            "from WarehouseItem w where w.id.productItemId in :productItemIds and w.qty > 0 " +
+            "order by w.id.productItemId, w.qty desc, w.id.warehouseId")
+    List<StockLevel> findStockLevels(@Param("productItemIds") Collection<Integer> productItemIds);
+
+    /**
+     * Keyset page of the stock export in (warehouse, product item) order, after the given key.
+     * Pass 0/0 for the first page; ids start at 1.
+     */
+    @Query("select new com.nhs.individual.dto.WarehouseStockRow(w.id.warehouseId, w.id.productItemId, w.qty, w.SKU, wh.name, p.name) " +
+            "from WarehouseItem w join w.warehouse wh join w.productItem pi left join pi.product p " +
+            "where (:warehouseId is null or w.id.warehouseId = :warehouseId) " +
+            "and (w.id.warehouseId > :afterWarehouseId or (w.id.warehouseId = :afterWarehouseId and w.id.productItemId > :afterProductItemId)) " +
+            "order by w.id.warehouseId, w.id.productItemId")
+    List<WarehouseStockRow> findStockRowsAfter(@Param("warehouseId") Integer warehouseId,
+                                               @Param("afterWarehouseId") Integer afterWarehouseId,
+                                               @Param("afterProductItemId") Integer afterProductItemId,
+                                               Pageable limit);
+
+    @Query("select count(w) from WarehouseItem w where (:warehouseId is null or w.id.warehouseId = :warehouseId)")
+    long countStockRows(@Param("warehouseId") Integer warehouseId);
 }
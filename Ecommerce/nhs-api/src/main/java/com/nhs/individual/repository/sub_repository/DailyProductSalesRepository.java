@@ -0,0 +1,60 @@
+package com.nhs.individual.repository.sub_repository;
+
+import com.nhs.individual.dto.ProductSalesTotal;
+import com.nhs.individual.views.DailyProductSales;
+import com.nhs.individual.views.EmbeddedId.DailyProductSalesId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, DailyProductSalesId> {
+    /**
+     * Adds ({@code sign} 1) or takes away ({@code sign} -1) the lines of one order under
+     * {@code status}, one row per product, on the day the order was placed.
+     */
+    @Modifying
+    @Query(value = "insert into daily_product_sales (sales_date, product_id, status, orders, units, revenue) " +
+            "select cast(o.order_date as date), pdi.product_id, :status, :sign, :sign * coalesce(sum(ol.qty), 0), :sign * coalesce(sum(ol.total), 0) " +
+            "from shop_order o " +
+            "join order_line ol on ol.order_id = o.id " +
+            "join product_item pdi on pdi.id = ol.product_item_id " +
+            "where o.id = :orderId " +
+            "group by cast(o.order_date as date), pdi.product_id " +
+            "on duplicate key update orders = orders + values(orders), units = units + values(units), " +
+            "revenue = revenue + values(revenue)", nativeQuery = true)
+    int addOrder(@Param("orderId") Integer orderId, @Param("status") Integer status, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = "delete from daily_product_sales where sales_date between :from and :to", nativeQuery = true)
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recomputes days from shop_order and its lines. Call {@link #deleteBetween} for the same days first.
+     */
+    @Modifying
+    @Query(value = "insert into daily_product_sales (sales_date, product_id, status, orders, units, revenue) " +
+            "select cast(o.order_date as date), pdi.product_id, o.current_status, count(distinct o.id), " +
+            "coalesce(sum(ol.qty), 0), coalesce(sum(ol.total), 0) " +
+            "from shop_order o " +
+            "join order_line ol on ol.order_id = o.id " +
+            "join product_item pdi on pdi.id = ol.product_item_id " +
+            "where o.order_date >= :from and o.order_date < :until and o.current_status is not null " +
+            "group by cast(o.order_date as date), pdi.product_id, o.current_status", nativeQuery = true)
+    int rebuild(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    @Query("select new com.nhs.individual.dto.ProductSalesTotal(d.id.salesDate, d.id.productId, sum(d.units)) " +
+            "from DailyProductSales d where d.id.salesDate between :from and :to and d.id.status in :statuses " +
+            "group by d.id.salesDate, d.id.productId having sum(d.units) > 0 " +
+            "order by d.id.salesDate, sum(d.units) desc")
+    List<ProductSalesTotal> findTotals(@Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       @Param("statuses") Collection<Integer> statuses);
+}
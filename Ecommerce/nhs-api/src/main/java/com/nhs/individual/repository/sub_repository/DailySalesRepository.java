@@ -0,0 +1,52 @@
+package com.nhs.individual.repository.sub_repository;
+
+import com.nhs.individual.dto.DailySalesTotal;
+import com.nhs.individual.views.DailySales;
+import com.nhs.individual.views.EmbeddedId.DailySalesId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, DailySalesId> {
+    /**
+     * Adds ({@code sign} 1) or takes away ({@code sign} -1) one order under {@code status}
+     * on the day it was placed.
+     */
+    @Modifying
+    @Query(value = "insert into daily_sales (sales_date, status, orders, revenue) " +
+            "select cast(o.order_date as date), :status, :sign, :sign * coalesce(o.total, 0) " +
+            "from shop_order o where o.id = :orderId " +
+            "on duplicate key update orders = orders + values(orders), revenue = revenue + values(revenue)", nativeQuery = true)
+    int addOrder(@Param("orderId") Integer orderId, @Param("status") Integer status, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = "delete from daily_sales where sales_date between :from and :to", nativeQuery = true)
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recomputes days from shop_order; the order_date range is read through idx_shop_order_date.
+     * Call {@link #deleteBetween} for the same days first.
+     */
+    @Modifying
+    @Query(value = "insert into daily_sales (sales_date, status, orders, revenue) " +
+            "select cast(o.order_date as date), o.current_status, count(*), coalesce(sum(o.total), 0) " +
+            "from shop_order o " +
+            "where o.order_date >= :from and o.order_date < :until and o.current_status is not null " +
+            "group by cast(o.order_date as date), o.current_status", nativeQuery = true)
+    int rebuild(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    @Query("select new com.nhs.individual.dto.DailySalesTotal(d.id.salesDate, sum(d.orders), sum(d.revenue)) " +
+            "from DailySales d where d.id.salesDate between :from and :to and d.id.status in :statuses " +
+            "group by d.id.salesDate having sum(d.orders) > 0 order by d.id.salesDate")
+    List<DailySalesTotal> findTotals(@Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     @Param("statuses") Collection<Integer> statuses);
+}
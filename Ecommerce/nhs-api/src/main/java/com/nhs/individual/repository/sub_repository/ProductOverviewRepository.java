@@ -7,10 +7,55 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductOverviewRepository extends JpaRepository<ProductOverView,Integer> {
+    /**
+     * Each aggregate is computed in its own correlated subquery so comments,
+     * items and warehouse rows do not multiply each other.
+     */
+    String PROJECTION = "select pd.id, pd.picture, pd.category_id, pd.description, pd.name, pd.manufacturer, " +
+            "(select avg(cmt.rate) from comment cmt where cmt.product_id = pd.id), " +
+            "(select count(cmt.rate) from comment cmt where cmt.product_id = pd.id), " +
+            "(select min(pdi.price) from product_item pdi where pdi.product_id = pd.id), " +
+            "(select max(pdi.price) from product_item pdi where pdi.product_id = pd.id), " +
+            "(select sum(warehouse.quantity) from product_item pdi " +
+            "join product_item_in_warehouse warehouse on warehouse.product_item_id = pdi.id where pdi.product_id = pd.id) " +
+            "from product pd ";
+    String UPSERT = "insert into product_overview " +
+            "(id, picture, category_id, description, name, manufacturer, rate, rate_count, min_price, max_price, quantity) ";
+    String ON_DUPLICATE = " on duplicate key update picture = values(picture), category_id = values(category_id), " +
+            "description = values(description), name = values(name), manufacturer = values(manufacturer), " +
+            "rate = values(rate), rate_count = values(rate_count), min_price = values(min_price), " +
+            "max_price = values(max_price), quantity = values(quantity)";
+
     @NonNull
     Page<ProductOverView> findAll(@Nullable Specification<ProductOverView> specification, @NonNull Pageable pageable);
+
+    @Modifying
+    @Query(value = UPSERT + PROJECTION + "where pd.id in (:productIds)" + ON_DUPLICATE, nativeQuery = true)
+    int refresh(@Param("productIds") Collection<Integer> productIds);
+
+    @Modifying
+    @Query(value = "delete po from product_overview po left join product pd on pd.id = po.id " +
+            "where po.id in (:productIds) and pd.id is null", nativeQuery = true)
+    int deleteOrphans(@Param("productIds") Collection<Integer> productIds);
+
+    @Modifying
+    @Query(value = UPSERT + PROJECTION + ON_DUPLICATE, nativeQuery = true)
+    int rebuild();
+
+    @Modifying
+    @Query(value = "delete po from product_overview po left join product pd on pd.id = po.id where pd.id is null", nativeQuery = true)
+    int deleteAllOrphans();
+
+    @Query(value = "select distinct product_id from product_item where id in (:productItemIds)", nativeQuery = true)
+    List<Integer> findProductIdsByItemIds(@Param("productItemIds") Collection<Integer> productItemIds);
 }
@@ -30,6 +30,7 @@ public class IUserDetail implements UserDetails,OAuth2User {
     private Collection<SimpleGrantedAuthority> authorities;
     private OAuth2User oAuth2User;
     private Integer status;
+    private Integer tokenVersion;
 
     @Override
     public Map<String, Object> getAttributes() {
@@ -126,6 +127,7 @@ public class IUserDetail implements UserDetails,OAuth2User {
         
         this.authorities = roleAuthorities;
         this.status=account.getStatus();
+        this.tokenVersion=account.getTokenVersion();
         
         log.debug("[IUserDetail] Final authorities for account ID {}: {}", account.getId(), 
                 roleAuthorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
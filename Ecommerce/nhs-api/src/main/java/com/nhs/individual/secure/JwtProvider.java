@@ -1,5 +1,8 @@
 package com.nhs.individual.secure;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
@@ -7,25 +10,50 @@ import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.nhs.individual.utils.Constant.REFRESH_TOKEN_AGE;
 
 @Component
 public class JwtProvider {
+    public static final String ACCOUNT_ID="aid";
+    public static final String USER_ID="uid";
+    public static final String ROLES="roles";
+    public static final String STATUS="st";
+    public static final String TOKEN_VERSION="ver";
+
     @Value("${nhs.token.accessTokenms}")
     private long ACCESS_TOKEN_EXPIRED;
     
     @Value("${nhs.token.secret:}")
     private String jwtSecret;
+    /**
+     * Verified tokens remembered until they expire, 0 turns the cache off
+     */
+    @Value("${nhs.token.verified-cache.maximum-size:10000}")
+    private long verifiedCacheSize = 10_000;
 
     private final Logger log = LoggerFactory.getLogger(JwtProvider.class);
     private SecretKey secretKey;
+    // Immutable and thread-safe, built once for the signing key
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
 
     @PostConstruct
     public void init() {
@@ -70,22 +98,61 @@ public class JwtProvider {
             secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
             log.error("[JwtProvider] ⚠⚠⚠ Random key generated - THIS WILL CAUSE AUTHENTICATION FAILURES!");
         }
+        parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        if (verifiedCacheSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheSize)
+                    .expireAfter(new UntilTokenExpiry())
+                    .recordStats()
+                    .build();
+        }
         log.info("[JwtProvider] ===== JWT Provider initialization complete =====");
     }
 
     private SecretKey getKey() {
         return secretKey;
     }
-    public String generateToken(String subject){
+    /**
+     * Access token carrying everything JwtFilter needs to authenticate the request
+     * without loading the account: ids, roles, status and token version
+     */
+    public String generateToken(IUserDetail principal){
         Date date=new Date(new Date().getTime()+ACCESS_TOKEN_EXPIRED*10L);
+        Map<String,Object> claims=new HashMap<>();
+        claims.put(ACCOUNT_ID,principal.getId());
+        claims.put(USER_ID,principal.getUserId());
+        claims.put(ROLES,principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put(STATUS,principal.getStatus());
+        claims.put(TOKEN_VERSION,principal.getTokenVersion()==null?0:principal.getTokenVersion());
         // Explicitly specify HS256 algorithm to ensure consistency
         return Jwts.builder()
+                .setClaims(claims)
                 .setExpiration(date)
                 .setIssuedAt(new Date())
-                .setSubject(subject)
+                .setSubject(principal.getUsername())
                 .signWith(getKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
+
+    /**
+     * Principal described by verified access token claims,
+     * null for tokens issued before the claims were added
+     */
+    public IUserDetail toPrincipal(Claims claims){
+        Integer accountId=claims.get(ACCOUNT_ID,Integer.class);
+        if(accountId==null) return null;
+        IUserDetail principal=new IUserDetail();
+        principal.setId(accountId);
+        principal.setUserId(claims.get(USER_ID,Integer.class));
+        principal.setUsername(claims.getSubject());
+        principal.setStatus(claims.get(STATUS,Integer.class));
+        principal.setTokenVersion(claims.get(TOKEN_VERSION,Integer.class));
+        List<?> roles=claims.get(ROLES,List.class);
+        principal.setAuthorities(roles==null||roles.isEmpty()
+                ?List.of(new SimpleGrantedAuthority("USER"))
+                :roles.stream().map(role->new SimpleGrantedAuthority(role.toString())).toList());
+        return principal;
+    }
     public String generateRefreshToken(Map<String,?> extraClaims,String subject){
         Date date=new Date(new Date().getTime()+REFRESH_TOKEN_AGE);
         // Explicitly specify HS256 algorithm to ensure consistency
@@ -98,7 +165,7 @@ public class JwtProvider {
                 .compact();
     }
     public Claims extractClaims(String token ) throws ExpiredJwtException, UnsupportedJwtException,MalformedJwtException,IllegalArgumentException {
-       return Jwts.parserBuilder().setSigningKey(getKey()).build().parseClaimsJws(token).getBody();
+       return parser.parseClaimsJws(token).getBody();
 
     }
     public String getSubject(String token){
@@ -110,10 +177,17 @@ public class JwtProvider {
             return null;
         }
         
-        Claims claims=null;
+        // Repeat requests with the same token skip signature verification and JSON parsing
+        String key=verifiedTokens==null?null:tokenHash(token);
+        if(key!=null){
+            Claims cached=verifiedTokens.getIfPresent(key);
+            if(cached!=null) return cached;
+        }
+        long start=System.nanoTime();
         try{
-            claims=extractClaims(token);
-            log.info("[JwtProvider] ✓ Token validated successfully, subject: {}", claims.getSubject());
+            Claims claims=extractClaims(token);
+            if(key!=null) verifiedTokens.put(key,claims);
+            log.debug("[JwtProvider] ✓ Token validated successfully, subject: {}", claims.getSubject());
             return claims;
         }catch (UnsupportedJwtException e){
             log.error("[JwtProvider] ❌ Token is unsupported: {}", e.getMessage());
@@ -128,7 +202,62 @@ public class JwtProvider {
             log.error("[JwtProvider] ❌ This usually means the JWT secret key changed or token was signed with different key");
         }catch (Exception e){
             log.error("[JwtProvider] ❌ Unexpected error validating token: {}", e.getMessage(), e);
+        }finally {
+            verifications.increment();
+            verificationNanos.add(System.nanoTime()-start);
         }
         return null;
     }
+
+    /**
+     * Cache of verified claims keyed by token hash, null when disabled
+     */
+    public Cache<String, Claims> getVerifiedTokens(){
+        return verifiedTokens;
+    }
+
+    /**
+     * Number of tokens that went through signature verification
+     */
+    public long getVerificationCount(){
+        return verifications.sum();
+    }
+
+    /**
+     * Total time spent verifying signatures, in nanoseconds
+     */
+    public double getVerificationNanos(){
+        return verificationNanos.sum();
+    }
+
+    private static String tokenHash(String token){
+        try {
+            byte[] digest=MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A cached token lives as long as the token itself
+     */
+    private static class UntilTokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration=claims.getExpiration();
+            if(expiration==null) return 0;
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiration.getTime()-System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -30,6 +30,9 @@ public class AccountService {
     
     @Autowired
     RoleRepository roleRepository;
+
+    @Autowired
+    TokenVersionService tokenVersionService;
     
     BCryptPasswordEncoder passwordEncoder=new BCryptPasswordEncoder();
 
@@ -106,6 +109,7 @@ public class AccountService {
     public ResponseMessage updateAccountStatus(Integer accountId, AccountStatus status){
         System.out.println("test");
         Integer accountStatus = repository.updateAccountStatusById(accountId,status.id);
+        tokenVersionService.evict(accountId);
         if(accountStatus==1) return ResponseMessage.builder().message("Update status successfully").ok();
         else throw new DataException("Could not update account status");
     }
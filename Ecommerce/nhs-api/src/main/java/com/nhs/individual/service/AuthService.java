@@ -58,7 +58,7 @@ public class AuthService {
         IUserDetail userDetail= (IUserDetail) auth.getPrincipal();
         HttpHeaders headers=new HttpHeaders();
 //        headers.add(HttpHeaders.ORIGIN,"127.0.0.1");
-        headers.add(HttpHeaders.SET_COOKIE,accessTokenCookie(account.getUsername()).toString());
+        headers.add(HttpHeaders.SET_COOKIE,accessTokenCookie(userDetail).toString());
         headers.add(HttpHeaders.SET_COOKIE,refreshTokenCookie(userDetail.getId()).toString());
         headers.add("Withcredentials","true");
         return ResponseEntity.ok()
@@ -80,7 +80,7 @@ public class AuthService {
                     .map(token-> {
                         if(!refreshTokenService.verify(token)) return null;
                         return ResponseEntity.ok()
-                            .header(HttpHeaders.SET_COOKIE,accessTokenCookie(token.getAccount().getUsername()).toString(),refreshTokenCookie(token.getAccount().getId()).toString())
+                            .header(HttpHeaders.SET_COOKIE,accessTokenCookie(new IUserDetail(token.getAccount())).toString(),refreshTokenCookie(token.getAccount().getId()).toString())
                             .body(ResponseMessage.builder().message("Refresh token")
                                     .ok());
                     })
@@ -94,8 +94,8 @@ public class AuthService {
                 .findById(id)
                 .orElseThrow(()->new ResourceNotFoundException("Account not found"));
     }
-    public ResponseCookie accessTokenCookie(String subject){
-        return ResponseCookie.from(AUTH_TOKEN,jwtProvider.generateToken(subject))
+    public ResponseCookie accessTokenCookie(IUserDetail principal){
+        return ResponseCookie.from(AUTH_TOKEN,jwtProvider.generateToken(principal))
                 .secure(true)
                 .path("/")
                 .sameSite("None")
@@ -142,11 +142,11 @@ public class AuthService {
         UserLoginDto userDto = new UserLoginDto(user);
         
         // Generate the access token
-        String accessToken = jwtProvider.generateToken(username);
+        String accessToken = jwtProvider.generateToken(userDetail);
         
         // Set cookies in response headers (for httpOnly cookie support)
         HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.SET_COOKIE, accessTokenCookie(username).toString());
+        headers.add(HttpHeaders.SET_COOKIE, accessTokenCookie(userDetail).toString());
         headers.add(HttpHeaders.SET_COOKIE, refreshTokenCookie(userDetail.getId()).toString());
         headers.add("Withcredentials", "true");
         
@@ -0,0 +1,16 @@
+package com.nhs.individual.service;
+
+import java.time.Duration;
+
+/**
+ * Optional second cache tier shared between instances (e.g. Redis).
+ * Implementations must swallow their own connectivity errors: a missing
+ * remote tier only costs a database round trip, never a failed request.
+ */
+public interface CatalogRemoteStore {
+    byte[] get(String region, String key);
+
+    void put(String region, String key, byte[] value, Duration ttl);
+
+    void clear(String region);
+}
@@ -1,11 +1,15 @@
 package com.nhs.individual.service;
 
 import com.nhs.individual.domain.Category;
+import com.nhs.individual.dto.CategoryTree;
+import com.nhs.individual.event.CategoryChangedEvent;
 import com.nhs.individual.exception.DuplicateElementException;
+import com.nhs.individual.exception.IllegalInputException;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.repository.CategoryRepository;
-import com.nhs.individual.utils.ObjectUtils;
+import com.nhs.individual.utils.ObjectMerger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
@@ -14,11 +18,18 @@ import java.util.Optional;
 
 @Service
 public class CategoryService {
+    private static final ObjectMerger<Category> MERGER = ObjectMerger.of(Category.class);
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     public Category create(Category category){
         validateCategory(category);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
     }
     public List<Category> addChild(int parentId, List<Category> categories){
         Category parent = new Category();
@@ -27,7 +38,9 @@ public class CategoryService {
             caregory.setParent(parent);
            validateCategory(caregory);
         });
-        return categoryRepository.saveAll(categories);
+        List<Category> saved = categoryRepository.saveAll(categories);
+        eventPublisher.publishEvent(new CategoryChangedEvent(parentId));
+        return saved;
     }
     public Optional<Category> findById(int id){
         return categoryRepository.findById(id);
@@ -39,7 +52,14 @@ public class CategoryService {
     public Category updateCategory(int id,Category category){
         return findById(id).map(oldCategory->{
             category.setId(oldCategory.getId());
-            return categoryRepository.save(ObjectUtils.merge(oldCategory,category,Category.class));
+            Integer parentId = category.getParent() != null ? category.getParent().getId() : null;
+            if (parentId != null && categoryTreeService.tree().subtree(List.of(id)).contains(parentId)) {
+                throw new IllegalInputException("A category can not be moved under itself or its subcategories");
+            }
+            if (MERGER.merge(oldCategory, category).isEmpty()) return oldCategory;
+            Category saved = categoryRepository.save(oldCategory);
+            eventPublisher.publishEvent(new CategoryChangedEvent(id));
+            return saved;
         }).orElseThrow(()->new ResourceNotFoundException("Couldn't find category with id " + id));
     }
     public Collection<Category> findAll(){
@@ -47,19 +67,35 @@ public class CategoryService {
     }
     public void deleteById(Integer id){
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     public void deleteAllByParentId(Integer parentId){
         categoryRepository.deleteAllByParentId(parentId);
+        eventPublisher.publishEvent(new CategoryChangedEvent(parentId));
+    }
+    /**
+     * Categories as a tree, from the in-memory snapshot
+     */
+    public CategoryTree findTree(){
+        return categoryTreeService.tree();
     }
     public void validateCategory(Category category){
         if(Optional.ofNullable(category.getParent()).isPresent()){
-            categoryRepository.findById(category.getParent().getId()).map(parent->{
-                if (parent.getChildren().stream().anyMatch(sib->sib.getName().equals(category.getName()))) {
-                    throw new DuplicateElementException("The category's name can not be the same as its siblings : "+String.valueOf(parent.getId()));
-                }
-                return category;
-            }).orElseThrow(()->new IllegalArgumentException("Parent category does not exist. Parent id: "+category.getParent().getId()));
+            Integer parentId = category.getParent().getId();
+            // siblings come from the tree snapshot; a parent it does not hold yet is checked in the database
+            CategoryTree tree = categoryTreeService.tree();
+            boolean sameNameSibling;
+            if (parentId != null && tree.contains(parentId)) {
+                sameNameSibling = tree.hasChildNamed(parentId, category.getName());
+            } else if (parentId != null && categoryRepository.existsById(parentId)) {
+                sameNameSibling = categoryRepository.existsByParentIdAndName(parentId, category.getName());
+            } else {
+                throw new IllegalArgumentException("Parent category does not exist. Parent id: "+parentId);
+            }
+            if (sameNameSibling) {
+                throw new DuplicateElementException("The category's name can not be the same as its siblings : "+String.valueOf(parentId));
+            }
         }else{
             throw new IllegalArgumentException("Missing parent category information (parent category id)");
         }
@@ -0,0 +1,143 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.CategoryTreeProperties;
+import com.nhs.individual.dto.CategoryTree;
+import com.nhs.individual.event.CategoryChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Holds the category tree in memory and keeps category_closure in step with it.
+ * <p>
+ * The tree is an immutable {@link CategoryTree} read from the category table in one query and
+ * replaced as a whole, so readers always see one consistent tree. After a category write commits,
+ * {@link #rebuild()} reads the table again and rewrites category_closure in a single transaction;
+ * product filters join category_closure to include subcategories. Each instance also re-reads the
+ * tree every nhs.category.tree.refresh-interval to pick up writes made through other instances.
+ * Product listings are evicted from the catalog cache whenever the tree changes, as their category
+ * filters now cover other categories.
+ */
+@Slf4j
+@Service
+public class CategoryTreeService {
+    private static final String ROWS = "SELECT id, name, description, parent_category_id FROM category";
+    private static final String INSERT_CLOSURE = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)";
+    private static final int INSERT_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogCache productCatalogCache;
+    private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+    private final CategoryTreeProperties properties;
+    private final TransactionTemplate transaction;
+    private volatile CategoryTree tree;
+    private ScheduledFuture<?> schedule;
+
+    public CategoryTreeService(JdbcTemplate jdbcTemplate,
+                               ProductCatalogCache productCatalogCache,
+                               ThreadPoolTaskScheduler threadPoolTaskScheduler,
+                               CategoryTreeProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productCatalogCache = productCatalogCache;
+        this.threadPoolTaskScheduler = threadPoolTaskScheduler;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // runs after the category write has committed, possibly while its transaction is still bound
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * category_closure is rebuilt once on startup, then the snapshot is re-read every refresh-interval
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        rebuild();
+        if (schedule != null) return;
+        schedule = threadPoolTaskScheduler.scheduleWithFixedDelay(this::reloadQuietly,
+                Instant.now().plus(properties.getRefreshInterval()), properties.getRefreshInterval());
+    }
+
+    /**
+     * The current snapshot, read on first use
+     */
+    public CategoryTree tree() {
+        CategoryTree current = tree;
+        return current != null ? current : reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Reads the categories, rewrites category_closure from them and replaces the snapshot once the
+     * rewrite has committed. One rebuild runs at a time.
+     */
+    public synchronized CategoryTree rebuild() {
+        long start = System.currentTimeMillis();
+        CategoryTree rebuilt = transaction.execute(status -> {
+            CategoryTree read = read();
+            List<CategoryTree.Closure> closure = read.closure();
+            jdbcTemplate.update("DELETE FROM category_closure");
+            jdbcTemplate.batchUpdate(INSERT_CLOSURE, closure, INSERT_BATCH, (ps, row) -> {
+                ps.setInt(1, row.ancestorId());
+                ps.setInt(2, row.descendantId());
+                ps.setInt(3, row.depth());
+            });
+            return read;
+        });
+        replace(rebuilt);
+        log.debug("Category tree rebuilt in {} ms ({} categories)", System.currentTimeMillis() - start, rebuilt.size());
+        return rebuilt;
+    }
+
+    /**
+     * Replaces the snapshot without touching category_closure, which the writing instance rewrites
+     */
+    public synchronized CategoryTree reload() {
+        CategoryTree read = read();
+        replace(read);
+        return read;
+    }
+
+    private CategoryTree read() {
+        List<CategoryTree.Row> rows = new ArrayList<>();
+        jdbcTemplate.query(ROWS, rs -> {
+            rows.add(new CategoryTree.Row(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getObject(4, Integer.class)));
+        });
+        CategoryTree read = CategoryTree.of(rows);
+        if (read.size() < rows.size()) {
+            log.warn("{} categories are left out of the tree: their parent chain loops", rows.size() - read.size());
+        }
+        return read;
+    }
+
+    private void replace(CategoryTree next) {
+        CategoryTree previous = tree;
+        tree = next;
+        if (previous != null && !previous.etag().equals(next.etag())) productCatalogCache.invalidateAll();
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // keep the previous snapshot; a throw would also cancel the schedule
+            log.error("Category tree reload failed", e);
+        }
+    }
+}
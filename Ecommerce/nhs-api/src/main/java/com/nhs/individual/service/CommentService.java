@@ -1,9 +1,15 @@
 package com.nhs.individual.service;
 
 import com.nhs.individual.domain.Comment;
+import com.nhs.individual.dto.CursorPage;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
 import com.nhs.individual.repository.CommentRepository;
+import com.nhs.individual.utils.KeysetCursor;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,14 +18,40 @@ import java.util.List;
 @AllArgsConstructor
 public class CommentService {
     private CommentRepository commentRepository;
+    private ApplicationEventPublisher eventPublisher;
     public Comment save(Comment comment) {
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        if (saved.getProduct() != null) {
+            eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(saved.getProduct().getId()));
+        }
+        return saved;
     }
     public List<Comment> findAllByProductId(int productId, Pageable pageable) {
         return commentRepository.findAllByProductId(productId,pageable);
     }
+    /**
+     * Keyset page of a product's comments, newest first.
+     */
+    public CursorPage<Comment> findAllByProductIdAfter(int productId, String cursor, int size, boolean includeTotal) {
+        PageRequest limit = PageRequest.ofSize(CursorPage.limitFor(size));
+        List<Comment> rows;
+        if (cursor == null) {
+            rows = commentRepository.findFirstByProduct(productId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor, "createAt", Sort.Direction.DESC);
+            rows = commentRepository.findAllByProductAfter(productId, after.instantValue(), after.getId(), limit);
+        }
+        return CursorPage.of(rows, size,
+                comment -> KeysetCursor.of("createAt", Sort.Direction.DESC, comment.getCreateAt(), comment.getId()).encode(),
+                includeTotal ? commentRepository.countByProduct_Id(productId) : null);
+    }
     public void deleteById(int commentId){
-        commentRepository.deleteById(commentId);
+        commentRepository.findById(commentId).ifPresent(comment -> {
+            commentRepository.delete(comment);
+            if (comment.getProduct() != null) {
+                eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(comment.getProduct().getId()));
+            }
+        });
     }
 
 }
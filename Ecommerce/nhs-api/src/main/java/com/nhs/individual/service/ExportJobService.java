@@ -0,0 +1,238 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ExportProperties;
+import com.nhs.individual.constant.ExportFormat;
+import com.nhs.individual.constant.ExportJobStatus;
+import com.nhs.individual.constant.ExportType;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.ShopOrder;
+import com.nhs.individual.dto.ExportJob;
+import com.nhs.individual.exception.ExportJobRejectedException;
+import com.nhs.individual.exception.ExportNotReadyException;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import com.nhs.individual.workbook.ProductCSV;
+import com.nhs.individual.workbook.ProductXLSX;
+import com.nhs.individual.workbook.ShopOrdersCSV;
+import com.nhs.individual.workbook.ShopOrdersXLSX;
+import com.nhs.individual.workbook.WarehouseStockCSV;
+import com.nhs.individual.workbook.WarehouseStockXLSX;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Generates order, product and warehouse stock exports on the bounded export executor instead of
+ * the request thread.
+ * <p>
+ * A job writes to {@code <id>.part} under {@code file.upload-dir/nhs.export.jobs.directory} and
+ * renames it once complete, so a download never sees a half-written file. Jobs are kept in memory
+ * for nhs.export.jobs.ttl after they finish; ExportJobCleanupJob then drops them with their file.
+ * Since jobs are not persisted, status and download must reach the instance that ran the job, and
+ * files left by a previous run are deleted on startup.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor exportExecutor;
+    private final ExportProperties properties;
+    private final ShopOrderService shopOrderService;
+    private final ProductService productService;
+    private final WareHouseItemService wareHouseItemService;
+    private final Path uploadPath;
+    private final Path directory;
+
+    public ExportJobService(@Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor,
+                            ExportProperties properties,
+                            ShopOrderService shopOrderService,
+                            ProductService productService,
+                            WareHouseItemService wareHouseItemService,
+                            @Value("${file.upload-dir:uploads}") String uploadDir) {
+        this.exportExecutor = exportExecutor;
+        this.properties = properties;
+        this.shopOrderService = shopOrderService;
+        this.productService = productService;
+        this.wareHouseItemService = wareHouseItemService;
+        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.directory = uploadPath.resolve(properties.getJobs().getDirectory()).normalize();
+    }
+
+    @FunctionalInterface
+    private interface ExportWriter {
+        void write(ExportJob job, OutputStream out) throws IOException;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void clearLeftovers() throws IOException {
+        if (!directory.startsWith(uploadPath) || directory.equals(uploadPath)) {
+            throw new IllegalStateException("nhs.export.jobs.directory must be a sub folder of file.upload-dir");
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile).forEach(this::delete);
+        }
+    }
+
+    public ExportJob submitOrders(ExportFormat format, List<Specification<ShopOrder>> filter, Integer requestedBy) {
+        int chunkSize = properties.getChunkSize();
+        return submit(ExportType.ORDER, format, requestedBy, () -> shopOrderService.countForExport(filter), (job, out) -> {
+            if (format == ExportFormat.CSV) {
+                try (ShopOrdersCSV csv = new ShopOrdersCSV(out)) {
+                    shopOrderService.forEachForExport(filter, chunkSize, order -> {
+                        csv.append(order);
+                        job.countRow();
+                    });
+                }
+                return;
+            }
+            try (ShopOrdersXLSX workbook = new ShopOrdersXLSX(properties.getRowWindow())) {
+                shopOrderService.forEachForExport(filter, chunkSize, order -> {
+                    workbook.append(order);
+                    job.countRow();
+                });
+                workbook.write(out);
+            }
+        });
+    }
+
+    public ExportJob submitProducts(ExportFormat format, List<Specification<Product>> filter, Integer requestedBy) {
+        int chunkSize = properties.getChunkSize();
+        return submit(ExportType.PRODUCT, format, requestedBy, () -> productService.countForExport(filter), (job, out) -> {
+            if (format == ExportFormat.CSV) {
+                try (ProductCSV csv = new ProductCSV(out)) {
+                    productService.forEachForExport(filter, chunkSize, product -> {
+                        csv.append(product);
+                        job.countRow();
+                    });
+                }
+                return;
+            }
+            try (ProductXLSX workbook = new ProductXLSX(properties.getRowWindow())) {
+                productService.forEachForExport(filter, chunkSize, product -> {
+                    workbook.append(product);
+                    job.countRow();
+                });
+                workbook.write(out);
+            }
+        });
+    }
+
+    /**
+     * @param warehouseId null for every warehouse
+     */
+    public ExportJob submitWarehouseStock(ExportFormat format, Integer warehouseId, Integer requestedBy) {
+        int chunkSize = properties.getChunkSize();
+        return submit(ExportType.WAREHOUSE_STOCK, format, requestedBy, () -> wareHouseItemService.countStockRows(warehouseId), (job, out) -> {
+            if (format == ExportFormat.CSV) {
+                try (WarehouseStockCSV csv = new WarehouseStockCSV(out)) {
+                    wareHouseItemService.forEachStockRow(warehouseId, chunkSize, row -> {
+                        csv.append(row);
+                        job.countRow();
+                    });
+                }
+                return;
+            }
+            try (WarehouseStockXLSX workbook = new WarehouseStockXLSX(properties.getRowWindow())) {
+                wareHouseItemService.forEachStockRow(warehouseId, chunkSize, row -> {
+                    workbook.append(row);
+                    job.countRow();
+                });
+                workbook.write(out);
+            }
+        });
+    }
+
+    public Optional<ExportJob> findById(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * @return the finished file of a completed job
+     */
+    public Path getFile(String id) {
+        ExportJob job = findById(id).orElseThrow(() -> new ResourceNotFoundException("Export job not found"));
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            throw new ExportNotReadyException("Export job is " + job.getStatus());
+        }
+        return job.getFile();
+    }
+
+    /**
+     * Drops finished jobs past their expiry and deletes their files
+     *
+     * @return jobs removed
+     */
+    public int removeExpired() {
+        Instant now = Instant.now();
+        int removed = 0;
+        for (ExportJob job : jobs.values()) {
+            if (!job.isExpired(now)) continue;
+            jobs.remove(job.getId());
+            if (job.getFile() != null) delete(job.getFile());
+            removed++;
+        }
+        return removed;
+    }
+
+    private ExportJob submit(ExportType type, ExportFormat format, Integer requestedBy, LongSupplier count, ExportWriter writer) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), type, format, requestedBy);
+        jobs.put(job.getId(), job);
+        try {
+            exportExecutor.execute(() -> run(job, count, writer));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            throw new ExportJobRejectedException("Too many exports in progress, try again later", e);
+        }
+        log.info("Export job {} queued: {} as {} for user {}", job.getId(), type, format, requestedBy);
+        return job;
+    }
+
+    private void run(ExportJob job, LongSupplier count, ExportWriter writer) {
+        Path partial = directory.resolve(job.getId() + ".part");
+        try {
+            job.started(count.getAsLong());
+            Files.createDirectories(directory);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                writer.write(job, out);
+            }
+            Path file = directory.resolve(job.getFileName());
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.completed(file, Files.size(file), Instant.now().plus(properties.getJobs().getTtl()));
+            log.info("Export job {} completed: {} rows, {} bytes", job.getId(), job.getRowsWritten(), job.getSize());
+        } catch (IOException | RuntimeException e) {
+            log.error("Export job {} failed", job.getId(), e);
+            delete(partial);
+            job.failed("Export failed: " + e.getClass().getSimpleName(), Instant.now().plus(properties.getJobs().getTtl()));
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ImageStoreProperties;
+import com.nhs.individual.constant.ImageVariant;
+import com.nhs.individual.dto.StoredImage;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of uploaded images.
+ * <p>
+ * An upload is hashed with SHA-256 while it is copied to a temp file, then moved to
+ * {@code <a><b>/<c><d>/<sha256>.<ext>} under {@code file.upload-dir/nhs.images.directory}, where
+ * abcd are the first hex digits of the hash; an image uploaded twice is stored once. The type comes
+ * from the file's leading bytes, not from its name or the request.
+ * <p>
+ * The thumbnail and medium variants ({@link ImageVariant}) are generated on the bounded image
+ * executor after the upload, or on their first request when the executor was full. Since a name
+ * is derived from the content, files never change once written and can be cached forever.
+ */
+@Slf4j
+@Service
+public class ImageStoreService {
+    private static final Pattern NAME = Pattern.compile("^([0-9a-f]{64})(?:_([a-z]+))?\\.(jpg|png|gif|webp)$");
+    private static final String PART = ".part";
+    /**
+     * Serializes generation of the variants of one image, so concurrent first requests decode it once
+     */
+    private final Object[] locks = new Object[64];
+
+    private final ImageStoreProperties properties;
+    private final TaskExecutor imageExecutor;
+    private final Path directory;
+
+    public ImageStoreService(ImageStoreProperties properties,
+                             @Qualifier("imageExecutor") TaskExecutor imageExecutor,
+                             @Value("${file.upload-dir:uploads}") String uploadDir) {
+        this.properties = properties;
+        this.imageExecutor = imageExecutor;
+        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.directory = uploadPath.resolve(properties.getDirectory()).normalize();
+        if (!directory.startsWith(uploadPath) || directory.equals(uploadPath)) {
+            throw new IllegalStateException("nhs.images.directory must be a sub folder of file.upload-dir");
+        }
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    }
+
+    /**
+     * Deletes uploads interrupted by the previous shutdown
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void clearLeftovers() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(PART)).forEach(this::deleteQuietly);
+        }
+    }
+
+    /**
+     * @return URL of the original, relative to the site root; the variant URLs derive from it
+     * (see {@link ImageVariant#urls(String)})
+     * @throws IllegalInputException when the file is not a JPEG, PNG, GIF or WebP image
+     */
+    public String store(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) return null;
+        Files.createDirectories(directory);
+        Path part = Files.createTempFile(directory, "upload-", PART);
+        try {
+            MessageDigest sha256 = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+                Files.copy(in, part, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String extension = sniff(part);
+            if (extension == null) {
+                throw new IllegalInputException("Only JPEG, PNG, GIF and WebP images are accepted");
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path original = pathOf(hash, null, extension);
+            if (Files.exists(original)) {
+                log.debug("Upload {} is already stored as {}", file.getOriginalFilename(), original.getFileName());
+            } else {
+                Files.createDirectories(original.getParent());
+                try {
+                    Files.move(part, original, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // the same image uploaded concurrently
+                }
+                submitVariants(hash, extension);
+            }
+            return urlOf(hash, null, extension);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    /**
+     * Resolves a file of the store by its URL segments, generating a missing variant
+     *
+     * @throws ResourceNotFoundException when the name is not one of the store or the original is missing
+     */
+    public StoredImage open(String first, String second, String name) {
+        Matcher parsed = NAME.matcher(name);
+        if (!parsed.matches()) throw new ResourceNotFoundException("Image " + name + " not found");
+        String hash = parsed.group(1);
+        String extension = parsed.group(3);
+        if (!hash.startsWith(first + second) || first.length() != 2 || second.length() != 2) {
+            throw new ResourceNotFoundException("Image " + name + " not found");
+        }
+        if (parsed.group(2) == null) {
+            Path original = pathOf(hash, null, extension);
+            if (!Files.isRegularFile(original)) throw new ResourceNotFoundException("Image " + name + " not found");
+            return new StoredImage(original, mediaTypeOf(extension), hash);
+        }
+
+        ImageVariant variant = ImageVariant.fromSuffix(parsed.group(2));
+        String originalExtension = originalExtension(hash, extension);
+        if (variant == null || originalExtension == null) throw new ResourceNotFoundException("Image " + name + " not found");
+        Path path = pathOf(hash, variant, extension);
+        if (!Files.isRegularFile(path) && !generate(hash, originalExtension, variant)) {
+            // not decodable: the original stands in for its variants
+            return new StoredImage(pathOf(hash, null, originalExtension), mediaTypeOf(originalExtension), hash);
+        }
+        return new StoredImage(path, mediaTypeOf(extension), hash + "_" + variant.suffix);
+    }
+
+    private void submitVariants(String hash, String extension) {
+        try {
+            imageExecutor.execute(() -> {
+                for (ImageVariant variant : ImageVariant.values()) generate(hash, extension, variant);
+            });
+        } catch (TaskRejectedException e) {
+            log.debug("Image executor is full, variants of {} are made on first request", hash);
+        }
+    }
+
+    /**
+     * @return whether the variant exists afterwards
+     */
+    private boolean generate(String hash, String extension, ImageVariant variant) {
+        String variantExtension = ImageVariant.extensionOf(extension);
+        Path target = pathOf(hash, variant, variantExtension);
+        synchronized (locks[Integer.parseInt(hash.substring(0, 2), 16) % locks.length]) {
+            if (Files.isRegularFile(target)) return true;
+            Path part = null;
+            try {
+                BufferedImage source = ImageIO.read(pathOf(hash, null, extension).toFile());
+                if (source == null) return false;
+                int width = variant == ImageVariant.THUMBNAIL ? properties.getThumbnailWidth() : properties.getMediumWidth();
+                BufferedImage resized = resize(source, width, !"jpg".equals(variantExtension));
+                part = Files.createTempFile(directory, "variant-", PART);
+                write(resized, variantExtension, part);
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not generate the {} variant of image {}", variant.suffix, hash, e);
+                return false;
+            } finally {
+                if (part != null) deleteQuietly(part);
+            }
+        }
+    }
+
+    /**
+     * Scales down by halves, then to the final width; a single bilinear step from a large photo
+     * skips most of its pixels and looks aliased. Never scales up.
+     */
+    private static BufferedImage resize(BufferedImage source, int maxWidth, boolean alpha) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (double) width / source.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(height, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, type);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            graphics.dispose();
+            current = step;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    private void write(BufferedImage image, String extension, Path target) throws IOException {
+        if (!"jpg".equals(extension)) {
+            ImageIO.write(image, extension, target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getJpegQuality());
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Extension of the stored original a variant of this extension comes from
+     */
+    private String originalExtension(String hash, String variantExtension) {
+        for (String extension : new String[]{"jpg", "png", "gif", "webp"}) {
+            if (ImageVariant.extensionOf(extension).equals(variantExtension) && Files.isRegularFile(pathOf(hash, null, extension))) {
+                return extension;
+            }
+        }
+        return null;
+    }
+
+    private Path pathOf(String hash, ImageVariant variant, String extension) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(fileName(hash, variant, extension));
+    }
+
+    private String urlOf(String hash, ImageVariant variant, String extension) {
+        return "/uploads/" + properties.getDirectory() + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/"
+                + fileName(hash, variant, extension);
+    }
+
+    private static String fileName(String hash, ImageVariant variant, String extension) {
+        return variant == null ? hash + "." + extension : hash + "_" + variant.suffix + "." + extension;
+    }
+
+    private static MediaType mediaTypeOf(String extension) {
+        return switch (extension) {
+            case "jpg" -> MediaType.IMAGE_JPEG;
+            case "png" -> MediaType.IMAGE_PNG;
+            case "gif" -> MediaType.IMAGE_GIF;
+            default -> MediaType.parseMediaType("image/webp");
+        };
+    }
+
+    /**
+     * @return extension of the image type announced by the first bytes, null for anything else
+     */
+    private static String sniff(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) return "jpg";
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') return "png";
+        if (read >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') return "gif";
+        if (read == 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') return "webp";
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+}
@@ -1,35 +0,0 @@
-package com.nhs.individual.service;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
-import java.nio.file.*;
-
-@Service
-public class LocalFileStorageService {
-
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
-
-    public String saveFile(MultipartFile file) throws IOException {
-        if (file == null || file.isEmpty()) return null;
-
-        // Ensure folder exists
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Create unique filename
-        String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(fileName);
-
-        // Save file
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        return "/uploads/" + fileName;
-    }
-}
-
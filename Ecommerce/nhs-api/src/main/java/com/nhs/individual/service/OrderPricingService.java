@@ -0,0 +1,83 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.domain.OrderLine;
+import com.nhs.individual.domain.ShippingMethod;
+import com.nhs.individual.domain.ShopOrder;
+import com.nhs.individual.dto.ItemPrice;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import com.nhs.individual.exception.StalePriceException;
+import com.nhs.individual.repository.ProductItemRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Prices an order on the server before it is saved.
+ * <p>
+ * Unit prices of every product item in the order come from one IN query; the shipping method
+ * comes from the in-memory shipping table. Line totals sent by the client are only used to detect
+ * a stale cart: when one differs from current price * qty the order is rejected with
+ * {@link StalePriceException} so the client can show the new prices.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class OrderPricingService {
+    private ProductItemRepository productItemRepository;
+    private ShippingMethodService shippingMethodService;
+
+    /**
+     * Set every line total, the shipping method and the order total
+     *
+     * @return the order total
+     * @throws StalePriceException when a client line total no longer matches the current price
+     */
+    public BigDecimal price(ShopOrder order) {
+        if (order.getOrderLines() == null || order.getOrderLines().isEmpty())
+            throw new IllegalInputException("Order has no order lines");
+        Set<Integer> itemIds = new HashSet<>();
+        for (OrderLine line : order.getOrderLines()) {
+            if (line.getProductItem() == null || line.getProductItem().getId() == null)
+                throw new IllegalInputException("Order line has no product item");
+            if (line.getQty() == null || line.getQty() <= 0)
+                throw new IllegalInputException("Order line quantity must be greater than 0");
+            itemIds.add(line.getProductItem().getId());
+        }
+        Map<Integer, BigDecimal> prices = productItemRepository.findPrices(itemIds).stream()
+                .filter(itemPrice -> itemPrice.price() != null)
+                .collect(Collectors.toMap(ItemPrice::productItemId, ItemPrice::price));
+
+        BigDecimal total = BigDecimal.ZERO;
+        Map<Integer, BigDecimal> stale = new TreeMap<>();
+        for (OrderLine line : order.getOrderLines()) {
+            Integer itemId = line.getProductItem().getId();
+            BigDecimal price = prices.get(itemId);
+            if (price == null) throw new ResourceNotFoundException("Product item " + itemId + " not found or has no price");
+            BigDecimal lineTotal = price.multiply(BigDecimal.valueOf(line.getQty()));
+            if (line.getTotal() != null && line.getTotal().compareTo(lineTotal) != 0) stale.put(itemId, price);
+            line.setTotal(lineTotal);
+            total = total.add(lineTotal);
+        }
+        if (!stale.isEmpty()) {
+            log.info("Rejected order with stale prices for product items {}", stale.keySet());
+            throw new StalePriceException(stale);
+        }
+
+        if (order.getShippingMethod() != null) {
+            ShippingMethod shippingMethod = shippingMethodService.findById(order.getShippingMethod().getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Shipping method " + order.getShippingMethod().getId() + " not found"));
+            order.setShippingMethod(shippingMethod);
+            if (shippingMethod.getPrice() != null) total = total.add(shippingMethod.getPrice());
+        }
+        order.setTotal(total);
+        return total;
+    }
+}
@@ -0,0 +1,124 @@
+package com.nhs.individual.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhs.individual.config.CatalogCacheProperties;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.dto.CatalogPage;
+import com.nhs.individual.utils.CatalogCacheKey;
+import com.nhs.individual.views.ProductOverView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the public catalog listings (/api/v1/product and /api/v2/product).
+ * <p>
+ * Tier 1 is the in-process Caffeine cache built in {@code CatalogCacheConfiguration};
+ * tier 2 is an optional {@link CatalogRemoteStore}. Pages are stored as JSON-detached
+ * snapshots so no lazy Hibernate proxy outlives its session. Any catalog write calls
+ * {@link #invalidateAll()}, which clears both tiers once the surrounding transaction commits.
+ */
+@Slf4j
+@Component
+public class ProductCatalogCache {
+    public static final String PRODUCTS = "catalog.products";
+    public static final String OVERVIEWS = "catalog.overviews";
+
+    private final Cache products;
+    private final Cache overviews;
+    private final CatalogRemoteStore remoteStore;
+    private final CatalogCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    /**
+     * Bumped on every invalidation; a page loaded across an invalidation is returned but not stored.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCatalogCache(CacheManager cacheManager,
+                               ObjectProvider<CatalogRemoteStore> remoteStore,
+                               CatalogCacheProperties properties,
+                               ObjectMapper objectMapper) {
+        this.products = cacheManager.getCache(PRODUCTS);
+        this.overviews = cacheManager.getCache(OVERVIEWS);
+        this.remoteStore = remoteStore.getIfAvailable();
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public Page<Product> products(CatalogCacheKey key, Supplier<Page<Product>> loader) {
+        return lookup(products, Product.class, key, loader);
+    }
+
+    public Page<ProductOverView> overviews(CatalogCacheKey key, Supplier<Page<ProductOverView>> loader) {
+        return lookup(overviews, ProductOverView.class, key, loader);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAll();
+                }
+            });
+        } else {
+            evictAll();
+        }
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        products.clear();
+        overviews.clear();
+        if (remoteStore != null) {
+            remoteStore.clear(PRODUCTS);
+            remoteStore.clear(OVERVIEWS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Page<T> lookup(Cache cache, Class<T> type, CatalogCacheKey key, Supplier<Page<T>> loader) {
+        if (!properties.isEnabled()) return loader.get();
+        CatalogPage<T> cached = cache.get(key.getValue(), CatalogPage.class);
+        if (cached != null) return cached.toPage();
+
+        JavaType pageType = objectMapper.getTypeFactory().constructParametricType(CatalogPage.class, type);
+        if (remoteStore != null) {
+            byte[] remote = remoteStore.get(cache.getName(), key.getValue());
+            if (remote != null) {
+                try {
+                    CatalogPage<T> snapshot = objectMapper.readValue(remote, pageType);
+                    cache.put(key.getValue(), snapshot);
+                    return snapshot.toPage();
+                } catch (IOException e) {
+                    log.warn("Discarding unreadable remote catalog entry {}: {}", key, e.getMessage());
+                }
+            }
+        }
+
+        long startedAt = generation.get();
+        Page<T> page = loader.get();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(CatalogPage.from(page));
+            CatalogPage<T> snapshot = objectMapper.readValue(json, pageType);
+            if (startedAt == generation.get()) {
+                cache.put(key.getValue(), snapshot);
+                if (remoteStore != null) remoteStore.put(cache.getName(), key.getValue(), json, properties.getRemoteTtl());
+            }
+        } catch (IOException e) {
+            log.warn("Catalog page {} is not cacheable: {}", key, e.getMessage());
+        }
+        return page;
+    }
+}
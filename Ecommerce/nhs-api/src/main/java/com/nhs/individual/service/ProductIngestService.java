@@ -0,0 +1,257 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ProductIngestProperties;
+import com.nhs.individual.constant.IngestFormat;
+import com.nhs.individual.dto.ProductIngestReport;
+import com.nhs.individual.dto.ProductIngestRow;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
+import com.nhs.individual.workbook.ProductIngestReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Loads a supplier catalog into product, product_item and product_item_options, keyed by external SKU.
+ * <p>
+ * The body is read line by line by {@link ProductIngestReader}. Categories and variation options are
+ * read once into maps, so a line is validated without a query. Valid lines are collected into chunks
+ * of {@code batch-size}; each chunk is written in its own transaction with one multi-row
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} per table (entity ids are IDENTITY, so Hibernate would
+ * insert row by row), and the ids are read back by SKU in one query per table. Sending the same body
+ * again updates the same rows.
+ * <p>
+ * An item's options, when the line has any, replace its stored options. Description, manufacturer and
+ * pictures left out keep the stored ones. A bad line is listed in the report instead of failing the
+ * body; if a chunk still fails in the database, only that chunk is rolled back and its lines reported.
+ */
+@Slf4j
+@Service
+public class ProductIngestService {
+    private static final int SKU_LENGTH = 64;
+    private static final int NAME_LENGTH = 45;
+    private static final String UPSERT_PRODUCTS = "INSERT INTO product (external_sku, category_id, name, description, manufacturer, picture) VALUES ";
+    private static final String ON_DUPLICATE_PRODUCT = " ON DUPLICATE KEY UPDATE category_id = VALUES(category_id), name = VALUES(name), " +
+            "description = COALESCE(VALUES(description), description), manufacturer = COALESCE(VALUES(manufacturer), manufacturer), " +
+            "picture = COALESCE(VALUES(picture), picture)";
+    private static final String UPSERT_ITEMS = "INSERT INTO product_item (external_sku, product_id, price, original_price, picture) VALUES ";
+    private static final String ON_DUPLICATE_ITEM = " ON DUPLICATE KEY UPDATE product_id = VALUES(product_id), price = VALUES(price), " +
+            "original_price = VALUES(original_price), picture = COALESCE(VALUES(picture), picture)";
+    private static final String INSERT_OPTIONS = "INSERT INTO product_item_options (product_item_id, variation_option_id) VALUES ";
+    /** category name that several categories share; such lines must give categoryId */
+    private static final int AMBIGUOUS = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductIngestProperties properties;
+    private final TransactionTemplate transaction;
+
+    /**
+     * A line that passed validation, with its category and options resolved
+     */
+    private record Line(ProductIngestRow row, String productSku, int categoryId, BigDecimal originalPrice,
+                        List<Integer> optionIds) {
+    }
+
+    public ProductIngestService(JdbcTemplate jdbcTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                ProductIngestProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param progress called after every chunk with the counts so far
+     */
+    public ProductIngestReport ingest(InputStream body, IngestFormat format,
+                                      Consumer<ProductIngestReport.Progress> progress) throws IOException {
+        Set<Integer> categoryIds = new HashSet<>();
+        Map<String, Integer> categories = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM category", rs -> {
+            categoryIds.add(rs.getInt(1));
+            if (rs.getString(2) != null) categories.merge(key(rs.getString(2)), rs.getInt(1), (first, second) -> AMBIGUOUS);
+        });
+        Map<String, Integer> options = new HashMap<>();
+        jdbcTemplate.query("SELECT o.id, v.name, o.value FROM variation_option o JOIN variation v ON v.id = o.variation_id", rs -> {
+            if (rs.getString(2) != null && rs.getString(3) != null) {
+                options.merge(optionKey(rs.getString(2), rs.getString(3)), rs.getInt(1), (first, second) -> AMBIGUOUS);
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        ProductIngestReport report = new ProductIngestReport(properties.getMaxReportedErrors());
+        Set<String> productSkus = new HashSet<>();
+        List<Line> chunk = new ArrayList<>(properties.getBatchSize());
+        ProductIngestReader.read(body, format, row -> {
+            report.read();
+            Line line = validate(row, categoryIds, categories, options, report);
+            if (line == null) return;
+            chunk.add(line);
+            if (chunk.size() >= properties.getBatchSize()) {
+                write(chunk, report, productSkus);
+                chunk.clear();
+                progress.accept(report.progress());
+            }
+        });
+        if (!chunk.isEmpty()) {
+            write(chunk, report, productSkus);
+            progress.accept(report.progress());
+        }
+        log.info("Product ingestion: {} lines read, {} items of {} products imported, {} rejected in {} ms",
+                report.getLinesRead(), report.getImported(), report.getProducts(), report.getRejected(),
+                System.currentTimeMillis() - start);
+        return report;
+    }
+
+    private Line validate(ProductIngestRow row, Set<Integer> categoryIds, Map<String, Integer> categories,
+                          Map<String, Integer> options, ProductIngestReport report) {
+        if (row.error() != null) return reject(report, row, row.error());
+        if (row.sku() == null || row.sku().isBlank()) return reject(report, row, "sku is required");
+        String productSku = row.productSku() == null ? row.sku() : row.productSku();
+        if (row.sku().length() > SKU_LENGTH || productSku.length() > SKU_LENGTH) {
+            return reject(report, row, "SKUs must not be longer than " + SKU_LENGTH + " characters");
+        }
+        if (row.name() == null || row.name().isBlank()) return reject(report, row, "name is required");
+        if (row.name().length() > NAME_LENGTH) return reject(report, row, "name must not be longer than " + NAME_LENGTH + " characters");
+
+        Integer categoryId;
+        if (row.categoryId() != null) {
+            categoryId = categoryIds.contains(row.categoryId()) ? row.categoryId() : null;
+            if (categoryId == null) return reject(report, row, "Category " + row.categoryId() + " not found");
+        } else if (row.category() != null) {
+            categoryId = categories.get(key(row.category()));
+            if (categoryId == null) return reject(report, row, "Category " + row.category() + " not found");
+            if (categoryId == AMBIGUOUS) return reject(report, row, "Several categories are named " + row.category() + ", give categoryId");
+        } else {
+            return reject(report, row, "categoryId or category is required");
+        }
+
+        if (row.price() == null) return reject(report, row, "price is required");
+        BigDecimal originalPrice = row.originalPrice() == null ? row.price() : row.originalPrice();
+        if (row.price().signum() < 0 || originalPrice.signum() < 0) return reject(report, row, "Prices must not be negative");
+
+        List<Integer> optionIds = null;
+        if (row.options() != null) {
+            optionIds = new ArrayList<>(row.options().size());
+            for (Map.Entry<String, String> option : row.options().entrySet()) {
+                Integer optionId = options.get(optionKey(option.getKey(), option.getValue()));
+                if (optionId == null || optionId == AMBIGUOUS) {
+                    return reject(report, row, "Option " + option.getKey() + "=" + option.getValue() + " not found");
+                }
+                optionIds.add(optionId);
+            }
+        }
+        return new Line(row, productSku, categoryId, originalPrice, optionIds);
+    }
+
+    private void write(List<Line> chunk, ProductIngestReport report, Set<String> productSkus) {
+        // the last line of a SKU wins, as it would if the lines were sent one by one
+        Map<String, Line> items = new LinkedHashMap<>();
+        Map<String, Line> products = new LinkedHashMap<>();
+        for (Line line : chunk) {
+            items.put(line.row().sku(), line);
+            products.put(line.productSku(), line);
+        }
+        try {
+            transaction.executeWithoutResult(status -> {
+                List<Object> args = new ArrayList<>();
+                for (Line line : products.values()) {
+                    ProductIngestRow row = line.row();
+                    Collections.addAll(args, line.productSku(), line.categoryId(), row.name(), row.description(),
+                            row.manufacturer(), row.picture());
+                }
+                jdbcTemplate.update(UPSERT_PRODUCTS + values(products.size(), 6) + ON_DUPLICATE_PRODUCT, args.toArray());
+                Map<String, Integer> productIds = ids("product", products.keySet());
+
+                args.clear();
+                for (Line line : items.values()) {
+                    Collections.addAll(args, line.row().sku(), productIds.get(line.productSku()), line.row().price(),
+                            line.originalPrice(), line.row().picture());
+                }
+                jdbcTemplate.update(UPSERT_ITEMS + values(items.size(), 5) + ON_DUPLICATE_ITEM, args.toArray());
+                Map<String, Integer> itemIds = ids("product_item", items.keySet());
+
+                List<Integer> replaced = new ArrayList<>();
+                args.clear();
+                for (Line line : items.values()) {
+                    if (line.optionIds() == null) continue;
+                    Integer itemId = itemIds.get(line.row().sku());
+                    replaced.add(itemId);
+                    for (Integer optionId : new HashSet<>(line.optionIds())) Collections.addAll(args, itemId, optionId);
+                }
+                if (!replaced.isEmpty()) {
+                    jdbcTemplate.update("DELETE FROM product_item_options WHERE product_item_id IN (" + placeholders(replaced.size()) + ")",
+                            replaced.toArray());
+                }
+                if (!args.isEmpty()) jdbcTemplate.update(INSERT_OPTIONS + values(args.size() / 2, 2), args.toArray());
+
+                eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProducts(List.copyOf(productIds.values())));
+            });
+            int newProducts = 0;
+            for (String productSku : products.keySet()) {
+                if (productSkus.add(productSku)) newProducts++;
+            }
+            report.imported(chunk.size(), newProducts);
+        } catch (DataAccessException e) {
+            log.warn("Product ingestion chunk of lines {}-{} failed", chunk.get(0).row().line(),
+                    chunk.get(chunk.size() - 1).row().line(), e);
+            for (Line line : chunk) {
+                report.reject(line.row().line(), "Chunk rejected by the database: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ids of the rows of {@code table} with these external SKUs
+     */
+    private Map<String, Integer> ids(String table, Collection<String> skus) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, external_sku FROM " + table + " WHERE external_sku IN (" + placeholders(skus.size()) + ")",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getInt(1));
+                }, skus.toArray());
+        return ids;
+    }
+
+    private static Line reject(ProductIngestReport report, ProductIngestRow row, String message) {
+        report.reject(row.line(), message);
+        return null;
+    }
+
+    private static String values(int rows, int columns) {
+        return String.join(", ", Collections.nCopies(rows, "(" + placeholders(columns) + ")"));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String optionKey(String variation, String value) {
+        return key(variation) + '\u0000' + key(value);
+    }
+}
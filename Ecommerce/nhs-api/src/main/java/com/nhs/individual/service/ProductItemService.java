@@ -2,14 +2,16 @@ package com.nhs.individual.service;
 
 import com.nhs.individual.domain.Product;
 import com.nhs.individual.domain.ProductItem;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.repository.CartItemRepository;
 import com.nhs.individual.repository.OrderLineRepository;
 import com.nhs.individual.repository.ProductItemRepository;
 import com.nhs.individual.repository.WarehouseItemRepository;
-import com.nhs.individual.utils.ObjectUtils;
+import com.nhs.individual.utils.ObjectMerger;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
@@ -19,6 +21,8 @@ import java.util.Optional;
 
 @Service
 public class ProductItemService {
+    /** the item edit form sends its options; productId only mirrors product */
+    private static final ObjectMerger<ProductItem> MERGER = ObjectMerger.of(ProductItem.class).including("options").excluding("productId");
     @Autowired
     ProductItemRepository productItemRepository;
     @Autowired
@@ -33,10 +37,17 @@ public class ProductItemService {
     CartItemRepository cartItemRepository;
     @Autowired
     WarehouseItemRepository warehouseItemRepository;
+    @Autowired
+    ProductCatalogCache productCatalogCache;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
     public ProductItem create(Integer productId, ProductItem productItem){
         return productService.findById(productId).map(product -> {
             productItem.setProduct(product);
-            return productItemRepository.save(productItem);
+            ProductItem saved = productItemRepository.save(productItem);
+            productCatalogCache.invalidateAll();
+            eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(productId));
+            return saved;
         }).orElseThrow(()->new ResourceNotFoundException("product with id"+productId+" not found"));
     }
     public Product saveAll(Integer productId, List<ProductItem> productItems){
@@ -46,6 +57,8 @@ public class ProductItemService {
                 productItem.setProduct(product);
                 productItemRepository.save(productItem);
             });
+            productCatalogCache.invalidateAll();
+            eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(productId));
             return product;
         }).orElseThrow(()->new ResourceNotFoundException("product with id"+productId+" not found"));
     }
@@ -58,9 +71,9 @@ public class ProductItemService {
     @Transactional
     public void deleteById(int id){
         // Check if product item exists
-        if (!productItemRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product item with id " + id + " not found");
-        }
+        Integer productId = productItemRepository.findById(id)
+                .map(ProductItem::getProductId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product item with id " + id + " not found"));
         
         // Check if product item has any order lines (cannot delete items that have been ordered)
         boolean hasOrderLines = orderLineRepository.existsByProductItemId(id);
@@ -78,9 +91,16 @@ public class ProductItemService {
         
         // Now safe to delete the product item
         productItemRepository.deleteById(id);
+        productCatalogCache.invalidateAll();
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(productId));
     }
     public ProductItem update(Integer id,ProductItem productItem){
-        return productItemRepository.save(findById(id).map(oldProductItem-> ObjectUtils.merge(oldProductItem,productItem, ProductItem.class)).orElseThrow(()->new ResourceNotFoundException("Product item with id " + id+" not found")));
+        ProductItem oldProductItem = findById(id).orElseThrow(()->new ResourceNotFoundException("Product item with id " + id+" not found"));
+        if (MERGER.merge(oldProductItem, productItem).isEmpty()) return oldProductItem;
+        ProductItem saved = productItemRepository.save(oldProductItem);
+        productCatalogCache.invalidateAll();
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(saved.getProductId()));
+        return saved;
     }
 
 }
@@ -0,0 +1,233 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.ProductItem;
+import com.nhs.individual.domain.VariationOption;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
+import com.nhs.individual.repository.ProductRepository;
+import com.nhs.individual.repository.sub_repository.ProductOverviewRepository;
+import com.nhs.individual.views.ProductOverView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process Lucene index over product name, manufacturer, description and variation option values.
+ * <p>
+ * Text is NFC-normalized, lower-cased and ASCII-folded on both sides, so "ao thun", "Áo Thun" and
+ * "áo thun" all match, and đ folds to d. Every query token must match some field, either exactly
+ * (BM25 scored, boosted by field) or as a prefix. The index lives in memory: it is rebuilt once the
+ * application is ready and kept current from {@link ProductOverviewChangedEvent}s.
+ */
+@Slf4j
+@Service
+public class ProductSearchService {
+    private static final String ID = "id";
+    private static final String CATEGORY = "category";
+    private static final Map<String, Float> FIELDS = Map.of(
+            "name", 4f,
+            "manufacturer", 2f,
+            "options", 1.5f,
+            "description", 1f);
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final int REBUILD_BATCH = 200;
+
+    private final ProductRepository productRepository;
+    private final ProductOverviewRepository productOverviewRepository;
+    private final Analyzer analyzer = new FoldingAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public ProductSearchService(ProductRepository productRepository,
+                                ProductOverviewRepository productOverviewRepository) throws IOException {
+        this.productRepository = productRepository;
+        this.productOverviewRepository = productOverviewRepository;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    public Page<ProductOverView> search(String text, List<Integer> categories, Pageable pageable) {
+        Query query = buildQuery(text, categories);
+        if (query == null) return Page.empty(pageable);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int total = searcher.count(query);
+                long end = Math.min(pageable.getOffset() + pageable.getPageSize(), total);
+                if (pageable.getOffset() >= end) return new PageImpl<>(List.of(), pageable, total);
+                TopDocs topDocs = searcher.search(query, (int) end);
+                StoredFields storedFields = searcher.storedFields();
+                List<Integer> ids = new ArrayList<>();
+                for (int i = (int) pageable.getOffset(); i < topDocs.scoreDocs.length; i++) {
+                    ids.add(Integer.valueOf(storedFields.document(topDocs.scoreDocs[i].doc).get(ID)));
+                }
+                Map<Integer, ProductOverView> rows = productOverviewRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(ProductOverView::getId, Function.identity()));
+                List<ProductOverView> content = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+                return new PageImpl<>(content, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Product search failed", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            writer.deleteAll();
+            Page<Product> page = productRepository.findAll(PageRequest.of(0, REBUILD_BATCH));
+            while (true) {
+                for (Product product : page) writer.addDocument(toDocument(product));
+                if (!page.hasNext()) break;
+                page = productRepository.findAll(page.nextPageable());
+            }
+            searcherManager.maybeRefresh();
+            log.info("Product search index rebuilt in {} ms ({} products)",
+                    System.currentTimeMillis() - start, page.getTotalElements());
+        } catch (IOException | RuntimeException e) {
+            log.error("Product search index rebuild failed", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductOverviewChangedEvent event) {
+        if (event.getProductIds().isEmpty()) return;
+        try {
+            for (Integer productId : event.getProductIds()) {
+                Term id = new Term(ID, productId.toString());
+                Product product = productRepository.findById(productId).orElse(null);
+                if (product == null) writer.deleteDocuments(id);
+                else writer.updateDocument(id, toDocument(product));
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.error("Failed to re-index products {}", event.getProductIds(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private Document toDocument(Product product) {
+        Document document = new Document();
+        document.add(new StringField(ID, product.getId().toString(), Field.Store.YES));
+        if (product.getCategoryId() != null) document.add(new IntPoint(CATEGORY, product.getCategoryId()));
+        addText(document, "name", product.getName());
+        addText(document, "manufacturer", product.getManufacturer());
+        addText(document, "description", product.getDescription());
+        if (product.getProductItems() != null) {
+            product.getProductItems().stream()
+                    .map(ProductItem::getOptions)
+                    .filter(Objects::nonNull)
+                    .flatMap(options -> options.stream().map(VariationOption::getValue))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(value -> addText(document, "options", value));
+        }
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) document.add(new TextField(field, Normalizer.normalize(value, Normalizer.Form.NFC), Field.Store.NO));
+    }
+
+    private Query buildQuery(String text, List<Integer> categories) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) return null;
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String token : tokens) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            FIELDS.forEach((field, boost) -> {
+                anyField.add(new BoostQuery(new TermQuery(new Term(field, token)), boost), BooleanClause.Occur.SHOULD);
+                if (token.length() > 1) {
+                    anyField.add(new BoostQuery(new PrefixQuery(new Term(field, token)), boost * PREFIX_WEIGHT), BooleanClause.Occur.SHOULD);
+                }
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        if (categories != null && !categories.isEmpty()) {
+            query.add(IntPoint.newSetQuery(CATEGORY, categories), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) return tokens;
+        try (TokenStream stream = analyzer.tokenStream("name", Normalizer.normalize(text, Normalizer.Form.NFC))) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) tokens.add(term.toString());
+            stream.end();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return tokens;
+    }
+
+    private static final class FoldingAnalyzer extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer source = new StandardTokenizer();
+            TokenStream result = new ASCIIFoldingFilter(new LowerCaseFilter(source));
+            return new TokenStreamComponents(source, result);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
@@ -1,29 +1,45 @@
 package com.nhs.individual.service;
 
 import com.nhs.individual.domain.Product;
+import com.nhs.individual.dto.CursorPage;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
+import com.nhs.individual.exception.IllegalInputException;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.repository.CartItemRepository;
+import com.nhs.individual.repository.KeysetChunkReader;
 import com.nhs.individual.repository.OrderLineRepository;
 import com.nhs.individual.repository.ProductRepository;
 import com.nhs.individual.repository.WarehouseItemRepository;
+import com.nhs.individual.specification.ISpecification.KeysetSpecification;
 import com.nhs.individual.specification.ProductSpecification;
-import com.nhs.individual.utils.ObjectUtils;
+import com.nhs.individual.utils.KeysetCursor;
+import com.nhs.individual.utils.ObjectMerger;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
+    /** picture and category are applied by update itself; categoryId only mirrors category */
+    private static final ObjectMerger<Product> MERGER = ObjectMerger.of(Product.class).excluding("picture", "category", "categoryId");
     @Autowired
     ProductRepository productRepository;
     @Autowired
+    KeysetChunkReader keysetChunkReader;
+    @Autowired
     CategoryService categoryService;
     @Autowired
     OrderLineRepository orderLineRepository;
@@ -31,9 +47,16 @@ public class ProductService {
     CartItemRepository cartItemRepository;
     @Autowired
     WarehouseItemRepository warehouseItemRepository;
+    @Autowired
+    ProductCatalogCache productCatalogCache;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
     public Product save(Product product){
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCatalogCache.invalidateAll();
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(saved.getId()));
+        return saved;
     }
     public Product create(Product product){
         if(product.getCategory()==null) throw new IllegalArgumentException("Product must be dependent on a category");
@@ -43,7 +66,10 @@ public class ProductService {
             if(product.getProductItems()!=null){
                 product.getProductItems().forEach((productItem -> productItem.setProduct(product)));
             }
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            productCatalogCache.invalidateAll();
+            eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(saved.getId()));
+            return saved;
         }).orElseThrow(()->new ResourceNotFoundException("Category with id " + categoryId+" not found"));
     }
     public Collection<Product> findAll(Pageable pageable){
@@ -60,9 +86,54 @@ public class ProductService {
             return productRepository.findAll(spec,pageable);
         }
     }
+
+    /**
+     * Keyset variant of {@link #findAll(List, Pageable)}: cost does not grow with the page depth.
+     *
+     * @param sortBy       "id" or "name"
+     * @param cursor       nextCursor of the previous page, null for the first page
+     * @param includeTotal run the COUNT query as well
+     */
+    public CursorPage<Product> findAllAfter(List<Specification<Product>> specs, String sortBy, Sort.Direction direction,
+                                            String cursor, int size, boolean includeTotal){
+        if(!"id".equals(sortBy) && !"name".equals(sortBy))
+            throw new IllegalInputException("Cursor paging on products supports sortBy=id or sortBy=name");
+        Specification<Product> filter = Specification.allOf(specs);
+        Specification<Product> page = filter;
+        if(cursor!=null){
+            KeysetCursor after = KeysetCursor.decode(cursor, sortBy, direction);
+            page = filter.and(KeysetSpecification.after(sortBy, "id".equals(sortBy) ? null : after.getValue(), after.getId(), direction));
+        }
+        List<Product> rows = productRepository.findAllAfter(page, KeysetSpecification.sort(sortBy, direction), CursorPage.limitFor(size));
+        return CursorPage.of(rows, size,
+                product -> KeysetCursor.of(sortBy, direction, "id".equals(sortBy) ? product.getId() : product.getName(), product.getId()).encode(),
+                includeTotal ? productRepository.count(filter) : null);
+    }
     public Optional<Product> findById(Integer id){
         return productRepository.findById(id);
     }
+    public Optional<Product> findDetailById(Integer id){
+        return productRepository.findDetailById(id);
+    }
+
+    /**
+     * Every product matching the filters, in id order, for the XLSX export; see {@link KeysetChunkReader}.
+     *
+     * @return products exported
+     */
+    public long forEachForExport(List<Specification<Product>> specs, int chunkSize, Consumer<Product> consumer){
+        return keysetChunkReader.forEach(Product.class, Specification.allOf(specs), chunkSize,
+                productRepository::findDetailByIdIn, Product::getId, consumer);
+    }
+    /**
+     * Products matching the export filters; distinct, since price and option filters join product items
+     */
+    public long countForExport(List<Specification<Product>> specs){
+        return productRepository.count(Specification.allOf(specs).and((root, query, cb) -> {
+            query.distinct(true);
+            return null;
+        }));
+    }
     public Collection<Product> findAllByCategoryId(Integer categoryId){
         return productRepository.findAllByCategory_id(categoryId);
     }
@@ -71,33 +142,25 @@ public class ProductService {
     }
     public Product update(Integer id,Product product){
         return productRepository.findById(id).map(oldProduct-> {
-            // Store the picture value from the update request before merge
-            // (since ObjectUtils.merge skips null values, we need to handle picture deletion explicitly)
-            String requestedPicture = product.getPicture();
-            
-            // Merge new data into old product
-            Product merged = ObjectUtils.merge(oldProduct, product, Product.class);
-            
-            // Handle picture explicitly:
-            // - If requestedPicture is null and old product had a picture, delete it (set to null)
-            // - If requestedPicture is not null, use it (already merged by ObjectUtils.merge)
-            // - If both are null, keep it null (already null)
-            if (requestedPicture == null && oldProduct.getPicture() != null) {
-                // Picture is being explicitly removed - set to null
-                merged.setPicture(null);
-            } else if (requestedPicture != null) {
-                // New picture provided - ensure it's set (should already be merged, but set explicitly to be sure)
-                merged.setPicture(requestedPicture);
+            Set<String> changed = new LinkedHashSet<>(MERGER.merge(oldProduct, product));
+            // a null picture in the request removes the picture, unlike the other properties
+            if (!Objects.equals(oldProduct.getPicture(), product.getPicture())) {
+                oldProduct.setPicture(product.getPicture());
+                changed.add("picture");
             }
-            // If both requestedPicture and oldProduct.picture are null, merged.picture is already null
-            
-            // Ensure category is properly set if provided
-            if (product.getCategory() != null && product.getCategory().getId() != null) {
-                Integer categoryId = product.getCategory().getId();
-                categoryService.findById(categoryId).ifPresent(merged::setCategory);
+            // the category is loaded, so the saved product carries it whole
+            Integer categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            if (categoryId != null && (oldProduct.getCategory() == null || !categoryId.equals(oldProduct.getCategory().getId()))) {
+                categoryService.findById(categoryId).ifPresent(category -> {
+                    oldProduct.setCategory(category);
+                    changed.add("category");
+                });
             }
-            // Save and return updated product
-            return productRepository.save(merged);
+            if (changed.isEmpty()) return oldProduct;
+            Product saved = productRepository.save(oldProduct);
+            productCatalogCache.invalidateAll();
+            eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(saved.getId()));
+            return saved;
         }).orElseThrow(()->new RuntimeException("Product not found"));
     }
     @Transactional
@@ -122,6 +185,8 @@ public class ProductService {
         
         // Now safe to delete the product (cascade will delete product items)
         productRepository.deleteById(id);
+        productCatalogCache.invalidateAll();
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProduct(id));
     }
 
     public List<Product> custom(List<ProductSpecification> specifications, Pageable pageable){
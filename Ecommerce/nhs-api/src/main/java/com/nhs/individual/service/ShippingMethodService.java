@@ -6,12 +6,45 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Shipping methods are a handful of rows that only change with a deployment, so the table is
+ * read once and kept in memory. Call {@link #refresh()} after editing it by hand.
+ */
 @Service
 public class ShippingMethodService {
     @Autowired
     private ShippingMethodRepository shippingMethodRepository;
+    private volatile Map<Integer, ShippingMethod> methods;
+
     public Collection<ShippingMethod> findAll(){
-        return shippingMethodRepository.findAll();
+        return methods().values();
+    }
+
+    public Optional<ShippingMethod> findById(Integer id){
+        return Optional.ofNullable(id).map(methods()::get);
+    }
+
+    /**
+     * Drop the in-memory copy, the next read loads the table again
+     */
+    public void refresh(){
+        methods = null;
+    }
+
+    private Map<Integer, ShippingMethod> methods(){
+        Map<Integer, ShippingMethod> loaded = methods;
+        if (loaded == null) {
+            loaded = Collections.unmodifiableMap(shippingMethodRepository.findAll().stream()
+                    .collect(Collectors.toMap(ShippingMethod::getId, Function.identity(), (a, b) -> a, TreeMap::new)));
+            methods = loaded;
+        }
+        return loaded;
     }
 }
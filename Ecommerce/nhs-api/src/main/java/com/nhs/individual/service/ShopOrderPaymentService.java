@@ -1,10 +1,16 @@
 package com.nhs.individual.service;
 
 import com.nhs.individual.domain.ShopOrderPayment;
+import com.nhs.individual.dto.PaymentCheck;
 import com.nhs.individual.repository.ShopOrderPaymentRepository;
+import com.nhs.individual.constant.PaymentStatus;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -17,4 +23,32 @@ public class ShopOrderPaymentService {
     public Optional<ShopOrderPayment> findByOrderId(Integer orderId) {
         return shopOrderPaymentRepository.findByOrderId(orderId);
     }
+    /**
+     * Whether the reconciler still checks an online payment of the order, which the customer can still complete
+     */
+    public boolean isAwaitingProvider(Integer orderId) {
+        return findByOrderId(orderId)
+                .filter(payment -> Integer.valueOf(PaymentStatus.PENDING.value).equals(payment.getStatus()))
+                .filter(payment -> payment.getAppTransId() != null && payment.getNextCheckAt() != null)
+                .isPresent();
+    }
+    /**
+     * Pending payments whose status should be asked for now
+     */
+    public List<PaymentCheck> findDueForCheck(Instant now, int limit) {
+        return shopOrderPaymentRepository.findDueForCheck(PaymentStatus.PENDING.value, now, PageRequest.of(0, limit));
+    }
+    public long countPendingChecks() {
+        return shopOrderPaymentRepository.countTracked(PaymentStatus.PENDING.value);
+    }
+    public Optional<Instant> findOldestPendingCheck() {
+        return shopOrderPaymentRepository.findOldestCheck(PaymentStatus.PENDING.value);
+    }
+    /**
+     * @param nextCheckAt null stops tracking the payment
+     */
+    @Transactional
+    public void scheduleNextCheck(Integer paymentId, int attempts, Instant nextCheckAt) {
+        shopOrderPaymentRepository.updateNextCheck(paymentId, attempts, nextCheckAt);
+    }
 }
@@ -6,20 +6,29 @@ import com.nhs.individual.constant.OrderStatus;
 import com.nhs.individual.constant.PaymentStatus;
 import com.nhs.individual.domain.ShopOrder;
 import com.nhs.individual.domain.ShopOrderStatus;
+import com.nhs.individual.dto.CursorPage;
+import com.nhs.individual.event.OrderSalesChangedEvent;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.repository.KeysetChunkReader;
 import com.nhs.individual.repository.ShopOrderRepository;
-import com.nhs.individual.repository.ShippingMethodRepository;
+import com.nhs.individual.specification.ISpecification.KeysetSpecification;
+import com.nhs.individual.utils.KeysetCursor;
 import com.nhs.individual.zalopay.config.ZaloConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -30,12 +39,21 @@ public class ShopOrderService {
     @Autowired
     ShopOrderRepository orderRepository;
     @Autowired
-    ShippingMethodRepository shippingMethodRepository;
+    KeysetChunkReader keysetChunkReader;
+    @Autowired
+    OrderPricingService orderPricingService;
     @Autowired
     AuthService authService;
+    @Autowired
+    StockReservationService stockReservationService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
     public Optional<ShopOrder> findById(Integer id){
         return orderRepository.findById(id);
     }
+    public Optional<ShopOrder> findDetailById(Integer id){
+        return orderRepository.findDetailById(id);
+    }
 //    public List<ShopOrder> findAll(Integer userId, String dateFrom, String dateTo, Integer page, Integer size, OrderStatus orderStatus, String orderBy, Sort.Direction direction){
 //        return shopOrderSpecificationImp.findAll(userId,dateFrom,dateTo,page,size,orderStatus,orderBy,direction);
 //    }
@@ -48,84 +66,68 @@ public class ShopOrderService {
 
         return orderRepository.findAll(specification,pageable);
     }
+
+    /**
+     * Every order matching the filters, in id order, for the XLSX export: ids are read a chunk at a
+     * time and each chunk's order lines are loaded in one joined select; see {@link KeysetChunkReader}.
+     *
+     * @return orders exported
+     */
+    public long forEachForExport(List<Specification<ShopOrder>> specifications, int chunkSize, Consumer<ShopOrder> consumer){
+        return keysetChunkReader.forEach(ShopOrder.class, Specification.allOf(specifications), chunkSize,
+                orderRepository::findDetailByIdIn, ShopOrder::getId, consumer);
+    }
+    public long countForExport(List<Specification<ShopOrder>> specifications){
+        return orderRepository.count(Specification.allOf(specifications));
+    }
+
+    /**
+     * Keyset variant of {@link #findAll(List, Pageable)}: cost does not grow with the page depth.
+     *
+     * @param sortBy       "id" or "orderDate"
+     * @param cursor       nextCursor of the previous page, null for the first page
+     * @param includeTotal run the COUNT query as well
+     */
+    public CursorPage<ShopOrder> findAllAfter(List<Specification<ShopOrder>> specifications, String sortBy,
+                                              Sort.Direction direction, String cursor, int size, boolean includeTotal){
+        if(!"id".equals(sortBy) && !"orderDate".equals(sortBy))
+            throw new IllegalInputException("Cursor paging on orders supports sortBy=id or sortBy=orderDate");
+        Specification<ShopOrder> filter=Specification.allOf(specifications);
+        Specification<ShopOrder> page=filter;
+        if(cursor!=null){
+            KeysetCursor after=KeysetCursor.decode(cursor,sortBy,direction);
+            page=filter.and(KeysetSpecification.after(sortBy,"id".equals(sortBy)?null:after.dateValue(),after.getId(),direction));
+        }
+        List<ShopOrder> rows=orderRepository.findAllAfter(page,KeysetSpecification.sort(sortBy,direction),CursorPage.limitFor(size));
+        return CursorPage.of(rows,size,
+                order->KeysetCursor.of(sortBy,direction,"id".equals(sortBy)?order.getId():order.getOrderDate(),order.getId()).encode(),
+                includeTotal?orderRepository.count(filter):null);
+    }
     /**
      * Create new order and calculate total from orderLines + shipping
      * 
      * @param order Order to create (total will be recalculated on server)
      * @return Created order with correct total
+     * @throws com.nhs.individual.exception.StalePriceException if a line was priced with an outdated price
+     * @throws com.nhs.individual.exception.OutOfStockException if the ordered quantities are not in stock
      */
+    @Transactional
     public ShopOrder createOrder(ShopOrder order) {
-        log.info("========== Creating Order ==========");
-        log.info("User ID: {}", order.getUser() != null ? order.getUser().getId() : "NULL");
-        log.info("Order Lines count: {}", order.getOrderLines() != null ? order.getOrderLines().size() : 0);
-        log.info("Shipping Method: {}", order.getShippingMethod() != null ? order.getShippingMethod().getName() : "NULL");
-        log.info("Frontend total (IGNORED): {}", order.getTotal());
-        
-        // CRITICAL: Calculate total on server-side, don't trust frontend
-        BigDecimal calculatedTotal = BigDecimal.ZERO;
-        
-        // Sum all orderLine totals
-        if (order.getOrderLines() != null && !order.getOrderLines().isEmpty()) {
-            for (var line : order.getOrderLines()) {
-                if (line.getTotal() != null) {
-                    calculatedTotal = calculatedTotal.add(line.getTotal());
-                    log.debug("  OrderLine: qty={}, lineTotal={}", line.getQty(), line.getTotal());
-                } else {
-                    log.warn("  OrderLine has NULL total, skipping");
-                }
-            }
-            log.info("✓ OrderLines total: {}", calculatedTotal);
-        } else {
-            log.warn("⚠️ No order lines provided!");
+        if (log.isDebugEnabled()) {
+            log.debug("Creating order: user={}, lines={}, shipping={}, frontend total (ignored)={}",
+                    order.getUser() != null ? order.getUser().getId() : null,
+                    order.getOrderLines() != null ? order.getOrderLines().size() : 0,
+                    order.getShippingMethod() != null ? order.getShippingMethod().getName() : null,
+                    order.getTotal());
         }
         
-        // Add shipping price
-        if (order.getShippingMethod() != null) {
-            BigDecimal shippingPrice = null;
-            
-            // If shipping method price is not loaded, fetch it from database
-            if (order.getShippingMethod().getPrice() != null) {
-                shippingPrice = order.getShippingMethod().getPrice();
-                log.info("✓ Shipping price from loaded entity: {}", shippingPrice);
-            } else if (order.getShippingMethod().getId() != null) {
-                // Fetch shipping method from database to get the price
-                Optional<com.nhs.individual.domain.ShippingMethod> loadedShippingMethodOpt = 
-                    shippingMethodRepository.findById(order.getShippingMethod().getId());
-                
-                if (loadedShippingMethodOpt.isPresent()) {
-                    com.nhs.individual.domain.ShippingMethod loadedShippingMethod = loadedShippingMethodOpt.get();
-                    shippingPrice = loadedShippingMethod.getPrice();
-                    // Update the order's shipping method with the loaded entity
-                    order.setShippingMethod(loadedShippingMethod);
-                    log.info("✓ Shipping method loaded from DB: {} (ID: {}), price: {}", 
-                        loadedShippingMethod.getName(), 
-                        loadedShippingMethod.getId(), 
-                        shippingPrice);
-                } else {
-                    log.warn("⚠️ Shipping method with ID {} not found in database", order.getShippingMethod().getId());
-                }
-            }
-            
-            if (shippingPrice != null) {
-                calculatedTotal = calculatedTotal.add(shippingPrice);
-                log.info("✓ Shipping price added to total: {}", shippingPrice);
-            } else {
-                log.warn("⚠️ Shipping price is NULL or could not be loaded");
-            }
-        } else {
-            log.warn("⚠️ No shipping method provided");
-        }
-        
-        // Set the calculated total (override frontend value)
-        order.setTotal(calculatedTotal);
-        log.info("========================================");
-        log.info("✓✓✓ FINAL ORDER TOTAL: {} ✓✓✓", calculatedTotal);
-        log.info("========================================");
+        // CRITICAL: Calculate total on server-side, don't trust frontend
+        BigDecimal calculatedTotal = orderPricingService.price(order);
+        log.debug("Order total priced on server: {}", calculatedTotal);
         
         // Set orderDate explicitly in UTC to avoid timezone issues
         // This ensures the timestamp is stored correctly regardless of MySQL server timezone
         order.setOrderDate(new java.util.Date());
-        log.info("Order date set to: {} (UTC timestamp: {})", order.getOrderDate(), order.getOrderDate().getTime());
         
         // Validate total > 0
         if (calculatedTotal.compareTo(BigDecimal.ZERO) <= 0) {
@@ -139,6 +141,8 @@ public class ShopOrderService {
         shopOrderStatus.setOrder(order);
         shopOrderStatus.setNote("Order created - awaiting payment");
         order.setStatus(List.of(shopOrderStatus));
+        order.setCurrentStatus(OrderStatus.PENDING_PAYMENT.id);
+        order.setStatusUpdatedAt(order.getOrderDate());
         
         // Set relationships
         order.getOrderLines().forEach(line -> line.setOrder(order));
@@ -146,6 +150,8 @@ public class ShopOrderService {
         order.getPayment().setStatus(PaymentStatus.PENDING.value);
         
         ShopOrder savedOrder = orderRepository.save(order);
+        stockReservationService.reserve(savedOrder);
+        eventPublisher.publishEvent(OrderSalesChangedEvent.placed(savedOrder.getId(), OrderStatus.PENDING_PAYMENT.id));
         log.info("✓ Order #{} created successfully with total: {}", savedOrder.getId(), savedOrder.getTotal());
         
         return savedOrder;
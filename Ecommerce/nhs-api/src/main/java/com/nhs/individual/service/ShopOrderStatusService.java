@@ -4,15 +4,19 @@ import com.nhs.individual.config.OrderStateMachine;
 import com.nhs.individual.constant.OrderStatus;
 import com.nhs.individual.domain.ShopOrder;
 import com.nhs.individual.domain.ShopOrderStatus;
+import com.nhs.individual.event.OrderSalesChangedEvent;
 import com.nhs.individual.exception.InvalidOrderStatusTransitionException;
 import com.nhs.individual.exception.OrderNotFoundException;
 import com.nhs.individual.repository.ShopOrderRepository;
 import com.nhs.individual.repository.ShopOrderStatusRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -27,6 +31,8 @@ public class ShopOrderStatusService {
     private final ShopOrderStatusRepository statusRepository;
     private final ShopOrderRepository orderRepository;
     private final OrderStateMachine stateMachine;
+    private final StockReservationService stockReservationService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Update order status with validation
@@ -187,10 +193,22 @@ public class ShopOrderStatusService {
     /**
      * Save status (for internal use)
      */
+    @Transactional
     public ShopOrderStatus save(ShopOrderStatus status) {
+        if (status.getOrder() != null) markCurrent(status.getOrder(), status.getStatus());
         return statusRepository.save(status);
     }
     
+    /**
+     * Copy the latest status row onto orders whose current_status is still empty
+     *
+     * @return number of orders updated
+     */
+    @Transactional
+    public int backfillCurrentStatus() {
+        return orderRepository.backfillCurrentStatus();
+    }
+
     // ========== Private Helper Methods ==========
     
     /**
@@ -202,10 +220,29 @@ public class ShopOrderStatusService {
         statusRecord.setStatus(status.id);
         statusRecord.setNote(note != null ? note : status.description);
         statusRecord.setDetail(detail);
+        markCurrent(order, status.id);
+        if (status == OrderStatus.PAID || status == OrderStatus.CONFIRMED) {
+            stockReservationService.commit(order.getId());
+        } else if (status == OrderStatus.CANCELLED) {
+            stockReservationService.release(order.getId());
+        }
         
         return statusRepository.save(statusRecord);
     }
     
+    /**
+     * Denormalize the latest status onto shop_order; flushed with the status row in the same transaction.
+     * The daily_sales rollup moves the order to the new status once that transaction commits.
+     */
+    private void markCurrent(ShopOrder order, Integer status) {
+        Integer previous = order.getCurrentStatus();
+        order.setCurrentStatus(status);
+        order.setStatusUpdatedAt(new Date());
+        if (order.getId() != null && !Objects.equals(previous, status)) {
+            eventPublisher.publishEvent(OrderSalesChangedEvent.statusChanged(order.getId(), previous, status));
+        }
+    }
+    
     /**
      * Get OrderStatus enum by ID
      */
@@ -0,0 +1,213 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.StockReservationProperties;
+import com.nhs.individual.constant.ReservationStatus;
+import com.nhs.individual.domain.OrderLine;
+import com.nhs.individual.domain.ShopOrder;
+import com.nhs.individual.domain.StockReservation;
+import com.nhs.individual.dto.StockLevel;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.exception.OutOfStockException;
+import com.nhs.individual.repository.StockReservationRepository;
+import com.nhs.individual.repository.WarehouseItemRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Takes ordered quantities out of product_item_in_warehouse without locking ahead of time.
+ * <p>
+ * Every decrement is a conditional {@code UPDATE ... SET quantity = quantity - ? WHERE quantity >= ?},
+ * so the database row lock taken by the UPDATE itself is the only serialization point and a row can
+ * never go negative. All order lines are planned against a stock snapshot (largest warehouse first,
+ * spilling into the next one) and sent as one JDBC batch, in (item, warehouse) order so concurrent
+ * checkouts lock rows in the same order. Rows a concurrent checkout drained first are re-planned
+ * from a fresh snapshot, up to {@link StockReservationProperties#getMaxAttempts()} rounds, over the
+ * rows past the last one already tried, so a later round never locks backwards and deadlocks. Anything
+ * still missing throws {@link OutOfStockException} and the caller's transaction rolls every
+ * decrement back.
+ * <p>
+ * Each allocation is recorded as a {@link StockReservation}: HELD with an expiry for orders paid
+ * online, COMMITTED straight away otherwise. Release puts the quantity back exactly once.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class StockReservationService {
+    private static final String DECREMENT = "UPDATE product_item_in_warehouse SET quantity = quantity - ? " +
+            "WHERE product_item_id = ? AND warehouse_id = ? AND quantity >= ?";
+    private static final String INCREMENT = "UPDATE product_item_in_warehouse SET quantity = quantity + ? " +
+            "WHERE product_item_id = ? AND warehouse_id = ?";
+    private static final String RELEASE = "UPDATE stock_reservation SET status = ? WHERE id = ? AND status = ?";
+    private static final Comparator<Allocation> LOCK_ORDER =
+            Comparator.comparing(Allocation::productItemId).thenComparing(Allocation::warehouseId);
+
+    private JdbcTemplate jdbcTemplate;
+    private WarehouseItemRepository warehouseItemRepository;
+    private StockReservationRepository reservationRepository;
+    private StockReservationProperties properties;
+
+    /**
+     * Reserve stock for every line of a saved order. Must run inside the transaction that
+     * creates the order, so a failure undoes both.
+     *
+     * @throws OutOfStockException when the warehouses cannot cover a line
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<StockReservation> reserve(ShopOrder order) {
+        Map<Integer, Integer> missing = demand(order);
+        List<Allocation> taken = new ArrayList<>();
+        Allocation reached = null;
+        for (int attempt = 0; attempt < properties.getMaxAttempts() && !missing.isEmpty(); attempt++) {
+            Allocation last = reached;
+            List<StockLevel> levels = warehouseItemRepository.findStockLevels(missing.keySet()).stream()
+                    .filter(level -> last == null
+                            || LOCK_ORDER.compare(new Allocation(level.productItemId(), level.warehouseId(), 0), last) > 0)
+                    .toList();
+            List<Allocation> plan = plan(missing, levels);
+            reached = plan.get(plan.size() - 1);
+            int[][] updated = jdbcTemplate.batchUpdate(DECREMENT, plan, plan.size(), (ps, allocation) -> {
+                ps.setInt(1, allocation.qty());
+                ps.setInt(2, allocation.productItemId());
+                ps.setInt(3, allocation.warehouseId());
+                ps.setInt(4, allocation.qty());
+            });
+            for (int i = 0; i < plan.size(); i++) {
+                if (updated[0][i] != 1) continue;
+                Allocation allocation = plan.get(i);
+                taken.add(allocation);
+                missing.computeIfPresent(allocation.productItemId(),
+                        (itemId, qty) -> qty > allocation.qty() ? qty - allocation.qty() : null);
+            }
+            if (!missing.isEmpty()) log.debug("Order #{} lost a stock race, re-planning {}", order.getId(), missing);
+        }
+        if (!missing.isEmpty()) throw new OutOfStockException(missing);
+
+        boolean prepaid = order.getPayment() != null && order.getPayment().getType() != null
+                && properties.getPrepaidPaymentTypes().contains(order.getPayment().getType().getId());
+        Instant now = Instant.now();
+        List<StockReservation> reservations = taken.stream().map(allocation -> {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrderId(order.getId());
+            reservation.setProductItemId(allocation.productItemId());
+            reservation.setWarehouseId(allocation.warehouseId());
+            reservation.setQty(allocation.qty());
+            reservation.setStatus(prepaid ? ReservationStatus.HELD : ReservationStatus.COMMITTED);
+            reservation.setExpiresAt(prepaid ? now.plus(properties.getTtl()) : null);
+            reservation.setCreatedAt(now);
+            return reservation;
+        }).toList();
+        return reservationRepository.saveAll(reservations);
+    }
+
+    /**
+     * Mark held stock as sold (payment received or order confirmed)
+     *
+     * @return number of reservations committed
+     */
+    @Transactional
+    public int commit(Integer orderId) {
+        return reservationRepository.transition(orderId, ReservationStatus.HELD, ReservationStatus.COMMITTED);
+    }
+
+    /**
+     * Keep held stock of an order until at least {@code until}
+     *
+     * @return number of reservations extended
+     */
+    @Transactional
+    public int extend(Integer orderId, Instant until) {
+        return reservationRepository.extend(orderId, until);
+    }
+
+    /**
+     * Put the stock of an order back into its warehouses. Each reservation flips to RELEASED with a
+     * conditional update first and only the rows that flipped are restocked, so concurrent or
+     * repeated releases never add the quantity twice.
+     *
+     * @return number of reservations released
+     */
+    @Transactional
+    public int release(Integer orderId) {
+        List<StockReservation> reservations = new ArrayList<>(reservationRepository.findAllByOrderIdAndStatusIn(orderId,
+                EnumSet.of(ReservationStatus.HELD, ReservationStatus.COMMITTED)));
+        if (reservations.isEmpty()) return 0;
+        reservations.sort(Comparator.comparing(StockReservation::getProductItemId).thenComparing(StockReservation::getWarehouseId));
+        int[][] flipped = jdbcTemplate.batchUpdate(RELEASE, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setString(1, ReservationStatus.RELEASED.name());
+            ps.setInt(2, reservation.getId());
+            ps.setString(3, reservation.getStatus().name());
+        });
+        List<StockReservation> released = new ArrayList<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            if (flipped[0][i] == 1) released.add(reservations.get(i));
+        }
+        if (released.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(INCREMENT, released, released.size(), (ps, reservation) -> {
+            ps.setInt(1, reservation.getQty());
+            ps.setInt(2, reservation.getProductItemId());
+            ps.setInt(3, reservation.getWarehouseId());
+        });
+        log.info("Released {} stock reservations of order #{}", released.size(), orderId);
+        return released.size();
+    }
+
+    /**
+     * Orders whose held stock passed its expiry, oldest sweep first
+     */
+    public List<Integer> findExpiredOrderIds(int limit) {
+        return reservationRepository.findExpiredOrderIds(Instant.now(), PageRequest.of(0, limit));
+    }
+
+    private static Map<Integer, Integer> demand(ShopOrder order) {
+        if (order.getOrderLines() == null || order.getOrderLines().isEmpty())
+            throw new IllegalInputException("Order has no order lines");
+        Map<Integer, Integer> demand = new TreeMap<>();
+        for (OrderLine line : order.getOrderLines()) {
+            if (line.getProductItem() == null || line.getProductItem().getId() == null)
+                throw new IllegalInputException("Order line has no product item");
+            if (line.getQty() == null || line.getQty() <= 0)
+                throw new IllegalInputException("Order line quantity must be greater than 0");
+            demand.merge(line.getProductItem().getId(), line.getQty(), Integer::sum);
+        }
+        return demand;
+    }
+
+    /**
+     * Greedy split of each missing quantity over the warehouses, fullest first. Fails fast when the
+     * snapshot already shows too little stock; the result is sorted into lock order.
+     */
+    private static List<Allocation> plan(Map<Integer, Integer> missing, List<StockLevel> levels) {
+        List<Allocation> plan = new ArrayList<>();
+        Map<Integer, Integer> uncovered = new TreeMap<>();
+        missing.forEach((itemId, qty) -> {
+            int remaining = qty;
+            for (StockLevel level : levels) {
+                if (remaining == 0) break;
+                if (!level.productItemId().equals(itemId)) continue;
+                int take = Math.min(remaining, level.qty());
+                plan.add(new Allocation(itemId, level.warehouseId(), take));
+                remaining -= take;
+            }
+            if (remaining > 0) uncovered.put(itemId, remaining);
+        });
+        if (!uncovered.isEmpty()) throw new OutOfStockException(uncovered);
+        plan.sort(LOCK_ORDER);
+        return plan;
+    }
+
+    private record Allocation(Integer productItemId, Integer warehouseId, int qty) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.nhs.individual.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nhs.individual.config.PrincipalCacheProperties;
+import com.nhs.individual.constant.AccountStatus;
+import com.nhs.individual.dto.AccountTokenState;
+import com.nhs.individual.repository.AccountRepository;
+import com.nhs.individual.secure.IUserDetail;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Revocation check for stateless access tokens.
+ * <p>
+ * Every token carries the account's token_version at issue time. Logout and status changes bump the
+ * column, so older tokens stop matching. The current (status, token_version) pair is read with a
+ * single-row query and kept in a small Caffeine cache; this instance evicts on its own writes, other
+ * instances pick the change up after nhs.token.principal-cache.ttl.
+ */
+@Slf4j
+@Service
+public class TokenVersionService {
+    private final AccountRepository repository;
+    private final Cache<Integer, AccountTokenState> states;
+
+    public TokenVersionService(AccountRepository repository, PrincipalCacheProperties properties) {
+        this.repository = repository;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Current status and token version of an account, empty if it no longer exists
+     */
+    public Optional<AccountTokenState> findState(Integer accountId) {
+        if (accountId == null) return Optional.empty();
+        return Optional.ofNullable(states.get(accountId, id -> repository.findTokenStateById(id).orElse(null)));
+    }
+
+    /**
+     * Whether a principal built from token claims is still valid: the account exists, is not locked
+     * and its token version has not moved since the token was issued. Refreshes the principal's status.
+     */
+    public boolean isCurrent(IUserDetail principal) {
+        return findState(principal.getId()).map(state -> {
+            principal.setStatus(state.status());
+            if (Objects.equals(state.status(), AccountStatus.LOCKED.id)) {
+                log.debug("Rejecting token of locked account {}", principal.getId());
+                return false;
+            }
+            if (version(state.tokenVersion()) != version(principal.getTokenVersion())) {
+                log.debug("Rejecting revoked token of account {}", principal.getId());
+                return false;
+            }
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Invalidate every access token issued to the account so far
+     */
+    @Transactional
+    public void revoke(Integer accountId) {
+        repository.incrementTokenVersion(accountId);
+        evict(accountId);
+    }
+
+    /**
+     * Forget the cached state of an account whose row changed. Inside a transaction the entry is
+     * dropped after commit, so a concurrent request cannot cache the pre-commit row again.
+     */
+    public void evict(Integer accountId) {
+        states.invalidate(accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.invalidate(accountId);
+                }
+            });
+        }
+    }
+
+    private static int version(Integer tokenVersion) {
+        return tokenVersion == null ? 0 : tokenVersion;
+    }
+}
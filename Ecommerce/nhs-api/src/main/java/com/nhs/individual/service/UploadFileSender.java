@@ -0,0 +1,166 @@
+package com.nhs.individual.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nhs.individual.config.UploadServingProperties;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Writes an uploaded file to the response.
+ * <p>
+ * Conditional requests (If-None-Match, If-Modified-Since) are answered with 304 and a single byte
+ * Range with 206, honouring If-Range; several ranges get the whole file. Files up to
+ * nhs.uploads.hot-cache.max-file-size are kept in memory, bounded by total size and evicted least
+ * requested first, which in practice keeps the catalog thumbnails. Anything else is handed to
+ * Tomcat's sendfile, so the bytes go from the page cache to the socket without passing through the
+ * heap; on a connector without sendfile it is copied with FileChannel.transferTo.
+ */
+@Slf4j
+@Service
+public class UploadFileSender {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UploadServingProperties properties;
+    private final Cache<HotFile, byte[]> hotFiles;
+
+    /**
+     * A file version: a rewritten file gets a new key, the old one ages out
+     */
+    private record HotFile(Path path, long lastModified, long length) {
+    }
+
+    public UploadFileSender(UploadServingProperties properties) {
+        this.properties = properties;
+        this.hotFiles = Caffeine.newBuilder()
+                .maximumWeight(properties.getHotCache().getMaximumSize().toBytes())
+                .weigher((HotFile file, byte[] content) -> content.length)
+                .build();
+    }
+
+    /**
+     * @param etag         entity tag without quotes, derived from size and modification time when null
+     * @param cacheControl Cache-Control of 200, 206 and 304 responses
+     * @throws ResourceNotFoundException when the file does not exist
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, Path file, MediaType mediaType,
+                     String etag, CacheControl cacheControl) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File " + file.getFileName() + " not found");
+        }
+        if (!attributes.isRegularFile()) throw new ResourceNotFoundException("File " + file.getFileName() + " not found");
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String tag = etag != null ? etag : Long.toHexString(length) + "-" + Long.toHexString(lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(tag, lastModified)) return;
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, tag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                // HttpRange does not reject a first byte at or past the end of the file
+                if (start >= length || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentType(mediaType.toString());
+        response.setContentLengthLong(count);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) return;
+
+        if (count == length && length <= properties.getHotCache().getMaxFileSize().toBytes()) {
+            byte[] content = hotFiles.get(new HotFile(file, lastModified, length), key -> read(key.path()));
+            if (content.length == length) {
+                response.getOutputStream().write(content);
+                return;
+            }
+            // changed between the stat and the read
+            hotFiles.invalidate(new HotFile(file, lastModified, length));
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file once the handler returns; the end offset is exclusive
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position <= end; ) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    /**
+     * A Range applies when If-Range is absent or still names this version, by strong ETag or date
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String tag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"")) return ifRange.equals("\"" + tag + "\"");
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
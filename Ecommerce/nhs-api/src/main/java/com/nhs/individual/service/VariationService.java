@@ -3,7 +3,7 @@ package com.nhs.individual.service;
 import com.nhs.individual.domain.Variation;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.repository.VariationRepository;
-import com.nhs.individual.utils.ObjectUtils;
+import com.nhs.individual.utils.ObjectMerger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,6 +12,7 @@ import java.util.Optional;
 
 @Service
 public class VariationService {
+    private static final ObjectMerger<Variation> MERGER = ObjectMerger.of(Variation.class);
     @Autowired
     VariationRepository variationRepository;
     @Autowired
@@ -24,10 +25,10 @@ public class VariationService {
         return variationRepository.findAll();
     }
     public Variation updateById(int variationId,Variation variation){
-        return variationRepository.save(findById(variationId).map(oldVariation->{
-            oldVariation.setName(variation.getName());
-            return variationRepository.save(ObjectUtils.merge(oldVariation,variation,Variation.class));
-        }).orElseThrow(()->new ResourceNotFoundException("Could not find variation")));
+        return findById(variationId).map(oldVariation->{
+            if (MERGER.merge(oldVariation, variation).isEmpty()) return oldVariation;
+            return variationRepository.save(oldVariation);
+        }).orElseThrow(()->new ResourceNotFoundException("Could not find variation"));
     }
     public Optional<Variation> findById(int id){
         return variationRepository.findById(id);
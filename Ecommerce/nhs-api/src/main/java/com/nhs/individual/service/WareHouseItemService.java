@@ -4,35 +4,42 @@ import com.nhs.individual.domain.EmbeddedId.ProductItemInWarehouseId;
 import com.nhs.individual.domain.ProductItem;
 import com.nhs.individual.domain.Warehouse;
 import com.nhs.individual.domain.WarehouseItem;
+import com.nhs.individual.dto.WarehouseStockRow;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
 import com.nhs.individual.exception.ResourceNotFoundException;
 import com.nhs.individual.repository.WarehouseItemRepository;
-import com.nhs.individual.utils.ObjectUtils;
-import com.nhs.individual.validation.WarehouseValidation;
-import jakarta.validation.Valid;
+import com.nhs.individual.utils.ObjectMerger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.validation.annotation.Validated;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class WareHouseItemService {
+    private static final ObjectMerger<WarehouseItem> MERGER = ObjectMerger.of(WarehouseItem.class);
     @Autowired
     WarehouseItemRepository repository;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
     public Optional<WarehouseItem> findByItemIdAndWarehouseId(Integer itemId, Integer warehouseId){
         return repository.findById(new ProductItemInWarehouseId(itemId,warehouseId));
     }
     public void deleteItemFromWarehouse(Integer itemId, Integer warehouseId){
         repository.deleteById(new ProductItemInWarehouseId(itemId,warehouseId));
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProductItems(List.of(itemId)));
     }
     public void update(Integer itemId, Integer warehouseId,WarehouseItem warehouseItem){
         ProductItemInWarehouseId id=new ProductItemInWarehouseId(itemId,warehouseId);
         warehouseItem.setId(id);
-        repository.findById(id)
-                .map(oldItem-> repository.save(ObjectUtils.merge(oldItem,warehouseItem,WarehouseItem.class)))
+        WarehouseItem oldItem = repository.findById(id)
                 .orElseThrow(()->new ResourceNotFoundException("Product Item not found"));
+        if (MERGER.merge(oldItem, warehouseItem).isEmpty()) return;
+        repository.save(oldItem);
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProductItems(List.of(itemId)));
     }
     public WarehouseItem importNewItem(Integer warehouseId,Integer itemId,WarehouseItem warehouseItem){
         warehouseItem.setId(new ProductItemInWarehouseId(itemId,warehouseId));
@@ -43,10 +50,28 @@ public class WareHouseItemService {
         warehouse.setId(warehouseId);
         warehouseItem.setWarehouse(warehouse);
         WarehouseItem warehouseItem1=repository.save(warehouseItem);
+        eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProductItems(List.of(itemId)));
         return warehouseItem1;
     }
-    @Transactional
-    public List<WarehouseItem> importGoods(@Validated(WarehouseValidation.onCreate.class) List<@Valid WarehouseItem> warehouseItems){
-        return repository.saveAll(warehouseItems);
+    /**
+     * Walks the stock of one warehouse (every warehouse when null) in keyset chunks of projected rows
+     * @return rows read
+     */
+    public long forEachStockRow(Integer warehouseId, int chunkSize, Consumer<WarehouseStockRow> consumer){
+        long count=0;
+        int afterWarehouseId=0;
+        int afterProductItemId=0;
+        while(true){
+            List<WarehouseStockRow> rows=repository.findStockRowsAfter(warehouseId,afterWarehouseId,afterProductItemId,PageRequest.of(0,chunkSize));
+            rows.forEach(consumer);
+            count+=rows.size();
+            if(rows.size()<chunkSize) return count;
+            WarehouseStockRow last=rows.get(rows.size()-1);
+            afterWarehouseId=last.warehouseId();
+            afterProductItemId=last.productItemId();
+        }
+    }
+    public long countStockRows(Integer warehouseId){
+        return repository.countStockRows(warehouseId);
     }
 }
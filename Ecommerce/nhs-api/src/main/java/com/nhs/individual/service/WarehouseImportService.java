@@ -0,0 +1,132 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.WarehouseImportProperties;
+import com.nhs.individual.dto.WarehouseImportReport;
+import com.nhs.individual.dto.WarehouseImportRow;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
+import com.nhs.individual.repository.ProductItemRepository;
+import com.nhs.individual.repository.WareHouseRepository;
+import com.nhs.individual.workbook.WarehouseItemXLSX;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports warehouse stock from an XLSX sheet without holding the sheet or its rows in memory.
+ * <p>
+ * The upload is copied to a temp file and read row by row by {@link WarehouseItemXLSX}. Rows are
+ * validated and collected into batches of {@code batch-size}; each batch checks its product items in
+ * one query and is written with one JDBC batch of
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} on product_item_in_warehouse, in its own transaction.
+ * A bad row is listed in the report instead of failing the file. If a batch still fails in the
+ * database, only that batch is rolled back and its rows are reported.
+ * <p>
+ * The quantity replaces the stored one, as before. A blank SKU keeps the stored SKU.
+ */
+@Slf4j
+@Service
+public class WarehouseImportService {
+    private static final String UPSERT = "INSERT INTO product_item_in_warehouse (product_item_id, warehouse_id, quantity, SKU) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), SKU = COALESCE(VALUES(SKU), SKU)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductItemRepository productItemRepository;
+    private final WareHouseRepository wareHouseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WarehouseImportProperties properties;
+    private final TransactionTemplate transaction;
+
+    public WarehouseImportService(JdbcTemplate jdbcTemplate,
+                                  ProductItemRepository productItemRepository,
+                                  WareHouseRepository wareHouseRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  WarehouseImportProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productItemRepository = productItemRepository;
+        this.wareHouseRepository = wareHouseRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public WarehouseImportReport importXLSX(MultipartFile file) throws IOException {
+        Path copy = Files.createTempFile("warehouse-import-", ".xlsx");
+        try {
+            file.transferTo(copy);
+            return importXLSX(copy);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    public WarehouseImportReport importXLSX(Path file) throws IOException {
+        Set<Integer> warehouseIds = new HashSet<>(wareHouseRepository.findAllIds());
+        WarehouseImportReport report = new WarehouseImportReport(properties.getMaxReportedErrors());
+        List<WarehouseImportRow> batch = new ArrayList<>(properties.getBatchSize());
+        WarehouseItemXLSX.read(file, row -> {
+            report.read();
+            if (row.error() != null) {
+                report.reject(row.row(), row.error());
+            } else if (row.qty() < 0) {
+                report.reject(row.row(), "Quantity must not be negative");
+            } else if (!warehouseIds.contains(row.warehouseId())) {
+                report.reject(row.row(), "Warehouse " + row.warehouseId() + " not found");
+            } else {
+                batch.add(row);
+                if (batch.size() >= properties.getBatchSize()) {
+                    write(batch, report);
+                    batch.clear();
+                }
+            }
+        });
+        if (!batch.isEmpty()) write(batch, report);
+        log.info("Warehouse import: {} rows read, {} imported, {} rejected",
+                report.getRowsRead(), report.getImported(), report.getRejected());
+        return report;
+    }
+
+    private void write(List<WarehouseImportRow> batch, WarehouseImportReport report) {
+        List<Integer> itemIds = batch.stream().map(WarehouseImportRow::productItemId).distinct().toList();
+        try {
+            List<WarehouseImportRow> valid = transaction.execute(status -> {
+                Set<Integer> known = new HashSet<>(productItemRepository.findExistingIds(itemIds));
+                List<WarehouseImportRow> rows = batch.stream().filter(row -> known.contains(row.productItemId())).toList();
+                jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+                    ps.setInt(1, row.productItemId());
+                    ps.setInt(2, row.warehouseId());
+                    ps.setInt(3, row.qty());
+                    if (row.sku() == null) ps.setNull(4, Types.VARCHAR);
+                    else ps.setString(4, row.sku());
+                });
+                eventPublisher.publishEvent(ProductOverviewChangedEvent.ofProductItems(
+                        rows.stream().map(WarehouseImportRow::productItemId).distinct().toList()));
+                return rows;
+            });
+            Set<WarehouseImportRow> written = new HashSet<>(valid);
+            for (WarehouseImportRow row : batch) {
+                if (!written.contains(row)) report.reject(row.row(), "Product item " + row.productItemId() + " not found");
+            }
+            report.imported(valid.size());
+        } catch (DataAccessException e) {
+            log.warn("Warehouse import batch of rows {}-{} failed", batch.get(0).row(), batch.get(batch.size() - 1).row(), e);
+            for (WarehouseImportRow row : batch) {
+                report.reject(row.row(), "Batch rejected by the database: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+}
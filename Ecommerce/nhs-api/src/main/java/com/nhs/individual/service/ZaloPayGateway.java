@@ -0,0 +1,97 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ZaloPayProperties;
+import com.nhs.individual.exception.PaymentGatewayException;
+import com.nhs.individual.zalopay.crypto.HMACUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client of the ZaloPay REST API.
+ * <p>
+ * Every call goes through the shared pooled {@code zaloPayWebClient} and returns the raw JSON body
+ * as a {@link CompletableFuture}; no servlet or transaction thread waits for ZaloPay. The future
+ * completes on a Netty event loop thread, so callers that touch the database continue with
+ * {@code thenApplyAsync(.., zaloPayExecutor)}. Transport errors complete the future with a
+ * {@link PaymentGatewayException}.
+ */
+@Slf4j
+@Service
+public class ZaloPayGateway {
+    private final WebClient webClient;
+    private final ZaloPayProperties zaloPayConfig;
+
+    public ZaloPayGateway(@Qualifier("zaloPayWebClient") WebClient webClient, ZaloPayProperties zaloPayConfig) {
+        this.webClient = webClient;
+        this.zaloPayConfig = zaloPayConfig;
+    }
+
+    /**
+     * Create a payment order; params already carry the MAC
+     */
+    public CompletableFuture<String> createOrder(Map<String, Object> params) {
+        return post(zaloPayConfig.getEndpoints().getCreate(), params);
+    }
+
+    /**
+     * Payment status of one app_trans_id
+     */
+    public CompletableFuture<String> queryOrder(String appTransId) {
+        // MAC according to v2 spec: app_id|app_trans_id|key1
+        String data = zaloPayConfig.getAppId() + "|" + appTransId + "|" + zaloPayConfig.getKey1();
+        String mac = HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, zaloPayConfig.getKey1(), data);
+        return post(zaloPayConfig.getEndpoints().getQuery(), Map.of(
+                "app_id", zaloPayConfig.getAppId(),
+                "app_trans_id", appTransId,
+                "mac", mac));
+    }
+
+    /**
+     * Refund a paid transaction; params already carry the MAC
+     */
+    public CompletableFuture<String> refund(Map<String, Object> params) {
+        return post(zaloPayConfig.getEndpoints().getRefund(), params);
+    }
+
+    /**
+     * Status of a refund by merchant refund id
+     */
+    public CompletableFuture<String> queryRefund(String mRefundId) {
+        long timestamp = System.currentTimeMillis();
+        // MAC: appid|mrefundid|timestamp
+        String data = zaloPayConfig.getAppId() + "|" + mRefundId + "|" + timestamp;
+        String mac = HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, zaloPayConfig.getKey1(), data);
+        return post(zaloPayConfig.getEndpoints().getRefundStatus(), Map.of(
+                "appid", zaloPayConfig.getAppId(),
+                "mrefundid", mRefundId,
+                "timestamp", timestamp,
+                "mac", mac));
+    }
+
+    private CompletableFuture<String> post(String url, Map<String, ?> params) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        params.forEach((key, value) -> {
+            if (value != null) form.add(key, value.toString());
+        });
+        log.debug("→ ZaloPay POST {} {}", url, form.keySet());
+        return webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromFormData(form))
+                .retrieve()
+                .bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .onErrorMap(e -> new PaymentGatewayException("ZaloPay call to " + url + " failed: " + e.getMessage(), e))
+                .toFuture();
+    }
+}
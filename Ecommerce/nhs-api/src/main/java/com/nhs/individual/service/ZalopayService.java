@@ -21,29 +21,22 @@ import com.nhs.individual.zalopay.model.ZaloPayResponse;
 import jakarta.xml.bind.DatatypeConverter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.NameValuePair;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.message.BasicNameValuePair;
 import org.json.JSONObject;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.nhs.individual.zalopay.config.ZaloConfig.getCurrentTimeString;
@@ -53,10 +46,12 @@ import static com.nhs.individual.zalopay.config.ZaloConfig.getCurrentTimeString;
  * 
  * Handles ZaloPay payment flow:
  * 1. Create payment order and generate QR code
- * 2. Poll payment status (for localhost development)
+ * 2. Record the payment for status reconciliation (see ZaloPayReconciler)
  * 3. Handle payment callback from ZaloPay
  * 4. Process refunds
  * 
+ * Calls to ZaloPay go through {@link ZaloPayGateway} and never hold a database transaction open.
+ * 
  * @author NHS Individual
  */
 @Slf4j
@@ -68,7 +63,9 @@ public class ZalopayService {
     private final ShopOrderService orderService;
     private final ShopOrderStatusService shopOrderStatusService;
     private final ShopOrderPaymentService shopOrderPaymentService;
-    private final TaskScheduler taskScheduler;
+    private final ZaloPayGateway zaloPayGateway;
+    private final ThreadPoolTaskExecutor zaloPayExecutor;
+    private final PlatformTransactionManager transactionManager;
     
     // Track orders being processed to prevent race conditions
     private final Map<String, Boolean> processingOrders = new ConcurrentHashMap<>();
@@ -79,11 +76,18 @@ public class ZalopayService {
      * @param orderId Shop order ID
      * @return ZaloPayResponse containing QR code and payment URL, or error details
      */
-    @Transactional
-    public ZaloPayResponse purchaseZalo(Integer orderId) {
-        log.info("========== Creating ZaloPay payment for orderId: {} ==========", orderId);
+    public CompletableFuture<ZaloPayResponse> purchaseZalo(Integer orderId) {
+        return CompletableFuture.supplyAsync(() -> createZaloOrder(orderId), zaloPayExecutor);
+    }
+    
+    /**
+     * Runs on zaloPayExecutor with no transaction open: the order is read with its lines in one query
+     * and each write commits on its own, so no connection is held while ZaloPay answers
+     */
+    private ZaloPayResponse createZaloOrder(Integer orderId) {
+        log.info("Creating ZaloPay payment for order #{}", orderId);
         
-        return orderService.findById(orderId).map(shopOrder -> {
+        return orderService.findDetailById(orderId).map(shopOrder -> {
             // CRITICAL: Validate order.total > 0
             if (shopOrder.getTotal() == null || shopOrder.getTotal().longValue() <= 0) {
                 log.error("❌❌❌ CRITICAL: Order #{} has INVALID total: {}", orderId, shopOrder.getTotal());
@@ -94,16 +98,16 @@ public class ZalopayService {
                                  orderId, shopOrder.getTotal()));
             }
             
-            log.info("✓ Order #{} validation passed:", orderId);
-            log.info("  Total: {}", shopOrder.getTotal());
-            log.info("  Total (VND, long): {}", shopOrder.getTotal().longValue());
-            log.info("  OrderLines: {}", shopOrder.getOrderLines() != null ? shopOrder.getOrderLines().size() : 0);
-            if (shopOrder.getOrderLines() != null) {
+            log.debug("✓ Order #{} validation passed:", orderId);
+            log.debug("  Total: {}", shopOrder.getTotal());
+            log.debug("  Total (VND, long): {}", shopOrder.getTotal().longValue());
+            log.debug("  OrderLines: {}", shopOrder.getOrderLines() != null ? shopOrder.getOrderLines().size() : 0);
+            if (log.isDebugEnabled() && shopOrder.getOrderLines() != null) {
                 for (var line : shopOrder.getOrderLines()) {
-                    log.info("    - Line: qty={}, total={}", line.getQty(), line.getTotal());
+                    log.debug("    - Line: qty={}, total={}", line.getQty(), line.getTotal());
                 }
             }
-            log.info("  Shipping: {} ({})", 
+            log.debug("  Shipping: {} ({})", 
                     shopOrder.getShippingMethod() != null ? shopOrder.getShippingMethod().getName() : "NULL",
                     shopOrder.getShippingMethod() != null ? shopOrder.getShippingMethod().getPrice() : "NULL");
             
@@ -113,6 +117,13 @@ public class ZalopayService {
                 return ZaloPayResponse.error(-1, 
                     String.format("Order #%d has already been paid. Cannot create duplicate payment.", orderId));
             }
+
+            // Orders whose stock hold expired are cancelled and their stock is back on sale
+            if (Integer.valueOf(OrderStatus.CANCELLED.id).equals(shopOrder.getCurrentStatus())) {
+                log.error("❌ Order #{} is cancelled. Cannot create payment.", orderId);
+                return ZaloPayResponse.error(-1,
+                    String.format("Order #%d has been cancelled. Please place a new order.", orderId));
+            }
             
             // Check if ZaloPay payment already exists (has zp_trans_token stored in orderNumber)
             Optional<ShopOrderPayment> existingPayment = shopOrderPaymentService.findByOrderId(orderId);
@@ -124,7 +135,7 @@ public class ZalopayService {
                     String.format("Order #%d already has an active ZaloPay payment. Please use the existing payment or cancel it first.", orderId));
             }
             
-            try (CloseableHttpClient client = HttpClients.createDefault()) {
+            try {
                 // Generate GLOBALLY UNIQUE app_trans_id: yyMMdd_orderId_timestamp (GMT+7)
                 // Format must be: yyMMdd_orderId_timestamp
                 long timestamp = System.currentTimeMillis();
@@ -134,14 +145,14 @@ public class ZalopayService {
                 // CRITICAL: Convert BigDecimal to long for ZaloPay
                 Long amountVND = shopOrder.getTotal().longValue();
                 
-                log.info("========== Preparing ZaloPay Request ==========");
-                log.info("✓ Generating ZaloPay order with UNIQUE app_trans_id: {}", appTransId);
-                log.info("  - orderId: {}", orderId);
-                log.info("  - timestamp: {}", timestamp);
-                log.info("  - datePrefix (GMT+7): {}", datePrefix);
-                log.info("  - final app_trans_id format: {}", appTransId);
-                log.info("  - order.getTotal() (BigDecimal): {}", shopOrder.getTotal());
-                log.info("  - amount (Long/VND) for ZaloPay: {}", amountVND);
+                log.debug("========== Preparing ZaloPay Request ==========");
+                log.debug("✓ Generating ZaloPay order with UNIQUE app_trans_id: {}", appTransId);
+                log.debug("  - orderId: {}", orderId);
+                log.debug("  - timestamp: {}", timestamp);
+                log.debug("  - datePrefix (GMT+7): {}", datePrefix);
+                log.debug("  - final app_trans_id format: {}", appTransId);
+                log.debug("  - order.getTotal() (BigDecimal): {}", shopOrder.getTotal());
+                log.debug("  - amount (Long/VND) for ZaloPay: {}", amountVND);
                 
                 // CRITICAL: Validate amount one more time before sending to ZaloPay
                 if (amountVND == null || amountVND <= 0) {
@@ -152,7 +163,7 @@ public class ZalopayService {
                         String.format("Cannot create ZaloPay payment: amount is %d. ZaloPay requires amount > 0 to generate QR code.", amountVND));
                 }
                 
-                log.info("✓ amount validation passed: {} VND", amountVND);
+                log.debug("✓ amount validation passed: {} VND", amountVND);
                 
                 // Build item array from order lines (must not be empty)
                 String itemJson = buildItemJson(shopOrder.getOrderLines());
@@ -161,7 +172,7 @@ public class ZalopayService {
                     return ZaloPayResponse.error(-1, "Cannot create ZaloPay payment: order must contain at least one product.");
                 }
                 
-                log.info("✓ item array built: {} items", shopOrder.getOrderLines() != null ? shopOrder.getOrderLines().size() : 0);
+                log.debug("✓ item array built: {} items", shopOrder.getOrderLines() != null ? shopOrder.getOrderLines().size() : 0);
                 
                 // Create order info with proper format
                 OrderInfo orderInfo = new OrderInfo(
@@ -178,50 +189,31 @@ public class ZalopayService {
                         null
                 );
                 
-                log.info("========== ZaloPay Request Payload ==========");
-                log.info("  app_id: {}", orderInfo.getApp_id());
-                log.info("  app_user: {}", orderInfo.getApp_user());
-                log.info("  app_trans_id: {}", orderInfo.getApp_trans_id());
-                log.info("  amount: {} VND", orderInfo.getAmount());
-                log.info("  app_time: {}", orderInfo.getApp_time());
-                log.info("  description: {}", orderInfo.getDescription());
-                log.info("  bank_code: {}", orderInfo.getBank_code());
-                log.info("  callback_url: {}", orderInfo.getCallback_url());
-                log.info("  mac (first 20 chars): {}...", orderInfo.getMac() != null ? orderInfo.getMac().substring(0, Math.min(20, orderInfo.getMac().length())) : "NULL");
-                log.info("============================================");
+                log.debug("========== ZaloPay Request Payload ==========");
+                log.debug("  app_id: {}", orderInfo.getApp_id());
+                log.debug("  app_user: {}", orderInfo.getApp_user());
+                log.debug("  app_trans_id: {}", orderInfo.getApp_trans_id());
+                log.debug("  amount: {} VND", orderInfo.getAmount());
+                log.debug("  app_time: {}", orderInfo.getApp_time());
+                log.debug("  description: {}", orderInfo.getDescription());
+                log.debug("  bank_code: {}", orderInfo.getBank_code());
+                log.debug("  callback_url: {}", orderInfo.getCallback_url());
+                log.debug("  mac (first 20 chars): {}...", orderInfo.getMac() != null ? orderInfo.getMac().substring(0, Math.min(20, orderInfo.getMac().length())) : "NULL");
+                log.debug("============================================");
                 
                 // Build request
                 Map<String, Object> mapParams = orderInfo.toMap();
                 log.debug("Request params map: {}", mapParams);
-                HttpPost post = new HttpPost(zaloPayConfig.getEndpoints().getCreate());
-                List<NameValuePair> params = new ArrayList<>();
-                
-                for (Map.Entry<String, Object> e : mapParams.entrySet()) {
-                    if (e.getValue() != null) {
-                    params.add(new BasicNameValuePair(e.getKey(), e.getValue().toString()));
-                    }
-                }
-                
-                post.setEntity(new UrlEncodedFormEntity(params));
-                
-                log.info("→ Sending create order request to ZaloPay: {}", zaloPayConfig.getEndpoints().getCreate());
+                log.debug("→ Sending create order request to ZaloPay: {}", zaloPayConfig.getEndpoints().getCreate());
                 log.debug("  Request params: {}", mapParams);
                 
                 // Execute request
-                CloseableHttpResponse res = client.execute(post);
+                String rawResponseBody = zaloPayGateway.createOrder(mapParams).join();
                 
                 // CRITICAL: Log RAW response body BEFORE parsing
-                BufferedReader rd = new BufferedReader(new InputStreamReader(res.getEntity().getContent()));
-                StringBuilder rawResponse = new StringBuilder();
-                String line;
-                while ((line = rd.readLine()) != null) {
-                    rawResponse.append(line);
-                }
-                String rawResponseBody = rawResponse.toString();
-                
-                log.info("========== ZaloPay RAW Response ==========");
-                log.info("{}", rawResponseBody);
-                log.info("==========================================");
+                log.debug("========== ZaloPay RAW Response ==========");
+                log.debug("{}", rawResponseBody);
+                log.debug("==========================================");
                 
                 // Parse response
                 OrderPurchaseInfo orderPurchaseInfo;
@@ -238,16 +230,16 @@ public class ZalopayService {
                 orderPurchaseInfo.setApp_trans_id(fullAppTransId);
                 
                 // LOG PARSED ZALOPAY RESPONSE WITH NULL-SAFE CHECKS
-                log.info("========== ZaloPay Parsed Response ==========");
-                log.info("  return_code: {} (1=success, 2=failed, 3=processing)", orderPurchaseInfo.getReturn_code());
-                log.info("  return_message: {}", orderPurchaseInfo.getReturn_message());
-                log.info("  sub_return_code: {}", orderPurchaseInfo.getSub_return_code());
-                log.info("  sub_return_message: {}", orderPurchaseInfo.getSub_return_message());
-                log.info("  app_trans_id (full): {}", fullAppTransId);
-                log.info("  zp_trans_token: {}", orderPurchaseInfo.getZp_trans_token());
-                log.info("  order_url: {}", orderPurchaseInfo.getOrder_url());
-                log.info("  order_token: {}", orderPurchaseInfo.getOrder_token());
-                log.info("==============================================");
+                log.debug("========== ZaloPay Parsed Response ==========");
+                log.debug("  return_code: {} (1=success, 2=failed, 3=processing)", orderPurchaseInfo.getReturn_code());
+                log.debug("  return_message: {}", orderPurchaseInfo.getReturn_message());
+                log.debug("  sub_return_code: {}", orderPurchaseInfo.getSub_return_code());
+                log.debug("  sub_return_message: {}", orderPurchaseInfo.getSub_return_message());
+                log.debug("  app_trans_id (full): {}", fullAppTransId);
+                log.debug("  zp_trans_token: {}", orderPurchaseInfo.getZp_trans_token());
+                log.debug("  order_url: {}", orderPurchaseInfo.getOrder_url());
+                log.debug("  order_token: {}", orderPurchaseInfo.getOrder_token());
+                log.debug("==============================================");
                 
                 // Parse return_code from raw response if Jackson mapping failed
                 // This handles cases where JSON field names don't match exactly
@@ -302,24 +294,24 @@ public class ZalopayService {
                 
                 log.info("✓ ZaloPay order created successfully for orderId: {}", orderId);
                 
-                // Store zp_trans_token in payment record for tracking
-                if (existingPayment.isPresent() && orderPurchaseInfo.getZp_trans_token() != null) {
-                    ShopOrderPayment payment = existingPayment.get();
-                    payment.setOrderNumber(orderPurchaseInfo.getZp_trans_token());
+                // Store zp_trans_token and app_trans_id in payment record for tracking
+                // The stored app_trans_id puts the payment on the ZaloPayReconciler's list (for localhost development,
+                // where the callback may not be reachable), which survives restarts
+                shopOrderPaymentService.findByOrderId(orderId).ifPresent(payment -> {
+                    if (orderPurchaseInfo.getZp_trans_token() != null) payment.setOrderNumber(orderPurchaseInfo.getZp_trans_token());
+                    payment.setAppTransId(fullAppTransId);
+                    payment.setCheckAttempts(0);
+                    payment.setNextCheckAt(Instant.now().plus(zaloPayConfig.getReconciler().getFirstCheckDelay()));
                     payment.setUpdateAt(Instant.now());
                     shopOrderPaymentService.save(payment);
-                    log.info("✓ Stored zp_trans_token in payment record for tracking");
-                }
-                
-                // Start polling for payment status (for localhost development)
-                // Use full app_trans_id (with yyMMdd prefix)
-                schedulePaymentStatusPolling(fullAppTransId, 0);
+                    log.debug("✓ Stored zp_trans_token and app_trans_id in payment record for tracking");
+                });
                 
                 return ZaloPayResponse.success(orderPurchaseInfo);
                 
-            } catch (IOException e) {
-                log.error("❌ IOException while creating ZaloPay order for orderId: {}", orderId, e);
-                return ZaloPayResponse.error(-1, "Network error: " + e.getMessage());
+            } catch (CompletionException e) {
+                log.error("❌ ZaloPay call failed while creating ZaloPay order for orderId: {}", orderId, e.getCause());
+                return ZaloPayResponse.error(-1, "Network error: " + e.getCause().getMessage());
             } catch (Exception e) {
                 log.error("❌ Unexpected error while creating ZaloPay order for orderId: {}", orderId, e);
                 return ZaloPayResponse.error(-1, "Unexpected error: " + e.getMessage());
@@ -375,28 +367,7 @@ public class ZalopayService {
             }
             
             try {
-                // Check if already paid (idempotency)
-                Optional<ShopOrderStatus> existingPaid = shopOrderStatusService.findByOrderIdAndStatus(orderId, OrderStatus.PAID);
-                if (existingPaid.isPresent()) {
-                    log.info("Order #{} already marked as PAID, skipping callback processing", orderId);
-                    result.put("return_code", 1);
-                    result.put("return_message", "success (already paid)");
-                    return result.toString();
-                }
-                
-                // Update order status to PAID using new methods
-                log.info("Updating order #{} status to PAID", orderId);
-                shopOrderStatusService.confirmOrder(orderId, 
-                        String.format("Payment received via ZaloPay. Transaction ID: %s", callbackData.getZp_trans_id()));
-                
-                // Update payment record
-                ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
-                
-                payment.setOrderNumber(String.valueOf(callbackData.getZp_trans_id()));
-                payment.setUpdateAt(Instant.now());
-                payment.setStatus(PaymentStatus.PAID.value);
-                shopOrderPaymentService.save(payment);
+                settlePaid(orderId, String.valueOf(callbackData.getZp_trans_id()));
                 
                 log.info("Successfully processed ZaloPay callback for order #{}", orderId);
                 
@@ -419,178 +390,98 @@ public class ZalopayService {
     }
     
     /**
-     * Schedule polling for payment status
-     * Used for localhost development where callback may not be reachable
+     * Handle successful payment found by the status reconciler
      * 
-     * @param appTransId ZaloPay transaction ID
-     * @param attemptNumber Current attempt number
-     */
-    private void schedulePaymentStatusPolling(String appTransId, int attemptNumber) {
-        if (attemptNumber >= zaloPayConfig.getMaxPollingAttempts()) {
-            log.warn("Max polling attempts reached for app_trans_id: {}", appTransId);
-            return;
-        }
-        
-        long delaySeconds = attemptNumber == 0 ? 10 : zaloPayConfig.getPollingIntervalSeconds();
-        Instant scheduledTime = Objects.requireNonNull(Instant.now().plusSeconds(delaySeconds), "Scheduled time cannot be null");
-        
-        taskScheduler.schedule(() -> {
-            try {
-                log.info("========== Polling payment status (attempt {}/{}) ==========", 
-                        attemptNumber + 1, zaloPayConfig.getMaxPollingAttempts());
-                log.info("  app_trans_id: {}", appTransId);
-                
-                String statusResponse = getOrderStatus(appTransId);
-                log.info("========== ZaloPay STATUS RAW Response ==========");
-                log.info("{}", statusResponse);
-                log.info("=================================================");
-                
-                JSONObject statusJson = new JSONObject(statusResponse);
-                
-                // CRITICAL: Use optInt() to avoid exception if field is missing/null
-                int returnCode = statusJson.optInt("return_code", -999);
-                String returnMessage = statusJson.optString("return_message", "N/A");
-                int subReturnCode = statusJson.optInt("sub_return_code", 0);
-                String subReturnMessage = statusJson.optString("sub_return_message", "N/A");
-                
-                log.info("========== ZaloPay STATUS Parsed Response ==========");
-                log.info("  return_code: {} (1=success, 2=failed, 3=processing)", returnCode);
-                log.info("  return_message: {}", returnMessage);
-                log.info("  sub_return_code: {}", subReturnCode);
-                log.info("  sub_return_message: {}", subReturnMessage);
-                log.info("  zp_trans_id: {}", statusJson.opt("zp_trans_id"));
-                log.info("  amount: {}", statusJson.opt("amount"));
-                log.info("====================================================");
-                
-                // Defensive check for invalid return_code
-                if (returnCode == -999) {
-                    log.error("❌ ZaloPay status response has missing or null return_code!");
-                    log.error("  Raw response: {}", statusResponse);
-                    log.error("  This indicates an API error or malformed response");
-                    // Don't stop polling - treat as temporary error
-                    schedulePaymentStatusPolling(appTransId, attemptNumber + 1);
-                    return;
-                }
-                
-                Integer orderId = extractOrderIdFromAppTransId(appTransId);
-                
-                if (returnCode == 1) {
-                    // Payment successful - stop polling
-                    log.info("✓ Payment SUCCESS for order #{}, app_trans_id: {}", orderId, appTransId);
-                    handleSuccessfulPayment(orderId, appTransId, statusJson);
-                    
-                } else if (returnCode == 2) {
-                    // Payment failed - STOP polling (do not retry)
-                    log.warn("❌ Payment FAILED for order #{}, app_trans_id: {}. Stopping polling.", orderId, appTransId);
-                    handleFailedPayment(orderId, appTransId);
-                    // No further polling - payment definitively failed
-                    
-                } else if (returnCode == 3) {
-                    // Still processing - continue polling if not exceeded max attempts
-                    log.info("⏳ Payment still PROCESSING for order #{}, app_trans_id: {}. Will retry.", orderId, appTransId);
-                    schedulePaymentStatusPolling(appTransId, attemptNumber + 1);
-                    
-                } else {
-                    // Unknown return code (including -49 = not paid yet)
-                    log.warn("⚠️ Unexpected return_code={} for app_trans_id: {}. Continuing to poll...", returnCode, appTransId);
-                    schedulePaymentStatusPolling(appTransId, attemptNumber + 1);
-                }
-                
-            } catch (PaymentException e) {
-                log.error("Payment exception during polling for app_trans_id: {}", appTransId, e);
-                // Payment-specific errors should not retry
-                
-            } catch (Exception e) {
-                log.error("Error polling payment status for app_trans_id: {} (attempt {})", 
-                         appTransId, attemptNumber + 1, e);
-                // Retry on unexpected errors (network issues, etc.)
-                if (attemptNumber < zaloPayConfig.getMaxPollingAttempts() - 1) {
-                    log.info("Retrying polling for app_trans_id: {} after error", appTransId);
-                    schedulePaymentStatusPolling(appTransId, attemptNumber + 1);
-                } else {
-                    log.error("Max polling attempts reached after error for app_trans_id: {}. Giving up.", appTransId);
-                }
-            }
-        }, scheduledTime);
-    }
-    
-    /**
-     * Handle successful payment after status polling
+     * @return true once the payment is settled here (see settlePaid), false while the callback is confirming the same payment;
+     * a failure is thrown and rolls the confirmation back, so the reconciler keeps the payment
      */
     @Transactional
-    protected void handleSuccessfulPayment(Integer orderId, String appTransId, JSONObject statusJson) {
+    public boolean handleSuccessfulPayment(Integer orderId, String appTransId, JSONObject statusJson) {
         log.info("Handling successful payment for orderId: {}", orderId);
         
         // Prevent duplicate processing
         if (processingOrders.putIfAbsent(appTransId, Boolean.TRUE) != null) {
             log.warn("Payment already being processed for app_trans_id: {}", appTransId);
-            return;
+            return false;
         }
         
         try {
-            // Check if already paid
-            Optional<ShopOrderStatus> existingPaid = shopOrderStatusService.findByOrderIdAndStatus(orderId, OrderStatus.PAID);
-            if (existingPaid.isPresent()) {
-                log.info("Order #{} already marked as PAID, skipping", orderId);
-                return;
-            }
-            
-            // Update order status
-            String zpTransId = statusJson.optString("zp_trans_id", "N/A");
-            shopOrderStatusService.confirmOrder(orderId, 
-                    String.format("Payment confirmed via ZaloPay. Transaction ID: %s", zpTransId));
+            settlePaid(orderId, statusJson.optString("zp_trans_id", "N/A"));
+            return true;
             
-            // Update payment record
-            ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
-            
-            payment.setOrderNumber(zpTransId);
-            payment.setUpdateAt(Instant.now());
-            payment.setStatus(PaymentStatus.PAID.value);
-            shopOrderPaymentService.save(payment);
-            
-            log.info("Successfully marked order #{} as PAID", orderId);
-            
-        } catch (Exception e) {
-            log.error("Error handling successful payment for order #{}", orderId, e);
         } finally {
             processingOrders.remove(appTransId);
         }
     }
     
     /**
-     * Handle failed payment after status polling
+     * Record a payment ZaloPay reports as paid, whichever way it arrives first. A waiting order becomes PAID;
+     * an order already past payment (a repeated delivery, or confirmed by an admin) only gets its payment
+     * record closed, since same-state transitions are refused; a cancelled order is flagged for refund
+     */
+    private void settlePaid(Integer orderId, String zpTransId) {
+        Integer current = shopOrderStatusService.getCurrentStatus(orderId).map(ShopOrderStatus::getStatus).orElse(null);
+        if (Integer.valueOf(OrderStatus.CANCELLED.id).equals(current)) {
+            flagForRefund(orderId, zpTransId);
+            return;
+        }
+        if (current != null && current != OrderStatus.PENDING_PAYMENT.id) {
+            log.info("Order #{} is already past payment (status {}), closing its payment record only", orderId, current);
+        } else {
+            shopOrderStatusService.markAsPaid(orderId, zpTransId);
+        }
+        
+        ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
+        if (Integer.valueOf(PaymentStatus.PAID.value).equals(payment.getStatus())) return;
+        payment.setOrderNumber(zpTransId);
+        payment.setUpdateAt(Instant.now());
+        payment.setStatus(PaymentStatus.PAID.value);
+        shopOrderPaymentService.save(payment);
+        log.info("Successfully marked order #{} as PAID", orderId);
+    }
+    
+    /**
+     * ZaloPay took the money after the order was cancelled (its stock is already back on sale):
+     * the payment is recorded as REFUND_REQUIRED for an admin to refund instead of failing
+     */
+    private void flagForRefund(Integer orderId, String zpTransId) {
+        ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
+        payment.setOrderNumber(zpTransId);
+        payment.setUpdateAt(Instant.now());
+        payment.setStatus(PaymentStatus.REFUND_REQUIRED.value);
+        shopOrderPaymentService.save(payment);
+        log.error("Order #{} was paid through ZaloPay (zp_trans_id: {}) after it was cancelled, refund required", orderId, zpTransId);
+    }
+    
+    /**
+     * Handle failed payment found by the status reconciler
      */
     @Transactional
-    protected void handleFailedPayment(Integer orderId, String appTransId) {
+    public void handleFailedPayment(Integer orderId, String appTransId) {
         log.info("Handling failed payment for orderId: {}", orderId);
         
-        try {
-            // Check if already cancelled
-            Optional<ShopOrderStatus> existingCancelled = shopOrderStatusService.findByOrderIdAndStatus(orderId, OrderStatus.CANCELLED);
-            if (existingCancelled.isPresent()) {
-                log.info("Order #{} already marked as CANCELLED, skipping", orderId);
-                return;
-            }
-            
+        // Check if already cancelled (e.g. its stock hold expired), the payment record is still closed below
+        Optional<ShopOrderStatus> existingCancelled = shopOrderStatusService.findByOrderIdAndStatus(orderId, OrderStatus.CANCELLED);
+        if (existingCancelled.isPresent()) {
+            log.info("Order #{} already marked as CANCELLED, skipping status change", orderId);
+        } else {
             // Cancel order
             shopOrderStatusService.cancelOrder(orderId, 
                     String.format("Payment failed. Transaction ID: %s", appTransId),
                     "Payment processing error at ZaloPay");
-            
-            // Update payment record
-            ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
-            
-            payment.setUpdateAt(Instant.now());
-            payment.setStatus(PaymentStatus.CANCEL.value);
-            shopOrderPaymentService.save(payment);
-            
-            log.info("Successfully marked order #{} as CANCELLED due to payment failure", orderId);
-            
-        } catch (Exception e) {
-            log.error("Error handling failed payment for order #{}", orderId, e);
         }
+        
+        // Update payment record
+        ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
+        
+        payment.setUpdateAt(Instant.now());
+        payment.setStatus(PaymentStatus.CANCEL.value);
+        shopOrderPaymentService.save(payment);
+        
+        log.info("Successfully marked order #{} as CANCELLED due to payment failure", orderId);
     }
     
     /**
@@ -606,47 +497,13 @@ public class ZalopayService {
      * @param appTransId ZaloPay transaction ID
      * @return JSON response from ZaloPay
      */
-    public String getOrderStatus(String appTransId) throws URISyntaxException {
+    public CompletableFuture<String> getOrderStatus(String appTransId) {
         log.debug("Querying ZaloPay status for app_trans_id: {}", appTransId);
-        
-        // Generate MAC according to v2 spec: app_id|app_trans_id|key1
-        String data = zaloPayConfig.getAppId() + "|" + appTransId + "|" + zaloPayConfig.getKey1();
-        String mac = HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, zaloPayConfig.getKey1(), data);
-        
-        log.debug("Query status MAC input: {}", data);
-        log.debug("Query status MAC: {}", mac);
-        
-        // v2 API uses app_id and app_trans_id (with underscore)
-        List<NameValuePair> params = new ArrayList<>();
-        params.add(new BasicNameValuePair("app_id", String.valueOf(zaloPayConfig.getAppId())));
-        params.add(new BasicNameValuePair("app_trans_id", appTransId));
-        params.add(new BasicNameValuePair("mac", mac));
-
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
-            HttpPost post = new HttpPost(zaloPayConfig.getEndpoints().getQuery());
-            post.setEntity(new UrlEncodedFormEntity(params));
-            
-            log.debug("Sending query status request to: {}", zaloPayConfig.getEndpoints().getQuery());
-            log.debug("Parameters: app_id={}, app_trans_id={}", zaloPayConfig.getAppId(), appTransId);
-            
-            CloseableHttpResponse res = client.execute(post);
-            BufferedReader rd = new BufferedReader(new InputStreamReader(res.getEntity().getContent()));
-            StringBuilder resultJsonStr = new StringBuilder();
-            String line;
-
-            while ((line = rd.readLine()) != null) {
-                resultJsonStr.append(line);
-            }
-            
-            String response = resultJsonStr.toString();
-            log.info("ZaloPay status query response: {}", response);
-            
-            return response;
-            
-        } catch (IOException e) {
-            log.error("Error querying ZaloPay status for app_trans_id: {}", appTransId, e);
-            throw new PaymentException("Failed to query payment status", e);
-        }
+        return zaloPayGateway.queryOrder(appTransId)
+                .whenComplete((response, e) -> {
+                    if (e != null) log.error("Error querying ZaloPay status for app_trans_id: {}", appTransId, e);
+                    else log.info("ZaloPay status query response: {}", response);
+                });
     }
     
     /**
@@ -656,18 +513,19 @@ public class ZalopayService {
      * @param userDetail User requesting refund
      * @return ResponseMessage with refund status
      */
-    @Transactional
-    public ResponseMessage refund(Integer orderId, IUserDetail userDetail) {
+    public CompletableFuture<ResponseMessage> refund(Integer orderId, IUserDetail userDetail) {
         log.info("Processing ZaloPay refund for orderId: {} by user: {}", orderId, userDetail.getUserId());
         
-        return orderService.findById(orderId).map(order -> {
-            // Verify order has been paid
-            shopOrderStatusService.findByOrderIdAndStatus(orderId, OrderStatus.PAID)
-                    .orElseThrow(() -> new IllegalArgumentException("Order has not been paid yet"));
-            
+        return readOnlyTransaction().execute(status -> orderService.findById(orderId).map(order -> {
             ShopOrderPayment payment = shopOrderPaymentService.findByOrderId(orderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + orderId));
             
+            // Verify order has been paid, or was paid after it had been cancelled
+            if (!Integer.valueOf(PaymentStatus.REFUND_REQUIRED.value).equals(payment.getStatus())) {
+                shopOrderStatusService.findByOrderIdAndStatus(orderId, OrderStatus.PAID)
+                        .orElseThrow(() -> new IllegalArgumentException("Order has not been paid yet"));
+            }
+            
             // Verify user authorization
             if (!order.getUser().getId().equals(userDetail.getUserId())) {
                 if (userDetail.getAuthorities().stream()
@@ -696,25 +554,7 @@ public class ZalopayService {
                          refundData.get("timestamp");
             refundData.put("mac", HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, zaloPayConfig.getKey1(), data));
 
-            List<NameValuePair> params = new ArrayList<>();
-            for (Map.Entry<String, Object> e : refundData.entrySet()) {
-                params.add(new BasicNameValuePair(e.getKey(), e.getValue().toString()));
-            }
-            
-            try (CloseableHttpClient client = HttpClients.createDefault()) {
-                HttpPost post = new HttpPost(zaloPayConfig.getEndpoints().getRefund());
-                post.setEntity(new UrlEncodedFormEntity(params));
-                
-                CloseableHttpResponse res = client.execute(post);
-                BufferedReader rd = new BufferedReader(new InputStreamReader(res.getEntity().getContent()));
-                StringBuilder resultJsonStr = new StringBuilder();
-                String line;
-
-                while ((line = rd.readLine()) != null) {
-                    resultJsonStr.append(line);
-                }
-
-                String rawResponse = resultJsonStr.toString();
+            return zaloPayGateway.refund(refundData).thenApply(rawResponse -> {
                 log.info("========== ZaloPay Refund RAW Response ==========");
                 log.info("{}", rawResponse);
                 log.info("=================================================");
@@ -740,15 +580,12 @@ public class ZalopayService {
                         .message(returnMessage)
                         .ok();
                         
-            } catch (IOException e) {
-                log.error("Error processing ZaloPay refund for order #{}", orderId, e);
-                throw new PaymentException("Failed to process refund", e);
-            }
+            });
             
         }).orElseThrow(() -> {
             log.error("Order not found for refund: {}", orderId);
             return new ResourceNotFoundException("Order with id " + orderId + " not found");
-        });
+        }));
     }
     
     /**
@@ -758,45 +595,14 @@ public class ZalopayService {
      * 
      * @param mRefundId Merchant refund ID (format: yyMMdd_appid_xxxxxxxxxx)
      * @return JSON response with refund status
-     * @throws IOException if HTTP request fails
      */
-    public String getRefundStatus(String mRefundId) throws IOException {
+    public CompletableFuture<String> getRefundStatus(String mRefundId) {
         log.info("Querying ZaloPay refund status for mRefundId: {}", mRefundId);
-        
-        long timestamp = System.currentTimeMillis();
-        
-        // Generate MAC: appid|mrefundid|timestamp
-        String data = zaloPayConfig.getAppId() + "|" + mRefundId + "|" + timestamp;
-        String mac = HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, zaloPayConfig.getKey1(), data);
-        
-        // Build request parameters
-        List<NameValuePair> params = new ArrayList<>();
-        params.add(new BasicNameValuePair("appid", String.valueOf(zaloPayConfig.getAppId())));
-        params.add(new BasicNameValuePair("mrefundid", mRefundId));
-        params.add(new BasicNameValuePair("timestamp", String.valueOf(timestamp)));
-        params.add(new BasicNameValuePair("mac", mac));
-        
-        log.debug("ZaloPay getRefundStatus request: appid={}, mrefundid={}, timestamp={}", 
-                 zaloPayConfig.getAppId(), mRefundId, timestamp);
-        
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
-            HttpPost post = new HttpPost(zaloPayConfig.getEndpoints().getRefundStatus());
-            post.setEntity(new UrlEncodedFormEntity(params));
-            
-            CloseableHttpResponse res = client.execute(post);
-            BufferedReader rd = new BufferedReader(new InputStreamReader(res.getEntity().getContent()));
-            StringBuilder resultJsonStr = new StringBuilder();
-            String line;
-            
-            while ((line = rd.readLine()) != null) {
-                resultJsonStr.append(line);
-            }
-            
-            String response = resultJsonStr.toString();
-            log.info("ZaloPay getRefundStatus response for {}: {}", mRefundId, response);
-            
-            return response;
-        }
+        return zaloPayGateway.queryRefund(mRefundId)
+                .thenApply(response -> {
+                    log.info("ZaloPay getRefundStatus response for {}: {}", mRefundId, response);
+                    return response;
+                });
     }
     
     /**
@@ -924,4 +730,10 @@ public class ZalopayService {
             throw new PaymentException("Failed to extract orderId from app_trans_id", e);
         }
     }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
 }
@@ -0,0 +1,50 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.config.DailySalesProperties;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the daily_sales rollup honest. Nightly, recomputes the last
+ * nhs.statistics.daily-sales.compaction-days days from shop_order; on startup, builds the whole
+ * rollup one month at a time if it is empty (fresh schema or first deployment).
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class DailySalesCompactionJob {
+    private DailySalesService dailySalesService;
+    private DailySalesProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!properties.isBackfillOnStartup()) return;
+        try {
+            if (!dailySalesService.isEmpty()) return;
+            LocalDate today = LocalDate.now();
+            LocalDate first = dailySalesService.findFirstOrderDay().orElse(null);
+            for (LocalDate from = first; from != null && !from.isAfter(today); from = from.plusMonths(1)) {
+                LocalDate to = from.plusMonths(1).minusDays(1);
+                dailySalesService.rebuild(from, to.isAfter(today) ? today : to);
+            }
+        } catch (RuntimeException e) {
+            log.error("daily_sales startup backfill failed, empty daily_sales and restart to rebuild it", e);
+        }
+    }
+
+    @Scheduled(cron = "#{@dailySalesProperties.compactionCron}")
+    public void compact() {
+        LocalDate today = LocalDate.now();
+        try {
+            dailySalesService.rebuild(today.minusDays(properties.getCompactionDays() - 1L), today);
+        } catch (RuntimeException e) {
+            log.error("daily_sales compaction failed", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.dto.DailySalesStatistic;
+import com.nhs.individual.dto.DailySalesTotal;
+import com.nhs.individual.dto.ProductDto;
+import com.nhs.individual.dto.ProductSalesTotal;
+import com.nhs.individual.event.OrderSalesChangedEvent;
+import com.nhs.individual.repository.ProductRepository;
+import com.nhs.individual.repository.ShopOrderRepository;
+import com.nhs.individual.repository.sub_repository.DailyProductSalesRepository;
+import com.nhs.individual.repository.sub_repository.DailySalesRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the daily_sales / daily_product_sales rollup behind the order dashboard and reads it.
+ * <p>
+ * Every order counts under its current status on the day it was placed. Placing an order adds it;
+ * a status change takes it away from the old status and adds it under the new one, so the work per
+ * event depends on the size of the order, not of the order history. {@link #rebuild} recomputes
+ * whole days from shop_order and is what the nightly DailySalesCompactionJob runs over the latest
+ * days, to correct changes whose event never reached the rollup.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class DailySalesService {
+    private DailySalesRepository dailySalesRepository;
+    private DailyProductSalesRepository dailyProductSalesRepository;
+    private ShopOrderRepository shopOrderRepository;
+    private ProductRepository productRepository;
+
+    /**
+     * Applies a committed order change. Runs after commit so the order and its lines are visible.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderSalesChanged(OrderSalesChangedEvent event) {
+        if (event.getOrderId() == null || Objects.equals(event.getPreviousStatus(), event.getStatus())) return;
+        if (event.getPreviousStatus() != null) add(event.getOrderId(), event.getPreviousStatus(), -1);
+        if (event.getStatus() != null) add(event.getOrderId(), event.getStatus(), 1);
+    }
+
+    /**
+     * Orders per day between two days inclusive, with the products sold on each day, most units first
+     *
+     * @param statuses order statuses to count, every status when empty
+     */
+    @Transactional(readOnly = true)
+    public List<DailySalesStatistic> findBetween(LocalDate from, LocalDate to, Collection<Integer> statuses) {
+        Collection<Integer> counted = statuses == null || statuses.isEmpty()
+                ? Arrays.stream(OrderStatus.values()).map(status -> status.id).toList()
+                : statuses;
+        List<DailySalesTotal> totals = dailySalesRepository.findTotals(from, to, counted);
+        List<ProductSalesTotal> productTotals = dailyProductSalesRepository.findTotals(from, to, counted);
+        Map<Integer, ProductDto> products = productTotals.isEmpty() ? Map.of() :
+                productRepository.findListByIdIn(productTotals.stream().map(ProductSalesTotal::productId).collect(Collectors.toSet()))
+                        .stream().collect(Collectors.toMap(Product::getId, ProductDto::new));
+        Map<LocalDate, List<DailySalesStatistic.ProductSales>> productsByDay = productTotals.stream()
+                .filter(total -> products.containsKey(total.productId()))
+                .collect(Collectors.groupingBy(ProductSalesTotal::date, Collectors.mapping(
+                        total -> new DailySalesStatistic.ProductSales(total.units(), products.get(total.productId())),
+                        Collectors.toList())));
+        return totals.stream()
+                .map(total -> new DailySalesStatistic(total.date(), total.orders(), total.revenue(),
+                        productsByDay.getOrDefault(total.date(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Recomputes the rollup for the days between {@code from} and {@code to} inclusive.
+     * An order change committed while this runs can be missed or counted twice for its day;
+     * the next compaction over that day corrects it.
+     */
+    @Transactional
+    public void rebuild(LocalDate from, LocalDate to) {
+        long start = System.currentTimeMillis();
+        dailySalesRepository.deleteBetween(from, to);
+        dailyProductSalesRepository.deleteBetween(from, to);
+        int days = dailySalesRepository.rebuild(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        int products = dailyProductSalesRepository.rebuild(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        log.info("daily_sales rebuilt for {} to {} in {} ms ({} status rows, {} product rows)",
+                from, to, System.currentTimeMillis() - start, days, products);
+    }
+
+    public boolean isEmpty() {
+        return dailySalesRepository.count() == 0;
+    }
+
+    /**
+     * Day of the oldest order, in the zone order_date is stored in
+     */
+    public Optional<LocalDate> findFirstOrderDay() {
+        return shopOrderRepository.findFirstOrderDate()
+                .map(date -> Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    private void add(Integer orderId, Integer status, int sign) {
+        dailySalesRepository.addOrder(orderId, status, sign);
+        dailyProductSalesRepository.addOrder(orderId, status, sign);
+    }
+}
@@ -0,0 +1,23 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.service.ExportJobService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes export jobs, and their files, once they are past nhs.export.jobs.ttl
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class ExportJobCleanupJob {
+    private ExportJobService exportJobService;
+
+    @Scheduled(fixedDelayString = "#{@exportProperties.jobs.cleanupInterval.toMillis()}")
+    public void removeExpired() {
+        int removed = exportJobService.removeExpired();
+        if (removed > 0) log.info("Removed {} expired export jobs", removed);
+    }
+}
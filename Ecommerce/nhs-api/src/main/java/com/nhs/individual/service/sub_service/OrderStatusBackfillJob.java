@@ -0,0 +1,38 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.service.ShopOrderStatusService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills shop_order.current_status for orders created before the column existed, so status
+ * filters and revenue never skip them. A no-op once every order has it.
+ * Disable with nhs.order.backfill-status-on-startup=false.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "nhs.order", name = "backfill-status-on-startup", havingValue = "true", matchIfMissing = true)
+public class OrderStatusBackfillJob {
+    private ShopOrderStatusService shopOrderStatusService;
+
+    /**
+     * Ahead of the other startup jobs, so the daily_sales backfill counts these orders
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            int updated = shopOrderStatusService.backfillCurrentStatus();
+            if (updated > 0) log.info("shop_order.current_status backfilled for {} orders", updated);
+        } catch (RuntimeException e) {
+            log.error("shop_order.current_status backfill failed, run db/migration/V3__Shop_order_current_status.sql", e);
+        }
+    }
+}
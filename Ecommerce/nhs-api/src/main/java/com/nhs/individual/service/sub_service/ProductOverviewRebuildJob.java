@@ -0,0 +1,30 @@
+package com.nhs.individual.service.sub_service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills product_overview once the application is up, so a fresh schema or
+ * writes missed while the service was down never leave the v2 catalog stale.
+ * Disable with nhs.overview.rebuild-on-startup=false.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "nhs.overview", name = "rebuild-on-startup", havingValue = "true", matchIfMissing = true)
+public class ProductOverviewRebuildJob {
+    private ProductOverviewService productOverviewService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            productOverviewService.rebuild();
+        } catch (RuntimeException e) {
+            log.error("product_overview startup rebuild failed, POST /api/v2/product/overview/rebuild to retry", e);
+        }
+    }
+}
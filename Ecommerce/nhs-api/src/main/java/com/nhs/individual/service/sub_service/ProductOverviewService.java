@@ -1,20 +1,30 @@
 package com.nhs.individual.service.sub_service;
 
+import com.nhs.individual.event.ProductOverviewChangedEvent;
 import com.nhs.individual.repository.sub_repository.ProductOverviewRepository;
+import com.nhs.individual.service.ProductCatalogCache;
 import com.nhs.individual.views.ProductOverView;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class ProductOverviewService {
     private ProductOverviewRepository productOverviewRepository;
+    private ProductCatalogCache productCatalogCache;
     public Optional<ProductOverView> findById(Integer id) {
         return productOverviewRepository.findById(id);
     }
@@ -26,4 +36,35 @@ public class ProductOverviewService {
         }
         return productOverviewRepository.findAll(spec,pageable);
     }
+
+    /**
+     * Recomputes the overview rows touched by a committed write. Runs after commit so it
+     * sees the new comment/item/stock rows; writes without a transaction are applied at once.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProductChanged(ProductOverviewChangedEvent event) {
+        Set<Integer> productIds = new HashSet<>(event.getProductIds());
+        if (!event.getProductItemIds().isEmpty()) {
+            productIds.addAll(productOverviewRepository.findProductIdsByItemIds(event.getProductItemIds()));
+        }
+        productIds.remove(null);
+        if (productIds.isEmpty()) return;
+        productOverviewRepository.refresh(productIds);
+        productOverviewRepository.deleteOrphans(productIds);
+        productCatalogCache.invalidateAll();
+    }
+
+    /**
+     * Full backfill of product_overview from the source tables.
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int upserted = productOverviewRepository.rebuild();
+        int removed = productOverviewRepository.deleteAllOrphans();
+        productCatalogCache.invalidateAll();
+        log.info("product_overview rebuilt in {} ms ({} rows upserted, {} orphans removed)",
+                System.currentTimeMillis() - start, upserted, removed);
+    }
 }
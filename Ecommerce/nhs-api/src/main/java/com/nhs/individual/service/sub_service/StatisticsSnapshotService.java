@@ -0,0 +1,89 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.config.StatisticsSnapshotProperties;
+import com.nhs.individual.dto.StatisticsSnapshot;
+import com.nhs.individual.exception.StatisticsNotReadyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Holds the dashboard overview, account and prospective user figures in memory.
+ * <p>
+ * The figures come from the OverviewStatistic, Accountstatisticsview and Prospectiveuser views,
+ * which scan several whole tables. They are computed on the shared ThreadPoolTaskScheduler every
+ * nhs.statistics.snapshot.refresh-interval, and on demand by an admin; dashboard requests only
+ * read the last snapshot. Each instance keeps its own snapshot.
+ */
+@Slf4j
+@Service
+public class StatisticsSnapshotService {
+    private final OverviewStatisticService overviewStatisticService;
+    private final AccountStatisticService accountStatisticService;
+    private final ProspectiveUserService prospectiveUserService;
+    private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+    private final StatisticsSnapshotProperties properties;
+    private volatile StatisticsSnapshot snapshot;
+    private ScheduledFuture<?> schedule;
+
+    public StatisticsSnapshotService(OverviewStatisticService overviewStatisticService,
+                                     AccountStatisticService accountStatisticService,
+                                     ProspectiveUserService prospectiveUserService,
+                                     ThreadPoolTaskScheduler threadPoolTaskScheduler,
+                                     StatisticsSnapshotProperties properties) {
+        this.overviewStatisticService = overviewStatisticService;
+        this.accountStatisticService = accountStatisticService;
+        this.prospectiveUserService = prospectiveUserService;
+        this.threadPoolTaskScheduler = threadPoolTaskScheduler;
+        this.properties = properties;
+    }
+
+    /**
+     * First computation right away, then one every refresh-interval after the previous ends
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startRefreshing() {
+        if (schedule != null) return;
+        schedule = threadPoolTaskScheduler.scheduleWithFixedDelay(this::refreshQuietly, Instant.now(),
+                properties.getRefreshInterval());
+    }
+
+    /**
+     * @throws StatisticsNotReadyException until the first computation has finished
+     */
+    public StatisticsSnapshot get() {
+        StatisticsSnapshot current = snapshot;
+        if (current == null) throw new StatisticsNotReadyException("Statistics are being computed, try again shortly");
+        return current;
+    }
+
+    /**
+     * Recomputes every figure now and replaces the snapshot. Runs one at a time, so an admin refresh
+     * during a scheduled one waits for it and then computes again.
+     */
+    public synchronized StatisticsSnapshot refresh() {
+        long start = System.currentTimeMillis();
+        StatisticsSnapshot computed = new StatisticsSnapshot(
+                overviewStatisticService.findAll().get(0),
+                accountStatisticService.findAll(),
+                prospectiveUserService.findAll(),
+                Instant.now());
+        snapshot = computed;
+        log.debug("Statistics snapshot computed in {} ms", System.currentTimeMillis() - start);
+        return computed;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // keep serving the previous snapshot; a throw would also cancel the schedule
+            log.error("Statistics snapshot refresh failed", e);
+        }
+    }
+}
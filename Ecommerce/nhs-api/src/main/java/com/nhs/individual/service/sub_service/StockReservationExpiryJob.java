@@ -0,0 +1,61 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.config.StockReservationProperties;
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.domain.ShopOrderStatus;
+import com.nhs.individual.service.ShopOrderPaymentService;
+import com.nhs.individual.service.ShopOrderStatusService;
+import com.nhs.individual.service.StockReservationService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Gives back stock held for online payments that never completed.
+ * An order still waiting for payment is cancelled (which releases its stock), unless ZaloPayReconciler
+ * still checks its payment: that hold is extended until the reconciler settles, fails or drops the
+ * payment. An order that was already cancelled only gets its stock released; an order that moved on keeps it.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class StockReservationExpiryJob {
+    private StockReservationService stockReservationService;
+    private ShopOrderStatusService shopOrderStatusService;
+    private ShopOrderPaymentService shopOrderPaymentService;
+    private StockReservationProperties properties;
+
+    @Scheduled(fixedDelayString = "#{@stockReservationProperties.sweepInterval.toMillis()}")
+    public void expireHolds() {
+        List<Integer> orderIds = stockReservationService.findExpiredOrderIds(properties.getSweepBatchSize());
+        for (Integer orderId : orderIds) {
+            try {
+                expire(orderId);
+            } catch (RuntimeException e) {
+                log.error("Failed to expire stock reservation of order #{}", orderId, e);
+            }
+        }
+    }
+
+    private void expire(Integer orderId) {
+        Integer status = shopOrderStatusService.getCurrentStatus(orderId).map(ShopOrderStatus::getStatus).orElse(null);
+        if (status == null || status == OrderStatus.CANCELLED.id) {
+            stockReservationService.release(orderId);
+        } else if (status == OrderStatus.PENDING_PAYMENT.id && shopOrderPaymentService.isAwaitingProvider(orderId)) {
+            // a late payment would otherwise be captured on a cancelled order whose stock is back on sale
+            stockReservationService.extend(orderId, Instant.now().plus(properties.getPendingPaymentExtension()));
+            log.debug("Order #{} keeps its stock hold, its ZaloPay payment is still being checked", orderId);
+        } else if (status == OrderStatus.PENDING_PAYMENT.id) {
+            shopOrderStatusService.cancelOrder(orderId,
+                    "Payment not completed within " + properties.getTtl().toMinutes() + " minutes",
+                    "Stock reservation expired");
+            log.info("Order #{} cancelled, payment not completed before the stock hold expired", orderId);
+        } else {
+            stockReservationService.commit(orderId);
+        }
+    }
+}
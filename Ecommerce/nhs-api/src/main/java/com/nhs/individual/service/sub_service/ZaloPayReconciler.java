@@ -0,0 +1,160 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.config.ZaloPayProperties;
+import com.nhs.individual.dto.PaymentCheck;
+import com.nhs.individual.service.ShopOrderPaymentService;
+import com.nhs.individual.service.ZaloPayGateway;
+import com.nhs.individual.service.ZalopayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settles ZaloPay payments whose callback never arrived.
+ * <p>
+ * The pending set lives in shop_order_payment (app_trans_id, next_check_at, check_attempts), so it
+ * survives restarts. Every run picks up to batch-size due payments, asks ZaloPay about them
+ * {@code parallelism} at a time and applies the answer: paid and failed payments go through
+ * ZalopayService (and so ShopOrderStatusService), anything else is checked again after an
+ * exponential backoff starting at polling-interval-seconds. A payment is dropped after
+ * max-polling-attempts checks; the stock reservation expiry cancels its order. A payment ZaloPay
+ * reports as paid is settled whatever the order's status: paid, already past payment, or flagged for
+ * refund when the order was cancelled. Only a settlement that keeps failing runs into the same cap.
+ * <p>
+ * Queries are idempotent, so running on several instances only costs duplicate calls.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ZaloPayReconciler {
+    private static final int PAID = 1;
+    private static final int FAILED = 2;
+
+    private final ZaloPayGateway zaloPayGateway;
+    private final ZalopayService zalopayService;
+    private final ShopOrderPaymentService shopOrderPaymentService;
+    private final ZaloPayProperties zaloPayConfig;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "#{@zaloPayProperties.reconciler.interval.toMillis()}")
+    public void reconcile() {
+        ZaloPayProperties.Reconciler settings = zaloPayConfig.getReconciler();
+        List<PaymentCheck> due = shopOrderPaymentService.findDueForCheck(Instant.now(), settings.getBatchSize());
+        if (!due.isEmpty()) log.info("Reconciling {} pending ZaloPay payments", due.size());
+        for (int from = 0; from < due.size(); from += settings.getParallelism()) {
+            List<PaymentCheck> chunk = due.subList(from, Math.min(due.size(), from + settings.getParallelism()));
+            List<CompletableFuture<Outcome>> queries = chunk.stream()
+                    .map(check -> zaloPayGateway.queryOrder(check.appTransId())
+                            .handle((body, error) -> new Outcome(check, body, error)))
+                    .toList();
+            CompletableFuture.allOf(queries.toArray(CompletableFuture[]::new)).join();
+            for (CompletableFuture<Outcome> query : queries) {
+                Outcome outcome = query.join();
+                try {
+                    apply(outcome);
+                } catch (RuntimeException e) {
+                    log.error("Failed to apply ZaloPay status of order #{}", outcome.check().orderId(), e);
+                    retryLater(outcome.check());
+                }
+            }
+        }
+        refreshGauges();
+    }
+
+    /**
+     * Pending payments still tracked
+     */
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * How far behind schedule the oldest due check is, in seconds
+     */
+    public long getLagSeconds() {
+        return lagSeconds.get();
+    }
+
+    private void apply(Outcome outcome) {
+        PaymentCheck check = outcome.check();
+        if (outcome.error() != null) {
+            log.warn("ZaloPay status query failed for app_trans_id {}: {}", check.appTransId(), outcome.error().getMessage());
+            retryLater(check);
+            return;
+        }
+        JSONObject status = new JSONObject(outcome.body().isEmpty() ? "{}" : outcome.body());
+        int returnCode = status.optInt("return_code", -999);
+        if (returnCode == PAID) {
+            log.info("✓ Payment SUCCESS for order #{}, app_trans_id: {}", check.orderId(), check.appTransId());
+            boolean settled = false;
+            try {
+                settled = zalopayService.handleSuccessfulPayment(check.orderId(), check.appTransId(), status);
+            } catch (RuntimeException e) {
+                log.error("Failed to settle paid order #{}", check.orderId(), e);
+            }
+            if (settled) {
+                shopOrderPaymentService.scheduleNextCheck(check.paymentId(), attempts(check) + 1, null);
+                return;
+            }
+            if (attempts(check) + 1 >= zaloPayConfig.getMaxPollingAttempts()) {
+                log.error("ZaloPay holds the payment of order #{} (app_trans_id: {}) but it could not be settled, review it",
+                        check.orderId(), check.appTransId());
+            }
+            retryLater(check);
+        } else if (returnCode == FAILED) {
+            log.warn("❌ Payment FAILED for order #{}, app_trans_id: {}", check.orderId(), check.appTransId());
+            zalopayService.handleFailedPayment(check.orderId(), check.appTransId());
+            shopOrderPaymentService.scheduleNextCheck(check.paymentId(), attempts(check) + 1, null);
+        } else {
+            // 3 = still processing, -49 = not paid yet, -999 = malformed answer
+            log.debug("Payment of order #{} not settled yet (return_code={})", check.orderId(), returnCode);
+            retryLater(check);
+        }
+    }
+
+    private void retryLater(PaymentCheck check) {
+        int attempts = attempts(check) + 1;
+        if (attempts >= zaloPayConfig.getMaxPollingAttempts()) {
+            log.warn("Giving up on ZaloPay status of order #{} after {} checks", check.orderId(), attempts);
+            shopOrderPaymentService.scheduleNextCheck(check.paymentId(), attempts, null);
+            return;
+        }
+        shopOrderPaymentService.scheduleNextCheck(check.paymentId(), attempts, Instant.now().plus(backoff(attempts)));
+    }
+
+    /**
+     * polling-interval-seconds * 2^(attempts - 1), capped at max-backoff
+     */
+    Duration backoff(int attempts) {
+        Duration delay = Duration.ofSeconds(zaloPayConfig.getPollingIntervalSeconds())
+                .multipliedBy(1L << Math.min(attempts - 1, 20));
+        Duration max = zaloPayConfig.getReconciler().getMaxBackoff();
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private void refreshGauges() {
+        Instant now = Instant.now();
+        backlog.set(shopOrderPaymentService.countPendingChecks());
+        lagSeconds.set(shopOrderPaymentService.findOldestPendingCheck()
+                .filter(oldest -> oldest.isBefore(now))
+                .map(oldest -> Duration.between(oldest, now).toSeconds())
+                .orElse(0L));
+    }
+
+    private static int attempts(PaymentCheck check) {
+        return check.attempts() == null ? 0 : check.attempts();
+    }
+
+    private record Outcome(PaymentCheck check, String body, Throwable error) {
+    }
+}
@@ -1,6 +1,28 @@
 package com.nhs.individual.specification.ISpecification;
 
+import com.nhs.individual.domain.CategoryClosure;
+import com.nhs.individual.domain.CategoryClosure_;
+import com.nhs.individual.domain.EmbeddedId.CategoryClosureId;
+import com.nhs.individual.domain.EmbeddedId.CategoryClosureId_;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 public interface GeneralSpecification<T> extends Specification<T> {
+
+    /**
+     * Ids of the categories and of every category below them, read from category_closure by its
+     * primary key (ancestor_id, descendant_id)
+     */
+    static Subquery<Integer> descendantsOf(CommonAbstractCriteria query, Collection<Integer> categoryIds) {
+        Subquery<Integer> descendants = query.subquery(Integer.class);
+        Root<CategoryClosure> closure = descendants.from(CategoryClosure.class);
+        Path<CategoryClosureId> id = closure.get(CategoryClosure_.ID);
+        return descendants.select(id.get(CategoryClosureId_.DESCENDANT_ID))
+                .where(id.get(CategoryClosureId_.ANCESTOR_ID).in(categoryIds));
+    }
 }
@@ -8,17 +8,16 @@ import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface IProductSpecification extends GeneralSpecification<Product> {
+    /**
+     * Products of the categories or of any category below them, through the category_closure index
+     */
     static Specification<Product> inCategory(List<Integer> categoryId){
-        return (root, criteriaQuery, criteriaBuilder) -> {
-            Predicate[] predicates = new Predicate[categoryId.size()];
-            for(int i = 0; i < categoryId.size(); i++){
-                predicates[i] = criteriaBuilder.equal(root.get(Product_.CATEGORY_ID),categoryId.get(i));
-            }
-            return criteriaBuilder.or(predicates);
-        };
+        return (root, criteriaQuery, criteriaBuilder) ->
+                root.get(Product_.CATEGORY_ID).in(GeneralSpecification.descendantsOf(criteriaQuery, categoryId));
     }
     static Specification<Product> hasName(String name){
         return (root,cq,cb)->cb.like(root.get(Product_.NAME),"%"+name+"%");
@@ -66,4 +65,17 @@ public interface IProductSpecification extends GeneralSpecification<Product> {
             return root.get(Product_.ID).in(productIdQuery).not();
         });
     }
+
+    /**
+     * Filters of the product exports; every argument is optional
+     */
+    static List<Specification<Product>> exportFilter(List<Integer> category, BigDecimal priceMin, BigDecimal priceMax,
+                                                     List<Integer> optionsId, String name){
+        List<Specification<Product>> specifications = new ArrayList<>();
+        if (category != null) specifications.add(inCategory(category));
+        if (priceMin != null && priceMax != null) specifications.add(priceLimit(priceMin, priceMax));
+        if (optionsId != null) specifications.add(hasOption(optionsId));
+        if (name != null) specifications.add(hasName(name));
+        return specifications;
+    }
 }
@@ -3,11 +3,15 @@ package com.nhs.individual.specification.ISpecification;
 import com.nhs.individual.constant.OrderStatus;
 import com.nhs.individual.domain.*;
 import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.Root;
-import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public interface IShopOrderSpecification extends GeneralSpecification<ShopOrder>{
     static Specification<ShopOrder> fromToDate(Timestamp from, Timestamp to){
@@ -16,20 +20,7 @@ public interface IShopOrderSpecification extends GeneralSpecification<ShopOrder>
 
 
     static Specification<ShopOrder> byStatus(OrderStatus status){
-        return (shopOrder,cq,cb)->{
-            Subquery<Integer> orderStatusSubquery=cb.createQuery().subquery(Integer.class);
-            Root<ShopOrderStatus> orderStatusRoot=orderStatusSubquery.from(ShopOrderStatus.class);
-            orderStatusSubquery.select(cb.max(orderStatusRoot.get(ShopOrderStatus_.id)))
-                    .where(cb.equal(orderStatusRoot.get(ShopOrderStatus_.SHOP_ORDER_ID),shopOrder.get(ShopOrder_.ID)));
-
-            Subquery<Integer> orderStatusSubquery1=cq.subquery(Integer.class);
-            Root<ShopOrderStatus> orderStatusRoot1=orderStatusSubquery1.from(ShopOrderStatus.class);
-            orderStatusSubquery1
-                    .select(orderStatusRoot1.get(ShopOrderStatus_.ID))
-                    .where(cb.equal(orderStatusRoot1.get(ShopOrderStatus_.STATUS),status.id),
-                            orderStatusRoot1.get(ShopOrderStatus_.ID).in(orderStatusSubquery));
-            return cb.exists(orderStatusSubquery1);
-        };
+        return (shopOrder,cq,cb)->cb.equal(shopOrder.get(ShopOrder_.CURRENT_STATUS),status.id);
     }
     static Specification<ShopOrder> byUser(Integer userId){
         return (shopOrder,cp,cb)->cb.equal(shopOrder.get(ShopOrder_.USER_ID),userId);
@@ -44,4 +35,39 @@ public interface IShopOrderSpecification extends GeneralSpecification<ShopOrder>
                     cb.like(orderAddressJoin.get(Address_.POSTAL_CODE),"%"+address+"%"));
         };
     }
+
+    /**
+     * Filters of the order exports: userId, status, address, from and to (yyyy-MM-dd HH-mm-ss, to defaults to now)
+     */
+    static List<Specification<ShopOrder>> exportFilter(Map<String,String> params){
+        List<Specification<ShopOrder>> specifications=new ArrayList<Specification<ShopOrder>>();
+        if(params.get("userId")!=null){
+            try {
+                specifications.add(byUser(Integer.valueOf(params.get("userId"))));
+            }catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid user id");
+            }
+        }
+        if(params.get("status")!=null){
+            OrderStatus status=OrderStatus.valueOf(params.get("status").toUpperCase());
+            specifications.add(byStatus(status));
+        }
+        if(params.get("address")!=null){
+            specifications.add(byAddress(params.get("address")));
+        }
+        Timestamp to=Timestamp.from(Instant.now());
+        SimpleDateFormat dateFormat=new SimpleDateFormat("yyyy-MM-dd HH-mm-ss");
+        try{
+            if(params.get("from")!=null){
+                Timestamp from=Timestamp.from(dateFormat.parse(params.get("from")).toInstant());
+                if(params.get("to")!=null){
+                    to=Timestamp.from(dateFormat.parse(params.get("to")).toInstant());
+                }
+                specifications.add(fromToDate(from,to));
+            }
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Illegal date format");
+        }
+        return specifications;
+    }
 }
@@ -0,0 +1,34 @@
+package com.nhs.individual.specification.ISpecification;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface KeysetSpecification {
+    /**
+     * Rows strictly after (sortValue, id) in the order {@code sortAttribute dir, id dir}.
+     * When the sort attribute is the id itself only the id comparison is emitted.
+     * Null sort values count as lower than any other, as MySQL orders them: first ascending, last descending.
+     */
+    static <T, V extends Comparable<? super V>> Specification<T> after(String sortAttribute, V sortValue,
+                                                                      Integer id, Sort.Direction direction) {
+        return (root, cq, cb) -> {
+            Path<Integer> idPath = root.get("id");
+            boolean desc = direction.isDescending();
+            Predicate idAfter = desc ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if ("id".equals(sortAttribute)) return idAfter;
+            Path<V> key = root.get(sortAttribute);
+            if (sortValue == null) {
+                return desc ? cb.and(cb.isNull(key), idAfter) : cb.or(cb.and(cb.isNull(key), idAfter), cb.isNotNull(key));
+            }
+            Predicate after = cb.or(desc ? cb.lessThan(key, sortValue) : cb.greaterThan(key, sortValue),
+                    cb.and(cb.equal(key, sortValue), idAfter));
+            return desc ? cb.or(after, cb.isNull(key)) : after;
+        };
+    }
+
+    static Sort sort(String sortAttribute, Sort.Direction direction) {
+        return "id".equals(sortAttribute) ? Sort.by(direction, "id") : Sort.by(direction, sortAttribute, "id");
+    }
+}
@@ -0,0 +1,79 @@
+package com.nhs.individual.utils;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Normalized cache key for a catalog query. Filters are sorted by name,
+ * collections are sorted and de-duplicated, strings are lower-cased (the catalog
+ * columns use a case-insensitive collation) and decimals lose their trailing zeros,
+ * so "?category=2,1&name=Ao&price-min=10.00" and "?name=ao&category=1,2&price-min=10"
+ * share one entry.
+ */
+@Getter
+@EqualsAndHashCode
+public final class CatalogCacheKey {
+    private final String value;
+
+    private CatalogCacheKey(String value) {
+        this.value = value;
+    }
+
+    public static Builder of(String scope) {
+        return new Builder(scope);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    public static class Builder {
+        private final String scope;
+        private final Map<String, String> filters = new TreeMap<>();
+
+        private Builder(String scope) {
+            this.scope = scope;
+        }
+
+        public Builder filter(String name, Object value) {
+            String normalized = normalize(value);
+            if (normalized != null) filters.put(name, normalized);
+            return this;
+        }
+
+        public CatalogCacheKey page(Pageable pageable) {
+            StringBuilder key = new StringBuilder(scope);
+            filters.forEach((name, value) -> key.append('|').append(name).append('=').append(value));
+            key.append("|p=").append(pageable.getPageNumber())
+                    .append("|s=").append(pageable.getPageSize())
+                    .append("|o=");
+            pageable.getSort().forEach(order -> key.append(order.getProperty()).append(':').append(order.getDirection()).append(','));
+            return new CatalogCacheKey(key.toString());
+        }
+
+        private static String normalize(Object value) {
+            if (value == null) return null;
+            if (value instanceof Collection<?> collection) {
+                return collection.stream()
+                        .filter(Objects::nonNull)
+                        .map(Builder::normalize)
+                        .distinct()
+                        .sorted()
+                        .collect(Collectors.joining(","));
+            }
+            if (value instanceof BigDecimal decimal) return decimal.stripTrailingZeros().toPlainString();
+            if (value instanceof String text) return text.toLowerCase(Locale.ROOT);
+            return value.toString();
+        }
+    }
+}
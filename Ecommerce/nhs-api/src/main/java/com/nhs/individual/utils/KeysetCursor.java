@@ -0,0 +1,92 @@
+package com.nhs.individual.utils;
+
+import com.nhs.individual.exception.IllegalInputException;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque position of the last row of a keyset page: the sort attribute and direction, its value on
+ * that row and the row id as tie-breaker. Dates travel as epoch millis, instants in full ISO precision,
+ * a null value as its own marker so it never reads back as the text "null". Clients only echo the
+ * encoded token back; a token minted for another sort order or direction is rejected.
+ */
+@Getter
+public final class KeysetCursor {
+    private static final char SEPARATOR = '|';
+    private static final String NULL_VALUE = "~";
+    private static final String VALUE_PREFIX = "=";
+    private final String sort;
+    private final Sort.Direction direction;
+    /**
+     * Sort value of the last row, null when that row had none
+     */
+    private final String value;
+    private final Integer id;
+
+    private KeysetCursor(String sort, Sort.Direction direction, String value, Integer id) {
+        this.sort = sort;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(String sort, Sort.Direction direction, Object value, Integer id) {
+        String raw = value == null ? null : value instanceof Date date ? String.valueOf(date.getTime()) : String.valueOf(value);
+        return new KeysetCursor(sort, direction, raw, id);
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + direction + SEPARATOR + (value == null ? NULL_VALUE : VALUE_PREFIX + value) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token, String expectedSort, Sort.Direction expectedDirection) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || second < 0 || second == last) throw new IllegalArgumentException("malformed cursor");
+            String encodedValue = raw.substring(second + 1, last);
+            String value;
+            if (encodedValue.equals(NULL_VALUE)) value = null;
+            else if (encodedValue.startsWith(VALUE_PREFIX)) value = encodedValue.substring(VALUE_PREFIX.length());
+            else throw new IllegalArgumentException("malformed cursor value");
+            KeysetCursor cursor = new KeysetCursor(raw.substring(0, first), Sort.Direction.valueOf(raw.substring(first + 1, second)),
+                    value, Integer.valueOf(raw.substring(last + 1)));
+            if (!cursor.sort.equals(expectedSort)) {
+                throw new IllegalInputException("Cursor was issued for sort '" + cursor.sort + "', not '" + expectedSort + "'");
+            }
+            if (cursor.direction != expectedDirection) {
+                throw new IllegalInputException("Cursor was issued for direction " + cursor.direction + ", not " + expectedDirection);
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalInputException("Invalid cursor", e);
+        }
+    }
+
+    public Date dateValue() {
+        if (value == null) return null;
+        try {
+            return new Date(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalInputException("Invalid cursor", e);
+        }
+    }
+
+    public Instant instantValue() {
+        if (value == null) return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalInputException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nhs.individual.utils;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's MDC (request id, trace flag) over to executor threads,
+ * so log lines written by async work still belong to the request that started it
+ */
+public class MdcTaskDecorator implements TaskDecorator {
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            if (context == null) MDC.clear();
+            else MDC.setContextMap(context);
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) MDC.clear();
+                else MDC.setContextMap(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package com.nhs.individual.utils;
+
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copies the non-null properties of a patch onto an entity, the way the update endpoints apply a
+ * request body to the stored row.
+ * <p>
+ * The properties of a class are resolved once and cached: public getters and setters are bound
+ * with LambdaMetafactory, other fields through a MethodHandle. Going through the accessors also
+ * means a Hibernate proxy as target is initialized instead of having its empty fields written.
+ * <p>
+ * Basic properties and to-one associations are merged; collection associations (one-to-many,
+ * many-to-many, element collections) are skipped unless {@link #including(String...) included},
+ * since replacing a managed collection with the patch's makes Hibernate delete and re-insert it,
+ * and reading it loads it. A value equal to the current one is not written; BigDecimals compare by
+ * value, entities and entity collections by id. {@link #merge(Object, Object)} returns the changed
+ * property names, so a caller can skip saving an unchanged entity.
+ * <p>
+ * Instances are immutable; keep one per use in a constant.
+ */
+public final class ObjectMerger<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, List<Property>> PROPERTIES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Optional<Function<Object, Object>>> IDS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectMerger<?>> DEFAULTS = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+    private final List<Property> merged;
+
+    private enum Kind {BASIC, TO_ONE, TO_MANY}
+
+    private record Property(String name, Kind kind, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+    }
+
+    private ObjectMerger(Class<T> type, List<Property> merged) {
+        this.type = type;
+        this.merged = merged;
+    }
+
+    /**
+     * Basic properties and to-one associations of {@code type} and its superclasses
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectMerger<T> of(Class<T> type) {
+        return (ObjectMerger<T>) DEFAULTS.computeIfAbsent(type, key -> new ObjectMerger<>(key,
+                properties(key).stream().filter(property -> property.kind() != Kind.TO_MANY).toList()));
+    }
+
+    /**
+     * @param names collection associations to merge as well
+     * @throws IllegalArgumentException when a name is not a property of the class
+     */
+    public ObjectMerger<T> including(String... names) {
+        Set<String> included = names(names);
+        List<Property> selection = new ArrayList<>();
+        for (Property property : properties(type)) {
+            if (merged.contains(property) || included.contains(property.name())) selection.add(property);
+        }
+        return new ObjectMerger<>(type, List.copyOf(selection));
+    }
+
+    /**
+     * @param names properties never taken from the patch
+     * @throws IllegalArgumentException when a name is not a property of the class
+     */
+    public ObjectMerger<T> excluding(String... names) {
+        Set<String> excluded = names(names);
+        return new ObjectMerger<>(type, merged.stream().filter(property -> !excluded.contains(property.name())).toList());
+    }
+
+    /**
+     * @return names of the properties whose value changed, in declaration order; empty when the
+     * patch matched the target
+     */
+    public Set<String> merge(T target, T patch) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Property property : merged) {
+            Object value = property.getter().apply(patch);
+            if (value == null || sameValue(property.getter().apply(target), value)) continue;
+            property.setter().accept(target, value);
+            changed.add(property.name());
+        }
+        return changed;
+    }
+
+    private Set<String> names(String... names) {
+        Set<String> known = new HashSet<>();
+        for (Property property : properties(type)) known.add(property.name());
+        for (String name : names) {
+            if (!known.contains(name)) throw new IllegalArgumentException(type.getSimpleName() + " has no property " + name);
+        }
+        return Set.of(names);
+    }
+
+    private static boolean sameValue(Object current, Object value) {
+        if (current == null) return false;
+        if (current instanceof BigDecimal decimal && value instanceof BigDecimal other) return decimal.compareTo(other) == 0;
+        if (current instanceof Collection<?> collection && value instanceof Collection<?> others) {
+            if (collection.size() != others.size()) return false;
+            Set<Object> keys = new HashSet<>();
+            for (Object element : collection) keys.add(key(element));
+            for (Object element : others) {
+                if (!keys.contains(key(element))) return false;
+            }
+            return true;
+        }
+        Object currentId = id(current);
+        if (currentId != null) return currentId.equals(id(value));
+        return current.equals(value);
+    }
+
+    /**
+     * The id of an entity, the element itself otherwise
+     */
+    private static Object key(Object element) {
+        Object id = element == null ? null : id(element);
+        return id != null ? id : element;
+    }
+
+    private static Object id(Object value) {
+        return IDS.computeIfAbsent(value.getClass(), ObjectMerger::idGetter).map(getter -> getter.apply(value)).orElse(null);
+    }
+
+    private static Optional<Function<Object, Object>> idGetter(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class)) {
+                    return Optional.of(getter(field));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Property> properties(Class<?> type) {
+        return PROPERTIES.computeIfAbsent(type, ObjectMerger::resolve);
+    }
+
+    private static List<Property> resolve(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(current);
+        }
+        Collections.reverse(hierarchy);
+        List<Property> properties = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)
+                        || field.isSynthetic()) continue;
+                properties.add(new Property(field.getName(), kindOf(field), getter(field), setter(field)));
+            }
+        }
+        return List.copyOf(properties);
+    }
+
+    private static Kind kindOf(Field field) {
+        if (field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(ManyToMany.class)
+                || field.isAnnotationPresent(ElementCollection.class)) return Kind.TO_MANY;
+        if (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)) return Kind.TO_ONE;
+        return Kind.BASIC;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Field field) {
+        String prefix = field.getType() == boolean.class ? "is" : "get";
+        Method method = publicMethod(field.getDeclaringClass(), prefix + capitalize(field.getName()));
+        try {
+            if (method != null && method.getReturnType() == field.getType()) {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type().wrap());
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP)
+                    .unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return target -> {
+                try {
+                    return (Object) handle.invokeExact(target);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Cannot read " + field, e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind a getter for " + field, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Field field) {
+        Method method = publicMethod(field.getDeclaringClass(), "set" + capitalize(field.getName()), field.getType());
+        try {
+            if (method != null && method.getReturnType() == void.class) {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle, MethodType.methodType(void.class, field.getDeclaringClass(), wrap(field.getType())));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP)
+                    .unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Cannot write " + field, e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind a setter for " + field, e);
+        }
+    }
+
+    private static Method publicMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (!Modifier.isPublic(type.getModifiers())) return null;
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectMerger" + Arrays.toString(merged.stream().map(Property::name).toArray()) + " of " + type.getSimpleName();
+    }
+}
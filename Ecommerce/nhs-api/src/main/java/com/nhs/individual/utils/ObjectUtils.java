@@ -1,20 +1,14 @@
 package com.nhs.individual.utils;
 
-import java.lang.reflect.Field;
-
 public class ObjectUtils<T> {
 
+    /**
+     * Copies the non-null properties of {@code mergeObject} onto {@code oldObject}; collection
+     * associations are left alone. See {@link ObjectMerger} for include/exclude rules and the
+     * changed property names.
+     */
     public static <T> T merge(T oldObject,T mergeObject,Class<T> clazz) {
-        Field[] fields=clazz.getDeclaredFields();
-        try {
-            for(Field field:fields){
-                field.setAccessible(true);
-                if(field.get(mergeObject)==null) continue;
-                field.set(oldObject,field.get(mergeObject));
-            }
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
+        ObjectMerger.of(clazz).merge(oldObject, mergeObject);
         return oldObject;
     }
 
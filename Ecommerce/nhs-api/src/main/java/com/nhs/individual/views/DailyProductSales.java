@@ -0,0 +1,30 @@
+package com.nhs.individual.views;
+
+import com.nhs.individual.views.EmbeddedId.DailyProductSalesId;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Orders, units and line revenue per day, product and current order status.
+ * Rows are written only by {@code DailyProductSalesRepository.addOrder/rebuild}, never through JPA.
+ */
+@Getter
+@Setter
+@Entity
+@Immutable
+@Table(name = "daily_product_sales")
+public class DailyProductSales {
+    @EmbeddedId
+    private DailyProductSalesId id;
+    private Integer orders;
+    private Integer units;
+    @Column(name = "revenue", precision = 20, scale = 2)
+    private BigDecimal revenue;
+}
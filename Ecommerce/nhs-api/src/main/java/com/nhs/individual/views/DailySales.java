@@ -0,0 +1,30 @@
+package com.nhs.individual.views;
+
+import com.nhs.individual.views.EmbeddedId.DailySalesId;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Orders placed per day and current order status, behind /api/v1/statistic/day/order.
+ * The primary key starts with sales_date, so a date range reads only the days asked for.
+ * Rows are written only by {@code DailySalesRepository.addOrder/rebuild}, never through JPA.
+ */
+@Getter
+@Setter
+@Entity
+@Immutable
+@Table(name = "daily_sales")
+public class DailySales {
+    @EmbeddedId
+    private DailySalesId id;
+    private Integer orders;
+    @Column(name = "revenue", precision = 20, scale = 2)
+    private BigDecimal revenue;
+}
@@ -3,22 +3,25 @@ package com.nhs.individual.views.EmbeddedId;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.io.Serializable;
-import java.sql.Date;
+import java.time.LocalDate;
 
 @Getter
 @Setter
 @Embeddable
+@EqualsAndHashCode
 @AllArgsConstructor
 @NoArgsConstructor
-public class ProductDateId implements Serializable {
+public class DailyProductSalesId implements Serializable {
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
     @Column(name = "product_id")
     private Integer productId;
-    @Column(name = "date")
-    private Date date;
-
+    @Column(name = "status")
+    private Integer status;
 }
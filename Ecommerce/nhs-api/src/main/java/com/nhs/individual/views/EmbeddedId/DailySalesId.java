@@ -0,0 +1,25 @@
+package com.nhs.individual.views.EmbeddedId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Embeddable
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySalesId implements Serializable {
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+    @Column(name = "status")
+    private Integer status;
+}
@@ -9,6 +9,10 @@ import lombok.Setter;
 import org.hibernate.annotations.Immutable;
 import org.hibernate.annotations.Subselect;
 
+/**
+ * Read by StatisticsSnapshotService in the background, never per request.
+ * Last month's revenue comes from the daily_sales rollup.
+ */
 @Getter
 @Setter
 @Immutable
@@ -17,13 +21,10 @@ import org.hibernate.annotations.Subselect;
         "       (select count(*) from user) as number_of_users,\n" +
         "       (select count(*) from warehouse) as number_of_warehouse,\n" +
         "       (select count(*) from category) as number_of_category,\n" +
-        "       (select sum(total) from shop_order\n" +
-        "                                     where  MONTH(order_date) = MONTH(CURRENT_DATE)-1\n" +
-        "                                            AND YEAR(order_date) = YEAR(CURRENT_DATE)\n" +
-        "                                            AND 5=(select status from shop_order_status\n" +
-        "                                                          where shop_order_id=shop_order.id\n" +
-        "                                                          order by update_at desc\n" +
-        "                                                          limit 1))\n" +
+        "       (select sum(revenue) from daily_sales\n" +
+        "                                     where  status = 5\n" +
+        "                                            AND sales_date >= DATE_FORMAT(CURRENT_DATE - INTERVAL 1 MONTH, '%Y-%m-01')\n" +
+        "                                            AND sales_date < DATE_FORMAT(CURRENT_DATE, '%Y-%m-01'))\n" +
         "        as revenue,\n" +
         "        (select count(*) from payment_method) as available_payment_method\n" +
         "\n")
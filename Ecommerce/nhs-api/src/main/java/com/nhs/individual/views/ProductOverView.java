@@ -1,33 +1,37 @@
 package com.nhs.individual.views;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nhs.individual.constant.ImageVariant;
 import com.nhs.individual.domain.Category;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.Immutable;
-import org.hibernate.annotations.Subselect;
 
+import java.util.Map;
+
+/**
+ * Read model behind /api/v2/product. Rows are written only by
+ * {@code ProductOverviewRepository.refresh/rebuild}, never through JPA.
+ */
 @Getter
 @Setter
 @Entity
 @Immutable
-@Subselect(value = "select pd.id,pd.picture,pd.category_id,pd.description,pd.name,pd.manufacturer,\n" +
-        "avg(cmt.rate) as rate,\n" +
-        "min(pdi.price) as min_price,\n" +
-        "max(pdi.price) as max_price,\n" +
-        "sum(warehouse.quantity) as quantity\n," +
-        "count(cmt.rate) as rate_count "+
-        "from product pd\n" +
-        "left join comment cmt on pd.id = cmt.product_id\n" +
-        "left join product_item pdi on pdi.product_id=pd.id\n" +
-        "left join product_item_in_warehouse warehouse on pdi.id = warehouse.product_item_id\n" +
-        "group by pd.id\n")
+@Table(name = "product_overview", indexes = {
+        @Index(name = "idx_product_overview_category", columnList = "category_id"),
+        @Index(name = "idx_product_overview_min_price", columnList = "min_price"),
+        @Index(name = "idx_product_overview_max_price", columnList = "max_price")
+})
 public class ProductOverView {
     @Id
     private Integer id;
+    @Column(name = "picture", length = 512)
     private String picture;
+    @Column(name = "description", columnDefinition = "TEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci")
     private String description;
     private String name;
+    @Column(name = "manufacturer", length = 512)
     private String manufacturer;
     private Double rate;
     private Integer rate_count;
@@ -37,6 +41,14 @@ public class ProductOverView {
     @Column(name = "category_id",insertable = false,updatable = false)
     private Integer categoryId;
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "category_id")
+    @JoinColumn(name = "category_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Category category;
+
+    /**
+     * Catalog cards show the thumbnail instead of the full size picture
+     */
+    @JsonProperty(value = "pictureVariants", access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getPictureVariants() {
+        return ImageVariant.urls(picture);
+    }
 }
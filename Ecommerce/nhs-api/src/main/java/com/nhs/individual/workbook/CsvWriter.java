@@ -0,0 +1,60 @@
+package com.nhs.individual.workbook;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV rows written straight to the output, so nothing but the write buffer is held in memory.
+ * <p>
+ * The file starts with a UTF-8 byte order mark so Excel reads Vietnamese text correctly. Text cells
+ * starting with a formula character are prefixed with a quote so the spreadsheet does not evaluate them.
+ */
+public class CsvWriter implements Closeable {
+    private final Writer writer;
+
+    public CsvWriter(OutputStream out, String... header) {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writer.write('\uFEFF');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        row((Object[]) header);
+    }
+
+    /**
+     * One line; null cells are left empty
+     */
+    public void row(Object... cells) {
+        try {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) writer.write(',');
+                if (cells[i] != null) writer.write(escape(cells[i]));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static String escape(Object cell) {
+        if (cell instanceof Number) return cell.toString();
+        String value = cell.toString();
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) value = "'" + value;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
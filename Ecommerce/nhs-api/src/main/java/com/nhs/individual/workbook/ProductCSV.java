@@ -0,0 +1,48 @@
+package com.nhs.individual.workbook;
+
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.ProductItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Products as CSV, same columns and row layout as {@link ProductXLSX}.
+ */
+public class ProductCSV implements Closeable {
+    private static final String[] HEADER = {"ID", "PD_NAME", "PD_PICTURE", "PD_DESCRIPTION", "PD_MANUFACTURER",
+            "PD_ITEM_ID", "PICTURE", "OPTION", "AVAILABLE"};
+
+    private final CsvWriter csv;
+
+    public ProductCSV(OutputStream out) {
+        csv = new CsvWriter(out, HEADER);
+    }
+
+    public void append(Product product) {
+        List<ProductItem> items = product.getProductItems() == null ? List.of() : product.getProductItems();
+        if (items.isEmpty()) {
+            csv.row(product.getId(), product.getName(), product.getPicture(), product.getDescription(), product.getManufacturer());
+            return;
+        }
+        for (int z = 0; z < items.size(); z++) {
+            ProductItem productItem = items.get(z);
+            String option = String.join(",", productItem.getOptions().stream().map(o -> o.getVariation().getName() + ":" + o.getValue()).toList());
+            Integer available = productItem.getWarehouses().stream().reduce(0, (pre, item) -> pre + item.getQty(), Integer::sum);
+            if (z == 0) {
+                csv.row(product.getId(), product.getName(), product.getPicture(), product.getDescription(), product.getManufacturer(),
+                        productItem.getId(), productItem.getPicture(), option, available);
+            } else {
+                csv.row(product.getId(), null, null, null, null,
+                        productItem.getId(), productItem.getPicture(), option, available);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+}
@@ -0,0 +1,220 @@
+package com.nhs.individual.workbook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhs.individual.constant.IngestFormat;
+import com.nhs.individual.dto.ProductIngestRow;
+import com.nhs.individual.exception.IllegalInputException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads a bulk product ingestion body as it arrives, handing each line to the consumer before the
+ * next is read, so memory does not grow with the size of the body.
+ * <p>
+ * NDJSON: one object per line with the fields of {@link ProductIngestRow}, {@code options} being an
+ * object of variation name to option value. CSV (RFC 4180, UTF-8, optional byte order mark): a header
+ * row naming the same fields in any order and case, underscores allowed, then one item per record;
+ * options are written {@code Color=Red;Size=XL}. Blank lines are skipped. A line that cannot be read
+ * is still handed over, with its error set, so the caller can report it.
+ */
+public class ProductIngestReader {
+    private static final String SKU = "sku";
+    private static final String PRODUCT_SKU = "productsku";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String MANUFACTURER = "manufacturer";
+    private static final String CATEGORY_ID = "categoryid";
+    private static final String CATEGORY = "category";
+    private static final String PRICE = "price";
+    private static final String ORIGINAL_PRICE = "originalprice";
+    private static final String PICTURE = "picture";
+    private static final String OPTIONS = "options";
+    private static final String BOM = "\uFEFF";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void read(InputStream body, IngestFormat format, Consumer<ProductIngestRow> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (format == IngestFormat.CSV) readCsv(reader, consumer);
+        else readNdjson(reader, consumer);
+    }
+
+    private static void readNdjson(BufferedReader reader, Consumer<ProductIngestRow> consumer) throws IOException {
+        int number = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            number++;
+            if (number == 1 && line.startsWith(BOM)) line = line.substring(1);
+            if (line.isBlank()) continue;
+            JsonNode node;
+            try {
+                node = JSON.readTree(line);
+            } catch (JsonProcessingException e) {
+                consumer.accept(ProductIngestRow.invalid(number, "Not a JSON object: " + e.getOriginalMessage()));
+                continue;
+            }
+            if (!node.isObject()) {
+                consumer.accept(ProductIngestRow.invalid(number, "Not a JSON object"));
+                continue;
+            }
+            Map<String, String> fields = new HashMap<>();
+            Map<String, String> options = null;
+            boolean badOptions = false;
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                String key = normalize(field.getKey());
+                JsonNode value = field.getValue();
+                if (key.equals(OPTIONS)) {
+                    if (value.isNull()) continue;
+                    if (!value.isObject()) {
+                        badOptions = true;
+                        continue;
+                    }
+                    options = new LinkedHashMap<>();
+                    for (Iterator<Map.Entry<String, JsonNode>> option = value.fields(); option.hasNext(); ) {
+                        Map.Entry<String, JsonNode> entry = option.next();
+                        options.put(entry.getKey(), entry.getValue().asText());
+                    }
+                } else if (!value.isNull()) {
+                    fields.put(key, value.asText());
+                }
+            }
+            consumer.accept(badOptions
+                    ? ProductIngestRow.invalid(number, "options must be an object of variation name to value")
+                    : row(number, fields, options));
+        }
+    }
+
+    private static void readCsv(BufferedReader reader, Consumer<ProductIngestRow> consumer) throws IOException {
+        CsvRecords records = new CsvRecords(reader);
+        List<String> header = records.next();
+        if (header == null) return;
+        if (!header.isEmpty() && header.get(0).startsWith(BOM)) header.set(0, header.get(0).substring(1));
+        List<String> columns = header.stream().map(ProductIngestReader::normalize).toList();
+        if (!columns.contains(SKU)) throw new IllegalInputException("The CSV header has no sku column");
+        for (List<String> record = records.next(); record != null; record = records.next()) {
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+            if (record.size() > columns.size()) {
+                consumer.accept(ProductIngestRow.invalid(records.line, "More cells than header columns"));
+                continue;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < record.size(); i++) {
+                if (!record.get(i).isBlank()) fields.put(columns.get(i), record.get(i).trim());
+            }
+            Map<String, String> options = null;
+            String cell = fields.remove(OPTIONS);
+            if (cell != null) {
+                options = new LinkedHashMap<>();
+                for (String pair : cell.split(";")) {
+                    if (pair.isBlank()) continue;
+                    int separator = pair.indexOf('=');
+                    if (separator < 0) {
+                        options = null;
+                        break;
+                    }
+                    options.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+                }
+                if (options == null) {
+                    consumer.accept(ProductIngestRow.invalid(records.line, "options must be written Variation=Value;..."));
+                    continue;
+                }
+            }
+            consumer.accept(row(records.line, fields, options));
+        }
+    }
+
+    private static ProductIngestRow row(int line, Map<String, String> fields, Map<String, String> options) {
+        Integer categoryId;
+        BigDecimal price;
+        BigDecimal originalPrice;
+        try {
+            categoryId = fields.containsKey(CATEGORY_ID) ? Integer.valueOf(fields.get(CATEGORY_ID).trim()) : null;
+        } catch (NumberFormatException e) {
+            return ProductIngestRow.invalid(line, "categoryId is not a number");
+        }
+        try {
+            price = fields.containsKey(PRICE) ? new BigDecimal(fields.get(PRICE).trim()) : null;
+            originalPrice = fields.containsKey(ORIGINAL_PRICE) ? new BigDecimal(fields.get(ORIGINAL_PRICE).trim()) : null;
+        } catch (NumberFormatException e) {
+            return ProductIngestRow.invalid(line, "price and originalPrice must be numbers");
+        }
+        return new ProductIngestRow(line, fields.get(SKU), fields.get(PRODUCT_SKU), fields.get(NAME),
+                fields.get(DESCRIPTION), fields.get(MANUFACTURER), categoryId, fields.get(CATEGORY), price,
+                originalPrice, fields.get(PICTURE), options, null);
+    }
+
+    /**
+     * productSku, product_sku and PRODUCT-SKU name the same field
+     */
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * RFC 4180 records; quoted cells may hold commas, doubled quotes and line breaks
+     */
+    private static class CsvRecords {
+        private final Reader reader;
+        private int nextLine = 1;
+        /** line the last record started on */
+        private int line;
+
+        private CsvRecords(Reader reader) {
+            this.reader = reader;
+        }
+
+        private List<String> next() throws IOException {
+            int c = reader.read();
+            if (c < 0) return null;
+            line = nextLine;
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int after = reader.read();
+                        if (after == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            if (after >= 0) reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') nextLine++;
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else if (c == '\n') {
+                    nextLine++;
+                    break;
+                } else if (c != '\r') {
+                    cell.append((char) c);
+                }
+                c = reader.read();
+            }
+            cells.add(cell.toString());
+            return cells;
+        }
+    }
+}
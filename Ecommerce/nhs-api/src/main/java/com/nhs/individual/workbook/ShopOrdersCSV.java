@@ -0,0 +1,75 @@
+package com.nhs.individual.workbook;
+
+import com.nhs.individual.domain.OrderLine;
+import com.nhs.individual.domain.ShopOrder;
+import com.nhs.individual.domain.VariationOption;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Orders as CSV, same columns and row layout as {@link ShopOrdersXLSX}; the status is written as its
+ * id and TOTAL as a value instead of a formula.
+ */
+public class ShopOrdersCSV implements Closeable {
+    private static final String[] HEADER = {"ID", "DATE", "USER ID", "USER LASTNAME", "USER FIRSTNAME", "USER PHONE",
+            "USER EMAIL", "CITY", "ADDRESS LINE 1", "ADDRESS LINE 2", "POSTAL CODE", "REGION", "DELIVERY METHOD",
+            "STATUS", "PAYMENT", "ITEMS", "PRODUCT NAME", "SPECS", "QTY", "LINE TOTAL", "TOTAL"};
+
+    private final CsvWriter csv;
+
+    public ShopOrdersCSV(OutputStream out) {
+        csv = new CsvWriter(out, HEADER);
+    }
+
+    public void append(ShopOrder order) {
+        Object[] cells = new Object[HEADER.length];
+        cells[0] = order.getId();
+        cells[1] = order.getOrderDate() == null ? null : Instant.ofEpochMilli(order.getOrderDate().getTime());
+        cells[2] = order.getUserId();
+        if (order.getUser() != null) {
+            cells[3] = order.getUser().getLastname();
+            cells[4] = order.getUser().getFirstname();
+            cells[5] = order.getUser().getPhoneNumber();
+            cells[6] = order.getUser().getEmail();
+        }
+        if (order.getAddress() != null) {
+            cells[7] = order.getAddress().getCity();
+            cells[8] = order.getAddress().getAddressLine1();
+            cells[9] = order.getAddress().getAddressLine2();
+            cells[10] = order.getAddress().getPostalCode();
+            cells[11] = order.getAddress().getRegion();
+        }
+        cells[12] = order.getShippingMethod() == null ? null : order.getShippingMethod().getName();
+        cells[13] = order.getCurrentStatus();
+        if (order.getPayment() != null && order.getPayment().getType() != null) {
+            cells[14] = order.getPayment().getType().getName();
+        }
+        List<OrderLine> lines = order.getOrderLines() == null ? List.of() : order.getOrderLines();
+        if (lines.isEmpty()) {
+            csv.row(cells);
+            return;
+        }
+        cells[20] = lines.stream().map(OrderLine::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (int z = 0; z < lines.size(); z++) {
+            Object[] line = z == 0 ? cells : new Object[HEADER.length];
+            line[0] = order.getId();
+            OrderLine orderLine = lines.get(z);
+            line[15] = orderLine.getId();
+            line[16] = orderLine.getProductItem().getProduct().getName();
+            line[17] = String.join(",", orderLine.getProductItem().getOptions().stream().map(VariationOption::getValue).toList());
+            line[18] = orderLine.getQty();
+            line[19] = orderLine.getTotal();
+            csv.row(line);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+}
@@ -3,134 +3,140 @@ package com.nhs.individual.workbook;
 import com.nhs.individual.constant.OrderStatus;
 import com.nhs.individual.domain.OrderLine;
 import com.nhs.individual.domain.ShopOrder;
-import com.nhs.individual.domain.ShopOrderStatus;
 import com.nhs.individual.domain.VariationOption;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class ShopOrdersXLSX {
-    public static XSSFWorkbook from(List<ShopOrder> orders) {
-        XSSFWorkbook xssfWorkbook = new XSSFWorkbook();
-        XSSFSheet sheet = xssfWorkbook.createSheet("Default");
-        Row header = sheet.createRow(0);
-        header.createCell(0).setCellValue("ID");
-        header.createCell(1).setCellValue("DATE");
-        header.createCell(2).setCellValue("USER ID");
-        header.createCell(3).setCellValue("USER LASTNAME");
-        header.createCell(4).setCellValue("USER FIRSTNAME");
-        header.createCell(5).setCellValue("USER PHONE");
-        header.createCell(6).setCellValue("USER EMAIL");
-        header.createCell(7).setCellValue("CITY");
-        header.createCell(8).setCellValue("ADDRESS LINE 1");
-        header.createCell(9).setCellValue("ADDRESS LINE 2");
-        header.createCell(10).setCellValue("POSTAL CODE");
-        header.createCell(11).setCellValue("REGION");
-        header.createCell(12).setCellValue("DELIVERY METHOD");
-        header.createCell(13).setCellValue("STATUS");
-        header.createCell(14).setCellValue("PAYMENT");
-        header.createCell(15).setCellValue("ITEMS");
-        header.createCell(16).setCellValue("PRODUCT NAME");
-        header.createCell(17).setCellValue("SPECS");
-        header.createCell(18).setCellValue("QTY");
-        header.createCell(18).setCellValue("LINE TOTAL");
-        header.createCell(20).setCellValue("TOTAL");
-        int startOrder = 1;
-        int endOrder;
-        for (int i = 0; i < orders.size(); i++) {
-            endOrder = orders.get(i).getOrderLines().size() + startOrder - 1;
-            Row row = sheet.createRow(startOrder);
-            row.createCell(0).setCellValue(orders.get(i).getId());
-            row.createCell(1).setCellValue(orders.get(i).getOrderDate());
-            row.createCell(2).setCellValue(orders.get(i).getUserId());
-            row.createCell(3).setCellValue(orders.get(i).getUser().getLastname());
-            row.createCell(4).setCellValue(orders.get(i).getUser().getFirstname());
-            row.createCell(5).setCellValue(orders.get(i).getUser().getPhoneNumber());
-            row.createCell(6).setCellValue(orders.get(i).getUser().getEmail());
-            row.createCell(7).setCellValue(orders.get(i).getAddress().getCity());
-            row.createCell(8).setCellValue(orders.get(i).getAddress().getAddressLine1());
-            row.createCell(9).setCellValue(orders.get(i).getAddress().getAddressLine2());
-            row.createCell(10).setCellValue(orders.get(i).getAddress().getPostalCode());
-            row.createCell(11).setCellValue(orders.get(i).getAddress().getRegion());
-            row.createCell(12).setCellValue(orders.get(i).getShippingMethod() == null ? "" : orders.get(i).getShippingMethod().getName());
-            Cell cell = row.createCell(13);
-            ShopOrderStatus status = orders.get(i).getStatus().get(orders.get(i).getStatus().size() - 1);
-            cell.setCellStyle(getOrderStatusStyle(xssfWorkbook, status.getStatus()));
-            cell.setCellValue(status.getStatus());
-            try {
-                row.createCell(14).setCellValue(orders.get(i).getPayment().getType().getName());
-            } catch (NullPointerException e) {
-
-            }
-            for (int z = 0; z < orders.get(i).getOrderLines().size(); z++) {
-                OrderLine orderLine = orders.get(i).getOrderLines().get(z);
-                if(z==0){
-                    row.createCell(15).setCellValue(orderLine.getId());
-                    row.createCell(16).setCellValue(orderLine.getProductItem().getProduct().getName());
-                    row.createCell(17).setCellValue(String.join(",", orderLine.getProductItem().getOptions().stream().map(VariationOption::getValue).toList()));
-                    row.createCell(18).setCellValue(orderLine.getQty());
-                    row.createCell(19).setCellValue(orderLine.getTotal().doubleValue());
-                    row.createCell(20).setCellFormula("SUM(T"+startOrder+":T"+endOrder+")");
-                }else {
-                    Row item = sheet.createRow(startOrder + z);
-                    item.createCell(15).setCellValue(orderLine.getId());
-                    item.createCell(16).setCellValue(orderLine.getProductItem().getProduct().getName());
-                    item.createCell(17).setCellValue(String.join(",", orderLine.getProductItem().getOptions().stream().map(VariationOption::getValue).toList()));
-                    item.createCell(18).setCellValue(orderLine.getQty());
-                    item.createCell(19).setCellValue(orderLine.getTotal().doubleValue());
-                    item.createCell(20).setCellFormula("SUM(T"+(startOrder-1)+":T"+(endOrder-1)+")");
-                }
+/**
+ * Orders sheet written through SXSSF: only the last {@code rowWindow} rows are kept in memory, older
+ * rows are flushed to a temp file, so the heap used does not grow with the number of orders.
+ * <p>
+ * Feed orders with {@link #append(ShopOrder)}, then {@link #write(OutputStream)}. An order spans one
+ * row per order line; the order columns are filled on its first row only and the ID is repeated on
+ * the others so the sheet can still be filtered by order. Close the writer to delete the temp file.
+ */
+public class ShopOrdersXLSX implements Closeable {
+    private static final String[] HEADER = {"ID", "DATE", "USER ID", "USER LASTNAME", "USER FIRSTNAME", "USER PHONE",
+            "USER EMAIL", "CITY", "ADDRESS LINE 1", "ADDRESS LINE 2", "POSTAL CODE", "REGION", "DELIVERY METHOD",
+            "STATUS", "PAYMENT", "ITEMS", "PRODUCT NAME", "SPECS", "QTY", "LINE TOTAL", "TOTAL"};
 
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private final CellStyle dateStyle;
+    private final Map<Integer, CellStyle> statusStyles = new HashMap<>();
+    private int nextRow = 1;
 
+    public ShopOrdersXLSX(int rowWindow) {
+        workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet("Default");
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADER.length; i++) {
+            header.createCell(i).setCellValue(HEADER[i]);
+        }
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+    }
 
-            }
-            if (endOrder - startOrder > 0) {
-                for (int j = 0; j < 15; j++) {
-                    sheet.addMergedRegion(new CellRangeAddress(startOrder, endOrder, j, j));
-                }
-            }
-            startOrder = endOrder + 1;
+    public void append(ShopOrder order) {
+        int first = nextRow;
+        Row row = sheet.createRow(nextRow++);
+        row.createCell(0).setCellValue(order.getId());
+        if (order.getOrderDate() != null) {
+            Cell date = row.createCell(1);
+            date.setCellValue(order.getOrderDate());
+            date.setCellStyle(dateStyle);
+        }
+        row.createCell(2).setCellValue(order.getUserId());
+        if (order.getUser() != null) {
+            row.createCell(3).setCellValue(order.getUser().getLastname());
+            row.createCell(4).setCellValue(order.getUser().getFirstname());
+            row.createCell(5).setCellValue(order.getUser().getPhoneNumber());
+            row.createCell(6).setCellValue(order.getUser().getEmail());
+        }
+        if (order.getAddress() != null) {
+            row.createCell(7).setCellValue(order.getAddress().getCity());
+            row.createCell(8).setCellValue(order.getAddress().getAddressLine1());
+            row.createCell(9).setCellValue(order.getAddress().getAddressLine2());
+            row.createCell(10).setCellValue(order.getAddress().getPostalCode());
+            row.createCell(11).setCellValue(order.getAddress().getRegion());
         }
-        return xssfWorkbook;
+        row.createCell(12).setCellValue(order.getShippingMethod() == null ? "" : order.getShippingMethod().getName());
+        Integer status = order.getCurrentStatus();
+        if (status != null) {
+            Cell cell = row.createCell(13);
+            cell.setCellStyle(statusStyles.computeIfAbsent(status, id -> getOrderStatusStyle(workbook, id)));
+            cell.setCellValue(status);
+        }
+        if (order.getPayment() != null && order.getPayment().getType() != null) {
+            row.createCell(14).setCellValue(order.getPayment().getType().getName());
+        }
+        List<OrderLine> lines = order.getOrderLines() == null ? List.of() : order.getOrderLines();
+        for (int z = 0; z < lines.size(); z++) {
+            Row line = z == 0 ? row : sheet.createRow(nextRow++);
+            if (z != 0) line.createCell(0).setCellValue(order.getId());
+            OrderLine orderLine = lines.get(z);
+            line.createCell(15).setCellValue(orderLine.getId());
+            line.createCell(16).setCellValue(orderLine.getProductItem().getProduct().getName());
+            line.createCell(17).setCellValue(String.join(",", orderLine.getProductItem().getOptions().stream().map(VariationOption::getValue).toList()));
+            line.createCell(18).setCellValue(orderLine.getQty());
+            line.createCell(19).setCellValue(orderLine.getTotal().doubleValue());
+        }
+        if (!lines.isEmpty()) {
+            // spreadsheet rows are 1-based
+            row.createCell(20).setCellFormula("SUM(T" + (first + 1) + ":T" + (first + lines.size()) + ")");
+        }
+    }
 
+    public void write(OutputStream out) throws IOException {
+        workbook.write(out);
+    }
 
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
     }
 
-    public static XSSFCellStyle getOrderStatusStyle(XSSFWorkbook workbook, Integer status) {
-        XSSFCellStyle style = workbook.createCellStyle();
+    public static CellStyle getOrderStatusStyle(Workbook workbook, Integer status) {
+        CellStyle style = workbook.createCellStyle();
+        IndexedColors color = null;
         if (status == OrderStatus.PAID.id) {
-            style.setFillForegroundColor(IndexedColors.WHITE.index);
-            style.setFillBackgroundColor(IndexedColors.WHITE.index);
+            color = IndexedColors.WHITE;
         } else if (status == OrderStatus.PENDING_PAYMENT.id) {
-            style.setFillForegroundColor(IndexedColors.CORAL.index);
-            style.setFillBackgroundColor(IndexedColors.CORAL.index);
+            color = IndexedColors.CORAL;
         } else if (status == OrderStatus.CONFIRMED.id) {
-            style.setFillForegroundColor(IndexedColors.LIGHT_BLUE.index);
-            style.setFillBackgroundColor(IndexedColors.LIGHT_BLUE.index);
+            color = IndexedColors.LIGHT_BLUE;
         } else if (status == OrderStatus.PREPARING.id) {
-            style.setFillForegroundColor(IndexedColors.YELLOW.index);
-            style.setFillBackgroundColor(IndexedColors.YELLOW.index);
+            color = IndexedColors.YELLOW;
         } else if (status == OrderStatus.SHIPPING.id) {
-            style.setFillForegroundColor(IndexedColors.BLUE.index);
-            style.setFillBackgroundColor(IndexedColors.BLUE.index);
+            color = IndexedColors.BLUE;
         } else if (status == OrderStatus.DELIVERED.id) {
-            style.setFillForegroundColor(IndexedColors.OLIVE_GREEN.index);
-            style.setFillBackgroundColor(IndexedColors.OLIVE_GREEN.index);
+            color = IndexedColors.OLIVE_GREEN;
         } else if (status == OrderStatus.COMPLETED.id) {
-            style.setFillForegroundColor(IndexedColors.GREEN.index);
-            style.setFillBackgroundColor(IndexedColors.GREEN.index);
+            color = IndexedColors.GREEN;
         } else if (status == OrderStatus.CANCELLED.id) {
-            style.setFillForegroundColor(IndexedColors.ROSE.index);
-            style.setFillBackgroundColor(IndexedColors.ROSE.index);
+            color = IndexedColors.ROSE;
         } else if (status == OrderStatus.RETURNED.id) {
-            style.setFillForegroundColor(IndexedColors.RED.index);
-            style.setFillBackgroundColor(IndexedColors.RED.index);
+            color = IndexedColors.RED;
+        }
+        if (color != null) {
+            style.setFillForegroundColor(color.index);
+            style.setFillBackgroundColor(color.index);
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
         }
         return style;
     }
@@ -1,41 +1,115 @@
 package com.nhs.individual.workbook;
 
-import com.nhs.individual.domain.EmbeddedId.ProductItemInWarehouseId;
-import com.nhs.individual.domain.ProductItem;
-import com.nhs.individual.domain.Warehouse;
-import com.nhs.individual.domain.WarehouseItem;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.nhs.individual.dto.WarehouseImportRow;
+import com.nhs.individual.exception.IllegalInputException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * Reads the warehouse import sheet (WAREHOUSE_ID, PD_ITEM_ID, QTY and an optional SKU) with the XSSF
+ * event model: the first sheet is SAX-parsed straight from the file and each row is handed to the
+ * consumer as soon as it ends, so memory does not grow with the number of rows. Only the shared string
+ * table is held, which stays small for a sheet of numbers.
+ * <p>
+ * The header row and empty rows are skipped. A row whose cells cannot be read is still handed over,
+ * with its error set, so the caller can report it.
+ */
 public class WarehouseItemXLSX {
-    public static List<WarehouseItem> read(InputStream inputStream) throws IOException {
-        XSSFWorkbook workbook=new XSSFWorkbook(inputStream);
-        XSSFSheet sheet=workbook.getSheetAt(0);
-        Iterator<Row> rows=sheet.iterator();
-        List<WarehouseItem> warehouseItems=new ArrayList<WarehouseItem>();
-        while(rows.hasNext()) {
-            Row row=rows.next();
-            if(row.getRowNum()==0) continue;
-            WarehouseItem warehouseItem=new WarehouseItem();
-            Integer productItemid=(int) row.getCell(1).getNumericCellValue();
-            Integer warehouseId=(int) row.getCell(0).getNumericCellValue();
-            warehouseItem.setId(new ProductItemInWarehouseId(productItemid, warehouseId));
-            ProductItem pd=new ProductItem();
-            Warehouse warehouse=new Warehouse();
-            pd.setId(productItemid);
-            warehouse.setId(warehouseId);
-            warehouseItem.setWarehouse(warehouse);
-            warehouseItem.setProductItem(pd);
-            warehouseItem.setQty((int) row.getCell(2).getNumericCellValue());
-            warehouseItems.add(warehouseItem);
+    private static final int WAREHOUSE_ID = 0;
+    private static final int PRODUCT_ITEM_ID = 1;
+    private static final int QTY = 2;
+    private static final int SKU = 3;
+
+    public static void read(Path file, Consumer<WarehouseImportRow> consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return;
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                        new RowHandler(consumer), new RawNumberFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException | IllegalArgumentException e) {
+            throw new IllegalInputException("Not a readable XLSX file", e);
+        }
+    }
+
+    private static class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Consumer<WarehouseImportRow> consumer;
+        private final String[] cells = new String[SKU + 1];
+        private boolean empty;
+
+        RowHandler(Consumer<WarehouseImportRow> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+            empty = true;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column >= cells.length || formattedValue == null || formattedValue.isBlank()) return;
+            cells[column] = formattedValue.trim();
+            empty = false;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || empty) return;
+            int row = rowNum + 1;
+            try {
+                consumer.accept(new WarehouseImportRow(row, integer(cells[WAREHOUSE_ID], "Warehouse id"),
+                        integer(cells[PRODUCT_ITEM_ID], "Product item id"), integer(cells[QTY], "Quantity"),
+                        cells[SKU], null));
+            } catch (IllegalArgumentException e) {
+                consumer.accept(new WarehouseImportRow(row, null, null, null, cells[SKU], e.getMessage()));
+            }
+        }
+
+        private static Integer integer(String value, String column) {
+            if (value == null) throw new IllegalArgumentException(column + " is required");
+            try {
+                return new BigDecimal(value).intValueExact();
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException(column + " must be a whole number, was '" + value + "'");
+            }
+        }
+    }
+
+    /**
+     * Numbers as written in the cell, not as displayed: "1000", never "1,000" or "1E3"
+     */
+    private static class RawNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
         }
-        return warehouseItems;
     }
 }
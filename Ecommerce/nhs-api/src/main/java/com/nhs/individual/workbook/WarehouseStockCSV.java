@@ -0,0 +1,27 @@
+package com.nhs.individual.workbook;
+
+import com.nhs.individual.dto.WarehouseStockRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Warehouse stock as CSV, same columns as {@link WarehouseStockXLSX}.
+ */
+public class WarehouseStockCSV implements Closeable {
+    private final CsvWriter csv;
+
+    public WarehouseStockCSV(OutputStream out) {
+        csv = new CsvWriter(out, WarehouseStockXLSX.HEADER);
+    }
+
+    public void append(WarehouseStockRow row) {
+        csv.row(row.warehouseId(), row.productItemId(), row.qty(), row.sku(), row.warehouseName(), row.productName());
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+}
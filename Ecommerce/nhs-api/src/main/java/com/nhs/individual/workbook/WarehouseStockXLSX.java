@@ -0,0 +1,52 @@
+package com.nhs.individual.workbook;
+
+import com.nhs.individual.dto.WarehouseStockRow;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Warehouse stock sheet written through SXSSF, one row per product item per warehouse; see {@link ShopOrdersXLSX}.
+ * The first three columns are the ones {@link WarehouseItemXLSX} reads, so the sheet can be imported back.
+ */
+public class WarehouseStockXLSX implements Closeable {
+    static final String[] HEADER = {"WAREHOUSE_ID", "PD_ITEM_ID", "QTY", "SKU", "WAREHOUSE", "PD_NAME"};
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private int nextRow = 1;
+
+    public WarehouseStockXLSX(int rowWindow) {
+        workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet("Default");
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADER.length; i++) {
+            header.createCell(i).setCellValue(HEADER[i]);
+        }
+    }
+
+    public void append(WarehouseStockRow stock) {
+        Row row = sheet.createRow(nextRow++);
+        row.createCell(0).setCellValue(stock.warehouseId());
+        row.createCell(1).setCellValue(stock.productItemId());
+        if (stock.qty() != null) row.createCell(2).setCellValue(stock.qty());
+        row.createCell(3).setCellValue(stock.sku());
+        row.createCell(4).setCellValue(stock.warehouseName());
+        row.createCell(5).setCellValue(stock.productName());
+    }
+
+    public void write(OutputStream out) throws IOException {
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
@@ -0,0 +1,12 @@
+package com.nhs.individual;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+
+/**
+ * Boot configuration for repository slice tests; nhs-api has no main class of its own.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+public class JpaTestApplication {
+}
@@ -0,0 +1,35 @@
+package com.nhs.individual;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.internal.StandardTableExporter;
+import org.hibernate.tool.schema.spi.Exporter;
+
+import java.util.Arrays;
+
+/**
+ * H2 dialect for repository tests. Rewrites the MySQL-only column definitions used by the
+ * entities (charset/collation clauses, display widths) into types H2 accepts.
+ */
+public class MySqlCompatibleH2Dialect extends H2Dialect {
+    private final StandardTableExporter tableExporter = new StandardTableExporter(this) {
+        @Override
+        public String[] getSqlCreateStrings(Table table, Metadata metadata, SqlStringGenerationContext context) {
+            return Arrays.stream(super.getSqlCreateStrings(table, metadata, context))
+                    .map(MySqlCompatibleH2Dialect::toH2)
+                    .toArray(String[]::new);
+        }
+    };
+
+    @Override
+    public Exporter<Table> getTableExporter() {
+        return tableExporter;
+    }
+
+    private static String toH2(String ddl) {
+        return ddl.replaceAll("(?i)\\s+CHARACTER SET \\w+( COLLATE \\w+)?", "")
+                .replaceAll("(?i)TINYINT\\(\\d+\\)", "TINYINT");
+    }
+}
@@ -0,0 +1,89 @@
+package com.nhs.individual.repository;
+
+import com.nhs.individual.domain.Category;
+import com.nhs.individual.domain.Comment;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.utils.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for keyset paging of a product's comments
+ * Tests that following the cursors visits every comment once, newest first, when some comments have no date
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CommentKeysetPagingTest {
+    private static final int PAGE = 2;
+
+    @Autowired
+    TestEntityManager em;
+    @Autowired
+    CommentRepository commentRepository;
+
+    private int productId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Phones");
+        category.setDescription("Phones");
+        em.persist(category);
+        Product product = new Product();
+        product.setName("Phone");
+        product.setCategory(category);
+        em.persist(product);
+        productId = product.getId();
+        List<Integer> undated = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Comment comment = new Comment();
+            comment.setComment("comment " + i);
+            comment.setProduct(product);
+            em.persist(comment);
+            if (i % 2 == 0) undated.add(comment.getId());
+        }
+        em.flush();
+        // create_at is set on insert, so comments from before that are reproduced by clearing it
+        em.getEntityManager().createNativeQuery("update comment set create_at = null where id in (:ids)")
+                .setParameter("ids", undated).executeUpdate();
+        em.clear();
+    }
+
+    @Test
+    void testPagesVisitEveryComment() {
+        List<Comment> all = commentRepository.findFirstByProduct(productId, PageRequest.ofSize(100));
+        assertEquals(6, all.size());
+        // Test: undated comments come last, so the walk crosses from dated to undated ones
+        assertNull(all.get(all.size() - 1).getCreateAt());
+        assertNotNull(all.get(0).getCreateAt());
+        assertEquals(ids(all), ids(walk()));
+    }
+
+    private List<Comment> walk() {
+        List<Comment> visited = new ArrayList<>();
+        List<Comment> rows = commentRepository.findFirstByProduct(productId, PageRequest.ofSize(PAGE));
+        while (true) {
+            visited.addAll(rows);
+            if (rows.size() < PAGE) return visited;
+            Comment last = rows.get(rows.size() - 1);
+            KeysetCursor after = KeysetCursor.decode(KeysetCursor.of("createAt", Sort.Direction.DESC, last.getCreateAt(), last.getId()).encode(),
+                    "createAt", Sort.Direction.DESC);
+            rows = commentRepository.findAllByProductAfter(productId, after.instantValue(), after.getId(), PageRequest.ofSize(PAGE));
+        }
+    }
+
+    private static List<Integer> ids(List<Comment> comments) {
+        return comments.stream().map(Comment::getId).toList();
+    }
+}
@@ -0,0 +1,226 @@
+package com.nhs.individual.repository;
+
+import com.nhs.individual.domain.*;
+import com.nhs.individual.workbook.ShopOrdersXLSX;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression tests for the order and product fetch plans
+ * Tests that each endpoint shape issues a fixed number of statements, however many rows it returns
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(KeysetChunkReader.class)
+class FetchPlanStatementCountTest {
+    private static final int ORDERS = 6;
+    private static final int ITEMS_PER_PRODUCT = 3;
+
+    @Autowired
+    TestEntityManager em;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ShopOrderRepository orderRepository;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    KeysetChunkReader keysetChunkReader;
+
+    private Statistics statistics;
+    private Integer orderId;
+    private Integer productId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Category category = new Category();
+        category.setName("Shirts");
+        category.setDescription("Shirts");
+        em.persist(category);
+        Variation size = new Variation();
+        size.setName("Size");
+        em.persist(size);
+        List<ProductItem> items = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            Product product = new Product();
+            product.setName("Shirt " + p);
+            product.setCategory(category);
+            em.persist(product);
+            productId = product.getId();
+            for (int i = 0; i < ITEMS_PER_PRODUCT; i++) {
+                VariationOption option = new VariationOption();
+                option.setVariation(size);
+                option.setValue("S" + p + i);
+                em.persist(option);
+                ProductItem item = new ProductItem();
+                item.setProduct(product);
+                item.setPrice(BigDecimal.TEN);
+                item.setOptions(List.of(option));
+                em.persist(item);
+                items.add(item);
+            }
+        }
+        Payment cash = new Payment();
+        cash.setName("Cash");
+        em.persist(cash);
+        ShippingMethod shipping = new ShippingMethod();
+        shipping.setName("Standard");
+        em.persist(shipping);
+        for (int o = 0; o < ORDERS; o++) {
+            User user = new User();
+            user.setFirstname("User" + o);
+            em.persist(user);
+            Address address = new Address();
+            address.setCity("City" + o);
+            em.persist(address);
+            ShopOrderPayment payment = new ShopOrderPayment();
+            payment.setType(cash);
+            em.persist(payment);
+            ShopOrder order = new ShopOrder();
+            order.setUser(user);
+            order.setAddress(address);
+            order.setShippingMethod(shipping);
+            order.setPayment(payment);
+            order.setOrderDate(new Date());
+            order.setTotal(BigDecimal.TEN);
+            em.persist(order);
+            orderId = order.getId();
+            for (int s = 1; s <= 2; s++) {
+                ShopOrderStatus status = new ShopOrderStatus();
+                status.setOrder(order);
+                status.setStatus(s);
+                em.persist(status);
+            }
+            for (int l = 0; l < 2; l++) {
+                OrderLine line = new OrderLine();
+                line.setOrder(order);
+                line.setProductItem(items.get((o + l) % items.size()));
+                line.setQty(1);
+                line.setTotal(BigDecimal.TEN);
+                em.persist(line);
+            }
+        }
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void testOrderListStatementCount() {
+        List<ShopOrder> orders = orderRepository.findAll(PageRequest.of(0, ORDERS, Sort.by("id"))).getContent();
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(FetchPlanStatementCountTest::render);
+        // Test: page + count, then one batch each for status, lines, items, options, variations, products, categories
+        assertStatements(9);
+    }
+
+    @Test
+    void testOrderDetailStatementCount() {
+        render(orderRepository.findDetailById(orderId).orElseThrow());
+        // Test: order with lines joined, then one batch each for status, options, variations, categories
+        assertStatements(5);
+    }
+
+    @Test
+    void testOrderExportStatementCount() {
+        List<Integer> ids = orderRepository.findAll(PageRequest.of(0, ORDERS, Sort.by("id"))).map(ShopOrder::getId).getContent();
+        List<ShopOrder> orders = orderRepository.findDetailByIdIn(ids);
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(FetchPlanStatementCountTest::render);
+        // Test: page + count + joined lines, then one batch each for status, options, variations, categories
+        assertStatements(7);
+    }
+
+    @Test
+    void testOrderExportReadsInChunks() throws IOException {
+        List<ShopOrder> visited = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ShopOrdersXLSX workbook = new ShopOrdersXLSX(2)) {
+            long count = keysetChunkReader.forEach(ShopOrder.class, Specification.allOf(), 4,
+                    orderRepository::findDetailByIdIn, ShopOrder::getId, order -> {
+                        // Test: the first chunk is no longer managed once the second one is read
+                        if (!visited.isEmpty()) assertEquals(visited.size() < 4, em.getEntityManager().contains(visited.get(0)));
+                        visited.add(order);
+                        workbook.append(order);
+                    });
+            assertEquals(ORDERS, count);
+            workbook.write(out);
+        }
+        List<Integer> ids = visited.stream().map(ShopOrder::getId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(ORDERS, ids.size());
+        try (XSSFWorkbook read = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = read.getSheetAt(0);
+            assertEquals("LINE TOTAL", sheet.getRow(0).getCell(19).getStringCellValue());
+            assertEquals(ORDERS * 2, sheet.getLastRowNum());
+            assertEquals("SUM(T2:T3)", sheet.getRow(1).getCell(20).getCellFormula());
+            assertEquals(ids.get(0), (int) sheet.getRow(2).getCell(0).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void testProductListStatementCount() {
+        List<Product> products = productRepository.findAll(PageRequest.of(0, 10)).getContent();
+        assertEquals(2, products.size());
+        products.forEach(FetchPlanStatementCountTest::render);
+        // Test: page (single page, no count), then one batch each for items, options, variations
+        assertStatements(4);
+    }
+
+    @Test
+    void testProductDetailStatementCount() {
+        render(productRepository.findDetailById(productId).orElseThrow());
+        // Test: product with items joined, then one batch each for options, variations
+        assertStatements(3);
+    }
+
+    /**
+     * Touches what the JSON view of an order serializes.
+     */
+    private static void render(ShopOrder order) {
+        assertNotNull(order.getUser().getFirstname());
+        assertNotNull(order.getAddress().getCity());
+        assertNotNull(order.getShippingMethod().getName());
+        assertNotNull(order.getPayment().getType().getName());
+        assertEquals(2, order.getStatus().size());
+        assertEquals(2, order.getOrderLines().size());
+        for (OrderLine line : order.getOrderLines()) {
+            assertEquals(1, line.getProductItem().getOptions().size());
+            assertNotNull(line.getProductItem().getProduct().getCategory().getName());
+        }
+    }
+
+    private static void render(Product product) {
+        assertNotNull(product.getCategory().getName());
+        assertEquals(ITEMS_PER_PRODUCT, product.getProductItems().size());
+        product.getProductItems().forEach(item -> assertEquals(1, item.getOptions().size()));
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,94 @@
+package com.nhs.individual.repository;
+
+import com.nhs.individual.domain.Payment;
+import com.nhs.individual.domain.ShopOrder;
+import com.nhs.individual.domain.ShopOrderPayment;
+import com.nhs.individual.specification.ISpecification.KeysetSpecification;
+import com.nhs.individual.utils.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for keyset paging of orders by order date
+ * Tests that following the cursors visits every order once, in sort order, when some orders have no date
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetPagingTest {
+    private static final int PAGE = 2;
+
+    @Autowired
+    TestEntityManager em;
+    @Autowired
+    ShopOrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        Payment cash = new Payment();
+        cash.setName("Cash");
+        em.persist(cash);
+        // Two undated orders, and two sharing a date so the id has to break the tie
+        for (Long millis : new Long[]{3_000L, null, 1_000L, 3_000L, null, 2_000L}) {
+            ShopOrderPayment payment = new ShopOrderPayment();
+            payment.setType(cash);
+            em.persist(payment);
+            ShopOrder order = new ShopOrder();
+            order.setPayment(payment);
+            order.setOrderDate(millis == null ? null : new Date(millis));
+            order.setTotal(BigDecimal.TEN);
+            em.persist(order);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void testAscendingPagesVisitEveryOrder() {
+        List<ShopOrder> all = orderRepository.findAllAfter(Specification.allOf(), KeysetSpecification.sort("orderDate", Sort.Direction.ASC), 100);
+        // Test: nulls first ascending, so the first page ends on an undated order
+        assertNull(all.get(0).getOrderDate());
+        assertEquals(ids(all), ids(walk(Sort.Direction.ASC)));
+    }
+
+    @Test
+    void testDescendingPagesVisitEveryOrder() {
+        List<ShopOrder> all = orderRepository.findAllAfter(Specification.allOf(), KeysetSpecification.sort("orderDate", Sort.Direction.DESC), 100);
+        // Test: nulls last descending, so a cursor on an undated order only continues among undated ones
+        assertNull(all.get(all.size() - 1).getOrderDate());
+        assertEquals(ids(all), ids(walk(Sort.Direction.DESC)));
+    }
+
+    private List<ShopOrder> walk(Sort.Direction direction) {
+        List<ShopOrder> visited = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            Specification<ShopOrder> page = Specification.allOf();
+            if (cursor != null) {
+                KeysetCursor after = KeysetCursor.decode(cursor, "orderDate", direction);
+                page = KeysetSpecification.after("orderDate", after.dateValue(), after.getId(), direction);
+            }
+            List<ShopOrder> rows = orderRepository.findAllAfter(page, KeysetSpecification.sort("orderDate", direction), PAGE);
+            visited.addAll(rows);
+            if (rows.size() < PAGE) return visited;
+            ShopOrder last = rows.get(rows.size() - 1);
+            cursor = KeysetCursor.of("orderDate", direction, last.getOrderDate(), last.getId()).encode();
+        }
+    }
+
+    private static List<Integer> ids(List<ShopOrder> orders) {
+        return orders.stream().map(ShopOrder::getId).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package com.nhs.individual.secure;
+
+import com.nhs.individual.config.PrincipalCacheProperties;
+import com.nhs.individual.constant.AccountStatus;
+import com.nhs.individual.domain.Account;
+import com.nhs.individual.domain.Role;
+import com.nhs.individual.domain.User;
+import com.nhs.individual.dto.AccountTokenState;
+import com.nhs.individual.repository.AccountRepository;
+import com.nhs.individual.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for JwtProvider and TokenVersionService
+ * Tests that access tokens carry the principal, so JwtFilter can authenticate without loading the account, and are refused once revoked
+ */
+class JwtProviderTest {
+
+    private JwtProvider jwtProvider;
+    private IUserDetail principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtProvider = new JwtProvider();
+        ReflectionTestUtils.setField(jwtProvider, "ACCESS_TOKEN_EXPIRED", 60_000L);
+        ReflectionTestUtils.setField(jwtProvider, "jwtSecret", "test-secret-that-is-at-least-32-bytes-long");
+        jwtProvider.init();
+
+        Role admin = new Role();
+        admin.setId(2);
+        admin.setName("ROLE_admin");
+        User user = new User();
+        user.setId(7);
+        Account account = new Account();
+        account.setId(3);
+        account.setUsername("alice");
+        account.setPassword("secret");
+        account.setStatus(AccountStatus.ACTIVE.id);
+        account.setTokenVersion(4);
+        account.setRoles(List.of(admin));
+        account.setUser(user);
+        principal = new IUserDetail(account);
+    }
+
+    @Test
+    void testPrincipalRoundTripsThroughClaims() {
+        Claims claims = jwtProvider.validate(jwtProvider.generateToken(principal));
+        IUserDetail restored = jwtProvider.toPrincipal(claims);
+
+        assertNotNull(restored);
+        assertEquals(3, restored.getId());
+        assertEquals(7, restored.getUserId());
+        assertEquals("alice", restored.getUsername());
+        assertEquals(AccountStatus.ACTIVE.id, restored.getStatus());
+        assertEquals(4, restored.getTokenVersion());
+        assertNull(restored.getPassword());
+        assertEquals(List.of("ADMIN"), restored.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testRepeatTokensSkipVerification() {
+        String token = jwtProvider.generateToken(principal);
+
+        assertNotNull(jwtProvider.validate(token));
+        assertNotNull(jwtProvider.validate(token));
+        // Test: the second validation of the same token is served without verifying the signature again
+        assertEquals(1, jwtProvider.getVerificationCount());
+
+        // Test: a tampered token is verified and refused
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertNull(jwtProvider.validate(tampered));
+        assertEquals(2, jwtProvider.getVerificationCount());
+    }
+
+    @Test
+    void testLegacyTokenHasNoPrincipal() {
+        String legacy = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith((javax.crypto.SecretKey) ReflectionTestUtils.getField(jwtProvider, "secretKey"))
+                .compact();
+
+        assertNull(jwtProvider.toPrincipal(jwtProvider.validate(legacy)));
+    }
+
+    @Test
+    void testRevokedOrLockedTokensAreRejected() {
+        AccountRepository repository = mock(AccountRepository.class);
+        TokenVersionService versions = new TokenVersionService(repository, new PrincipalCacheProperties());
+        when(repository.findTokenStateById(3))
+                .thenReturn(Optional.of(new AccountTokenState(AccountStatus.ACTIVE.id, 4)))
+                .thenReturn(Optional.of(new AccountTokenState(AccountStatus.ACTIVE.id, 5)))
+                .thenReturn(Optional.of(new AccountTokenState(AccountStatus.LOCKED.id, 6)));
+
+        assertTrue(versions.isCurrent(principal));
+        // Test: the second check is served from the cache
+        assertTrue(versions.isCurrent(principal));
+        verify(repository, times(1)).findTokenStateById(3);
+
+        // Test: the token version moved on logout
+        versions.evict(3);
+        assertFalse(versions.isCurrent(principal));
+
+        // Test: a locked account is refused even with the current token version
+        versions.evict(3);
+        principal.setTokenVersion(6);
+        assertFalse(versions.isCurrent(principal));
+    }
+}
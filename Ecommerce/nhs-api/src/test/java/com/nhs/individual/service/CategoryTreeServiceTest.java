@@ -0,0 +1,162 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.CategoryTreeProperties;
+import com.nhs.individual.domain.Category;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.dto.CategoryTree;
+import com.nhs.individual.repository.ProductRepository;
+import com.nhs.individual.specification.ISpecification.IProductSpecification;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for CategoryTreeService
+ * Tests that category_closure matches the tree, product filters include subcategories and the snapshot only changes with the categories
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CategoryTreeServiceTest {
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ProductRepository productRepository;
+
+    private ProductCatalogCache productCatalogCache;
+    private CategoryTreeService categoryTreeService;
+    private Integer rootId;
+    private Integer childId;
+    private Integer grandchildId;
+    private Integer otherRootId;
+    private Integer productId;
+
+    @BeforeEach
+    void setUp() {
+        productCatalogCache = mock(ProductCatalogCache.class);
+        categoryTreeService = new CategoryTreeService(jdbcTemplate, productCatalogCache, new ThreadPoolTaskScheduler(),
+                new CategoryTreeProperties(), transactionManager);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category root = category("Tree root", null);
+            Category child = category("Tree child", root);
+            Category grandchild = category("Tree grandchild", child);
+            Category otherRoot = category("Tree other", null);
+            Product product = new Product();
+            product.setName("Deep product");
+            product.setCategory(grandchild);
+            entityManager.persist(product);
+            rootId = root.getId();
+            childId = child.getId();
+            grandchildId = grandchild.getId();
+            otherRootId = otherRoot.getId();
+            productId = product.getId();
+        });
+        // Legacy rows can lack a description, which the entity itself would refuse
+        jdbcTemplate.update("update category set description = null where id = ?", childId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from product where id = ?", productId);
+        jdbcTemplate.update("delete from category_closure");
+        for (Integer id : List.of(grandchildId, childId, rootId, otherRootId)) {
+            jdbcTemplate.update("delete from category where id = ?", id);
+        }
+    }
+
+    @Test
+    void testClosureMatchesTree() {
+        CategoryTree tree = categoryTreeService.rebuild();
+
+        assertEquals(Set.of(rootId, childId, grandchildId), tree.subtree(List.of(rootId)));
+        assertEquals(Set.of(otherRootId), tree.subtree(List.of(otherRootId)));
+        assertTrue(tree.hasChildNamed(rootId, "Tree child"));
+        assertFalse(tree.hasChildNamed(rootId, "Tree grandchild"));
+        assertEquals(List.of(grandchildId), tree.find(childId).orElseThrow().children().stream().map(CategoryTree.Node::id).toList());
+        // Test: a root has no parent and a null description does not hide the parent
+        assertNull(tree.find(rootId).orElseThrow().parentId());
+        assertEquals("Tree root", tree.find(rootId).orElseThrow().description());
+        assertNull(tree.find(childId).orElseThrow().description());
+        assertEquals(rootId, tree.find(childId).orElseThrow().parentId());
+        assertEquals(childId, tree.find(grandchildId).orElseThrow().parentId());
+
+        assertEquals(List.of(rootId, childId, grandchildId), jdbcTemplate.queryForList(
+                "select descendant_id from category_closure where ancestor_id = ? order by depth", Integer.class, rootId));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select depth from category_closure where ancestor_id = ? and descendant_id = ?", Integer.class, rootId, grandchildId));
+    }
+
+    @Test
+    void testInCategoryIncludesSubcategories() {
+        categoryTreeService.rebuild();
+
+        assertEquals(List.of(productId), ids(IProductSpecification.inCategory(List.of(rootId))));
+        assertEquals(List.of(productId), ids(IProductSpecification.inCategory(List.of(grandchildId))));
+        assertEquals(List.of(), ids(IProductSpecification.inCategory(List.of(otherRootId))));
+        // Test: overlapping ids do not repeat the product
+        assertEquals(List.of(productId), ids(IProductSpecification.inCategory(List.of(rootId, childId))));
+    }
+
+    @Test
+    void testSnapshotChangesOnlyWithCategories() {
+        CategoryTree first = categoryTreeService.rebuild();
+        assertEquals(first.etag(), categoryTreeService.reload().etag());
+        verify(productCatalogCache, never()).invalidateAll();
+
+        jdbcTemplate.update("update category set name = ? where id = ?", "Tree renamed", childId);
+        CategoryTree renamed = categoryTreeService.reload();
+
+        assertNotEquals(first.etag(), renamed.etag());
+        assertSame(renamed, categoryTreeService.tree());
+        verify(productCatalogCache, times(1)).invalidateAll();
+        // Test: the previous snapshot is left as it was for readers still holding it
+        assertEquals("Tree child", first.find(childId).orElseThrow().name());
+        assertEquals("Tree renamed", renamed.find(childId).orElseThrow().name());
+    }
+
+    @Test
+    void testLoopingCategoriesAreLeftOut() {
+        CategoryTree tree = CategoryTree.of(List.of(
+                new CategoryTree.Row(1, "Root", null, null),
+                new CategoryTree.Row(2, "Loop a", null, 3),
+                new CategoryTree.Row(3, "Loop b", null, 2)));
+
+        assertEquals(1, tree.size());
+        assertFalse(tree.contains(2));
+        assertEquals(1, tree.closure().size());
+    }
+
+    private List<Integer> ids(Specification<Product> specification) {
+        return productRepository.findAll(specification).stream().map(Product::getId).sorted().toList();
+    }
+
+    private Category category(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        category.setDescription(name);
+        category.setParent(parent);
+        entityManager.persist(category);
+        return category;
+    }
+}
@@ -0,0 +1,176 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.domain.*;
+import com.nhs.individual.dto.DailySalesStatistic;
+import com.nhs.individual.event.OrderSalesChangedEvent;
+import com.nhs.individual.service.sub_service.DailySalesService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DailySalesService
+ * Tests that order and status events keep the rollup equal to a recompute from shop_order
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DailySalesService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DailySalesServiceTest {
+    private static final LocalDate DAY_ONE = LocalDate.of(2026, 3, 1);
+    private static final LocalDate DAY_TWO = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    DailySalesService dailySalesService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+    private ProductItem phone;
+    private ProductItem cable;
+    private Payment cash;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("delete from daily_sales");
+        jdbcTemplate.update("delete from daily_product_sales");
+        jdbcTemplate.update("delete from order_line");
+        jdbcTemplate.update("delete from shop_order_status");
+        jdbcTemplate.update("delete from shop_order");
+        jdbcTemplate.update("delete from shop_order_payment");
+        transaction.executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName("Sales");
+            category.setDescription("Sales");
+            entityManager.persist(category);
+            phone = item(category, "Phone");
+            cable = item(category, "Cable");
+            cash = new Payment();
+            cash.setName("Cash");
+            entityManager.persist(cash);
+        });
+    }
+
+    @Test
+    void testEventsMatchRecompute() {
+        Integer first = place(DAY_ONE.atTime(9, 0), line(phone, 2, 20), line(cable, 1, 5));
+        place(DAY_ONE.atTime(23, 30), line(phone, 1, 10));
+        place(DAY_TWO.atTime(0, 15), line(phone, 3, 30));
+        cancel(first);
+
+        List<DailySalesStatistic> days = dailySalesService.findBetween(DAY_ONE, DAY_TWO, null);
+        assertEquals(List.of(DAY_ONE, DAY_TWO), days.stream().map(DailySalesStatistic::date).toList());
+        assertEquals(2, days.get(0).orders());
+        assertEquals(0, new BigDecimal("35").compareTo(days.get(0).revenue()));
+        // Test: products of a day come most units first
+        assertEquals(List.of(3L, 1L), days.get(0).products().stream().map(DailySalesStatistic.ProductSales::qty).toList());
+        assertEquals("Phone", days.get(0).products().get(0).product().getName());
+        assertEquals(1, days.get(1).orders());
+
+        // Test: the cancelled order moved out of PENDING_PAYMENT
+        List<DailySalesStatistic> cancelled = dailySalesService.findBetween(DAY_ONE, DAY_TWO, List.of(OrderStatus.CANCELLED.id));
+        assertEquals(1, cancelled.size());
+        assertEquals(1, cancelled.get(0).orders());
+        List<DailySalesStatistic> pending = dailySalesService.findBetween(DAY_ONE, DAY_ONE, List.of(OrderStatus.PENDING_PAYMENT.id));
+        assertEquals(List.of(1L), pending.get(0).products().stream().map(DailySalesStatistic.ProductSales::qty).toList());
+
+        List<Map<String, Object>> incremental = rollup();
+        dailySalesService.rebuild(DAY_ONE, DAY_TWO);
+        assertEquals(incremental, rollup());
+    }
+
+    @Test
+    void testRebuildOnlyTouchesItsDays() {
+        place(DAY_ONE.atTime(12, 0), line(phone, 1, 10));
+        place(DAY_TWO.atTime(12, 0), line(phone, 1, 10));
+        jdbcTemplate.update("delete from daily_sales where sales_date = ?", DAY_ONE);
+
+        dailySalesService.rebuild(DAY_TWO, DAY_TWO);
+
+        assertEquals(List.of(DAY_TWO), dailySalesService.findBetween(DAY_ONE, DAY_TWO, null).stream()
+                .map(DailySalesStatistic::date).toList());
+    }
+
+    /**
+     * Rows with a count left after moves; a recompute never writes empty rows
+     */
+    private List<Map<String, Object>> rollup() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.addAll(jdbcTemplate.queryForList("select sales_date, status, orders, revenue from daily_sales " +
+                "where orders <> 0 order by sales_date, status"));
+        rows.addAll(jdbcTemplate.queryForList("select sales_date, product_id, status, orders, units, revenue " +
+                "from daily_product_sales where orders <> 0 order by sales_date, product_id, status"));
+        return rows;
+    }
+
+    private Integer place(LocalDateTime placedAt, OrderLine... lines) {
+        Integer orderId = transaction.execute(status -> {
+            ShopOrderPayment payment = new ShopOrderPayment();
+            payment.setType(entityManager.getReference(Payment.class, cash.getId()));
+            ShopOrder order = new ShopOrder();
+            order.setOrderDate(Date.from(placedAt.atZone(ZoneId.systemDefault()).toInstant()));
+            order.setCurrentStatus(OrderStatus.PENDING_PAYMENT.id);
+            order.setTotal(List.of(lines).stream().map(OrderLine::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+            order.setPayment(payment);
+            payment.setOrder(order);
+            order.setOrderLines(List.of(lines));
+            for (OrderLine line : lines) line.setOrder(order);
+            entityManager.persist(order);
+            return order.getId();
+        });
+        dailySalesService.onOrderSalesChanged(OrderSalesChangedEvent.placed(orderId, OrderStatus.PENDING_PAYMENT.id));
+        return orderId;
+    }
+
+    private void cancel(Integer orderId) {
+        jdbcTemplate.update("update shop_order set current_status = ? where id = ?", OrderStatus.CANCELLED.id, orderId);
+        dailySalesService.onOrderSalesChanged(OrderSalesChangedEvent.statusChanged(orderId,
+                OrderStatus.PENDING_PAYMENT.id, OrderStatus.CANCELLED.id));
+    }
+
+    private ProductItem item(Category category, String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        entityManager.persist(product);
+        ProductItem item = new ProductItem();
+        item.setProduct(product);
+        item.setPrice(BigDecimal.TEN);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private OrderLine line(ProductItem item, int qty, int total) {
+        OrderLine line = new OrderLine();
+        line.setProductItem(item);
+        line.setQty(qty);
+        line.setTotal(BigDecimal.valueOf(total));
+        return line;
+    }
+}
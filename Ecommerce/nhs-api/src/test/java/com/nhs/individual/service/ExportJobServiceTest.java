@@ -0,0 +1,155 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ExportProperties;
+import com.nhs.individual.configuration.ExportJobConfiguration;
+import com.nhs.individual.constant.ExportFormat;
+import com.nhs.individual.constant.ExportJobStatus;
+import com.nhs.individual.dto.ExportJob;
+import com.nhs.individual.dto.WarehouseStockRow;
+import com.nhs.individual.exception.ExportJobRejectedException;
+import com.nhs.individual.exception.ExportNotReadyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for ExportJobService
+ * Tests that jobs run off the caller thread, report progress, and are refused or expired as configured
+ */
+class ExportJobServiceTest {
+    @TempDir
+    Path uploads;
+
+    private ExportProperties properties;
+    private WareHouseItemService wareHouseItemService;
+    private ThreadPoolTaskExecutor executor;
+    private ExportJobService exportJobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new ExportProperties();
+        properties.setChunkSize(2);
+        properties.getJobs().setThreads(1);
+        properties.getJobs().setQueueCapacity(1);
+        wareHouseItemService = mock(WareHouseItemService.class);
+        executor = new ExportJobConfiguration().exportExecutor(properties);
+        executor.initialize();
+        exportJobService = new ExportJobService(executor, properties, mock(ShopOrderService.class),
+                mock(ProductService.class), wareHouseItemService, uploads.toString());
+        exportJobService.clearLeftovers();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testWarehouseStockCsvIsWrittenAndDownloadable() throws Exception {
+        List<WarehouseStockRow> rows = List.of(
+                new WarehouseStockRow(1, 10, 5, "SKU-10", "Main", "Phone, black"),
+                new WarehouseStockRow(1, 11, 0, null, "Main", "=HYPERLINK(\"x\")"));
+        when(wareHouseItemService.countStockRows(1)).thenReturn(2L);
+        when(wareHouseItemService.forEachStockRow(eq(1), anyInt(), any())).thenAnswer(invocation -> {
+            Consumer<WarehouseStockRow> consumer = invocation.getArgument(2);
+            rows.forEach(consumer);
+            return 2L;
+        });
+
+        ExportJob job = exportJobService.submitWarehouseStock(ExportFormat.CSV, 1, 7);
+        ExportJob done = await(job.getId());
+
+        assertEquals(ExportJobStatus.COMPLETED, done.getStatus());
+        assertEquals(2, done.getRowsWritten());
+        assertEquals(2L, done.getTotalRows());
+        assertEquals(100, done.getProgress());
+        assertNotNull(done.getExpiresAt());
+        Path file = exportJobService.getFile(job.getId());
+        assertTrue(file.startsWith(uploads.resolve("exports")));
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals("\uFEFFWAREHOUSE_ID,PD_ITEM_ID,QTY,SKU,WAREHOUSE,PD_NAME", lines.get(0));
+        // Test: separators are quoted and formula-looking text is neutralised
+        assertEquals("1,10,5,SKU-10,Main,\"Phone, black\"", lines.get(1));
+        assertEquals("1,11,0,,Main,\"'=HYPERLINK(\"\"x\"\")\"", lines.get(2));
+    }
+
+    @Test
+    void testFailedJobReportsErrorAndLeavesNoFile() throws Exception {
+        when(wareHouseItemService.countStockRows(any())).thenReturn(1L);
+        when(wareHouseItemService.forEachStockRow(any(), anyInt(), any())).thenThrow(new IllegalStateException("database down"));
+
+        ExportJob job = exportJobService.submitWarehouseStock(ExportFormat.XLSX, null, 7);
+        ExportJob done = await(job.getId());
+
+        assertEquals(ExportJobStatus.FAILED, done.getStatus());
+        assertEquals("Export failed: IllegalStateException", done.getError());
+        assertThrows(ExportNotReadyException.class, () -> exportJobService.getFile(job.getId()));
+        try (var files = Files.list(uploads.resolve("exports"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testSubmissionsBeyondQueueAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(wareHouseItemService.countStockRows(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        });
+        when(wareHouseItemService.forEachStockRow(any(), anyInt(), any())).thenReturn(0L);
+
+        // one running, one queued
+        ExportJob running = exportJobService.submitWarehouseStock(ExportFormat.CSV, null, 7);
+        ExportJob queued = exportJobService.submitWarehouseStock(ExportFormat.CSV, null, 7);
+        assertThrows(ExportJobRejectedException.class, () -> exportJobService.submitWarehouseStock(ExportFormat.CSV, null, 7));
+        release.countDown();
+
+        assertEquals(ExportJobStatus.COMPLETED, await(running.getId()).getStatus());
+        assertEquals(ExportJobStatus.COMPLETED, await(queued.getId()).getStatus());
+    }
+
+    @Test
+    void testExpiredJobsAreRemovedWithTheirFile() throws Exception {
+        properties.getJobs().setTtl(Duration.ZERO);
+        when(wareHouseItemService.countStockRows(any())).thenReturn(0L);
+        when(wareHouseItemService.forEachStockRow(any(), anyInt(), any())).thenReturn(0L);
+
+        ExportJob job = exportJobService.submitWarehouseStock(ExportFormat.CSV, null, 7);
+        Path file = await(job.getId()).getFile();
+        assertTrue(Files.exists(file));
+        Thread.sleep(5);
+
+        assertEquals(1, exportJobService.removeExpired());
+        assertTrue(exportJobService.findById(job.getId()).isEmpty());
+        assertFalse(Files.exists(file));
+    }
+
+    private ExportJob await(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            ExportJob job = exportJobService.findById(id).orElseThrow();
+            if (job.getStatus() == ExportJobStatus.COMPLETED || job.getStatus() == ExportJobStatus.FAILED) return job;
+            Thread.sleep(10);
+        }
+        fail("Export job " + id + " did not finish");
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ImageStoreProperties;
+import com.nhs.individual.constant.ImageVariant;
+import com.nhs.individual.dto.StoredImage;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ImageStoreService
+ * Tests that uploads are stored once under their hash and that variants are resized, made after
+ * upload or on first request
+ */
+class ImageStoreServiceTest {
+    @TempDir
+    Path uploadDir;
+
+    private ImageStoreProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ImageStoreProperties();
+    }
+
+    @Test
+    void testSameContentIsStoredOnce() throws IOException {
+        ImageStoreService store = store(new SyncTaskExecutor());
+        byte[] photo = image(1600, 1200, "jpg");
+
+        String first = store.store(new MockMultipartFile("image", "front.jpg", "image/jpeg", photo));
+        String second = store.store(new MockMultipartFile("image", "copy of front.jpg", "image/jpeg", photo));
+
+        assertEquals(first, second);
+        assertTrue(first.matches("/uploads/images/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg"), first);
+        // Test: original and two variants, no temp file left
+        assertEquals(3, files().size());
+
+        String[] segments = first.split("/");
+        StoredImage original = store.open(segments[3], segments[4], segments[5]);
+        assertArrayEquals(photo, Files.readAllBytes(original.path()));
+        assertEquals(MediaType.IMAGE_JPEG, original.mediaType());
+    }
+
+    @Test
+    void testVariantsAreResizedAfterUpload() throws IOException {
+        ImageStoreService store = store(new SyncTaskExecutor());
+        String url = store.store(new MockMultipartFile("image", "logo.png", "image/png", image(1000, 500, "png")));
+
+        Map<String, String> variants = ImageVariant.urls(url);
+        String[] thumbnail = variants.get("thumbnail").split("/");
+        StoredImage image = store.open(thumbnail[3], thumbnail[4], thumbnail[5]);
+        BufferedImage resized = ImageIO.read(image.path().toFile());
+        assertEquals(200, resized.getWidth());
+        assertEquals(100, resized.getHeight());
+        assertEquals(MediaType.IMAGE_PNG, image.mediaType());
+        assertTrue(image.etag().endsWith("_thumbnail"));
+
+        // Test: small images are not scaled up
+        String small = store.store(new MockMultipartFile("image", "icon.jpg", "image/jpeg", image(120, 80, "jpg")));
+        String[] medium = ImageVariant.urls(small).get("medium").split("/");
+        assertEquals(120, ImageIO.read(store.open(medium[3], medium[4], medium[5]).path().toFile()).getWidth());
+    }
+
+    @Test
+    void testVariantIsMadeOnFirstRequestWhenExecutorIsFull() throws IOException {
+        ImageStoreService store = store(task -> {
+            throw new TaskRejectedException("full");
+        });
+        String url = store.store(new MockMultipartFile("image", "front.jpg", "image/jpeg", image(900, 900, "jpg")));
+        assertEquals(1, files().size());
+
+        String[] medium = ImageVariant.urls(url).get("medium").split("/");
+        StoredImage image = store.open(medium[3], medium[4], medium[5]);
+
+        assertEquals(800, ImageIO.read(image.path().toFile()).getWidth());
+        assertEquals(2, files().size());
+    }
+
+    @Test
+    void testRejectsAnythingButImages() throws IOException {
+        ImageStoreService store = store(new SyncTaskExecutor());
+        MockMultipartFile script = new MockMultipartFile("image", "photo.jpg", "image/jpeg", "<script>".getBytes());
+
+        assertThrows(IllegalInputException.class, () -> store.store(script));
+        assertTrue(files().isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> store.open("..", "..", "secret.jpg"));
+        assertThrows(ResourceNotFoundException.class, () -> store.open("00", "00", "0".repeat(64) + ".jpg"));
+    }
+
+    private ImageStoreService store(TaskExecutor executor) throws IOException {
+        ImageStoreService store = new ImageStoreService(properties, executor, uploadDir.toString());
+        store.clearLeftovers();
+        return store;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static byte[] image(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            image.setRGB(x, x * height / width, 0xFF8800);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
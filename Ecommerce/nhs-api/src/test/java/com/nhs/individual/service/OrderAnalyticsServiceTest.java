@@ -0,0 +1,156 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.OrderAnalyticsProperties;
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.constant.TimeBucket;
+import com.nhs.individual.dto.OrderBucket;
+import com.nhs.individual.exception.IllegalInputException;
+import com.nhs.individual.service.sub_service.OrderAnalyticsService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for OrderAnalyticsService
+ * Tests that series are bucketed in the requested zone, zero-filled, and read only the requested range
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderAnalyticsService.class, OrderAnalyticsProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderAnalyticsServiceTest {
+    /** one order every 5 minutes from 2024-01-01, about 23 months */
+    private static final int SYNTHETIC_ORDERS = 200_000;
+    private static final int ORDERS_PER_DAY = 24 * 60 / 5;
+    private static final int FIRST_ID = 10_000_000;
+    private static final ZoneId GMT_7 = ZoneId.of("GMT+7");
+
+    @Autowired
+    OrderAnalyticsService orderAnalyticsService;
+    @Autowired
+    OrderAnalyticsProperties properties;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void loadOrders() {
+        jdbcTemplate.update("insert into payment (id, name) values (?, 'Cash')", FIRST_ID);
+        // system_range exposes its column as X, and the test database folds unquoted names to lower case
+        jdbcTemplate.update("insert into shop_order_payment (id, status, payment_id) select \"X\" + ?, 1, ? from system_range(1, ?)",
+                FIRST_ID, FIRST_ID, SYNTHETIC_ORDERS);
+        jdbcTemplate.update("insert into shop_order (id, order_date, total, current_status, payment_id) " +
+                        "select \"X\" + ?, dateadd('MINUTE', \"X\" * 5, timestamp '2024-01-01 00:00:00'), 10, mod(\"X\", 9) + 1, \"X\" + ? " +
+                        "from system_range(1, ?)",
+                FIRST_ID, FIRST_ID, SYNTHETIC_ORDERS);
+        // 2026-03-02 01:30 and 2026-03-03 09:00 in GMT+7
+        order(FIRST_ID + SYNTHETIC_ORDERS + 1, Instant.parse("2026-03-01T18:30:00Z"), 10, OrderStatus.COMPLETED);
+        order(FIRST_ID + SYNTHETIC_ORDERS + 2, Instant.parse("2026-03-03T02:00:00Z"), 5, OrderStatus.CANCELLED);
+    }
+
+    @AfterAll
+    void removeOrders() {
+        jdbcTemplate.update("delete from shop_order where id > ?", FIRST_ID);
+        jdbcTemplate.update("delete from shop_order_payment where id > ?", FIRST_ID);
+        jdbcTemplate.update("delete from payment where id = ?", FIRST_ID);
+    }
+
+    @Test
+    void testDaysAreCutInRequestedZoneAndZeroFilled() {
+        List<OrderBucket> local = orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 4), TimeBucket.DAY, GMT_7, null);
+        assertEquals(List.of(0L, 1L, 1L, 0L), local.stream().map(OrderBucket::orders).toList());
+        assertEquals(LocalDate.of(2026, 3, 1), local.get(0).start());
+        assertEquals(0, BigDecimal.TEN.compareTo(local.get(1).revenue()));
+
+        List<OrderBucket> utc = orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 4), TimeBucket.DAY, ZoneId.of("UTC"), null);
+        assertEquals(List.of(1L, 0L, 1L, 0L), utc.stream().map(OrderBucket::orders).toList());
+
+        // Test: the configured zone is used when none is given
+        properties.setZone(GMT_7);
+        assertEquals(local, orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 4), TimeBucket.DAY, null, null));
+    }
+
+    @Test
+    void testWeekAndMonthBuckets() {
+        // 2026-03-01 is a Sunday, so its week starts on 2026-02-23
+        List<OrderBucket> weeks = orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 8), TimeBucket.WEEK, GMT_7, null);
+        assertEquals(List.of(LocalDate.of(2026, 2, 23), LocalDate.of(2026, 3, 2)), weeks.stream().map(OrderBucket::start).toList());
+        assertEquals(List.of(0L, 2L), weeks.stream().map(OrderBucket::orders).toList());
+
+        List<OrderBucket> months = orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 1, 15), LocalDate.of(2026, 4, 2), TimeBucket.MONTH, GMT_7, null);
+        assertEquals(List.of(0L, 0L, 2L, 0L), months.stream().map(OrderBucket::orders).toList());
+        assertEquals(LocalDate.of(2026, 1, 1), months.get(0).start());
+
+        List<OrderBucket> cancelled = orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), TimeBucket.MONTH, GMT_7, List.of(OrderStatus.CANCELLED.id));
+        assertEquals(1L, cancelled.get(0).orders());
+        assertEquals(0, new BigDecimal("5").compareTo(cancelled.get(0).revenue()));
+    }
+
+    @Test
+    void testWeekReadsOnlyItsRows() {
+        LocalDate weekStart = LocalDate.of(2024, 6, 3);
+        LocalDate weekEnd = LocalDate.of(2024, 6, 9);
+        List<OrderBucket> week = orderAnalyticsService.findSeries(weekStart, weekEnd, TimeBucket.DAY, ZoneId.systemDefault(), null);
+        assertTrue(week.stream().allMatch(day -> day.orders() == ORDERS_PER_DAY));
+
+        String plan = plan(weekStart, weekEnd.plusDays(1));
+        // Test: the range goes through the order_date index
+        assertTrue(plan.toLowerCase().contains("idx_shop_order_date"), plan);
+        // Test: a week out of ~700 days reads that week's rows (plus a boundary row per end), not the table
+        assertTrue(scanCount(plan) <= 7 * ORDERS_PER_DAY + 2, plan);
+        String history = plan(LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1));
+        assertTrue(scanCount(history) > 50 * scanCount(plan), history);
+    }
+
+    @Test
+    void testSeriesLengthIsCapped() {
+        assertThrows(IllegalInputException.class, () -> orderAnalyticsService.findSeries(
+                LocalDate.of(2000, 1, 1), LocalDate.of(2026, 1, 1), TimeBucket.DAY, GMT_7, null));
+        assertThrows(IllegalInputException.class, () -> orderAnalyticsService.findSeries(
+                LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 1), TimeBucket.DAY, GMT_7, null));
+    }
+
+    /** the plan of the series query over [from, until), with the rows H2 actually read */
+    private String plan(LocalDate from, LocalDate until) {
+        return jdbcTemplate.queryForObject("explain analyze select cast(o.order_date as date), count(*), coalesce(sum(o.total), 0) " +
+                        "from shop_order o where o.order_date >= ? and o.order_date < ? group by cast(o.order_date as date)", String.class,
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(until.atStartOfDay()));
+    }
+
+    private static long scanCount(String plan) {
+        Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertTrue(matcher.find(), plan);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private void order(int id, Instant placedAt, int total, OrderStatus status) {
+        jdbcTemplate.update("insert into shop_order_payment (id, status, payment_id) values (?, 1, ?)", id, FIRST_ID);
+        jdbcTemplate.update("insert into shop_order (id, order_date, total, current_status, payment_id) values (?, ?, ?, ?, ?)",
+                id, Timestamp.from(placedAt), total, status.id, id);
+    }
+}
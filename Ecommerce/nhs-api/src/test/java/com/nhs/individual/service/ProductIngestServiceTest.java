@@ -0,0 +1,169 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ProductIngestProperties;
+import com.nhs.individual.constant.IngestFormat;
+import com.nhs.individual.domain.Category;
+import com.nhs.individual.domain.Variation;
+import com.nhs.individual.domain.VariationOption;
+import com.nhs.individual.dto.ProductIngestReport;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ProductIngestService
+ * Tests that lines are upserted by SKU in chunks, progress is reported per chunk and bad lines are listed
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductIngestService.class, ProductIngestProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductIngestServiceTest {
+    @Autowired
+    ProductIngestService productIngestService;
+    @Autowired
+    ProductIngestProperties properties;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Integer phonesId;
+    private Integer redId;
+    private Integer blueId;
+
+    @BeforeAll
+    void loadLookups() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category phones = category("Ingest phones");
+            category("Ingest accessories");
+            Variation color = new Variation();
+            color.setName("Ingest color");
+            entityManager.persist(color);
+            phonesId = phones.getId();
+            redId = option(color, "Red").getId();
+            blueId = option(color, "Blue").getId();
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        jdbcTemplate.update("delete from product_item_options where product_item_id in " +
+                "(select id from product_item where external_sku is not null)");
+        jdbcTemplate.update("delete from product_item where external_sku is not null");
+        jdbcTemplate.update("delete from product where external_sku is not null");
+    }
+
+    @Test
+    void testLinesAreUpsertedBySku() throws Exception {
+        List<ProductIngestReport.Progress> progress = new ArrayList<>();
+        ProductIngestReport report = ingest(IngestFormat.NDJSON, progress, String.join("\n",
+                "{\"sku\":\"ING-1-R\",\"productSku\":\"ING-1\",\"name\":\"Phone\",\"categoryId\":" + phonesId + ",\"price\":10,\"options\":{\"Ingest color\":\"Red\"}}",
+                "{\"sku\":\"ING-1-B\",\"productSku\":\"ING-1\",\"name\":\"Phone\",\"categoryId\":" + phonesId + ",\"price\":11,\"originalPrice\":12,\"options\":{\"ingest COLOR\":\"blue\"}}",
+                "{\"sku\":",
+                "",
+                "{\"sku\":\"ING-2\",\"name\":\"Case\",\"category\":\"Ingest accessories\",\"price\":\"2.5\"}",
+                "{\"sku\":\"ING-3\",\"name\":\"Cable\",\"categoryId\":" + phonesId + "}",
+                "{\"sku\":\"ING-4\",\"name\":\"Cable\",\"categoryId\":" + phonesId + ",\"price\":1,\"options\":{\"Ingest color\":\"Green\"}}",
+                "{\"sku\":\"ING-5\",\"name\":\"Cable\",\"category\":\"Nope\",\"price\":1}"));
+
+        assertEquals(7, report.getLinesRead());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getProducts());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(3, 6, 7, 8), report.getErrors().stream().map(ProductIngestReport.LineError::line).toList());
+        assertEquals("Option Ingest color=Green not found", report.getErrors().get(2).message());
+        // Test: one progress line per chunk of two
+        assertEquals(List.of(2L, 3L), progress.stream().map(ProductIngestReport.Progress::imported).toList());
+
+        assertEquals(0, new BigDecimal("10").compareTo(itemColumn("ING-1-R", "original_price", BigDecimal.class)));
+        assertEquals(0, new BigDecimal("12").compareTo(itemColumn("ING-1-B", "original_price", BigDecimal.class)));
+        assertEquals(List.of(redId), options("ING-1-R"));
+        assertEquals(List.of(blueId), options("ING-1-B"));
+        assertEquals(itemColumn("ING-1-R", "product_id", Integer.class), itemColumn("ING-1-B", "product_id", Integer.class));
+
+        Integer itemId = itemColumn("ING-1-R", "id", Integer.class);
+        ingest(IngestFormat.NDJSON, new ArrayList<>(), String.join("\n",
+                "{\"sku\":\"ING-1-R\",\"productSku\":\"ING-1\",\"name\":\"Phone 2\",\"categoryId\":" + phonesId + ",\"price\":9,\"options\":{\"Ingest color\":\"Blue\"}}",
+                "{\"sku\":\"ING-1-B\",\"productSku\":\"ING-1\",\"name\":\"Phone 2\",\"categoryId\":" + phonesId + ",\"price\":11}"));
+
+        // Test: sending a SKU again updates its rows; lines without options keep the stored ones
+        assertEquals(itemId, itemColumn("ING-1-R", "id", Integer.class));
+        assertEquals(0, new BigDecimal("9").compareTo(itemColumn("ING-1-R", "price", BigDecimal.class)));
+        assertEquals(List.of(blueId), options("ING-1-R"));
+        assertEquals(List.of(blueId), options("ING-1-B"));
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from product_item where external_sku is not null", Integer.class));
+        assertEquals(List.of("Case", "Phone 2"), jdbcTemplate.queryForList(
+                "select name from product where external_sku is not null order by name", String.class));
+    }
+
+    @Test
+    void testCsvWithQuotedCells() throws Exception {
+        ProductIngestReport report = ingest(IngestFormat.CSV, new ArrayList<>(),
+                "\uFEFFsku,product_sku,name,category_id,price,options\r\n" +
+                        "ING-9,,\"Charger, fast\"," + phonesId + ",5,Ingest color=Red\r\n" +
+                        "ING-10,ING-9,Charger," + phonesId + ",abc,\r\n" +
+                        "ING-11,,\"Two\nlines\"," + phonesId + ",4,\r\n" +
+                        "ING-12,,Lamp," + phonesId + ",1,Ingest color\r\n");
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(3, 6), report.getErrors().stream().map(ProductIngestReport.LineError::line).toList());
+        assertEquals("Charger, fast", jdbcTemplate.queryForObject(
+                "select name from product where external_sku = 'ING-9'", String.class));
+        assertEquals("Two\nlines", jdbcTemplate.queryForObject(
+                "select name from product where external_sku = 'ING-11'", String.class));
+        assertEquals(List.of(redId), options("ING-9"));
+    }
+
+    private ProductIngestReport ingest(IngestFormat format, List<ProductIngestReport.Progress> progress, String body) throws Exception {
+        return productIngestService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, progress::add);
+    }
+
+    private <T> T itemColumn(String sku, String column, Class<T> type) {
+        return jdbcTemplate.queryForObject("select " + column + " from product_item where external_sku = ?", type, sku);
+    }
+
+    private List<Integer> options(String sku) {
+        return jdbcTemplate.queryForList("select o.variation_option_id from product_item_options o " +
+                "join product_item i on i.id = o.product_item_id where i.external_sku = ?", Integer.class, sku);
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        category.setDescription(name);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private VariationOption option(Variation variation, String value) {
+        VariationOption option = new VariationOption();
+        option.setVariation(variation);
+        option.setValue(value);
+        entityManager.persist(option);
+        return option;
+    }
+}
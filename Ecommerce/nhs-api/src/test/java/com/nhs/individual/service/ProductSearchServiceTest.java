@@ -0,0 +1,112 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.event.ProductOverviewChangedEvent;
+import com.nhs.individual.repository.ProductRepository;
+import com.nhs.individual.repository.sub_repository.ProductOverviewRepository;
+import com.nhs.individual.views.ProductOverView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProductSearchService
+ * Tests Vietnamese diacritic folding, prefix matching and relevance ordering
+ */
+class ProductSearchServiceTest {
+
+    private ProductRepository productRepository;
+    private ProductSearchService searchService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        productRepository = mock(ProductRepository.class);
+        ProductOverviewRepository overviewRepository = mock(ProductOverviewRepository.class);
+        when(overviewRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<ProductOverView> rows = new ArrayList<>();
+            for (Integer id : (Collection<Integer>) invocation.getArgument(0)) {
+                ProductOverView row = new ProductOverView();
+                row.setId(id);
+                rows.add(row);
+            }
+            return rows;
+        });
+        searchService = new ProductSearchService(productRepository, overviewRepository);
+
+        index(product(1, 10, "Áo thun cổ tròn", "Việt Tiến"));
+        index(product(2, 10, "Quần jean", "Áo Đẹp"));
+        index(product(3, 20, "Đồng hồ thông minh", "Xiaomi"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        searchService.close();
+    }
+
+    @Test
+    void testSearchIgnoresDiacritics() {
+        // Test: query without accents matches accented product name
+        assertEquals(List.of(1), ids(searchService.search("ao thun", null, PageRequest.of(0, 10))));
+        // Test: đ folds to d
+        assertEquals(List.of(3), ids(searchService.search("dong ho", null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void testSearchMatchesPrefix() {
+        // Test: partially typed words still match
+        assertEquals(List.of(3), ids(searchService.search("thông mi", null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void testSearchRanksNameAboveManufacturer() {
+        // Test: "áo" in the name outranks "Áo" in the manufacturer
+        assertEquals(List.of(1, 2), ids(searchService.search("áo", null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void testSearchFiltersByCategoryAndPages() {
+        Page<ProductOverView> page = searchService.search("áo", List.of(10), PageRequest.of(1, 1));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of(2), ids(page));
+        assertTrue(searchService.search("ao", List.of(20), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testDeletedProductIsRemovedFromIndex() {
+        when(productRepository.findById(anyInt())).thenReturn(Optional.empty());
+        searchService.onProductChanged(ProductOverviewChangedEvent.ofProduct(1));
+        assertEquals(List.of(2), ids(searchService.search("ao", null, PageRequest.of(0, 10))));
+    }
+
+    private void index(Product product) {
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+        searchService.onProductChanged(ProductOverviewChangedEvent.ofProduct(product.getId()));
+    }
+
+    private static Product product(int id, int categoryId, String name, String manufacturer) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setName(name);
+        product.setManufacturer(manufacturer);
+        return product;
+    }
+
+    private static List<Integer> ids(Page<ProductOverView> page) {
+        return page.getContent().stream().map(ProductOverView::getId).toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.StatisticsSnapshotProperties;
+import com.nhs.individual.dto.StatisticsSnapshot;
+import com.nhs.individual.exception.StatisticsNotReadyException;
+import com.nhs.individual.service.sub_service.AccountStatisticService;
+import com.nhs.individual.service.sub_service.OverviewStatisticService;
+import com.nhs.individual.service.sub_service.ProspectiveUserService;
+import com.nhs.individual.service.sub_service.StatisticsSnapshotService;
+import com.nhs.individual.views.OverviewStatistic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for StatisticsSnapshotService
+ * Tests that reads are served from the last snapshot and only the scheduler or an admin recomputes it
+ */
+class StatisticsSnapshotServiceTest {
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+    private OverviewStatisticService overviewStatisticService;
+    private ThreadPoolTaskScheduler scheduler;
+    private StatisticsSnapshotProperties properties;
+    private StatisticsSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        overviewStatisticService = mock(OverviewStatisticService.class);
+        OverviewStatistic overview = new OverviewStatistic();
+        overview.setNumber_of_products(3L);
+        when(overviewStatisticService.findAll()).thenAnswer(invocation -> {
+            if (databaseDown.get()) throw new IllegalStateException("database down");
+            return List.of(overview);
+        });
+        ProspectiveUserService prospectiveUserService = mock(ProspectiveUserService.class);
+        when(prospectiveUserService.findAll()).thenReturn(List.of());
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        properties = new StatisticsSnapshotProperties();
+        snapshotService = new StatisticsSnapshotService(overviewStatisticService, mock(AccountStatisticService.class),
+                prospectiveUserService, scheduler, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testReadsNeverRunTheQueries() {
+        assertThrows(StatisticsNotReadyException.class, snapshotService::get);
+
+        StatisticsSnapshot refreshed = snapshotService.refresh();
+        for (int i = 0; i < 10; i++) assertSame(refreshed, snapshotService.get());
+
+        verify(overviewStatisticService, times(1)).findAll();
+        assertEquals(3L, refreshed.overview().getNumber_of_products());
+        assertNotNull(refreshed.computedAt());
+    }
+
+    @Test
+    void testScheduledRefreshKeepsLastSnapshotOnFailure() throws Exception {
+        properties.setRefreshInterval(Duration.ofMillis(20));
+        snapshotService.startRefreshing();
+        StatisticsSnapshot first = await();
+
+        databaseDown.set(true);
+        verify(overviewStatisticService, timeout(TimeUnit.SECONDS.toMillis(5)).atLeast(4)).findAll();
+
+        // Test: the failed runs neither cleared the snapshot nor stopped the schedule
+        assertSame(first.overview(), snapshotService.get().overview());
+    }
+
+    private StatisticsSnapshot await() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            try {
+                return snapshotService.get();
+            } catch (StatisticsNotReadyException e) {
+                Thread.sleep(10);
+            }
+        }
+        fail("No snapshot was computed");
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.StockReservationProperties;
+import com.nhs.individual.constant.ReservationStatus;
+import com.nhs.individual.domain.*;
+import com.nhs.individual.domain.EmbeddedId.ProductItemInWarehouseId;
+import com.nhs.individual.exception.OutOfStockException;
+import com.nhs.individual.repository.StockReservationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StockReservationService
+ * Tests that concurrent checkouts never oversell and that released stock is returned exactly once
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockReservationService.class, StockReservationProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTest {
+    private static final int BUYERS = 40;
+
+    @Autowired
+    StockReservationService stockReservationService;
+    @Autowired
+    StockReservationRepository reservationRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+    private Integer itemId;
+    private final AtomicInteger orderIds = new AtomicInteger(1000);
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("delete from stock_reservation");
+        jdbcTemplate.update("delete from product_item_in_warehouse");
+        // 7 + 5 units of one item in two warehouses
+        itemId = transaction.execute(status -> {
+            Category category = new Category();
+            category.setName("Hot");
+            category.setDescription("Hot");
+            entityManager.persist(category);
+            Product product = new Product();
+            product.setName("Hot item");
+            product.setCategory(category);
+            entityManager.persist(product);
+            ProductItem item = new ProductItem();
+            item.setProduct(product);
+            item.setPrice(BigDecimal.TEN);
+            entityManager.persist(item);
+            stock(item, 7);
+            stock(item, 5);
+            return item.getId();
+        });
+    }
+
+    @Test
+    void testConcurrentCheckoutsNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            int qty = i % 3 + 1;
+            buyers.add(pool.submit(() -> {
+                start.await();
+                try {
+                    transaction.executeWithoutResult(status -> stockReservationService.reserve(order(qty)));
+                    sold.addAndGet(qty);
+                } catch (OutOfStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> buyer : buyers) buyer.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        // Test: no warehouse row went negative and everything sold is backed by a reservation
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from product_item_in_warehouse where quantity < 0", Integer.class));
+        int left = jdbcTemplate.queryForObject("select sum(quantity) from product_item_in_warehouse", Integer.class);
+        int reserved = jdbcTemplate.queryForObject("select sum(qty) from stock_reservation", Integer.class);
+        assertEquals(12, left + sold.get());
+        assertEquals(sold.get(), reserved);
+        assertTrue(sold.get() > 0);
+        assertTrue(rejected.get() > 0);
+    }
+
+    @Test
+    void testOrderSpillsOverWarehousesAndReleasesOnce() {
+        Integer orderId = transaction.execute(status -> {
+            ShopOrder order = order(10);
+            stockReservationService.reserve(order);
+            return order.getId();
+        });
+        // Test: 10 units come from both warehouses, fullest first
+        assertEquals(2, jdbcTemplate.queryForObject("select sum(quantity) from product_item_in_warehouse", Integer.class));
+        assertEquals(2, reservationRepository.findAll().size());
+
+        assertEquals(2, stockReservationService.release(orderId));
+        // Test: a second release finds nothing to give back
+        assertEquals(0, stockReservationService.release(orderId));
+        assertEquals(12, jdbcTemplate.queryForObject("select sum(quantity) from product_item_in_warehouse", Integer.class));
+        assertTrue(reservationRepository.findAll().stream().allMatch(r -> r.getStatus() == ReservationStatus.RELEASED));
+    }
+
+    @Test
+    void testOrderLargerThanStockIsRejected() {
+        assertThrows(OutOfStockException.class,
+                () -> transaction.executeWithoutResult(status -> stockReservationService.reserve(order(13))));
+        assertEquals(12, jdbcTemplate.queryForObject("select sum(quantity) from product_item_in_warehouse", Integer.class));
+    }
+
+    @Test
+    void testHeldStockCanBeExtendedButNotShortened() {
+        Integer orderId = transaction.execute(status -> {
+            ShopOrder order = order(3);
+            Payment zaloPay = new Payment();
+            zaloPay.setId(2);
+            ShopOrderPayment payment = new ShopOrderPayment();
+            payment.setType(zaloPay);
+            order.setPayment(payment);
+            stockReservationService.reserve(order);
+            return order.getId();
+        });
+        jdbcTemplate.update("update stock_reservation set expires_at = ? where order_id = ?",
+                Timestamp.from(Instant.now().minusSeconds(60)), orderId);
+        assertEquals(List.of(orderId), stockReservationService.findExpiredOrderIds(10));
+
+        assertEquals(1, stockReservationService.extend(orderId, Instant.now().plusSeconds(300)));
+        assertEquals(List.of(), stockReservationService.findExpiredOrderIds(10));
+        // Test: an earlier deadline leaves the longer hold alone
+        assertEquals(0, stockReservationService.extend(orderId, Instant.now()));
+        assertEquals(List.of(), stockReservationService.findExpiredOrderIds(10));
+    }
+
+    private void stock(ProductItem item, int qty) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName("W" + qty);
+        entityManager.persist(warehouse);
+        WarehouseItem stock = new WarehouseItem();
+        stock.setId(new ProductItemInWarehouseId(item.getId(), warehouse.getId()));
+        stock.setProductItem(item);
+        stock.setWarehouse(warehouse);
+        stock.setQty(qty);
+        entityManager.persist(stock);
+    }
+
+    private ShopOrder order(int qty) {
+        ProductItem item = new ProductItem();
+        item.setId(itemId);
+        OrderLine line = new OrderLine();
+        line.setProductItem(item);
+        line.setQty(qty);
+        ShopOrder order = new ShopOrder();
+        order.setId(orderIds.incrementAndGet());
+        order.setOrderLines(List.of(line));
+        return order;
+    }
+}
@@ -0,0 +1,149 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.UploadServingProperties;
+import com.nhs.individual.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for UploadFileSender
+ * Tests that conditional and Range requests are answered without the body or with the requested part,
+ * and that large files are left to the container's sendfile
+ */
+class UploadFileSenderTest {
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    @TempDir
+    Path uploadDir;
+
+    private UploadFileSender sender;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        UploadServingProperties properties = new UploadServingProperties();
+        properties.getHotCache().setMaxFileSize(DataSize.ofBytes(64));
+        sender = new UploadFileSender(properties);
+        file = Files.writeString(uploadDir.resolve("thumbnail.jpg"), "0123456789", StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void testFullResponseCarriesValidators() throws IOException {
+        MockHttpServletResponse response = send(get());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("\"abc\"", response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("max-age=31536000, public, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10, response.getContentLengthLong());
+    }
+
+    @Test
+    void testConditionalRequestsGetNotModified() throws IOException {
+        MockHttpServletRequest byTag = get();
+        byTag.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc\"");
+        MockHttpServletResponse tagged = send(byTag);
+        assertEquals(304, tagged.getStatus());
+        assertEquals(0, tagged.getContentAsByteArray().length);
+        assertEquals("max-age=31536000, public, immutable", tagged.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletRequest byDate = get();
+        byDate.addHeader(HttpHeaders.IF_MODIFIED_SINCE, Files.getLastModifiedTime(file).toMillis());
+        assertEquals(304, send(byDate).getStatus());
+
+        MockHttpServletRequest otherTag = get();
+        otherTag.addHeader(HttpHeaders.IF_NONE_MATCH, "\"older\"");
+        assertEquals(200, send(otherTag).getStatus());
+    }
+
+    @Test
+    void testRange() throws IOException {
+        MockHttpServletRequest part = get();
+        part.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse partial = send(part);
+        assertEquals(206, partial.getStatus());
+        assertEquals("2345", partial.getContentAsString());
+        assertEquals("bytes 2-5/10", partial.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletRequest suffix = get();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertEquals("789", send(suffix).getContentAsString());
+
+        MockHttpServletRequest beyond = get();
+        beyond.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        MockHttpServletResponse unsatisfiable = send(beyond);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */10", unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        // Test: a Range for another version of the file gets the whole current file
+        MockHttpServletRequest stale = get();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"older\"");
+        MockHttpServletResponse full = send(stale);
+        assertEquals(200, full.getStatus());
+        assertEquals("0123456789", full.getContentAsString());
+    }
+
+    @Test
+    void testLargeFilesAreLeftToSendfile() throws IOException {
+        Path photo = Files.write(uploadDir.resolve("photo.jpg"), new byte[1000]);
+        MockHttpServletRequest request = get();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sender.send(request, response, photo, MediaType.IMAGE_JPEG, null, IMMUTABLE);
+
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(900, response.getContentLengthLong());
+        assertEquals(photo.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(100L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+
+        // Test: small files come from memory even when sendfile is available
+        MockHttpServletRequest thumbnail = get();
+        thumbnail.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse cached = send(thumbnail);
+        assertEquals("0123456789", cached.getContentAsString());
+        assertNull(thumbnail.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    @Test
+    void testHeadAndMissingFile() throws IOException {
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", "/uploads/thumbnail.jpg");
+        MockHttpServletResponse response = send(head);
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        assertThrows(ResourceNotFoundException.class, () -> sender.send(get(), new MockHttpServletResponse(),
+                uploadDir.resolve("missing.jpg"), MediaType.IMAGE_JPEG, null, IMMUTABLE));
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/uploads/thumbnail.jpg");
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sender.send(request, response, file, MediaType.IMAGE_JPEG, "abc", IMMUTABLE);
+        return response;
+    }
+}
@@ -0,0 +1,170 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.WarehouseImportProperties;
+import com.nhs.individual.domain.*;
+import com.nhs.individual.domain.EmbeddedId.ProductItemInWarehouseId;
+import com.nhs.individual.dto.WarehouseImportReport;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WarehouseImportService
+ * Tests that valid rows are upserted in batches and every bad row is reported instead of failing the file
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WarehouseImportService.class, WarehouseImportProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WarehouseImportServiceTest {
+    @Autowired
+    WarehouseImportService warehouseImportService;
+    @Autowired
+    WarehouseImportProperties properties;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    private Integer warehouseId;
+    private Integer newItemId;
+    private Integer stockedItemId;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        properties.setMaxReportedErrors(1000);
+        jdbcTemplate.update("delete from stock_reservation");
+        jdbcTemplate.update("delete from product_item_in_warehouse");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName("Import");
+            category.setDescription("Import");
+            entityManager.persist(category);
+            Product product = new Product();
+            product.setName("Imported");
+            product.setCategory(category);
+            entityManager.persist(product);
+            ProductItem newItem = item(product);
+            ProductItem stockedItem = item(product);
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("Import");
+            entityManager.persist(warehouse);
+            WarehouseItem stock = new WarehouseItem();
+            stock.setId(new ProductItemInWarehouseId(stockedItem.getId(), warehouse.getId()));
+            stock.setProductItem(stockedItem);
+            stock.setWarehouse(warehouse);
+            stock.setQty(3);
+            stock.setSKU("OLD-SKU");
+            entityManager.persist(stock);
+            warehouseId = warehouse.getId();
+            newItemId = newItem.getId();
+            stockedItemId = stockedItem.getId();
+        });
+    }
+
+    @Test
+    void testValidRowsAreUpsertedAndBadRowsReported() throws Exception {
+        Path file = sheet(List.of(
+                new Object[]{warehouseId, newItemId, 5, "NEW-SKU"},
+                new Object[]{warehouseId, stockedItemId, 9},
+                new Object[]{warehouseId, newItemId, "lots"},
+                new Object[]{},
+                new Object[]{warehouseId, 999_999, 1},
+                new Object[]{999_999, newItemId, 1},
+                new Object[]{warehouseId, stockedItemId, -1}));
+
+        WarehouseImportReport report = warehouseImportService.importXLSX(file);
+
+        assertEquals(6, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(4, 7, 8, 6), report.getErrors().stream().map(WarehouseImportReport.RowError::row).toList());
+        assertEquals("Quantity must be a whole number, was 'lots'", report.getErrors().get(0).message());
+        // Test: the new row is inserted, the existing row gets the new quantity and keeps its SKU
+        assertEquals(5, qty(newItemId));
+        assertEquals(9, qty(stockedItemId));
+        assertEquals("NEW-SKU", sku(newItemId));
+        assertEquals("OLD-SKU", sku(stockedItemId));
+    }
+
+    @Test
+    void testErrorListIsCapped() throws Exception {
+        properties.setMaxReportedErrors(2);
+        Path file = sheet(List.of(
+                new Object[]{warehouseId, 999_997, 1},
+                new Object[]{warehouseId, 999_998, 1},
+                new Object[]{warehouseId, 999_999, 1}));
+
+        WarehouseImportReport report = warehouseImportService.importXLSX(file);
+
+        assertEquals(3, report.getRejected());
+        assertEquals(2, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+    }
+
+    private ProductItem item(Product product) {
+        ProductItem item = new ProductItem();
+        item.setProduct(product);
+        item.setPrice(BigDecimal.TEN);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private Integer qty(Integer itemId) {
+        return jdbcTemplate.queryForObject("select quantity from product_item_in_warehouse where product_item_id = ? and warehouse_id = ?",
+                Integer.class, itemId, warehouseId);
+    }
+
+    private String sku(Integer itemId) {
+        return jdbcTemplate.queryForObject("select SKU from product_item_in_warehouse where product_item_id = ? and warehouse_id = ?",
+                String.class, itemId, warehouseId);
+    }
+
+    private Path sheet(List<Object[]> rows) throws Exception {
+        Path file = dir.resolve("import.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("WAREHOUSE_ID");
+            header.createCell(1).setCellValue("PD_ITEM_ID");
+            header.createCell(2).setCellValue("QTY");
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = sheet.createRow(i + 1);
+                Object[] cells = rows.get(i);
+                for (int c = 0; c < cells.length; c++) {
+                    if (cells[c] instanceof Integer number) row.createCell(c).setCellValue(number);
+                    else row.createCell(c).setCellValue((String) cells[c]);
+                }
+            }
+            workbook.write(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ZaloPayProperties;
+import com.nhs.individual.configuration.ZaloPayClientConfiguration;
+import com.nhs.individual.exception.PaymentGatewayException;
+import com.nhs.individual.zalopay.ZaloPayStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ZaloPayGateway against a local stub of the ZaloPay API
+ * Tests that calls share pooled keep-alive connections and that failures surface as PaymentGatewayException
+ */
+class ZaloPayGatewayTest {
+    private ZaloPayStubServer stub;
+    private ConnectionProvider connectionProvider;
+    private ZaloPayGateway gateway;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new ZaloPayStubServer();
+        ZaloPayProperties properties = new ZaloPayProperties();
+        properties.setAppId(2554);
+        properties.setKey1("key1");
+        properties.getEndpoints().setCreate(stub.url("/v2/create"));
+        properties.getEndpoints().setQuery(stub.url("/v2/query"));
+        properties.getHttp().setMaxConnections(4);
+        properties.getHttp().setResponseTimeout(Duration.ofMillis(500));
+        ZaloPayClientConfiguration configuration = new ZaloPayClientConfiguration();
+        connectionProvider = configuration.zaloPayConnectionProvider(properties);
+        gateway = new ZaloPayGateway(configuration.zaloPayWebClient(connectionProvider, properties), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        stub.close();
+    }
+
+    @Test
+    void testSequentialCallsReuseConnections() throws Exception {
+        stub.reply("/v2/query", 200, "{\"return_code\":3}");
+        for (int i = 0; i < 5; i++) {
+            assertEquals("{\"return_code\":3}", gateway.queryOrder("251217_" + i + "_1").get(5, TimeUnit.SECONDS));
+        }
+        // Test: signed form parameters arrive and kept-alive connections are reused instead of opened per call
+        assertEquals(5, stub.requests().size());
+        assertEquals("251217_4_1", stub.requests().get(4).form().get("app_trans_id"));
+        assertNotNull(stub.requests().get(4).form().get("mac"));
+        assertTrue(stub.requests().stream().map(ZaloPayStubServer.Request::clientPort).distinct().count() < 5);
+    }
+
+    @Test
+    void testConcurrentCallsStayWithinThePool() throws Exception {
+        stub.reply("/v2/create", 200, "{\"return_code\":1}", Duration.ofMillis(100));
+        CompletableFuture<?>[] calls = IntStream.range(0, 12)
+                .mapToObj(i -> gateway.createOrder(Map.of("app_trans_id", "251217_" + i + "_1")))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(calls).get(10, TimeUnit.SECONDS);
+        // Test: 12 overlapping calls are served by at most maxConnections sockets
+        assertEquals(12, stub.requests().size());
+        assertTrue(stub.requests().stream().map(ZaloPayStubServer.Request::clientPort).distinct().count() <= 4);
+    }
+
+    @Test
+    void testHttpErrorAndTimeoutFailTheFuture() {
+        stub.reply("/v2/create", 500, "{}");
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> gateway.createOrder(Map.of()).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PaymentGatewayException.class, error.getCause());
+
+        stub.reply("/v2/query", 200, "{}", Duration.ofSeconds(2));
+        ExecutionException timeout = assertThrows(ExecutionException.class,
+                () -> gateway.queryOrder("251217_1_1").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PaymentGatewayException.class, timeout.getCause());
+    }
+}
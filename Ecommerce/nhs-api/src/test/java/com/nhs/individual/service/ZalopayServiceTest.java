@@ -0,0 +1,94 @@
+package com.nhs.individual.service;
+
+import com.nhs.individual.config.ZaloPayProperties;
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.constant.PaymentStatus;
+import com.nhs.individual.domain.ShopOrderPayment;
+import com.nhs.individual.domain.ShopOrderStatus;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ZalopayService
+ * Tests how a payment ZaloPay reports as paid is settled against the order's current status
+ */
+class ZalopayServiceTest {
+    private static final String APP_TRANS_ID = "251217_5_1";
+
+    private ShopOrderStatusService shopOrderStatusService;
+    private ShopOrderPaymentService shopOrderPaymentService;
+    private ZalopayService zalopayService;
+    private ShopOrderPayment payment;
+
+    @BeforeEach
+    void setUp() {
+        shopOrderStatusService = mock(ShopOrderStatusService.class);
+        shopOrderPaymentService = mock(ShopOrderPaymentService.class);
+        zalopayService = new ZalopayService(new ZaloPayProperties(), mock(ShopOrderService.class), shopOrderStatusService,
+                shopOrderPaymentService, mock(ZaloPayGateway.class), mock(ThreadPoolTaskExecutor.class),
+                mock(PlatformTransactionManager.class));
+        payment = new ShopOrderPayment();
+        payment.setStatus(PaymentStatus.PENDING.value);
+        when(shopOrderPaymentService.findByOrderId(5)).thenReturn(Optional.of(payment));
+    }
+
+    @Test
+    void testPaymentOnCancelledOrderIsFlaggedForRefund() {
+        currentStatus(OrderStatus.CANCELLED);
+
+        assertTrue(zalopayService.handleSuccessfulPayment(5, APP_TRANS_ID, new JSONObject().put("zp_trans_id", 9876)));
+
+        assertEquals(PaymentStatus.REFUND_REQUIRED.value, payment.getStatus());
+        assertEquals("9876", payment.getOrderNumber());
+        verify(shopOrderStatusService, never()).markAsPaid(anyInt(), anyString());
+    }
+
+    @Test
+    void testWaitingOrderIsMarkedPaid() {
+        currentStatus(OrderStatus.PENDING_PAYMENT);
+
+        assertTrue(zalopayService.handleSuccessfulPayment(5, APP_TRANS_ID, new JSONObject().put("zp_trans_id", 9876)));
+
+        verify(shopOrderStatusService).markAsPaid(5, "9876");
+        assertEquals(PaymentStatus.PAID.value, payment.getStatus());
+        assertEquals("9876", payment.getOrderNumber());
+    }
+
+    @Test
+    void testRepeatedDeliveryIsSettled() {
+        currentStatus(OrderStatus.PENDING_PAYMENT);
+        zalopayService.handleSuccessfulPayment(5, APP_TRANS_ID, new JSONObject().put("zp_trans_id", 9876));
+        currentStatus(OrderStatus.PAID);
+
+        // Test: the second delivery finds the order PAID and does not try PAID -> PAID
+        assertTrue(zalopayService.handleSuccessfulPayment(5, APP_TRANS_ID, new JSONObject().put("zp_trans_id", 9876)));
+        verify(shopOrderStatusService, times(1)).markAsPaid(anyInt(), anyString());
+        verify(shopOrderPaymentService, times(1)).save(payment);
+    }
+
+    @Test
+    void testOrderConfirmedByAdminIsSettled() {
+        currentStatus(OrderStatus.CONFIRMED);
+
+        assertTrue(zalopayService.handleSuccessfulPayment(5, APP_TRANS_ID, new JSONObject().put("zp_trans_id", 9876)));
+
+        verify(shopOrderStatusService, never()).markAsPaid(anyInt(), anyString());
+        verify(shopOrderStatusService, never()).confirmOrder(anyInt(), anyString());
+        assertEquals(PaymentStatus.PAID.value, payment.getStatus());
+    }
+
+    private void currentStatus(OrderStatus status) {
+        ShopOrderStatus current = new ShopOrderStatus();
+        current.setStatus(status.id);
+        when(shopOrderStatusService.getCurrentStatus(5)).thenReturn(Optional.of(current));
+    }
+}
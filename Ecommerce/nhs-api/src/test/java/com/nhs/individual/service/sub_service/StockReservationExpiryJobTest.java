@@ -0,0 +1,60 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.config.StockReservationProperties;
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.domain.ShopOrderStatus;
+import com.nhs.individual.service.ShopOrderPaymentService;
+import com.nhs.individual.service.ShopOrderStatusService;
+import com.nhs.individual.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for StockReservationExpiryJob
+ * Tests that an expired hold is kept while the order's ZaloPay payment can still complete
+ */
+class StockReservationExpiryJobTest {
+    private StockReservationService stockReservationService;
+    private ShopOrderStatusService shopOrderStatusService;
+    private ShopOrderPaymentService shopOrderPaymentService;
+    private StockReservationExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationService = mock(StockReservationService.class);
+        shopOrderStatusService = mock(ShopOrderStatusService.class);
+        shopOrderPaymentService = mock(ShopOrderPaymentService.class);
+        job = new StockReservationExpiryJob(stockReservationService, shopOrderStatusService, shopOrderPaymentService,
+                new StockReservationProperties());
+        ShopOrderStatus pending = new ShopOrderStatus();
+        pending.setStatus(OrderStatus.PENDING_PAYMENT.id);
+        when(stockReservationService.findExpiredOrderIds(anyInt())).thenReturn(List.of(5));
+        when(shopOrderStatusService.getCurrentStatus(5)).thenReturn(Optional.of(pending));
+    }
+
+    @Test
+    void testTrackedPaymentKeepsTheHold() {
+        when(shopOrderPaymentService.isAwaitingProvider(5)).thenReturn(true);
+        Instant before = Instant.now();
+        job.expireHolds();
+
+        verify(stockReservationService).extend(eq(5), argThat(until -> until.isAfter(before)));
+        verify(shopOrderStatusService, never()).cancelOrder(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void testUntrackedPaymentCancelsTheOrder() {
+        when(shopOrderPaymentService.isAwaitingProvider(5)).thenReturn(false);
+        job.expireHolds();
+
+        verify(shopOrderStatusService).cancelOrder(eq(5), anyString(), anyString());
+        verify(stockReservationService, never()).extend(anyInt(), any());
+    }
+}
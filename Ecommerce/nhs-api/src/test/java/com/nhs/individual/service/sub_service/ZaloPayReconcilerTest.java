@@ -0,0 +1,79 @@
+package com.nhs.individual.service.sub_service;
+
+import com.nhs.individual.config.ZaloPayProperties;
+import com.nhs.individual.dto.PaymentCheck;
+import com.nhs.individual.service.ShopOrderPaymentService;
+import com.nhs.individual.service.ZaloPayGateway;
+import com.nhs.individual.service.ZalopayService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ZaloPayReconciler
+ * Tests that a payment ZaloPay reports as paid is kept until it is settled here, within max-polling-attempts
+ */
+class ZaloPayReconcilerTest {
+    private static final PaymentCheck CHECK = new PaymentCheck(11, 5, "251217_5_1", 2);
+    private static final PaymentCheck LAST_CHECK = new PaymentCheck(11, 5, "251217_5_1", 7);
+
+    private ZaloPayGateway gateway;
+    private ZalopayService zalopayService;
+    private ShopOrderPaymentService paymentService;
+    private ZaloPayReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        gateway = mock(ZaloPayGateway.class);
+        zalopayService = mock(ZalopayService.class);
+        paymentService = mock(ShopOrderPaymentService.class);
+        ZaloPayProperties properties = new ZaloPayProperties();
+        properties.setMaxPollingAttempts(8);
+        reconciler = new ZaloPayReconciler(gateway, zalopayService, paymentService, properties);
+        when(gateway.queryOrder(CHECK.appTransId())).thenReturn(CompletableFuture.completedFuture("{\"return_code\":1}"));
+    }
+
+    @Test
+    void testSettledPaymentIsDropped() {
+        due(CHECK);
+        when(zalopayService.handleSuccessfulPayment(eq(5), eq("251217_5_1"), any())).thenReturn(true);
+        reconciler.reconcile();
+        verify(paymentService).scheduleNextCheck(11, 3, null);
+    }
+
+    @Test
+    void testFailedSettlementIsCheckedAgain() {
+        due(CHECK);
+        when(zalopayService.handleSuccessfulPayment(eq(5), eq("251217_5_1"), any())).thenThrow(new IllegalStateException("db down"));
+        Instant before = Instant.now();
+        reconciler.reconcile();
+        verify(paymentService).scheduleNextCheck(eq(11), eq(3), argThat(next -> next != null && next.isAfter(before)));
+    }
+
+    @Test
+    void testConcurrentSettlementIsCheckedAgain() {
+        due(CHECK);
+        when(zalopayService.handleSuccessfulPayment(eq(5), eq("251217_5_1"), any())).thenReturn(false);
+        reconciler.reconcile();
+        verify(paymentService).scheduleNextCheck(eq(11), eq(3), notNull());
+    }
+
+    @Test
+    void testFailingSettlementStopsAtMaxPollingAttempts() {
+        due(LAST_CHECK);
+        when(zalopayService.handleSuccessfulPayment(eq(5), eq("251217_5_1"), any())).thenThrow(new IllegalStateException("db down"));
+        reconciler.reconcile();
+        // Test: the cap holds for paid payments too, so a broken one is not retried and logged forever
+        verify(paymentService).scheduleNextCheck(11, 8, null);
+    }
+
+    private void due(PaymentCheck check) {
+        when(paymentService.findDueForCheck(any(), anyInt())).thenReturn(List.of(check));
+    }
+}
@@ -0,0 +1,75 @@
+package com.nhs.individual.utils;
+
+import com.nhs.individual.exception.IllegalInputException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for KeysetCursor
+ * Tests that tokens round-trip values, nulls included, and are refused for another sort or direction
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testValuesRoundTrip() {
+        Date date = new Date(1_734_400_000_123L);
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of("orderDate", Sort.Direction.DESC, date, 42).encode(),
+                "orderDate", Sort.Direction.DESC);
+        assertEquals(date, cursor.dateValue());
+        assertEquals(42, cursor.getId());
+        assertEquals(Sort.Direction.DESC, cursor.getDirection());
+
+        Instant instant = Instant.parse("2024-12-17T01:02:03.456789Z");
+        assertEquals(instant, KeysetCursor.decode(KeysetCursor.of("createAt", Sort.Direction.DESC, instant, 1).encode(),
+                "createAt", Sort.Direction.DESC).instantValue());
+        // Test: separators inside the value do not shift the id
+        KeysetCursor name = KeysetCursor.decode(KeysetCursor.of("name", Sort.Direction.ASC, "a|b|c", 9).encode(),
+                "name", Sort.Direction.ASC);
+        assertEquals("a|b|c", name.getValue());
+        assertEquals(9, name.getId());
+    }
+
+    @Test
+    void testNullValueIsKeptApartFromText() {
+        KeysetCursor empty = KeysetCursor.decode(KeysetCursor.of("name", Sort.Direction.ASC, null, 5).encode(),
+                "name", Sort.Direction.ASC);
+        assertNull(empty.getValue());
+        assertNull(empty.dateValue());
+        assertNull(empty.instantValue());
+        assertEquals(5, empty.getId());
+
+        // Test: a product literally named "null" or "~" stays a value
+        assertEquals("null", KeysetCursor.decode(KeysetCursor.of("name", Sort.Direction.ASC, "null", 5).encode(),
+                "name", Sort.Direction.ASC).getValue());
+        assertEquals("~", KeysetCursor.decode(KeysetCursor.of("name", Sort.Direction.ASC, "~", 5).encode(),
+                "name", Sort.Direction.ASC).getValue());
+    }
+
+    @Test
+    void testOtherSortOrDirectionIsRejected() {
+        String token = KeysetCursor.of("orderDate", Sort.Direction.DESC, new Date(), 3).encode();
+
+        assertThrows(IllegalInputException.class, () -> KeysetCursor.decode(token, "id", Sort.Direction.DESC));
+        assertThrows(IllegalInputException.class, () -> KeysetCursor.decode(token, "orderDate", Sort.Direction.ASC));
+    }
+
+    @Test
+    void testMalformedTokensAreRejected() {
+        assertThrows(IllegalInputException.class, () -> KeysetCursor.decode("not base64!", "id", Sort.Direction.ASC));
+        assertThrows(IllegalInputException.class, () -> KeysetCursor.decode(token("id|ASC|7"), "id", Sort.Direction.ASC));
+        assertThrows(IllegalInputException.class, () -> KeysetCursor.decode(token("id|UP|=7|7"), "id", Sort.Direction.ASC));
+        // Test: tokens from before the null marker are refused rather than read as the text they carry
+        assertThrows(IllegalInputException.class, () -> KeysetCursor.decode(token("name|ASC|null|7"), "name", Sort.Direction.ASC));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.nhs.individual.utils;
+
+import com.nhs.individual.domain.Category;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.ProductItem;
+import com.nhs.individual.domain.VariationOption;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ObjectMerger
+ * Tests that only differing non-null properties are written and reported, and collections only when included
+ */
+class ObjectMergerTest {
+
+    @Test
+    void testReportsOnlyChangedProperties() {
+        Product stored = product(1, "Phone", category(7));
+        Product patch = new Product();
+        patch.setName("Phone");
+        patch.setCategory(category(7));
+
+        // Test: same name, and another instance of the same category, is not a change
+        assertEquals(Set.of(), ObjectMerger.of(Product.class).merge(stored, patch));
+
+        patch.setName("Phone Pro");
+        patch.setDescription("New");
+        assertEquals(List.of("name", "description"), List.copyOf(ObjectMerger.of(Product.class).merge(stored, patch)));
+        assertEquals("Phone Pro", stored.getName());
+        assertEquals("New", stored.getDescription());
+        assertEquals(1, stored.getId());
+    }
+
+    @Test
+    void testBigDecimalsCompareByValue() {
+        ProductItem stored = new ProductItem();
+        stored.setPrice(new BigDecimal("10.00"));
+        ProductItem patch = new ProductItem();
+        patch.setPrice(new BigDecimal("10"));
+
+        assertTrue(ObjectMerger.of(ProductItem.class).merge(stored, patch).isEmpty());
+        assertEquals(new BigDecimal("10.00"), stored.getPrice());
+    }
+
+    @Test
+    void testCollectionsOnlyWhenIncluded() {
+        ProductItem stored = new ProductItem();
+        stored.setOptions(List.of(option(1)));
+        ProductItem patch = new ProductItem();
+        patch.setOptions(List.of(option(1), option(2)));
+
+        assertTrue(ObjectMerger.of(ProductItem.class).merge(stored, patch).isEmpty());
+        assertEquals(1, stored.getOptions().size());
+
+        ObjectMerger<ProductItem> withOptions = ObjectMerger.of(ProductItem.class).including("options");
+        assertEquals(Set.of("options"), withOptions.merge(stored, patch));
+        assertEquals(2, stored.getOptions().size());
+        // Test: the same ids in another order are not a change
+        patch.setOptions(List.of(option(2), option(1)));
+        assertTrue(withOptions.merge(stored, patch).isEmpty());
+    }
+
+    @Test
+    void testExcludedAndUnknownProperties() {
+        Product stored = product(1, "Phone", null);
+        Product patch = product(null, "Phone Pro", null);
+        patch.setPicture("/uploads/new.png");
+
+        assertEquals(Set.of("name"), ObjectMerger.of(Product.class).excluding("picture").merge(stored, patch));
+        assertNull(stored.getPicture());
+        assertThrows(IllegalArgumentException.class, () -> ObjectMerger.of(Product.class).excluding("colour"));
+        assertThrows(IllegalArgumentException.class, () -> ObjectMerger.of(Product.class).including("GRAPH_LIST"));
+    }
+
+    private Product product(Integer id, String name, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        return product;
+    }
+
+    private Category category(int id) {
+        Category category = new Category();
+        category.setId(id);
+        return category;
+    }
+
+    private VariationOption option(int id) {
+        VariationOption option = new VariationOption();
+        option.setId(id);
+        return option;
+    }
+}
@@ -0,0 +1,30 @@
+package com.nhs.individual.config;
+
+import com.nhs.individual.secure.JwtProvider;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token verification meters: cache.gets / cache.size for the verified-token cache
+ * (cache=jwt.verified) and the time spent on signature verification
+ */
+@Configuration
+public class JwtMetricsConfiguration {
+    @Bean
+    MeterBinder jwtProviderMetrics(JwtProvider jwtProvider) {
+        return registry -> {
+            if (jwtProvider.getVerifiedTokens() != null) {
+                CaffeineCacheMetrics.monitor(registry, jwtProvider.getVerifiedTokens(), "jwt.verified");
+            }
+            FunctionTimer.builder("jwt.verification", jwtProvider,
+                            JwtProvider::getVerificationCount, JwtProvider::getVerificationNanos, TimeUnit.NANOSECONDS)
+                    .description("Access token signature verifications that missed the verified-token cache")
+                    .register(registry);
+        };
+    }
+}
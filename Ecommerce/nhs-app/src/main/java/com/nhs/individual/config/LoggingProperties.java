@@ -0,0 +1,30 @@
+package com.nhs.individual.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request correlation and per-request trace settings
+ * Maps to nhs.logging.* in application.yml
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "nhs.logging")
+public class LoggingProperties {
+
+    /**
+     * Header carrying the correlation id; reused when the caller sends one, echoed on the response
+     */
+    private String requestIdHeader = "X-Request-Id";
+
+    /**
+     * Header that switches on DEBUG logging for a single request
+     */
+    private String traceHeader = "X-Debug-Trace";
+
+    /**
+     * Value the trace header must carry. Empty disables per-request tracing
+     */
+    private String traceToken = "";
+}
@@ -0,0 +1,26 @@
+package com.nhs.individual.config;
+
+import com.nhs.individual.service.sub_service.ZaloPayReconciler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Payment reconciliation gauges, refreshed at the end of every reconciler run
+ */
+@Configuration
+public class PaymentMetricsConfiguration {
+    @Bean
+    MeterBinder zaloPayReconcilerMetrics(ZaloPayReconciler reconciler) {
+        return registry -> {
+            Gauge.builder("payment.reconciler.backlog", reconciler, ZaloPayReconciler::getBacklog)
+                    .description("Pending ZaloPay payments waiting for a status check")
+                    .register(registry);
+            Gauge.builder("payment.reconciler.lag", reconciler, ZaloPayReconciler::getLagSeconds)
+                    .description("Seconds the oldest due status check is behind schedule")
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+}
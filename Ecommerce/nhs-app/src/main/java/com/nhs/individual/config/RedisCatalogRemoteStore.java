@@ -0,0 +1,69 @@
+package com.nhs.individual.config;
+
+import com.nhs.individual.service.CatalogRemoteStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis backed {@link CatalogRemoteStore}. Keys look like {@code nhs:catalog.products:<normalized key>}.
+ * Errors are logged and counted, never thrown, so a Redis outage degrades to plain database reads.
+ */
+@Slf4j
+public class RedisCatalogRemoteStore implements CatalogRemoteStore {
+    private static final String PREFIX = "nhs:";
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+
+    public RedisCatalogRemoteStore(RedisTemplate<String, byte[]> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.hits = Counter.builder("catalog.cache.remote").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("catalog.cache.remote").tag("result", "miss").register(meterRegistry);
+        this.errors = Counter.builder("catalog.cache.remote").tag("result", "error").register(meterRegistry);
+    }
+
+    @Override
+    public byte[] get(String region, String key) {
+        try {
+            byte[] value = redisTemplate.opsForValue().get(PREFIX + region + ":" + key);
+            (value == null ? misses : hits).increment();
+            return value;
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Redis catalog read failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String region, String key, byte[] value, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(PREFIX + region + ":" + key, value, ttl);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Redis catalog write failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void clear(String region) {
+        ScanOptions options = ScanOptions.scanOptions().match(PREFIX + region + ":*").count(500).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> keys = new ArrayList<>();
+            cursor.forEachRemaining(keys::add);
+            if (!keys.isEmpty()) redisTemplate.unlink(keys);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Redis catalog invalidation failed: {}", e.getMessage());
+        }
+    }
+}
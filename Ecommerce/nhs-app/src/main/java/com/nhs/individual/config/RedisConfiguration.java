@@ -1,38 +1,33 @@
-//package com.nhs.individual.config;
-//
-//import com.nhs.individual.Domain.RefreshToken;
-//import org.springframework.beans.factory.annotation.Qualifier;
-//import org.springframework.beans.factory.annotation.Value;
-//import org.springframework.boot.autoconfigure.cache.CacheProperties;
-//import org.springframework.context.annotation.Bean;
-//import org.springframework.context.annotation.Configuration;
-//import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
-//import org.springframework.data.redis.core.RedisTemplate;
-//
-//@Configuration
-//public class RedisConfiguration {
-//    @Value("spring.data.redis.host")
-//    private String host;
-//    @Value("spring.data.redis.port")
-//    private String port;
-//    @Bean
-//    JedisConnectionFactory redisConnectionFactory(){
-//        JedisConnectionFactory factory=new JedisConnectionFactory();
-//        return  factory;
-//    }
-//    @Bean
-//    @Qualifier("refreshTokenStore")
-//    RedisTemplate<Integer, RefreshToken> redisRefreshToken() {
-//        RedisTemplate<Integer, RefreshToken> redisTemplate = new RedisTemplate<>();
-//        redisTemplate.setConnectionFactory(redisConnectionFactory());
-//        return redisTemplate;
-//    }
-//    @Bean
-//    @Qualifier("generalStore")
-//    RedisTemplate<Integer,Object> redisTemplate() {
-//        RedisTemplate<Integer, Object> redisTemplate = new RedisTemplate<>();
-//        redisTemplate.setConnectionFactory(redisConnectionFactory());
-//        return redisTemplate;
-//    }
-//
-//}
+package com.nhs.individual.config;
+
+import com.nhs.individual.service.CatalogRemoteStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Shared tier of the product catalog cache. Only active with nhs.cache.redis.enabled=true;
+ * connection settings come from the standard spring.data.redis.* properties.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "nhs.cache.redis", name = "enabled", havingValue = "true")
+public class RedisConfiguration {
+    @Bean
+    RedisTemplate<String, byte[]> catalogRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        return redisTemplate;
+    }
+
+    @Bean
+    CatalogRemoteStore redisCatalogRemoteStore(RedisTemplate<String, byte[]> catalogRedisTemplate,
+                                               MeterRegistry meterRegistry) {
+        return new RedisCatalogRemoteStore(catalogRedisTemplate, meterRegistry);
+    }
+}
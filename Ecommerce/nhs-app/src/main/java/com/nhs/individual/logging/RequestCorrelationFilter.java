@@ -0,0 +1,64 @@
+package com.nhs.individual.logging;
+
+import com.nhs.individual.config.LoggingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * First filter of every request. Puts a correlation id in the MDC (logged as {@code [requestId]})
+ * and returns it in the response header. A request carrying the configured trace token in
+ * nhs.logging.trace-header also gets {@link #TRACE} set, which {@link RequestTraceTurboFilter}
+ * turns into DEBUG output for that request only.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RequestCorrelationFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID = "requestId";
+    public static final String TRACE = "trace";
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final LoggingProperties properties;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(properties.getRequestIdHeader());
+        // Client ids end up in every log line, so only well-formed ones are reused
+        if (requestId == null || !SAFE_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        MDC.put(REQUEST_ID, requestId);
+        if (traceRequested(request)) MDC.put(TRACE, "true");
+        response.setHeader(properties.getRequestIdHeader(), requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID);
+            MDC.remove(TRACE);
+        }
+    }
+
+    private boolean traceRequested(HttpServletRequest request) {
+        String token = properties.getTraceToken();
+        String presented = request.getHeader(properties.getTraceHeader());
+        if (token == null || token.isEmpty() || presented == null) return false;
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
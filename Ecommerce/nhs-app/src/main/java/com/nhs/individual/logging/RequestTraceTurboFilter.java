@@ -0,0 +1,40 @@
+package com.nhs.individual.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets every event of the configured loggers through, whatever their level, while the current
+ * request is traced (see {@link RequestCorrelationFilter}). Other requests keep the normal levels.
+ * <pre>
+ * &lt;turboFilter class="com.nhs.individual.logging.RequestTraceTurboFilter"&gt;
+ *     &lt;logger&gt;com.nhs.individual&lt;/logger&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class RequestTraceTurboFilter extends TurboFilter {
+    private final List<String> loggers = new ArrayList<>();
+
+    /**
+     * Logger name prefix to trace; repeatable
+     */
+    public void addLogger(String logger) {
+        loggers.add(logger);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || MDC.get(RequestCorrelationFilter.TRACE) == null) return FilterReply.NEUTRAL;
+        for (String prefix : loggers) {
+            if (logger.getName().startsWith(prefix)) return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,57 @@
+package com.nhs.individual.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one event in {@code rate} for a hot-path logger, for events at or below {@code level}
+ * (INFO by default). Warnings and errors above that level always pass. Declare it after
+ * {@link RequestTraceTurboFilter} so traced requests are never sampled.
+ * <pre>
+ * &lt;turboFilter class="com.nhs.individual.logging.SamplingTurboFilter"&gt;
+ *     &lt;logger&gt;com.nhs.individual.security.Filter.JwtFilter&lt;/logger&gt;
+ *     &lt;rate&gt;100&lt;/rate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private final AtomicLong counter = new AtomicLong();
+    private String logger;
+    private Level level = Level.INFO;
+    private int rate = 1;
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    @Override
+    public void start() {
+        if (logger == null || logger.isEmpty()) {
+            addError("No logger set for " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // level is null when logback only asks whether a level is enabled
+        if (!isStarted() || rate == 1 || level == null || format == null) return FilterReply.NEUTRAL;
+        if (level.toInt() > this.level.toInt()) return FilterReply.NEUTRAL;
+        if (!logger.getName().startsWith(this.logger)) return FilterReply.NEUTRAL;
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -2,6 +2,7 @@ package com.nhs.individual.security.Filter;
 
 import com.nhs.individual.secure.IUserDetail;
 import com.nhs.individual.service.AccountService;
+import com.nhs.individual.service.TokenVersionService;
 import com.nhs.individual.secure.JwtProvider;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -30,6 +31,8 @@ public class JwtFilter extends OncePerRequestFilter {
     private AccountService service;
     @Autowired(required = false)
     private JwtProvider jwtProvider;
+    @Autowired(required = false)
+    private TokenVersionService tokenVersionService;
 
     // List of paths that should skip JWT processing (permitAll endpoints)
     private static final String[] PERMIT_ALL_PATHS = {
@@ -56,14 +59,17 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
-        log.info("[JwtFilter] ===== Processing authenticated request =====");
-        log.info("[JwtFilter] Request path: {}", requestPath);
-        log.info("[JwtFilter] Request method: {}", request.getMethod());
+        log.debug("[JwtFilter] Processing {} {}", request.getMethod(), requestPath);
         if (service == null) {
             log.error("[JwtFilter] ❌ service is NULL! JWT processing cannot proceed.");
             filterChain.doFilter(request, response);
             return;
         }
+        if (tokenVersionService == null) {
+            log.error("[JwtFilter] ❌ tokenVersionService is NULL! JWT processing cannot proceed.");
+            filterChain.doFilter(request, response);
+            return;
+        }
         if (jwtProvider == null) {
             log.error("[JwtFilter] ❌ jwtProvider is NULL! JWT processing cannot proceed.");
             filterChain.doFilter(request, response);
@@ -73,7 +79,6 @@ public class JwtFilter extends OncePerRequestFilter {
         try {
             // 1) Extract Authorization header
             String authHeader = request.getHeader("Authorization");
-            log.info("[JwtFilter] Authorization header present: {}", authHeader != null ? "YES" : "NO");
 
             // 2) Strip Bearer prefix manually
             String rawToken = null;
@@ -82,7 +87,7 @@ public class JwtFilter extends OncePerRequestFilter {
             }
 
             if (rawToken == null || rawToken.isEmpty()) {
-                log.warn("[JwtFilter] ⚠ No Bearer token found. Skipping authentication.");
+                log.debug("[JwtFilter] No Bearer token found. Skipping authentication.");
                 filterChain.doFilter(request, response);
                 return;
             }
@@ -96,7 +101,8 @@ public class JwtFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // 4) Load user
+            // 4) Build the principal from the verified claims; the account row is only
+            //    consulted through TokenVersionService's cache
             final String username = claims.getSubject();
             if (username == null || username.isEmpty()) {
                 log.error("ERROR: Token subject (username) is null or empty");
@@ -104,24 +110,32 @@ public class JwtFilter extends OncePerRequestFilter {
                 return;
             }
 
-            log.info("[JwtFilter] Looking up user by username: {}", username);
-            service.findByUsername(username)
-                    .map(IUserDetail::new)
-                    .ifPresentOrElse(user -> {
-                        log.info("[JwtFilter] ✓ User found: {}", user.getUsername());
-                        log.info("[JwtFilter] 🟢 User: {}, Roles/Authorities: {}", user.getUsername(), user.getAuthorities());
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.info("[JwtFilter] ✓ SecurityContext set with user {}", user.getUsername());
-                    }, () -> {
-                        log.error("ERROR: Username from token not found in DB: {}", username);
-                    });
+            IUserDetail user = jwtProvider.toPrincipal(claims);
+            if (user == null) {
+                // Token issued before account claims were added, fall back to loading the account
+                log.debug("[JwtFilter] Token without account claims, looking up user by username: {}", username);
+                user = service.findByUsername(username).map(IUserDetail::new).orElse(null);
+                if (user == null) {
+                    log.error("ERROR: Username from token not found in DB: {}", username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+            } else if (!tokenVersionService.isCurrent(user)) {
+                log.warn("[JwtFilter] ⚠ Token of account {} was revoked or the account is locked", user.getId());
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            log.debug("[JwtFilter] 🟢 User: {}, Roles/Authorities: {}", user.getUsername(), user.getAuthorities());
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            // Sampled in logback-spring.xml, this fires on every authenticated request
+            log.info("[JwtFilter] ✓ Authenticated {} for {} {}", user.getUsername(), request.getMethod(), requestPath);
 
         } catch (Exception e) {
             log.error("[JwtFilter] ❌ Error processing JWT filter for request: {}", requestPath, e);
-            log.error("[JwtFilter] Exception stack trace:", e);
             SecurityContextHolder.clearContext();
         }
 
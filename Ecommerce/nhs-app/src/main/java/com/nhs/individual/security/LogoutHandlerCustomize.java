@@ -2,6 +2,7 @@ package com.nhs.individual.security;
 
 import com.nhs.individual.secure.IUserDetail;
 import com.nhs.individual.service.RefreshTokenService;
+import com.nhs.individual.service.TokenVersionService;
 import com.nhs.individual.utils.RequestUtils;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +27,8 @@ public class LogoutHandlerCustomize implements LogoutHandler {
     RefreshTokenService refreshTokenService;
     @Autowired
     RequestUtils requestUtils;
+    @Autowired
+    TokenVersionService tokenVersionService;
     
     @Override
     public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
@@ -50,6 +53,7 @@ public class LogoutHandlerCustomize implements LogoutHandler {
             if (accountId != null) {
                 log.debug("[LogoutHandler] Found account ID {} from authentication, invalidating all refresh tokens", accountId);
                 refreshTokenService.deleteByAccountId(accountId);
+                tokenVersionService.revoke(accountId);
             }
         }
         
@@ -38,11 +38,11 @@ public class Oauth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
             IUserDetail account = (IUserDetail) authentication.getPrincipal();
             
             // Set cookies (for httpOnly cookie support)
-            response.addHeader(HttpHeaders.SET_COOKIE, authService.accessTokenCookie(account.getUsername()).toString());
+            response.addHeader(HttpHeaders.SET_COOKIE, authService.accessTokenCookie(account).toString());
             response.addHeader(HttpHeaders.SET_COOKIE, authService.refreshTokenCookie(account.getId()).toString());
             
             // Generate tokens to append to URL
-            String accessToken = jwtProvider.generateToken(account.getUsername());
+            String accessToken = jwtProvider.generateToken(account);
             
             // Get refresh token from service
             com.nhs.individual.domain.Account accountEntity = new com.nhs.individual.domain.Account();
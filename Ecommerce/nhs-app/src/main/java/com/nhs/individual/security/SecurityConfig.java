@@ -5,6 +5,7 @@ import com.nhs.individual.security.Filter.JwtFilter;
 import com.nhs.individual.security.Oauth2.Oauth2Service;
 import com.nhs.individual.security.Oauth2.Oauth2SuccessHandler;
 import com.nhs.individual.service.AccountService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -72,8 +73,11 @@ public class SecurityConfig {
                 .authorizeHttpRequests(req -> {
                     // Public endpoints - no authentication required
                     // OAuth2 endpoints (must be public for redirect flow)
-                    req.requestMatchers("/oauth2/**").permitAll()
-                    //upload endpoints
+                    // Async dispatch of a CompletableFuture result, the original request was already authorized
+                    req.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                    .requestMatchers("/oauth2/**").permitAll()
+                    //upload endpoints; export files are only handed out through /api/v1/export/{jobId}/file
+                    .requestMatchers("/uploads/exports/**").denyAll()
                     .requestMatchers("/uploads/**").permitAll()
                             // Login endpoints
                             .requestMatchers("/login/**").permitAll()
@@ -0,0 +1,37 @@
+-- Materialized read model for /api/v2/product (replaces the ProductOverView @Subselect)
+-- Hibernate ddl-auto creates the same table; this script is for environments managed by hand.
+
+USE WebServices;
+
+CREATE TABLE IF NOT EXISTS product_overview (
+    id           INT          NOT NULL PRIMARY KEY,
+    picture      VARCHAR(512),
+    category_id  INT,
+    description  TEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci,
+    name         VARCHAR(255),
+    manufacturer VARCHAR(512),
+    rate         DOUBLE,
+    rate_count   INT,
+    min_price    DOUBLE,
+    max_price    DOUBLE,
+    quantity     DOUBLE,
+    INDEX idx_product_overview_category (category_id),
+    INDEX idx_product_overview_min_price (min_price),
+    INDEX idx_product_overview_max_price (max_price)
+);
+
+-- Backfill (the application also does this on startup unless nhs.overview.rebuild-on-startup=false)
+INSERT INTO product_overview (id, picture, category_id, description, name, manufacturer, rate, rate_count, min_price, max_price, quantity)
+SELECT pd.id, pd.picture, pd.category_id, pd.description, pd.name, pd.manufacturer,
+       (SELECT AVG(cmt.rate) FROM comment cmt WHERE cmt.product_id = pd.id),
+       (SELECT COUNT(cmt.rate) FROM comment cmt WHERE cmt.product_id = pd.id),
+       (SELECT MIN(pdi.price) FROM product_item pdi WHERE pdi.product_id = pd.id),
+       (SELECT MAX(pdi.price) FROM product_item pdi WHERE pdi.product_id = pd.id),
+       (SELECT SUM(warehouse.quantity) FROM product_item pdi
+            JOIN product_item_in_warehouse warehouse ON warehouse.product_item_id = pdi.id
+        WHERE pdi.product_id = pd.id)
+FROM product pd
+ON DUPLICATE KEY UPDATE picture = VALUES(picture), category_id = VALUES(category_id),
+    description = VALUES(description), name = VALUES(name), manufacturer = VALUES(manufacturer),
+    rate = VALUES(rate), rate_count = VALUES(rate_count), min_price = VALUES(min_price),
+    max_price = VALUES(max_price), quantity = VALUES(quantity);
@@ -0,0 +1,19 @@
+-- Denormalized current order status (latest shop_order_status row) on shop_order
+-- Hibernate ddl-auto adds the columns and indexes; this script is for environments managed by hand.
+
+USE WebServices;
+
+ALTER TABLE shop_order
+    ADD COLUMN current_status INT NULL,
+    ADD COLUMN status_updated_at DATETIME NULL;
+
+-- Backfill (the application also does this on startup unless nhs.order.backfill-status-on-startup=false)
+UPDATE shop_order o
+    JOIN (SELECT shop_order_id, MAX(id) AS id FROM shop_order_status GROUP BY shop_order_id) latest
+        ON latest.shop_order_id = o.id
+    JOIN shop_order_status s ON s.id = latest.id
+SET o.current_status = s.status, o.status_updated_at = s.update_at
+WHERE o.current_status IS NULL;
+
+CREATE INDEX idx_shop_order_status_date ON shop_order (current_status, order_date);
+CREATE INDEX idx_shop_order_user_date ON shop_order (user_id, order_date);
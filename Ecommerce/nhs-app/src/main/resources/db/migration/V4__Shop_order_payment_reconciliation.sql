@@ -0,0 +1,11 @@
+-- Durable pending set of the ZaloPay status reconciler
+-- Hibernate ddl-auto adds the columns and index; this script is for environments managed by hand.
+
+USE WebServices;
+
+ALTER TABLE shop_order_payment
+    ADD COLUMN app_trans_id VARCHAR(45) NULL,
+    ADD COLUMN next_check_at DATETIME(6) NULL,
+    ADD COLUMN check_attempts INT NULL;
+
+CREATE INDEX idx_shop_order_payment_check ON shop_order_payment (status, next_check_at);
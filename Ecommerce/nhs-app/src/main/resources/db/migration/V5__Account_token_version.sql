@@ -0,0 +1,7 @@
+-- Token version checked against the "ver" claim of access tokens; bumped on logout and status changes
+-- Hibernate ddl-auto adds the column; this script is for environments managed by hand.
+
+USE WebServices;
+
+ALTER TABLE account
+    ADD COLUMN token_version INT NOT NULL DEFAULT 0;
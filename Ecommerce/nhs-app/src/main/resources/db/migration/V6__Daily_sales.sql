@@ -0,0 +1,39 @@
+-- Daily sales rollup for /api/v1/statistic/day/order (replaces the OrderPerDay / MostProductOrder @Subselect views)
+-- Hibernate ddl-auto creates the same tables; this script is for environments managed by hand.
+
+USE WebServices;
+
+CREATE TABLE IF NOT EXISTS daily_sales (
+    sales_date DATE           NOT NULL,
+    status     INT            NOT NULL,
+    orders     INT,
+    revenue    DECIMAL(20, 2),
+    PRIMARY KEY (sales_date, status)
+);
+
+CREATE TABLE IF NOT EXISTS daily_product_sales (
+    sales_date DATE           NOT NULL,
+    product_id INT            NOT NULL,
+    status     INT            NOT NULL,
+    orders     INT,
+    units      INT,
+    revenue    DECIMAL(20, 2),
+    PRIMARY KEY (sales_date, product_id, status)
+);
+
+-- Backfill (the application also does this on startup while daily_sales is empty,
+-- unless nhs.statistics.daily-sales.backfill-on-startup=false)
+INSERT INTO daily_sales (sales_date, status, orders, revenue)
+SELECT CAST(o.order_date AS DATE), o.current_status, COUNT(*), COALESCE(SUM(o.total), 0)
+FROM shop_order o
+WHERE o.current_status IS NOT NULL
+GROUP BY CAST(o.order_date AS DATE), o.current_status;
+
+INSERT INTO daily_product_sales (sales_date, product_id, status, orders, units, revenue)
+SELECT CAST(o.order_date AS DATE), pdi.product_id, o.current_status, COUNT(DISTINCT o.id),
+       COALESCE(SUM(ol.qty), 0), COALESCE(SUM(ol.total), 0)
+FROM shop_order o
+    JOIN order_line ol ON ol.order_id = o.id
+    JOIN product_item pdi ON pdi.id = ol.product_item_id
+WHERE o.current_status IS NOT NULL
+GROUP BY CAST(o.order_date AS DATE), pdi.product_id, o.current_status;
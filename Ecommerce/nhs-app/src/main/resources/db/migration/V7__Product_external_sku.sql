@@ -0,0 +1,12 @@
+-- Supplier SKUs that bulk product ingestion (POST /api/v1/product/ingest) upserts by
+-- Hibernate ddl-auto adds the columns and constraints; this script is for environments managed by hand.
+
+USE WebServices;
+
+ALTER TABLE product
+    ADD COLUMN external_sku VARCHAR(64) NULL,
+    ADD CONSTRAINT uk_product_external_sku UNIQUE (external_sku);
+
+ALTER TABLE product_item
+    ADD COLUMN external_sku VARCHAR(64) NULL,
+    ADD CONSTRAINT uk_product_item_external_sku UNIQUE (external_sku);
@@ -0,0 +1,24 @@
+-- Ancestor/descendant pairs of the category tree, used to filter products by a category and its subcategories
+-- Hibernate ddl-auto creates the same table; this script is for environments managed by hand.
+
+USE WebServices;
+
+CREATE TABLE IF NOT EXISTS category_closure (
+    ancestor_id   INT NOT NULL,
+    descendant_id INT NOT NULL,
+    depth         INT NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX idx_category_closure_descendant ON category_closure (descendant_id, ancestor_id);
+
+-- Backfill (the application also rewrites the table on startup and after every category write)
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE closure (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM category
+    UNION ALL
+    SELECT c.ancestor_id, child.id, c.depth + 1
+    FROM closure c
+        JOIN category child ON child.parent_category_id = c.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth FROM closure;
@@ -0,0 +1,35 @@
+package com.nhs.individual.benchmark;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.internal.StandardTableExporter;
+import org.hibernate.tool.schema.spi.Exporter;
+
+import java.util.Arrays;
+
+/**
+ * H2 dialect for the benchmarks that need the entity schema; the same rewrite of the MySQL-only
+ * column definitions as MySqlCompatibleH2Dialect in the nhs-api tests, which this module cannot see.
+ */
+public class BenchmarkH2Dialect extends H2Dialect {
+    private final StandardTableExporter tableExporter = new StandardTableExporter(this) {
+        @Override
+        public String[] getSqlCreateStrings(Table table, Metadata metadata, SqlStringGenerationContext context) {
+            return Arrays.stream(super.getSqlCreateStrings(table, metadata, context))
+                    .map(BenchmarkH2Dialect::toH2)
+                    .toArray(String[]::new);
+        }
+    };
+
+    @Override
+    public Exporter<Table> getTableExporter() {
+        return tableExporter;
+    }
+
+    private static String toH2(String ddl) {
+        return ddl.replaceAll("(?i)\\s+CHARACTER SET \\w+( COLLATE \\w+)?", "")
+                .replaceAll("(?i)TINYINT\\(\\d+\\)", "TINYINT");
+    }
+}
@@ -0,0 +1,84 @@
+package com.nhs.individual.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the committed baseline/results.json and exits with 1 when a
+ * benchmark got slower than the threshold.
+ * <p>
+ * A benchmark is identified by its name and parameters. Average, sample and single shot times regress
+ * when they grow, throughput when it drops. Benchmarks missing from either file are listed but never
+ * fail the comparison.
+ * <pre>
+ * java -cp nhs-benchmark/target/benchmarks.jar com.nhs.individual.benchmark.CompareToBaseline \
+ *     nhs-benchmark/baseline/results.json results.json [threshold percent, default 10]
+ * </pre>
+ */
+public final class CompareToBaseline {
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private CompareToBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareToBaseline <baseline.json> <results.json> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> result : current.entrySet()) {
+            JsonNode metric = result.getValue().path("primaryMetric");
+            double score = metric.path("score").asDouble();
+            String unit = metric.path("scoreUnit").asText();
+            JsonNode before = baseline.get(result.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %-70s %12.3f %s%n", result.getKey(), score, unit);
+                continue;
+            }
+            double baselineScore = before.path("primaryMetric").path("score").asDouble();
+            double change = (score - baselineScore) / baselineScore * 100;
+            double slower = "thrpt".equals(result.getValue().path("mode").asText()) ? -change : change;
+            boolean regressed = slower > threshold;
+            if (regressed) regressions++;
+            System.out.printf("%-10s %-70s %12.3f -> %12.3f %s (%+.1f%%)%n", regressed ? "REGRESSED" : "OK",
+                    result.getKey(), baselineScore, score, unit, change);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) System.out.printf("NOT RUN    %s%n", missing);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) more than %.0f%% slower than the baseline%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        Map<String, String> params = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = result.path("params").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = it.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        String name = result.path("benchmark").asText().replace("com.nhs.individual.benchmark.", "");
+        return params.isEmpty() ? name : name + params;
+    }
+}
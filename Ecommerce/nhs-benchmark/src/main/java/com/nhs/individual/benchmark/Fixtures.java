@@ -0,0 +1,222 @@
+package com.nhs.individual.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nhs.individual.constant.AccountStatus;
+import com.nhs.individual.constant.OrderStatus;
+import com.nhs.individual.domain.*;
+import com.nhs.individual.domain.EmbeddedId.ProductItemInWarehouseId;
+import com.nhs.individual.secure.IUserDetail;
+import com.nhs.individual.secure.JwtProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Objects shared by the benchmarks, built without a Spring context
+ */
+final class Fixtures {
+    static final String SECRET = "benchmark-secret-that-is-at-least-32-bytes-long";
+
+    private Fixtures() {
+    }
+
+    /**
+     * JwtProvider configured the way application-common.yml configures it
+     */
+    static JwtProvider jwtProvider() {
+        return jwtProvider(10_000);
+    }
+
+    /**
+     * Same, with nhs.token.verified-cache.maximum-size set; 0 turns the cache off
+     */
+    static JwtProvider jwtProvider(long verifiedCacheSize) {
+        JwtProvider provider = new JwtProvider();
+        setField(provider, "ACCESS_TOKEN_EXPIRED", 720_000_000L);
+        setField(provider, "jwtSecret", SECRET);
+        setField(provider, "verifiedCacheSize", verifiedCacheSize);
+        provider.init();
+        return provider;
+    }
+
+    /**
+     * A customer account with one role, as loaded by AccountRepository.findAccountByUsername
+     */
+    static Account account() {
+        Role role = new Role();
+        role.setId(1);
+        role.setName("USER");
+        User user = new User();
+        user.setId(10);
+        Account account = new Account();
+        account.setId(1);
+        account.setUsername("customer");
+        account.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOHiA6fXrVZ8xZ8Qe5s1uKxS6Vq3u5C1e");
+        account.setStatus(AccountStatus.ACTIVE.id);
+        account.setTokenVersion(0);
+        account.setRoles(List.of(role));
+        account.setUser(user);
+        return account;
+    }
+
+    static IUserDetail principal() {
+        return new IUserDetail(account());
+    }
+
+    /**
+     * ObjectMapper configured the way Spring Boot and application.yml configure it
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.FAIL_ON_EMPTY_BEANS, SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /**
+     * A product as loaded by the product detail graph: category, items with two options each and
+     * stock in one warehouse
+     */
+    static Product product(int id, int items) {
+        Category category = new Category();
+        category.setId(1);
+        category.setName("Phones");
+        category.setDescription("Smartphones and accessories");
+        Variation color = variation(1, "Color");
+        Variation storage = variation(2, "Storage");
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1);
+        warehouse.setName("Main");
+
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Phone " + id);
+        product.setDescription("A phone with a large screen, a long lasting battery and a camera for low light. ".repeat(4));
+        product.setPicture("https://res.cloudinary.com/nhs/image/upload/product/" + id + ".png");
+        product.setManufacturer("NHS");
+        product.setCategory(category);
+        product.setCategoryId(category.getId());
+        List<ProductItem> productItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            ProductItem item = new ProductItem();
+            item.setId(id * 100 + i);
+            item.setProduct(product);
+            item.setProductId(id);
+            item.setPrice(BigDecimal.valueOf(500 + i * 50));
+            item.setOriginalPrice(BigDecimal.valueOf(550 + i * 50));
+            item.setPicture("https://res.cloudinary.com/nhs/image/upload/product_item/" + item.getId() + ".png");
+            item.setOptions(List.of(option(i * 2 + 1, color, "Color " + i), option(i * 2 + 2, storage, (128 << i % 3) + "GB")));
+            WarehouseItem stock = new WarehouseItem();
+            stock.setId(new ProductItemInWarehouseId(item.getId(), warehouse.getId()));
+            stock.setProductItem(item);
+            stock.setWarehouse(warehouse);
+            stock.setSKU("SKU-" + item.getId());
+            stock.setQty(20 + i);
+            item.setWarehouses(List.of(stock));
+            productItems.add(item);
+        }
+        product.setProductItems(productItems);
+        return product;
+    }
+
+    /**
+     * An order as loaded for the order detail and export: buyer, address, shipping, payment, status
+     * history and one line per item of {@link #product(int, int)}
+     */
+    static ShopOrder order(int id, int lines) {
+        User user = new User();
+        user.setId(10);
+        user.setFirstname("Customer");
+        user.setLastname("Nguyen");
+        user.setPhoneNumber("0900000000");
+        user.setEmail("customer@example.com");
+        Address address = new Address();
+        address.setId(5);
+        address.setCity("Ho Chi Minh");
+        address.setRegion("District 1");
+        address.setPostalCode("700000");
+        address.setAddressLine1("1 Le Loi");
+        address.setAddressLine2("Floor 2");
+        ShippingMethod shippingMethod = new ShippingMethod();
+        shippingMethod.setId(1);
+        shippingMethod.setName("Standard");
+        shippingMethod.setPrice(BigDecimal.valueOf(3));
+        Payment type = new Payment();
+        type.setId(1);
+        type.setName("ZaloPay");
+
+        ShopOrder order = new ShopOrder();
+        order.setId(id);
+        order.setUser(user);
+        order.setUserId(user.getId());
+        order.setAddress(address);
+        order.setShippingMethod(shippingMethod);
+        order.setOrderDate(new Date(1_767_225_600_000L + id * 60_000L));
+        order.setCurrentStatus(OrderStatus.values()[id % OrderStatus.values().length].id);
+        order.setNote("Leave at the front desk");
+        ShopOrderPayment payment = new ShopOrderPayment();
+        payment.setId(id);
+        payment.setType(type);
+        payment.setOrder(order);
+        payment.setOrderNumber("260101_" + id);
+        payment.setStatus(1);
+        order.setPayment(payment);
+
+        List<OrderLine> orderLines = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (ProductItem item : product(id, lines).getProductItems()) {
+            OrderLine line = new OrderLine();
+            line.setId(item.getId());
+            line.setOrder(order);
+            line.setProductItem(item);
+            line.setQty(1 + item.getId() % 3);
+            line.setTotal(item.getPrice().multiply(BigDecimal.valueOf(line.getQty())));
+            total = total.add(line.getTotal());
+            orderLines.add(line);
+        }
+        order.setOrderLines(orderLines);
+        order.setTotal(total);
+        List<ShopOrderStatus> history = new ArrayList<>();
+        for (int status = OrderStatus.PENDING_PAYMENT.id; status <= OrderStatus.CONFIRMED.id; status++) {
+            ShopOrderStatus change = new ShopOrderStatus();
+            change.setId(id * 10 + status);
+            change.setOrder(order);
+            change.setShopOrderId(id);
+            change.setStatus(status);
+            change.setUpdateAt(new java.sql.Date(order.getOrderDate().getTime()));
+            change.setDetail("Status " + status);
+            history.add(change);
+        }
+        order.setStatus(history);
+        return order;
+    }
+
+    private static Variation variation(int id, String name) {
+        Variation variation = new Variation();
+        variation.setId(id);
+        variation.setName(name);
+        return variation;
+    }
+
+    private static VariationOption option(int id, Variation variation, String value) {
+        VariationOption option = new VariationOption();
+        option.setId(id);
+        option.setVariation(variation);
+        option.setValue(value);
+        return option;
+    }
+
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.nhs.individual.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.ShopOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the entity graphs the API returns, with the application's ObjectMapper
+ * settings.
+ * <p>
+ * {@code order} is one order with its lines, items and status history, as on the order detail page;
+ * {@code orderPage} and {@code productPage} are a page of 20, as the list endpoints return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private ShopOrder order;
+    private List<ShopOrder> orderPage;
+    private List<Product> productPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        order = Fixtures.order(1, 3);
+        orderPage = new ArrayList<>(PAGE_SIZE);
+        productPage = new ArrayList<>(PAGE_SIZE);
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            orderPage.add(Fixtures.order(i, 1 + i % 3));
+            productPage.add(Fixtures.product(i, 1 + i % 4));
+        }
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderPage);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productPage);
+    }
+}
@@ -0,0 +1,144 @@
+package com.nhs.individual.benchmark;
+
+import com.nhs.individual.config.PrincipalCacheProperties;
+import com.nhs.individual.domain.Account;
+import com.nhs.individual.domain.Role;
+import com.nhs.individual.domain.User;
+import com.nhs.individual.dto.AccountTokenState;
+import com.nhs.individual.repository.AccountRepository;
+import com.nhs.individual.secure.IUserDetail;
+import com.nhs.individual.secure.JwtProvider;
+import com.nhs.individual.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principal resolution in JwtFilter for one request, before and after access tokens carried the
+ * account claims.
+ * <p>
+ * {@code accountLookup} verifies the token and then runs the account / user / role join that
+ * AccountRepository.findAccountByUsername issues; {@code claimsPrincipal} verifies the token, builds
+ * the principal from its claims and checks the token version through TokenVersionService's cache.
+ * The database is in-memory H2, so the gap measured here is a lower bound: in production every
+ * lookup is also a network round-trip to MySQL and a connection pool checkout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+    private static final String ACCOUNT_QUERY = """
+            select a.id, a.username, a.password, a.status, a.token_version, u.id, r.id, r.name
+            from account a
+            join `user` u on u.id = a.user_id
+            left join account_role ar on ar.account_id = a.id
+            left join role r on r.id = ar.role_id
+            where a.username = ?""";
+    private static final String TOKEN_STATE_QUERY = "select status, token_version from account where id = ?";
+
+    private Connection connection;
+    private JwtProvider jwtProvider;
+    private TokenVersionService tokenVersionService;
+    private String token;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:jwt-filter;MODE=MySQL;NON_KEYWORDS=USER");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table `user` (id int primary key, firstname varchar(45), email varchar(255))");
+            ddl.execute("create table role (id int primary key, name varchar(45) not null)");
+            ddl.execute("create table account (id int primary key, user_id int, username varchar(45), password varchar(255), "
+                    + "status tinyint, provider int, token_version int)");
+            ddl.execute("create unique index idx_account_username on account (username)");
+            ddl.execute("create table account_role (account_id int, role_id int, primary key (account_id, role_id))");
+            ddl.execute("insert into `user` values (10, 'Customer', 'customer@example.com')");
+            ddl.execute("insert into role values (1, 'USER')");
+            ddl.execute("insert into account values (1, 10, 'customer', 'x', 1, 0, 0)");
+            ddl.execute("insert into account_role values (1, 1)");
+        }
+        jwtProvider = Fixtures.jwtProvider();
+        tokenVersionService = new TokenVersionService(tokenStateRepository(), new PrincipalCacheProperties());
+        token = jwtProvider.generateToken(Fixtures.principal());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public IUserDetail accountLookup() throws SQLException {
+        Claims claims = jwtProvider.validate(token);
+        return findByUsername(claims.getSubject()).map(IUserDetail::new).orElse(null);
+    }
+
+    @Benchmark
+    public IUserDetail claimsPrincipal() {
+        Claims claims = jwtProvider.validate(token);
+        IUserDetail principal = jwtProvider.toPrincipal(claims);
+        return tokenVersionService.isCurrent(principal) ? principal : null;
+    }
+
+    private Optional<Account> findByUsername(String username) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ACCOUNT_QUERY)) {
+            statement.setString(1, username);
+            try (ResultSet rows = statement.executeQuery()) {
+                Account account = null;
+                List<Role> roles = new ArrayList<>();
+                while (rows.next()) {
+                    if (account == null) {
+                        account = new Account();
+                        account.setId(rows.getInt(1));
+                        account.setUsername(rows.getString(2));
+                        account.setPassword(rows.getString(3));
+                        account.setStatus(rows.getInt(4));
+                        account.setTokenVersion(rows.getInt(5));
+                        User user = new User();
+                        user.setId(rows.getInt(6));
+                        account.setUser(user);
+                        account.setRoles(roles);
+                    }
+                    Role role = new Role();
+                    role.setId(rows.getInt(7));
+                    role.setName(rows.getString(8));
+                    roles.add(role);
+                }
+                return Optional.ofNullable(account);
+            }
+        }
+    }
+
+    /**
+     * The only AccountRepository query TokenVersionService runs, answered from H2
+     */
+    private AccountRepository tokenStateRepository() {
+        return (AccountRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{AccountRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findTokenStateById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    try (PreparedStatement statement = connection.prepareStatement(TOKEN_STATE_QUERY)) {
+                        statement.setInt(1, (Integer) args[0]);
+                        try (ResultSet rows = statement.executeQuery()) {
+                            return rows.next()
+                                    ? Optional.of(new AccountTokenState(rows.getInt(1), rows.getInt(2)))
+                                    : Optional.empty();
+                        }
+                    }
+                });
+    }
+}
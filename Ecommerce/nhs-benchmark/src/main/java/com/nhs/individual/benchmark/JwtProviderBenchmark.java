@@ -0,0 +1,55 @@
+package com.nhs.individual.benchmark;
+
+import com.nhs.individual.secure.JwtProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtProvider.validate for a token seen before.
+ * <p>
+ * {@code parserPerCall} is the original implementation, which built a new JwtParser for every call;
+ * {@code prebuiltParser} verifies with the shared parser; {@code verifiedCache} is the default
+ * configuration, where repeat tokens are answered from the cache keyed by token hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtProviderBenchmark {
+    private JwtProvider cached;
+    private JwtProvider uncached;
+    private SecretKey key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = Fixtures.jwtProvider();
+        uncached = Fixtures.jwtProvider(0);
+        key = Keys.hmacShaKeyFor(Arrays.copyOf(Fixtures.SECRET.getBytes(StandardCharsets.UTF_8), 32));
+        token = cached.generateToken(Fixtures.principal());
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims prebuiltParser() {
+        return uncached.validate(token);
+    }
+
+    @Benchmark
+    public Claims verifiedCache() {
+        return cached.validate(token);
+    }
+}
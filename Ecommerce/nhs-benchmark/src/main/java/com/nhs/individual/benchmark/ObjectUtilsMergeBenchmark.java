@@ -0,0 +1,113 @@
+package com.nhs.individual.benchmark;
+
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.User;
+import com.nhs.individual.utils.ObjectMerger;
+import com.nhs.individual.utils.ObjectUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ObjectUtils.merge as the update endpoints call it: the stored entity merged with the request body.
+ * <p>
+ * {@code productRename} carries only a name, like most admin edits; {@code productFull} sets every
+ * column; {@code userProfile} is the profile form of UserService.update. Each comes three ways:
+ * {@code reflective*} is the former per-call getDeclaredFields/setAccessible loop, the plain one
+ * goes through ObjectUtils.merge and {@code merger*} holds its ObjectMerger like the services do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectUtilsMergeBenchmark {
+    private static final ObjectMerger<Product> PRODUCT_MERGER = ObjectMerger.of(Product.class);
+    private static final ObjectMerger<User> USER_MERGER = ObjectMerger.of(User.class);
+
+    private Product stored;
+    private Product rename;
+    private Product full;
+    private User storedUser;
+    private User profile;
+
+    @Setup
+    public void setUp() {
+        stored = Fixtures.product(1, 4);
+        rename = new Product();
+        rename.setName("Phone 1 Pro");
+        full = Fixtures.product(1, 4);
+        full.setName("Phone 1 Pro");
+        storedUser = Fixtures.order(1, 1).getUser();
+        profile = new User();
+        profile.setFirstname("Updated");
+        profile.setLastname("Customer");
+        profile.setPhoneNumber("0911111111");
+    }
+
+    @Benchmark
+    public Product productRename() {
+        return ObjectUtils.merge(stored, rename, Product.class);
+    }
+
+    @Benchmark
+    public Product productFull() {
+        return ObjectUtils.merge(stored, full, Product.class);
+    }
+
+    @Benchmark
+    public User userProfile() {
+        return ObjectUtils.merge(storedUser, profile, User.class);
+    }
+
+    @Benchmark
+    public Set<String> mergerProductRename() {
+        return PRODUCT_MERGER.merge(stored, rename);
+    }
+
+    @Benchmark
+    public Set<String> mergerProductFull() {
+        return PRODUCT_MERGER.merge(stored, full);
+    }
+
+    @Benchmark
+    public Set<String> mergerUserProfile() {
+        return USER_MERGER.merge(storedUser, profile);
+    }
+
+    @Benchmark
+    public Product reflectiveProductRename() {
+        return reflectiveMerge(stored, rename, Product.class);
+    }
+
+    @Benchmark
+    public Product reflectiveProductFull() {
+        return reflectiveMerge(stored, full, Product.class);
+    }
+
+    @Benchmark
+    public User reflectiveUserProfile() {
+        return reflectiveMerge(storedUser, profile, User.class);
+    }
+
+    /**
+     * The former ObjectUtils.merge, skipping static and final fields so it runs on Product
+     */
+    private static <T> T reflectiveMerge(T oldObject, T mergeObject, Class<T> clazz) {
+        try {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) continue;
+                field.setAccessible(true);
+                if (field.get(mergeObject) == null) continue;
+                field.set(oldObject, field.get(mergeObject));
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return oldObject;
+    }
+}
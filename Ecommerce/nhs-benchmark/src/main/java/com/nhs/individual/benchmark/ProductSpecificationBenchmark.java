@@ -0,0 +1,101 @@
+package com.nhs.individual.benchmark;
+
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.specification.ISpecification.IProductSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product list filters of IProductSpecification, from specification to SQL.
+ * <p>
+ * {@code *Criteria} only builds the criteria query, as ProductRepository.findAll(spec, pageable)
+ * does before handing it to Hibernate; the other benchmarks also run it, which is where Hibernate
+ * translates it to SQL: criteria queries are not in the query plan cache, so that happens on every
+ * request. The tables are empty, so the execution itself adds little on top of the translation.
+ * {@code name} is the search box filter, {@code export} every filter of the product export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSpecificationBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private Specification<Product> name;
+    private Specification<Product> export;
+
+    @Setup
+    public void setUp() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(
+                "jdbc:h2:mem:product-specification;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1"));
+        factory.setPackagesToScan("com.nhs.individual.domain");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", BenchmarkH2Dialect.class.getName(),
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName()));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+
+        name = IProductSpecification.relativeName("iphone 15 pro max");
+        export = Specification.allOf(IProductSpecification.exportFilter(List.of(1, 2, 3), BigDecimal.valueOf(100),
+                BigDecimal.valueOf(2000), List.of(1, 4, 7), "phone"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Product> nameCriteria() {
+        return criteria(name);
+    }
+
+    @Benchmark
+    public List<Product> name() {
+        return select(name);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Product> exportCriteria() {
+        return criteria(export);
+    }
+
+    @Benchmark
+    public List<Product> export() {
+        return select(export);
+    }
+
+    private CriteriaQuery<Product> criteria(Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        return query.select(root).where(specification.toPredicate(root, query, cb));
+    }
+
+    private List<Product> select(Specification<Product> specification) {
+        return entityManager.createQuery(criteria(specification)).setMaxResults(PAGE_SIZE).getResultList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.nhs.individual.benchmark;
+
+import com.nhs.individual.config.ExportProperties;
+import com.nhs.individual.domain.Product;
+import com.nhs.individual.domain.ShopOrder;
+import com.nhs.individual.workbook.ProductXLSX;
+import com.nhs.individual.workbook.ShopOrdersXLSX;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One XLSX export of {@code rows} orders or products, appended and written the way ExportJobService
+ * runs it, with the default nhs.export.row-window. The file goes to a stream that discards it, so
+ * the time is building the sheet, the SXSSF temp file and the zip, not disk or network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkbookExportBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private final int rowWindow = new ExportProperties().getRowWindow();
+    private List<ShopOrder> orders;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        orders = new ArrayList<>(rows);
+        products = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            orders.add(Fixtures.order(i, 1 + i % 3));
+            products.add(Fixtures.product(i, 1 + i % 4));
+        }
+    }
+
+    @Benchmark
+    public void shopOrders() throws IOException {
+        try (ShopOrdersXLSX workbook = new ShopOrdersXLSX(rowWindow)) {
+            for (ShopOrder order : orders) workbook.append(order);
+            workbook.write(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public void products() throws IOException {
+        try (ProductXLSX workbook = new ProductXLSX(rowWindow)) {
+            for (Product product : products) workbook.append(product);
+            workbook.write(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.nhs.individual.benchmark;
+
+import com.nhs.individual.zalopay.crypto.HMACUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC-SHA256 of the ZaloPay requests, computed with HMACUtil.HMacHexStringEncode and key1 as
+ * OrderInfo and ZaloPayGateway do.
+ * <p>
+ * {@code createOrder} signs app_id|app_trans_id|app_user|amount|app_time|embed_data|item, the longest
+ * input because of the item list; {@code queryOrder} signs the short status query the reconciler
+ * sends for every pending payment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZaloPayMacBenchmark {
+    private static final String KEY1 = "sdngKKJmqEMzvh5QQcdD2A9XBSKUNaYn";
+    private static final String APP_ID = "2553";
+
+    private String createOrderData;
+    private String queryOrderData;
+
+    @Setup
+    public void setUp() {
+        StringBuilder items = new StringBuilder("[");
+        for (int i = 0; i < 5; i++) {
+            if (i > 0) items.append(',');
+            items.append("{\"itemid\":\"").append(100 + i).append("\",\"itemname\":\"Phone ").append(i)
+                    .append("\",\"itemprice\":").append(500 + i * 50).append(",\"itemquantity\":1}");
+        }
+        items.append(']');
+        String appTransId = "260101_123456";
+        createOrderData = String.join("|", APP_ID, appTransId, "customer", "2850", "1767225600000",
+                "{\"redirecturl\":\"https://hub.gadgetsource.click/order/123456\"}", items);
+        queryOrderData = String.join("|", APP_ID, appTransId, KEY1);
+    }
+
+    @Benchmark
+    public String createOrder() {
+        return HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, KEY1, createOrderData);
+    }
+
+    @Benchmark
+    public String queryOrder() {
+        return HMACUtil.HMacHexStringEncode(HMACUtil.HMACSHA256, KEY1, queryOrderData);
+    }
+}
@@ -57,7 +57,12 @@ function AdminWareHouseDetailPage() {
         APIBase.post(`/api/v1/warehouse/${params.get("id")}/importXLSX`, formData)
             .then(payload => payload.data)
             .then(data => {
-                globalContext.message.success("Import successfully");
+                if (data.rejected > 0) {
+                    const first = data.errors.slice(0, 3).map(e => `row ${e.row}: ${e.message}`).join("; ");
+                    globalContext.message.warning(`Imported ${data.imported} rows, ${data.rejected} rejected (${first})`);
+                } else {
+                    globalContext.message.success(`Imported ${data.imported} rows`);
+                }
                 setFileList([]); // Clear file list after successful upload
                 loadWarehouseData(); // Reload warehouse data to update UI
             })